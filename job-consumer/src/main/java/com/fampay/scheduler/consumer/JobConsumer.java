@@ -1,5 +1,7 @@
 package com.fampay.scheduler.consumer;
 
+import com.fampay.scheduler.commons.queue.IMessageConsumer;
+
 public interface JobConsumer {
-    void pollMessagesFromQueue(String queueName);
+    void consumeMessage(String queueName, IMessageConsumer.MessageValue messageValue);
 }
@@ -0,0 +1,162 @@
+package com.fampay.scheduler.consumer;
+
+import com.fampay.scheduler.models.queue.JobMessageFormat;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Configuration
+@ConfigurationProperties(prefix = "job-consumer-config")
+@Data
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class JobConsumerConfig {
+    private List<String> queues = new ArrayList<>(List.of("local-job-queue"));
+    /**
+     * Number of long polling receive loops per queue
+     */
+    private Integer receiversPerQueue=2;
+    /**
+     * Received messages waiting for a worker, receivers stop polling while it is full
+     */
+    private Integer bufferCapacity=100;
+    /**
+     * Number of virtual thread workers handling the received messages
+     */
+    private Integer workerCount=64;
+    /**
+     * Pause of a receiver after a failed receive
+     */
+    private Long receiveErrorBackoffMs=1000L;
+    /**
+     * Receipt handles per delete request, SQS accepts at most 10
+     */
+    private Integer deleteBatchSize=10;
+    /**
+     * Longest time a receipt handle waits for its delete batch to fill up
+     */
+    private Long deleteLingerMs=50L;
+    /**
+     * Delete attempts of a receipt handle before the message is left to become visible again
+     */
+    private Integer deleteMaxAttempts=3;
+    /**
+     * Pause before a failed receipt handle is deleted again, doubled for every further attempt
+     */
+    private Long deleteRetryBackoffMs=500L;
+    /**
+     * Visibility timeout of the queues, a lease on a received message lasts this long
+     */
+    private Integer visibilityTimeoutSeconds=120;
+    /**
+     * Leases ending within this margin are extended by another visibility timeout
+     */
+    private Integer leaseExtensionMarginSeconds=30;
+    private Long leaseCheckIntervalMs=1000L;
+    /**
+     * Execution status updates are buffered and written in bulk this often, 0 writes every update right away
+     */
+    private Long statusFlushIntervalMs=100L;
+    /**
+     * Buffered status updates that trigger a flush before the interval
+     */
+    private Integer statusFlushSize=500;
+    private Integer statusWriteMaxAttempts=3;
+    /**
+     * How long the claim of an ATLEAST_ONCE execution keeps redelivered messages of the same attempt from running
+     * it, long enough for a call to finish and its status to be written
+     */
+    private Long claimLeaseMs=300000L;
+    /**
+     * Attempts after the first one a failed ATLEAST_ONCE call gets when its job does not set maxRetries
+     */
+    private Integer defaultMaxRetries=3;
+    /**
+     * Delay before the first retry, doubled for every further one with up to half of it taken off at random
+     */
+    private Integer retryBaseDelaySeconds=5;
+    /**
+     * Longest delay before a retry, SQS delays a message by at most 900 seconds
+     */
+    private Integer retryMaxDelaySeconds=900;
+    /**
+     * Encoding of the retries enqueued by the consumer, the same as the producer's messageFormat
+     */
+    private JobMessageFormat messageFormat=JobMessageFormat.JSON;
+    /**
+     * Acks messages of recently completed executions without reading the execution
+     */
+    private Boolean completedFilterEnabled=true;
+    /**
+     * Completed executions remembered per filter generation, a generation is rotated out once it holds this many
+     */
+    private Integer completedFilterExpectedInsertions=1_000_000;
+    /**
+     * Chance that a message of an execution that is not complete is taken for a completed one and dropped
+     */
+    private Double completedFilterFalsePositiveRate=0.000001;
+    /**
+     * Age at which a filter generation is rotated out even if it is not full
+     */
+    private Long completedFilterRotationMs=600_000L;
+    /**
+     * Job definitions kept for resolving slim messages
+     */
+    private Integer jobDefinitionCacheSize=10_000;
+    /**
+     * Age at which a cached job definition is dropped, definitions never change so it only frees the ones of jobs no longer produced
+     */
+    private Long jobDefinitionCacheTtlMs=600_000L;
+    /**
+     * Time given to the workers to drain the buffer on shutdown
+     */
+    private Long shutdownTimeoutMs=30000L;
+    private AdaptiveReceive adaptiveReceive = new AdaptiveReceive();
+    private BatchDelivery batchDelivery = new BatchDelivery();
+
+    /**
+     * Receive batch size, long polling wait and active receivers per queue picked from the queue depth, receiversPerQueue
+     * receivers are started per queue and the ones above the active count stay idle
+     */
+    @Data
+    public static class AdaptiveReceive {
+        private Boolean enabled=false;
+        private Integer minReceiversPerQueue=1;
+        /**
+         * Visible messages on the queue per active receiver
+         */
+        private Integer messagesPerReceiver=100;
+        /**
+         * Shortest time between two reads of the queue depth, it is only read while the queue has a backlog
+         */
+        private Long sampleIntervalMs=15000L;
+        /**
+         * Wait of a receive while the queue is idle, 20 is the longest SQS allows
+         */
+        private Integer idleWaitTimeSeconds=20;
+        private Integer backlogWaitTimeSeconds=1;
+        /**
+         * Share of recent receives that came back empty above which the queue is taken for idle
+         */
+        private Double idleEmptyReceiveRatio=0.5;
+        /**
+         * Pause of a receiver above the active count before it checks again
+         */
+        private Long inactiveReceiverPollMs=500L;
+    }
+
+    /**
+     * Grouping of the executions of jobs with batchDelivery set into one call per url and fire time
+     */
+    @Data
+    public static class BatchDelivery {
+        /**
+         * Time a batch stays open for executions to join it after the first one
+         */
+        private Long lingerMs=50L;
+        private Integer maxBatchSize=100;
+    }
+}
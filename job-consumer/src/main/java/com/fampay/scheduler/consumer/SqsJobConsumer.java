@@ -1,36 +1,42 @@
 package com.fampay.scheduler.consumer;
 
 
+import com.amazonaws.services.sqs.model.MessageAttributeValue;
 import com.fampay.scheduler.commons.queue.IMessageConsumer;
+import com.fampay.scheduler.consumer.ack.MessageDeleteBatcher;
 import com.fampay.scheduler.consumer.handler.MessageHandler;
+import com.fampay.scheduler.models.queue.JobMessageCodec;
+import com.fampay.scheduler.models.queue.JobMessageFormat;
+import com.fampay.scheduler.models.queue.JobMessagePayload;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Component;
 
-import java.util.List;
-
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class SqsJobConsumer implements JobConsumer {
 
-    private final IMessageConsumer messageConsumer;
-    private final MessageHandler messageHandler;
+    private final MessageDeleteBatcher messageDeleteBatcher;
+    private final MessageHandler<JobMessagePayload> messageHandler;
+
+    @Override
+    public void consumeMessage(String queueName, IMessageConsumer.MessageValue messageValue) {
+        try {
+            log.debug("Message consumed from sqs: {}", messageValue.getMessage());
+            JobMessagePayload jobMessagePayload = JobMessageCodec.decode(messageValue.getMessage().toString(), getMessageFormat(messageValue));
+            messageHandler.handleMessage(jobMessagePayload,messageValue.getReceiptHandle(),queueName);
+        } catch (Exception e) {
+            log.error("Issue with the payload : {}",messageValue,e);
+            messageDeleteBatcher.delete(queueName,messageValue.getReceiptHandle());
+        }
+    }
 
-    @Async
-    public void pollMessagesFromQueue(String queueName) {
-        List<IMessageConsumer.MessageValue> messageValues = messageConsumer.receiveMessage(queueName,String.class);
-        for (IMessageConsumer.MessageValue messageValue : messageValues) {
-            try {
-                log.info("Message consumed from sqs: {}", messageValue.getMessage());
-                log.info("Message processed successfully, hence will delete from queue.");
-                messageHandler.handleMessage(messageValue.getMessage().toString(),messageValue.getReceiptHandle(),queueName);
-                log.info("Message deleted from queue.");
-            } catch (Exception e) {
-                log.error("Issue with the payload : {}",messageValue,e);
-                messageConsumer.deleteMessage(queueName,messageValue.getReceiptHandle());
-            }
+    private static JobMessageFormat getMessageFormat(IMessageConsumer.MessageValue messageValue) {
+        if (messageValue.getRawMessage() == null) {
+            return JobMessageFormat.JSON;
         }
+        MessageAttributeValue format = messageValue.getRawMessage().getMessageAttributes().get(JobMessageFormat.ATTRIBUTE_NAME);
+        return JobMessageFormat.from(format != null ? format.getStringValue() : null);
     }
 }
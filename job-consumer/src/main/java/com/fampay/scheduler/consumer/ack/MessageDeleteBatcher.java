@@ -0,0 +1,199 @@
+package com.fampay.scheduler.consumer.ack;
+
+import com.fampay.scheduler.commons.queue.IMessageConsumer;
+import com.fampay.scheduler.consumer.JobConsumerConfig;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Gathers receipt handles per queue and deletes them with batch requests, once a batch is full or its oldest
+ * handle has waited for the linger time. Callers never block on the queue, which keeps the delete off the
+ * workers and the http client event loop.
+ * <p>
+ * Handles that fail are retried a few times with a growing pause, after that the message becomes visible again and
+ * is redelivered, which the processors tolerate as they check the execution status first.
+ * <p>
+ * Once shut down, handles of calls still finishing are deleted right away on the calling thread.
+ */
+@Component
+@Slf4j
+public class MessageDeleteBatcher implements DisposableBean {
+
+    private static final int MAX_BATCH_SIZE = 10;
+
+    private final IMessageConsumer messageConsumer;
+    private final VisibilityLeaseManager visibilityLeaseManager;
+    private final JobConsumerConfig jobConsumerConfig;
+    private final Map<String, List<PendingDelete>> pendingByQueue = new HashMap<>();
+    private final ScheduledExecutorService lingerTimer = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().daemon().name("job-consumer-delete-linger").factory());
+    private final ExecutorService sender = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("job-consumer-delete-", 0).factory());
+    private volatile boolean closed;
+
+    public MessageDeleteBatcher(IMessageConsumer messageConsumer, VisibilityLeaseManager visibilityLeaseManager,
+                                JobConsumerConfig jobConsumerConfig) {
+        this.messageConsumer = messageConsumer;
+        this.visibilityLeaseManager = visibilityLeaseManager;
+        this.jobConsumerConfig = jobConsumerConfig;
+    }
+
+    public void delete(String queueName, String receiptHandle) {
+        visibilityLeaseManager.complete(receiptHandle);
+        add(queueName, List.of(new PendingDelete(receiptHandle, 1)));
+    }
+
+    /**
+     * Deletes everything still pending on the calling thread
+     */
+    public void flush() {
+        Map<String, List<PendingDelete>> pending;
+        synchronized (this) {
+            pending = new HashMap<>(pendingByQueue);
+            pendingByQueue.clear();
+        }
+        pending.forEach((queueName, deletes) -> {
+            for (int from = 0; from < deletes.size(); from += getBatchSize()) {
+                send(queueName, deletes.subList(from, Math.min(from + getBatchSize(), deletes.size())));
+            }
+        });
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        closed = true;
+        // linger flushes and retries already scheduled still run
+        lingerTimer.shutdown();
+        if (!lingerTimer.awaitTermination(jobConsumerConfig.getShutdownTimeoutMs(), TimeUnit.MILLISECONDS)) {
+            log.warn("Delete retries still waiting on shutdown");
+        }
+        sender.shutdown();
+        if (!sender.awaitTermination(jobConsumerConfig.getShutdownTimeoutMs(), TimeUnit.MILLISECONDS)) {
+            log.warn("Delete batches still in flight on shutdown");
+        }
+        while (hasPending()) {
+            flush();
+        }
+    }
+
+    private void add(String queueName, List<PendingDelete> deletes) {
+        List<List<PendingDelete>> fullBatches = new ArrayList<>();
+        boolean startLinger;
+        synchronized (this) {
+            List<PendingDelete> pending = pendingByQueue.computeIfAbsent(queueName, key -> new ArrayList<>());
+            boolean wasEmpty = pending.isEmpty();
+            for (PendingDelete delete : deletes) {
+                pending.add(delete);
+                if (pending.size() >= getBatchSize()) {
+                    fullBatches.add(new ArrayList<>(pending));
+                    pending.clear();
+                }
+            }
+            // a queue with pending handles always has a linger flush scheduled
+            startLinger = wasEmpty && !pending.isEmpty();
+        }
+        for (List<PendingDelete> batch : fullBatches) {
+            sendAsync(queueName, batch);
+        }
+        if (closed) {
+            flush();
+            return;
+        }
+        if (startLinger) {
+            try {
+                lingerTimer.schedule(() -> flushQueue(queueName), jobConsumerConfig.getDeleteLingerMs(), TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                flushQueue(queueName);
+            }
+        }
+    }
+
+    /**
+     * Sends on the calling thread once the sender is shut down
+     */
+    private void sendAsync(String queueName, List<PendingDelete> batch) {
+        try {
+            sender.execute(() -> send(queueName, batch));
+        } catch (RejectedExecutionException e) {
+            send(queueName, batch);
+        }
+    }
+
+    /**
+     * Adds the handles back after the retry backoff, doubled for every attempt they failed
+     */
+    private void retryLater(String queueName, List<PendingDelete> retries) {
+        retries.stream().collect(Collectors.groupingBy(PendingDelete::attempt)).forEach((attempt, deletes) -> {
+            long backoffMs = jobConsumerConfig.getDeleteRetryBackoffMs() << Math.min(attempt - 2, 10);
+            try {
+                lingerTimer.schedule(() -> add(queueName, deletes), backoffMs, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                add(queueName, deletes);
+            }
+        });
+    }
+
+    private void flushQueue(String queueName) {
+        List<PendingDelete> batch;
+        synchronized (this) {
+            batch = pendingByQueue.remove(queueName);
+        }
+        if (batch != null && !batch.isEmpty()) {
+            sendAsync(queueName, batch);
+        }
+    }
+
+    private void send(String queueName, List<PendingDelete> batch) {
+        List<String> receiptHandles = batch.stream().map(PendingDelete::receiptHandle).toList();
+        Set<String> failedReceiptHandles;
+        try {
+            failedReceiptHandles = new HashSet<>(messageConsumer.deleteMessageBatch(queueName, receiptHandles));
+        } catch (Exception e) {
+            log.error("Unable to delete batch of {} messages from queue :{}", batch.size(), queueName, e);
+            failedReceiptHandles = new HashSet<>(receiptHandles);
+        }
+        if (failedReceiptHandles.isEmpty()) {
+            return;
+        }
+        List<PendingDelete> retries = new ArrayList<>();
+        for (PendingDelete delete : batch) {
+            if (!failedReceiptHandles.contains(delete.receiptHandle())) {
+                continue;
+            }
+            if (delete.attempt() < jobConsumerConfig.getDeleteMaxAttempts()) {
+                retries.add(new PendingDelete(delete.receiptHandle(), delete.attempt() + 1));
+            } else {
+                log.error("Giving up deleting message from queue :{} after {} attempts", queueName, delete.attempt());
+            }
+        }
+        if (!retries.isEmpty()) {
+            retryLater(queueName, retries);
+        }
+    }
+
+    private synchronized boolean hasPending() {
+        return pendingByQueue.values().stream().anyMatch(pending -> !pending.isEmpty());
+    }
+
+    private int getBatchSize() {
+        Integer batchSize = jobConsumerConfig.getDeleteBatchSize();
+        return batchSize != null && batchSize > 0 ? Math.min(batchSize, MAX_BATCH_SIZE) : MAX_BATCH_SIZE;
+    }
+
+    private record PendingDelete(String receiptHandle, int attempt) {
+    }
+}
@@ -0,0 +1,146 @@
+package com.fampay.scheduler.consumer.ack;
+
+import com.fampay.scheduler.commons.queue.IMessageConsumer;
+import com.fampay.scheduler.consumer.JobConsumerConfig;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps received messages invisible while they are in flight. Every received message holds a lease of one
+ * visibility timeout, leases close to their end are extended with batched visibility changes until the message
+ * is deleted, so a slow execution is not redelivered to another worker while its call is still running.
+ * <p>
+ * A released message is made visible again right away, which redelivers it without waiting out the timeout.
+ */
+@Component
+@Slf4j
+public class VisibilityLeaseManager implements DisposableBean {
+
+    private static final long RELEASE_FLUSH_MS = 50L;
+
+    private final IMessageConsumer messageConsumer;
+    private final JobConsumerConfig jobConsumerConfig;
+    private final Map<String, Lease> leasesByReceiptHandle = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<Release> releases = new ConcurrentLinkedQueue<>();
+    private final ScheduledExecutorService heartbeat = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().daemon().name("job-consumer-lease-heartbeat").factory());
+
+    public VisibilityLeaseManager(IMessageConsumer messageConsumer, JobConsumerConfig jobConsumerConfig) {
+        this.messageConsumer = messageConsumer;
+        this.jobConsumerConfig = jobConsumerConfig;
+        heartbeat.scheduleWithFixedDelay(this::extendLeases, jobConsumerConfig.getLeaseCheckIntervalMs(),
+                jobConsumerConfig.getLeaseCheckIntervalMs(), TimeUnit.MILLISECONDS);
+        heartbeat.scheduleWithFixedDelay(this::flushReleases, RELEASE_FLUSH_MS, RELEASE_FLUSH_MS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Starts the lease of a message that was just received
+     */
+    public void track(String queueName, String receiptHandle) {
+        leasesByReceiptHandle.put(receiptHandle, new Lease(queueName, receiptHandle, System.currentTimeMillis() + getVisibilityTimeoutMs()));
+    }
+
+    /**
+     * Ends the lease of a message that is done with, the message is deleted by the caller
+     */
+    public void complete(String receiptHandle) {
+        leasesByReceiptHandle.remove(receiptHandle);
+    }
+
+    /**
+     * Ends the lease and makes the message visible again for another attempt
+     */
+    public void release(String queueName, String receiptHandle) {
+        release(queueName, receiptHandle, 0);
+    }
+
+    /**
+     * Ends the lease and makes the message visible again after the delay
+     */
+    public void release(String queueName, String receiptHandle, int delaySeconds) {
+        leasesByReceiptHandle.remove(receiptHandle);
+        releases.add(new Release(queueName, receiptHandle, delaySeconds));
+    }
+
+    public int getLeaseCount() {
+        return leasesByReceiptHandle.size();
+    }
+
+    @Override
+    public void destroy() {
+        heartbeat.shutdownNow();
+        flushReleases();
+    }
+
+    private void extendLeases() {
+        long now = System.currentTimeMillis();
+        long margin = TimeUnit.SECONDS.toMillis(jobConsumerConfig.getLeaseExtensionMarginSeconds());
+        Map<String, List<Lease>> expiringByQueue = new HashMap<>();
+        for (Lease lease : leasesByReceiptHandle.values()) {
+            if (lease.expiresAt() - now <= margin) {
+                expiringByQueue.computeIfAbsent(lease.queueName(), key -> new ArrayList<>()).add(lease);
+            }
+        }
+        expiringByQueue.forEach((queueName, leases) -> {
+            List<String> receiptHandles = leases.stream().map(Lease::receiptHandle).toList();
+            List<String> failedReceiptHandles;
+            try {
+                failedReceiptHandles = messageConsumer.changeMessageVisibilityBatch(queueName, receiptHandles,
+                        jobConsumerConfig.getVisibilityTimeoutSeconds());
+            } catch (Exception e) {
+                log.error("Unable to extend {} leases on queue :{}", leases.size(), queueName, e);
+                return;
+            }
+            long expiresAt = now + getVisibilityTimeoutMs();
+            for (Lease lease : leases) {
+                // replace only the lease that was extended, it may have been completed meanwhile
+                leasesByReceiptHandle.replace(lease.receiptHandle(), lease, lease.withExpiresAt(expiresAt));
+            }
+            for (String receiptHandle : failedReceiptHandles) {
+                // the message is gone or its handle expired, extending it again would fail the same way
+                log.warn("Dropping lease of message on queue :{} that could not be extended", queueName);
+                leasesByReceiptHandle.remove(receiptHandle);
+            }
+        });
+    }
+
+    private void flushReleases() {
+        Map<Release, List<String>> releasesByQueueAndDelay = new HashMap<>();
+        Release release;
+        while ((release = releases.poll()) != null) {
+            releasesByQueueAndDelay.computeIfAbsent(new Release(release.queueName(), null, release.delaySeconds()),
+                    key -> new ArrayList<>()).add(release.receiptHandle());
+        }
+        releasesByQueueAndDelay.forEach((group, receiptHandles) -> {
+            try {
+                messageConsumer.changeMessageVisibilityBatch(group.queueName(), receiptHandles, group.delaySeconds());
+            } catch (Exception e) {
+                log.error("Unable to release {} messages on queue :{}", receiptHandles.size(), group.queueName(), e);
+            }
+        });
+    }
+
+    private long getVisibilityTimeoutMs() {
+        return TimeUnit.SECONDS.toMillis(jobConsumerConfig.getVisibilityTimeoutSeconds());
+    }
+
+    private record Release(String queueName, String receiptHandle, int delaySeconds) {
+    }
+
+    private record Lease(String queueName, String receiptHandle, long expiresAt) {
+        Lease withExpiresAt(long expiresAt) {
+            return new Lease(queueName, receiptHandle, expiresAt);
+        }
+    }
+}
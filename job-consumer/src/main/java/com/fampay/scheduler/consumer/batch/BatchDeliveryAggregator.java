@@ -0,0 +1,197 @@
+package com.fampay.scheduler.consumer.batch;
+
+import com.fampay.scheduler.commons.helper.utils.CommonSerializationUtil;
+import com.fampay.scheduler.commons.http.client.AsyncHttpClient;
+import com.fampay.scheduler.commons.http.dto.ApiRequest;
+import com.fampay.scheduler.commons.http.dto.ApiResponse;
+import com.fampay.scheduler.consumer.JobConsumerConfig;
+import com.fampay.scheduler.consumer.retry.RetryScheduler;
+import com.fampay.scheduler.models.queue.ApiConfig;
+import com.fampay.scheduler.models.queue.JobMessagePayload;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Groups the executions of jobs with batchDelivery set by url and fire time, each group goes out as one POST of an
+ * array of {@link BatchDeliveryEnvelope}. A batch is sent lingerMs after its first execution joined it or once it
+ * holds maxBatchSize executions.
+ * <p>
+ * The endpoint answers with an array of {@link BatchDeliveryResult}, every execution gets the result carrying its
+ * execution id as if it was the response to a call of its own. An execution the endpoint has no result for gets a
+ * {@value #MISSING_RESULT_STATUS}. A batch that fails or is answered with anything but a 2xx hands the same error or
+ * response to each of its executions.
+ */
+@Component
+@Slf4j
+public class BatchDeliveryAggregator implements DisposableBean {
+
+    public static final int MISSING_RESULT_STATUS = 502;
+
+    private final AsyncHttpClient asyncHttpClient;
+    private final JobConsumerConfig jobConsumerConfig;
+    private final DistributionSummary batchSize;
+    private final Map<String, PendingBatch> openBatches = new HashMap<>();
+    private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().daemon().name("job-consumer-batch-delivery").factory());
+    private boolean closed;
+
+    public BatchDeliveryAggregator(AsyncHttpClient asyncHttpClient, JobConsumerConfig jobConsumerConfig, MeterRegistry meterRegistry) {
+        this.asyncHttpClient = asyncHttpClient;
+        this.jobConsumerConfig = jobConsumerConfig;
+        this.batchSize = DistributionSummary.builder("job.consumer.batch_delivery.size")
+                .description("Executions delivered per batch call").register(meterRegistry);
+    }
+
+    /**
+     * @return true if the execution is delivered in a batch, only POST calls are
+     */
+    public static boolean isBatchDelivery(JobMessagePayload jobMessagePayload) {
+        ApiConfig apiConfig = jobMessagePayload.getApiConfig();
+        return apiConfig != null && apiConfig.isBatchDelivery() && HttpMethod.POST.name().equalsIgnoreCase(apiConfig.getHttpMethod());
+    }
+
+    /**
+     * Adds the execution to the open batch of its url and fire time on subscription
+     * @return the response to the execution taken from the response to its batch
+     */
+    public Mono<ApiResponse> submit(JobMessagePayload jobMessagePayload) {
+        return Mono.defer(() -> {
+            PendingItem item = new PendingItem(jobMessagePayload, Sinks.one());
+            add(item);
+            return item.response().asMono();
+        });
+    }
+
+    public synchronized int getOpenBatchCount() {
+        return openBatches.size();
+    }
+
+    private void add(PendingItem item) {
+        String url = item.jobMessagePayload().getApiConfig().getUrl();
+        String key = url + "|" + item.jobMessagePayload().getScheduledRunAt();
+        PendingBatch fullBatch;
+        synchronized (this) {
+            fullBatch = closed ? new PendingBatch(url, List.of(item)) : addToOpenBatch(key, url, item);
+        }
+        if (fullBatch != null) {
+            deliver(fullBatch);
+        }
+    }
+
+    /**
+     * @return the batch if the execution filled it up
+     */
+    private PendingBatch addToOpenBatch(String key, String url, PendingItem item) {
+        PendingBatch batch = openBatches.get(key);
+        if (batch == null) {
+            PendingBatch newBatch = new PendingBatch(url, new ArrayList<>());
+            openBatches.put(key, newBatch);
+            flusher.schedule(() -> flush(key, newBatch), jobConsumerConfig.getBatchDelivery().getLingerMs(), TimeUnit.MILLISECONDS);
+            batch = newBatch;
+        }
+        batch.items().add(item);
+        if (batch.items().size() >= jobConsumerConfig.getBatchDelivery().getMaxBatchSize()) {
+            openBatches.remove(key);
+            return batch;
+        }
+        return null;
+    }
+
+    private void flush(String key, PendingBatch batch) {
+        synchronized (this) {
+            //Already sent if it filled up before lingerMs passed
+            if (!openBatches.remove(key, batch)) {
+                return;
+            }
+        }
+        deliver(batch);
+    }
+
+    private void deliver(PendingBatch batch) {
+        List<PendingItem> items = batch.items();
+        batchSize.record(items.size());
+        try {
+            ApiRequest apiRequest = ApiRequest.builder().httpMethod(HttpMethod.POST).url(batch.url())
+                    .payload(items.stream().map(item -> toEnvelope(item.jobMessagePayload())).toList())
+                    .readTimeout(items.stream().map(item -> item.jobMessagePayload().getApiConfig().getReadTimeoutMs())
+                            .filter(Objects::nonNull).min(Long::compare).orElse(ApiRequest.DEFAULT_READ_TIMEOUT_MS))
+                    .build();
+            asyncHttpClient.callApi(apiRequest).subscribe(apiResponse -> fanOut(items, apiResponse),
+                    error -> items.forEach(item -> item.response().tryEmitError(error)));
+        } catch (Exception e) {
+            items.forEach(item -> item.response().tryEmitError(e));
+        }
+    }
+
+    private static void fanOut(List<PendingItem> items, ApiResponse apiResponse) {
+        Integer status = apiResponse.getHttpStatus();
+        if (status == null || status < 200 || status >= 300) {
+            items.forEach(item -> item.response().tryEmitValue(apiResponse));
+            return;
+        }
+        Map<String, BatchDeliveryResult> resultsByExecutionId;
+        try {
+            resultsByExecutionId = CommonSerializationUtil.readListFromString(apiResponse.getResponse(), BatchDeliveryResult.class).stream()
+                    .filter(result -> result.getExecutionId() != null)
+                    .collect(Collectors.toMap(BatchDeliveryResult::getExecutionId, Function.identity(), (first, second) -> first));
+        } catch (Exception e) {
+            log.error("Unreadable batch response from :{}", items.getFirst().jobMessagePayload().getApiConfig().getUrl(), e);
+            resultsByExecutionId = Map.of();
+        }
+        for (PendingItem item : items) {
+            BatchDeliveryResult result = resultsByExecutionId.get(item.jobMessagePayload().getExecutionId());
+            item.response().tryEmitValue(result == null
+                    ? new ApiResponse("No result for the execution in the batch response", MISSING_RESULT_STATUS)
+                    : new ApiResponse(result.getResponse() == null ? "" : CommonSerializationUtil.writeString(result.getResponse()),
+                    result.getStatus() != null ? result.getStatus() : status));
+        }
+    }
+
+    private static BatchDeliveryEnvelope toEnvelope(JobMessagePayload jobMessagePayload) {
+        return BatchDeliveryEnvelope.builder()
+                .executionId(jobMessagePayload.getExecutionId())
+                .jobId(jobMessagePayload.getJobId())
+                .scheduledRunAt(jobMessagePayload.getScheduledRunAt())
+                .attempt(RetryScheduler.getAttempt(jobMessagePayload))
+                .payload(jobMessagePayload.getApiConfig().getPayload())
+                .build();
+    }
+
+    /**
+     * Sends the open batches right away, executions submitted from now on are sent on their own
+     */
+    @Override
+    public void destroy() {
+        List<PendingBatch> batches;
+        synchronized (this) {
+            closed = true;
+            batches = new ArrayList<>(openBatches.values());
+            openBatches.clear();
+        }
+        flusher.shutdownNow();
+        batches.forEach(this::deliver);
+    }
+
+    private record PendingBatch(String url, List<PendingItem> items) {
+    }
+
+    private record PendingItem(JobMessagePayload jobMessagePayload, Sinks.One<ApiResponse> response) {
+    }
+}
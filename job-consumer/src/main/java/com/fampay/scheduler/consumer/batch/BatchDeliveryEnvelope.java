@@ -0,0 +1,21 @@
+package com.fampay.scheduler.consumer.batch;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One execution in the array a batch delivery POSTs
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BatchDeliveryEnvelope {
+    private String executionId;
+    private String jobId;
+    private Long scheduledRunAt;
+    private Integer attempt;
+    private Object payload;
+}
@@ -0,0 +1,20 @@
+package com.fampay.scheduler.consumer.batch;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of one execution in the array a batch endpoint answers with, status is read like the status code of a
+ * call of its own
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BatchDeliveryResult {
+    private String executionId;
+    private Integer status;
+    private Object response;
+}
@@ -0,0 +1,46 @@
+package com.fampay.scheduler.consumer.definition;
+
+import com.fampay.scheduler.consumer.JobConsumerConfig;
+import com.fampay.scheduler.models.entity.JobEntity;
+import com.fampay.scheduler.repository.JobDao;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Job definitions slim messages are resolved against. A job definition is never changed after the job is created,
+ * so a cached one stays valid. Entries only expire after the configured ttl, which frees the ones of jobs no longer
+ * produced.
+ */
+@Component
+@Slf4j
+public class JobDefinitionCache {
+
+    private final JobDao jobDao;
+    private final Cache<String, JobEntity> jobsById;
+
+    public JobDefinitionCache(JobDao jobDao, JobConsumerConfig jobConsumerConfig) {
+        this.jobDao = jobDao;
+        this.jobsById = CacheBuilder.newBuilder()
+                .maximumSize(jobConsumerConfig.getJobDefinitionCacheSize())
+                .expireAfterWrite(jobConsumerConfig.getJobDefinitionCacheTtlMs(), TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    /**
+     * @return the job definition, empty if the job does not exist
+     */
+    public Optional<JobEntity> getJob(String jobId) {
+        JobEntity cached = jobsById.getIfPresent(jobId);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        Optional<JobEntity> jobEntity = jobDao.getJobById(jobId);
+        jobEntity.ifPresent(job -> jobsById.put(jobId, job));
+        return jobEntity;
+    }
+}
@@ -0,0 +1,170 @@
+package com.fampay.scheduler.consumer.engine;
+
+import com.fampay.scheduler.commons.queue.IMessageConsumer;
+import com.fampay.scheduler.consumer.JobConsumerConfig;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Picks how the receivers of a queue poll from the visible queue depth and the share of recent receives that came
+ * back empty. Every receive asks for the full batch, SQS bills per request whatever it returns.
+ * <ul>
+ *     <li>Under backlog there is an active receiver per messagesPerReceiver visible messages up to receiversPerQueue,
+ *     each with a short wait.</li>
+ *     <li>Once most receives come back empty without a backlog the queue is idle, a single long polling receiver is
+ *     left active, so an idle node costs one receive per idleWaitTimeSeconds per queue.</li>
+ *     <li>In between the active receivers are kept.</li>
+ * </ul>
+ * The depth costs a request of its own, it is read at most once per sample interval and only while the last read
+ * showed a backlog or a receive came back full. Otherwise the empty receives alone tell that the queue is idle.
+ */
+@Component
+@Slf4j
+public class AdaptiveReceiveController {
+
+    public static final int MAX_BATCH_SIZE = 10;
+    private static final double EMPTY_RATIO_SMOOTHING = 0.1;
+
+    private final IMessageConsumer messageConsumer;
+    private final JobConsumerConfig jobConsumerConfig;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, QueueState> states = new ConcurrentHashMap<>();
+
+    public AdaptiveReceiveController(IMessageConsumer messageConsumer, JobConsumerConfig jobConsumerConfig, MeterRegistry meterRegistry) {
+        this.messageConsumer = messageConsumer;
+        this.jobConsumerConfig = jobConsumerConfig;
+        this.meterRegistry = meterRegistry;
+        jobConsumerConfig.getQueues().forEach(this::state);
+    }
+
+    public boolean isEnabled() {
+        JobConsumerConfig.AdaptiveReceive adaptiveReceive = jobConsumerConfig.getAdaptiveReceive();
+        return adaptiveReceive != null && Boolean.TRUE.equals(adaptiveReceive.getEnabled());
+    }
+
+    /**
+     * @return how the receivers of the queue poll, decided again once the sample interval is over
+     */
+    public ReceiveDecision getDecision(String queueName) {
+        QueueState state = state(queueName);
+        long now = System.currentTimeMillis();
+        if (now >= state.nextSampleAt && state.sampling.compareAndSet(false, true)) {
+            try {
+                decide(queueName, state);
+                state.nextSampleAt = now + jobConsumerConfig.getAdaptiveReceive().getSampleIntervalMs();
+            } finally {
+                state.sampling.set(false);
+            }
+        }
+        return state.decision;
+    }
+
+    public void recordReceive(String queueName, int receivedMessages) {
+        QueueState state = state(queueName);
+        synchronized (state) {
+            state.emptyRatio = EMPTY_RATIO_SMOOTHING * (receivedMessages == 0 ? 1 : 0)
+                    + (1 - EMPTY_RATIO_SMOOTHING) * state.emptyRatio;
+        }
+        if (receivedMessages >= MAX_BATCH_SIZE) {
+            state.fullReceive = true;
+        }
+    }
+
+    private void decide(String queueName, QueueState state) {
+        JobConsumerConfig.AdaptiveReceive adaptiveReceive = jobConsumerConfig.getAdaptiveReceive();
+        long messagesPerReceiver = Math.max(1, adaptiveReceive.getMessagesPerReceiver());
+        long depth = state.depth;
+        boolean fullReceive = state.fullReceive;
+        state.fullReceive = false;
+        //Not read before, or a backlog to follow
+        if (depth < 0 || depth >= messagesPerReceiver || fullReceive) {
+            try {
+                depth = messageConsumer.getApproxMessages(queueName);
+            } catch (Exception e) {
+                log.warn("Unable to read depth of queue :{}, keeping receive decision {}", queueName, state.decision, e);
+                return;
+            }
+            state.depth = depth;
+        }
+        int maxReceivers = maxReceivers();
+        int minReceivers = clamp(adaptiveReceive.getMinReceiversPerQueue(), 1, maxReceivers);
+        double emptyRatio;
+        synchronized (state) {
+            emptyRatio = state.emptyRatio;
+        }
+
+        ReceiveDecision previous = state.decision;
+        int receivers;
+        int waitTimeSeconds;
+        if (depth >= messagesPerReceiver) {
+            receivers = clamp(Math.ceilDiv(depth, messagesPerReceiver), minReceivers, maxReceivers);
+            waitTimeSeconds = adaptiveReceive.getBacklogWaitTimeSeconds();
+        } else if (emptyRatio >= adaptiveReceive.getIdleEmptyReceiveRatio()) {
+            receivers = minReceivers;
+            waitTimeSeconds = adaptiveReceive.getIdleWaitTimeSeconds();
+        } else {
+            receivers = clamp(previous.activeReceivers(), minReceivers, maxReceivers);
+            waitTimeSeconds = adaptiveReceive.getIdleWaitTimeSeconds();
+        }
+        ReceiveDecision decision = new ReceiveDecision(receivers, waitTimeSeconds);
+
+        if (!decision.equals(previous)) {
+            log.info("Receiving from queue :{} with {}, depth {} and empty receive ratio {}", queueName, decision, depth,
+                    String.format("%.2f", emptyRatio));
+        }
+        state.decision = decision;
+    }
+
+    private QueueState state(String queueName) {
+        return states.computeIfAbsent(queueName, this::register);
+    }
+
+    private QueueState register(String queueName) {
+        QueueState state = new QueueState(new ReceiveDecision(maxReceivers(),
+                jobConsumerConfig.getAdaptiveReceive().getIdleWaitTimeSeconds()));
+        Gauge.builder("job.consumer.receive.active_receivers", state, s -> s.decision.activeReceivers())
+                .tag("queue", queueName).description("Receivers polling the queue").register(meterRegistry);
+        Gauge.builder("job.consumer.receive.wait_time", state, s -> s.decision.waitTimeSeconds()).baseUnit("seconds")
+                .tag("queue", queueName).description("Long polling wait of a receive").register(meterRegistry);
+        Gauge.builder("job.consumer.receive.queue_depth", state, s -> s.depth)
+                .tag("queue", queueName).description("Visible messages on the queue, as last sampled").register(meterRegistry);
+        Gauge.builder("job.consumer.receive.empty_ratio", state, s -> s.emptyRatio)
+                .tag("queue", queueName).description("Smoothed share of receives that came back empty").register(meterRegistry);
+        return state;
+    }
+
+    private int maxReceivers() {
+        Integer receiversPerQueue = jobConsumerConfig.getReceiversPerQueue();
+        return receiversPerQueue != null && receiversPerQueue > 0 ? receiversPerQueue : 1;
+    }
+
+    private static int clamp(long value, int min, int max) {
+        return (int) Math.max(min, Math.min(max, value));
+    }
+
+    /**
+     * @param activeReceivers receivers of the queue that poll, the others stay idle
+     * @param waitTimeSeconds long polling wait of a receive
+     */
+    public record ReceiveDecision(int activeReceivers, int waitTimeSeconds) {
+    }
+
+    private static class QueueState {
+        private final AtomicBoolean sampling = new AtomicBoolean();
+        private volatile ReceiveDecision decision;
+        private volatile long nextSampleAt;
+        private volatile long depth = -1;
+        private volatile boolean fullReceive;
+        private double emptyRatio;
+
+        private QueueState(ReceiveDecision decision) {
+            this.decision = decision;
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package com.fampay.scheduler.consumer.engine;
+
+import com.fampay.scheduler.commons.queue.IMessageConsumer;
+import com.fampay.scheduler.consumer.JobConsumer;
+import com.fampay.scheduler.consumer.JobConsumerConfig;
+import com.fampay.scheduler.consumer.ack.VisibilityLeaseManager;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Long polling receive loops, a fixed number per queue, hand the received messages over a bounded buffer to a
+ * pool of virtual thread workers. A receiver blocks on a full buffer and only polls again once the workers have
+ * caught up, so the messages held by a node are bounded by the buffer and the workers.
+ * <p>
+ * Receivers run on platform threads since the SQS client blocks inside synchronized code, workers run on virtual
+ * threads since they mostly wait on the database and the job endpoints.
+ * <p>
+ * With adaptive receive enabled the {@link AdaptiveReceiveController} picks the wait of every receive and how many
+ * of the receivers of a queue poll at all.
+ */
+@Component
+@Slf4j
+public class SqsConsumerEngine implements SmartLifecycle {
+
+    private static final long WORKER_POLL_MS = 100L;
+
+    private final IMessageConsumer messageConsumer;
+    private final JobConsumer jobConsumer;
+    private final VisibilityLeaseManager visibilityLeaseManager;
+    private final AdaptiveReceiveController adaptiveReceiveController;
+    private final JobConsumerConfig jobConsumerConfig;
+    private final BlockingQueue<ReceivedMessage> buffer;
+    private final int workerCount;
+    private final AtomicInteger busyWorkers = new AtomicInteger();
+    private final List<Thread> receivers = new ArrayList<>();
+    private final List<Thread> workers = new ArrayList<>();
+    private volatile boolean running;
+    private volatile boolean abandoned;
+
+    public SqsConsumerEngine(IMessageConsumer messageConsumer, JobConsumer jobConsumer, VisibilityLeaseManager visibilityLeaseManager,
+                             AdaptiveReceiveController adaptiveReceiveController, JobConsumerConfig jobConsumerConfig,
+                             MeterRegistry meterRegistry) {
+        this.messageConsumer = messageConsumer;
+        this.jobConsumer = jobConsumer;
+        this.visibilityLeaseManager = visibilityLeaseManager;
+        this.adaptiveReceiveController = adaptiveReceiveController;
+        this.jobConsumerConfig = jobConsumerConfig;
+        this.buffer = new ArrayBlockingQueue<>(positiveOrDefault(jobConsumerConfig.getBufferCapacity(), 100));
+        this.workerCount = positiveOrDefault(jobConsumerConfig.getWorkerCount(), 64);
+        Gauge.builder("job.consumer.buffer.depth", buffer, BlockingQueue::size).register(meterRegistry);
+        Gauge.builder("job.consumer.workers.busy", busyWorkers, AtomicInteger::get).register(meterRegistry);
+        Gauge.builder("job.consumer.workers.utilisation", this, engine -> (double) engine.busyWorkers.get() / engine.workerCount)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        abandoned = false;
+        for (int i = 0; i < workerCount; i++) {
+            workers.add(Thread.ofVirtual().name("job-consumer-worker-" + i).start(this::work));
+        }
+        int receiversPerQueue = positiveOrDefault(jobConsumerConfig.getReceiversPerQueue(), 1);
+        for (String queueName : jobConsumerConfig.getQueues()) {
+            for (int i = 0; i < receiversPerQueue; i++) {
+                int receiverIndex = i;
+                receivers.add(Thread.ofPlatform().daemon().name("job-consumer-receiver-" + queueName + "-" + i)
+                        .start(() -> receive(queueName, receiverIndex)));
+            }
+        }
+        log.info("Started {} receivers and {} workers", receivers.size(), workers.size());
+    }
+
+    /**
+     * Receivers are interrupted right away and release the messages they still hold. Workers drain the buffer
+     * until the shutdown timeout and are interrupted after it, whatever is left in the buffer is released.
+     */
+    @Override
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        receivers.forEach(Thread::interrupt);
+        long deadline = System.currentTimeMillis() + jobConsumerConfig.getShutdownTimeoutMs();
+        try {
+            for (Thread worker : workers) {
+                worker.join(Math.max(1L, deadline - System.currentTimeMillis()));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        abandoned = true;
+        workers.forEach(Thread::interrupt);
+        List<ReceivedMessage> leftOver = new ArrayList<>();
+        buffer.drainTo(leftOver);
+        leftOver.forEach(this::release);
+        log.info("Stopped consumer engine, released {} messages left in the buffer", leftOver.size());
+        receivers.clear();
+        workers.clear();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    public int getBufferDepth() {
+        return buffer.size();
+    }
+
+    public int getBusyWorkers() {
+        return busyWorkers.get();
+    }
+
+    private void receive(String queueName, int receiverIndex) {
+        while (running) {
+            try {
+                List<IMessageConsumer.MessageValue> messageValues;
+                if (adaptiveReceiveController.isEnabled()) {
+                    AdaptiveReceiveController.ReceiveDecision decision = adaptiveReceiveController.getDecision(queueName);
+                    if (receiverIndex >= decision.activeReceivers()) {
+                        Thread.sleep(jobConsumerConfig.getAdaptiveReceive().getInactiveReceiverPollMs());
+                        continue;
+                    }
+                    messageValues = messageConsumer.receiveMessage(queueName, String.class,
+                            AdaptiveReceiveController.MAX_BATCH_SIZE, decision.waitTimeSeconds());
+                    adaptiveReceiveController.recordReceive(queueName, messageValues.size());
+                } else {
+                    messageValues = messageConsumer.receiveMessage(queueName, String.class);
+                }
+                messageValues.forEach(messageValue -> visibilityLeaseManager.track(queueName, messageValue.getReceiptHandle()));
+                for (int i = 0; i < messageValues.size(); i++) {
+                    try {
+                        buffer.put(new ReceivedMessage(queueName, messageValues.get(i)));
+                    } catch (InterruptedException e) {
+                        messageValues.subList(i, messageValues.size())
+                                .forEach(messageValue -> release(new ReceivedMessage(queueName, messageValue)));
+                        throw e;
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                if (!running) {
+                    return;
+                }
+                log.error("Unable to receive messages from queue :{}", queueName, e);
+                try {
+                    Thread.sleep(jobConsumerConfig.getReceiveErrorBackoffMs());
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void work() {
+        while ((running || !buffer.isEmpty()) && !abandoned) {
+            ReceivedMessage receivedMessage;
+            try {
+                receivedMessage = buffer.poll(WORKER_POLL_MS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (receivedMessage == null) {
+                continue;
+            }
+            busyWorkers.incrementAndGet();
+            try {
+                jobConsumer.consumeMessage(receivedMessage.queueName(), receivedMessage.messageValue());
+            } catch (Exception e) {
+                log.error("Unable to consume message from queue :{}", receivedMessage.queueName(), e);
+            } finally {
+                busyWorkers.decrementAndGet();
+            }
+        }
+    }
+
+    private void release(ReceivedMessage receivedMessage) {
+        visibilityLeaseManager.release(receivedMessage.queueName(), receivedMessage.messageValue().getReceiptHandle());
+    }
+
+    private static int positiveOrDefault(Integer value, int defaultValue) {
+        return value != null && value > 0 ? value : defaultValue;
+    }
+
+    private record ReceivedMessage(String queueName, IMessageConsumer.MessageValue messageValue) {
+    }
+}
@@ -0,0 +1,104 @@
+package com.fampay.scheduler.consumer.filter;
+
+import com.fampay.scheduler.consumer.JobConsumerConfig;
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Remembers the executions this node saw complete, so redeliveries and duplicate enqueues of them are acked without
+ * a database round trip. Ids go into a rotating pair of bloom filters: the current generation takes new ids and is
+ * rotated out once full or old, an id is known complete while it is in either generation.
+ * <p>
+ * A false positive drops the message of an execution that has not run, at the configured rate. The rate of the pair
+ * is published as {@code job.consumer.completed_filter.false_positive_rate}.
+ */
+@Component
+@Slf4j
+public class CompletedExecutionFilter {
+
+    private final JobConsumerConfig jobConsumerConfig;
+    private final boolean enabled;
+    private final Counter hits;
+    private volatile Generation current;
+    private volatile Generation previous;
+
+    public CompletedExecutionFilter(JobConsumerConfig jobConsumerConfig, MeterRegistry meterRegistry) {
+        this.jobConsumerConfig = jobConsumerConfig;
+        this.enabled = Boolean.TRUE.equals(jobConsumerConfig.getCompletedFilterEnabled());
+        this.current = newGeneration();
+        this.previous = newGeneration();
+        this.hits = Counter.builder("job.consumer.completed_filter.hits").register(meterRegistry);
+        Gauge.builder("job.consumer.completed_filter.false_positive_rate", this, CompletedExecutionFilter::getFalsePositiveRate)
+                .register(meterRegistry);
+        Gauge.builder("job.consumer.completed_filter.size", this, filter -> filter.current.insertions.get() + filter.previous.insertions.get())
+                .register(meterRegistry);
+    }
+
+    public void markCompleted(String executionId) {
+        if (!enabled || executionId == null) {
+            return;
+        }
+        Generation generation = current;
+        if (generation.insertions.get() >= jobConsumerConfig.getCompletedFilterExpectedInsertions()
+                || System.currentTimeMillis() - generation.createdAt >= jobConsumerConfig.getCompletedFilterRotationMs()) {
+            generation = rotate(generation);
+        }
+        if (generation.bloomFilter.put(executionId)) {
+            generation.insertions.incrementAndGet();
+        }
+    }
+
+    public boolean isKnownComplete(String executionId) {
+        if (!enabled || executionId == null) {
+            return false;
+        }
+        if (current.bloomFilter.mightContain(executionId) || previous.bloomFilter.mightContain(executionId)) {
+            hits.increment();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Chance that an id never marked is reported as complete by either generation
+     */
+    public double getFalsePositiveRate() {
+        return 1 - (1 - current.bloomFilter.expectedFpp()) * (1 - previous.bloomFilter.expectedFpp());
+    }
+
+    private synchronized Generation rotate(Generation full) {
+        if (current != full) {
+            return current;
+        }
+        Generation next = newGeneration();
+        previous = full;
+        current = next;
+        log.debug("Rotated completed execution filter after {} insertions", full.insertions.get());
+        return next;
+    }
+
+    private Generation newGeneration() {
+        int expectedInsertions = enabled ? jobConsumerConfig.getCompletedFilterExpectedInsertions() : 1;
+        return new Generation(BloomFilter.create(Funnels.stringFunnel(StandardCharsets.UTF_8),
+                expectedInsertions, jobConsumerConfig.getCompletedFilterFalsePositiveRate()), System.currentTimeMillis());
+    }
+
+    private static final class Generation {
+        private final BloomFilter<String> bloomFilter;
+        private final long createdAt;
+        private final AtomicLong insertions = new AtomicLong();
+
+        private Generation(BloomFilter<String> bloomFilter, long createdAt) {
+            this.bloomFilter = bloomFilter;
+            this.createdAt = createdAt;
+        }
+    }
+}
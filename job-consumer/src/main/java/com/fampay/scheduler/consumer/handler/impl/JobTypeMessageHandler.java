@@ -1,23 +1,60 @@
 package com.fampay.scheduler.consumer.handler.impl;
 
-import com.fampay.scheduler.commons.helper.utils.CommonSerializationUtil;
 import com.fampay.scheduler.consumer.JobTypeProcessor;
 import com.fampay.scheduler.consumer.JobTypeProcessorFactory;
+import com.fampay.scheduler.consumer.ack.MessageDeleteBatcher;
+import com.fampay.scheduler.consumer.definition.JobDefinitionCache;
+import com.fampay.scheduler.consumer.filter.CompletedExecutionFilter;
 import com.fampay.scheduler.consumer.handler.MessageHandler;
+import com.fampay.scheduler.models.entity.ApiConfigEntity;
+import com.fampay.scheduler.models.entity.JobEntity;
+import com.fampay.scheduler.models.queue.ApiConfig;
 import com.fampay.scheduler.models.queue.JobMessagePayload;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
+import java.util.Optional;
+
 @Component
 @RequiredArgsConstructor
-public class JobTypeMessageHandler implements MessageHandler<String> {
+@Slf4j
+public class JobTypeMessageHandler implements MessageHandler<JobMessagePayload> {
 
     private final JobTypeProcessorFactory jobTypeProcessorFactory;
+    private final CompletedExecutionFilter completedExecutionFilter;
+    private final MessageDeleteBatcher messageDeleteBatcher;
+    private final JobDefinitionCache jobDefinitionCache;
 
     @Override
-    public void handleMessage(String message, String messageId,String queueName) {
-        JobMessagePayload jobMessagePayload = CommonSerializationUtil.readObject(message, JobMessagePayload.class);
+    public void handleMessage(JobMessagePayload jobMessagePayload, String messageId,String queueName) {
+        if (completedExecutionFilter.isKnownComplete(jobMessagePayload.getExecutionId())) {
+            log.debug("Execution :{} already completed, dropping the message", jobMessagePayload.getExecutionId());
+            messageDeleteBatcher.delete(queueName, messageId);
+            return;
+        }
+        if (jobMessagePayload.getApiConfig() == null && !resolveJobDefinition(jobMessagePayload)) {
+            log.error("Job :{} of execution :{} not found, dropping the message", jobMessagePayload.getJobId(), jobMessagePayload.getExecutionId());
+            messageDeleteBatcher.delete(queueName, messageId);
+            return;
+        }
         JobTypeProcessor jobTypeProcessor = jobTypeProcessorFactory.getProcessor(jobMessagePayload.getType());
         jobTypeProcessor.processJobExecution(jobMessagePayload, messageId,queueName);
     }
+
+    /**
+     * Fills in the type and apiConfig a slim message leaves out
+     */
+    private boolean resolveJobDefinition(JobMessagePayload jobMessagePayload) {
+        Optional<JobEntity> jobEntity = jobDefinitionCache.getJob(jobMessagePayload.getJobId());
+        if (jobEntity.isEmpty() || jobEntity.get().getApiConfig() == null) {
+            return false;
+        }
+        ApiConfigEntity apiConfig = jobEntity.get().getApiConfig();
+        jobMessagePayload.setType(jobEntity.get().getType());
+        jobMessagePayload.setApiConfig(ApiConfig.builder().url(apiConfig.getUrl()).httpMethod(apiConfig.getHttpMethod())
+                .payload(apiConfig.getPayload()).payloadHash(apiConfig.getPayloadHash()).readTimeoutMs(apiConfig.getReadTimeoutMs()).maxRetries(apiConfig.getMaxRetries())
+                .batchDelivery(apiConfig.isBatchDelivery()).build());
+        return true;
+    }
 }
@@ -1,60 +1,79 @@
 package com.fampay.scheduler.consumer.impl;
 
+import com.fampay.scheduler.commons.http.breaker.EndpointCircuitBreaker;
+import com.fampay.scheduler.commons.http.bulkhead.HostBulkhead;
 import com.fampay.scheduler.commons.http.client.AsyncHttpClient;
 import com.fampay.scheduler.commons.http.dto.ApiRequest;
-import com.fampay.scheduler.commons.lock.annotation.ExecuteInLock;
-import com.fampay.scheduler.commons.queue.IMessageConsumer;
+import com.fampay.scheduler.commons.http.dto.ApiResponse;
+import com.fampay.scheduler.consumer.ack.MessageDeleteBatcher;
+import com.fampay.scheduler.consumer.batch.BatchDeliveryAggregator;
+import com.fampay.scheduler.consumer.ack.VisibilityLeaseManager;
+import com.fampay.scheduler.consumer.JobConsumerConfig;
 import com.fampay.scheduler.consumer.JobTypeProcessor;
+import com.fampay.scheduler.consumer.filter.CompletedExecutionFilter;
+import com.fampay.scheduler.consumer.retry.RetryScheduler;
+import com.fampay.scheduler.consumer.status.ExecutionAttemptRecorder;
+import com.fampay.scheduler.consumer.status.ExecutionStatusWriteBehind;
 import com.fampay.scheduler.models.dto.JobExecutionStatus;
 import com.fampay.scheduler.models.dto.JobGuarantee;
-import com.fampay.scheduler.models.queue.JobMessagePayload;
+import com.fampay.scheduler.models.entity.JobExecutionAttemptEntity;
 import com.fampay.scheduler.models.entity.JobExecutionEntity;
+import com.fampay.scheduler.models.queue.JobMessagePayload;
 import com.fampay.scheduler.models.entity.JobExecutionResponse;
 import com.fampay.scheduler.repository.JobExecutionDao;
 import com.fampay.scheduler.repository.dto.UpdateJobExecutionDto;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.joda.time.DateTimeUtils;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.http.HttpMethod;
 import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
 
 import java.util.Optional;
 
 @Component
 @Qualifier("atleast_once_processor")
 @RequiredArgsConstructor
+@Slf4j
 public class AtleastOnceTypeProcessor implements JobTypeProcessor {
 
-    private final IMessageConsumer messageConsumer;
+    private static final int SATURATED_HOST_RETRY_DELAY_SECONDS = 10;
+    private static final int OPEN_CIRCUIT_RETRY_DELAY_SECONDS = 30;
+
+    private final MessageDeleteBatcher messageDeleteBatcher;
+    private final VisibilityLeaseManager visibilityLeaseManager;
     private final JobExecutionDao jobExecutionDao;
+    private final ExecutionStatusWriteBehind executionStatusWriteBehind;
+    private final CompletedExecutionFilter completedExecutionFilter;
+    private final ExecutionAttemptRecorder executionAttemptRecorder;
+    private final RetryScheduler retryScheduler;
     private final AsyncHttpClient asyncHttpClient;
+    private final BatchDeliveryAggregator batchDeliveryAggregator;
+    private final JobConsumerConfig jobConsumerConfig;
 
 
-    @ExecuteInLock(waitingTime = 100L, prefix = "JOB_EXECUTION", lockIdKeys = {"jobMessagePayload.executionId"})
     @Override
     public void processJobExecution(JobMessagePayload jobMessagePayload,String messageId,String queueName) {
-        Optional<JobExecutionEntity> jobExecutionEntityOptional = jobExecutionDao.findByExecutionId(jobMessagePayload.getExecutionId());
-        if (jobExecutionEntityOptional.isPresent()) {
-            JobExecutionEntity jobExecutionEntity = jobExecutionEntityOptional.get();
-            if (!JobExecutionStatus.isTerminalState(JobExecutionStatus.from(jobExecutionEntity.getStatus()))) {
-                jobExecutionDao.updateJobExecutionStatus(jobExecutionEntity.getExecutionId(), UpdateJobExecutionDto.builder()
-                        .status(JobExecutionStatus.STARTED.name()).startTime(DateTimeUtils.currentTimeMillis()).build());
-                try {
-                    asyncHttpClient.callApi(buildApiRequest(jobMessagePayload))
-                            .subscribe(apiResponse -> {
-                                handleResponseAndDeleteMessage(jobMessagePayload,apiResponse.getHttpStatus(),apiResponse.getResponse(),messageId,queueName);
-                            });
-                    return;
-                } catch (Exception e) {
-                    //Update the database and move on
-                    jobExecutionDao.updateJobExecutionStatus(jobMessagePayload.getExecutionId(),UpdateJobExecutionDto.builder().endTime(DateTimeUtils.currentTimeMillis())
-                            .status(JobExecutionStatus.FAILED.name()).executionResponse(
-                                    JobExecutionResponse.builder()
-                                            .response(e.getMessage()).build()).build());
-                }
+        if (jobExecutionDao.claimExecution(jobMessagePayload.getExecutionId(), getTypeProcessor(), RetryScheduler.getAttempt(jobMessagePayload),
+                DateTimeUtils.currentTimeMillis(), jobConsumerConfig.getClaimLeaseMs())) {
+            long startTime = DateTimeUtils.currentTimeMillis();
+            try {
+                callApi(jobMessagePayload)
+                        .subscribe(apiResponse -> {
+                            handleResponse(jobMessagePayload,apiResponse.getHttpStatus(),apiResponse.getResponse(),startTime,messageId,queueName);
+                        }, error -> handleCallFailure(jobMessagePayload, error, startTime, messageId, queueName));
+                return;
+            } catch (Exception e) {
+                //Update the database and move on
+                complete(jobMessagePayload,UpdateJobExecutionDto.builder().endTime(DateTimeUtils.currentTimeMillis())
+                        .status(JobExecutionStatus.FAILED.name()).executionResponse(
+                                JobExecutionResponse.builder()
+                                        .response(e.getMessage()).build()).build(),messageId,queueName);
+                return;
             }
         }
-        messageConsumer.deleteMessage(queueName,messageId);
+        handleLostClaim(jobMessagePayload, messageId, queueName);
     }
 
     @Override
@@ -62,21 +81,149 @@ public class AtleastOnceTypeProcessor implements JobTypeProcessor {
         return JobGuarantee.ATLEAST_ONCE;
     }
 
-    private void handleResponseAndDeleteMessage(JobMessagePayload jobMessagePayload,Integer statusCode, String body, String messageId, String queueName) {
-        jobExecutionDao.updateJobExecutionStatus(jobMessagePayload.getExecutionId(),UpdateJobExecutionDto.builder().endTime(DateTimeUtils.currentTimeMillis())
+    /**
+     * Only an execution that ended is remembered as completed. A message of an attempt a later one took over is a
+     * leftover and is dropped, a duplicate of the attempt that holds the claim comes back once the claim lease ran out
+     * so that the execution runs again if the holder died.
+     */
+    private void handleLostClaim(JobMessagePayload jobMessagePayload, String messageId, String queueName) {
+        Optional<JobExecutionEntity> jobExecution = jobExecutionDao.findByExecutionId(jobMessagePayload.getExecutionId());
+        if (jobExecution.isEmpty()) {
+            log.error("Execution :{} not found, dropping the message", jobMessagePayload.getExecutionId());
+            messageDeleteBatcher.delete(queueName, messageId);
+            return;
+        }
+        if (JobExecutionStatus.isTerminalState(JobExecutionStatus.from(jobExecution.get().getStatus()))) {
+            completedExecutionFilter.markCompleted(jobMessagePayload.getExecutionId());
+            messageDeleteBatcher.delete(queueName, messageId);
+            return;
+        }
+        Integer claimedAttempt = jobExecution.get().getAttempt();
+        if (claimedAttempt != null && claimedAttempt > RetryScheduler.getAttempt(jobMessagePayload)) {
+            log.info("Execution :{} moved on to attempt {}, dropping the message of attempt {}", jobMessagePayload.getExecutionId(),
+                    claimedAttempt, RetryScheduler.getAttempt(jobMessagePayload));
+            messageDeleteBatcher.delete(queueName, messageId);
+            return;
+        }
+        Long claimedUntil = jobExecution.get().getClaimedUntil();
+        long leaseLeftMs = claimedUntil != null ? claimedUntil - DateTimeUtils.currentTimeMillis() : 0L;
+        int delaySeconds = (int) Math.max(1L, Math.ceilDiv(leaseLeftMs, 1000L));
+        log.info("Execution :{} is claimed by another delivery, checking again in {}s", jobMessagePayload.getExecutionId(), delaySeconds);
+        visibilityLeaseManager.release(queueName, messageId, delaySeconds);
+    }
+
+    /**
+     * A call rejected by a saturated host or an open circuit never left, the message is handed back without using up
+     * an attempt. An open circuit defers it for about as long as the circuit stays open.
+     */
+    private void handleCallFailure(JobMessagePayload jobMessagePayload, Throwable error, long startTime, String messageId, String queueName) {
+        if (HostBulkhead.isRejection(error)) {
+            log.warn("Host saturated for execution :{}, retrying in {}s", jobMessagePayload.getExecutionId(), SATURATED_HOST_RETRY_DELAY_SECONDS);
+            visibilityLeaseManager.release(queueName, messageId, SATURATED_HOST_RETRY_DELAY_SECONDS);
+            return;
+        }
+        if (EndpointCircuitBreaker.isOpenRejection(error)) {
+            log.warn("Circuit open for execution :{}, deferring by {}s", jobMessagePayload.getExecutionId(), OPEN_CIRCUIT_RETRY_DELAY_SECONDS);
+            visibilityLeaseManager.release(queueName, messageId, OPEN_CIRCUIT_RETRY_DELAY_SECONDS);
+            return;
+        }
+        if (AsyncHttpClient.isDeadlineExceeded(error)) {
+            log.warn("Api call timed out for execution :{} on attempt {}", jobMessagePayload.getExecutionId(), RetryScheduler.getAttempt(jobMessagePayload));
+            handleFailedAttempt(jobMessagePayload, JobExecutionStatus.TIMED_OUT, null, error.getMessage(), startTime, messageId, queueName);
+            return;
+        }
+        log.error("Api call failed for execution :{} on attempt {}", jobMessagePayload.getExecutionId(), RetryScheduler.getAttempt(jobMessagePayload), error);
+        handleFailedAttempt(jobMessagePayload, JobExecutionStatus.FAILED, null, error.getMessage(), startTime, messageId, queueName);
+    }
+
+    private void handleResponse(JobMessagePayload jobMessagePayload, Integer statusCode, String body, long startTime, String messageId, String queueName) {
+        if (isRetryable(statusCode)) {
+            handleFailedAttempt(jobMessagePayload, JobExecutionStatus.FAILED, statusCode, body, startTime, messageId, queueName);
+            return;
+        }
+        recordAttempt(jobMessagePayload, JobExecutionStatus.FINISHED, body, startTime);
+        complete(jobMessagePayload,UpdateJobExecutionDto.builder().endTime(DateTimeUtils.currentTimeMillis())
                 .status(JobExecutionStatus.FINISHED.name()).executionResponse(
                         JobExecutionResponse.builder()
                         .status(statusCode+"")
-                                .response(body).build()).build());
-        messageConsumer.deleteMessage(queueName, messageId);
+                                .response(body).build()).build(),messageId,queueName);
 
     }
 
+    /**
+     * Enqueues the next attempt while the execution has retries left, the execution stays started in between.
+     * Once they are used up the execution ends with the outcome of its last attempt.
+     */
+    private void handleFailedAttempt(JobMessagePayload jobMessagePayload, JobExecutionStatus status, Integer statusCode, String response,
+                                     long startTime, String messageId, String queueName) {
+        recordAttempt(jobMessagePayload, status, response, startTime);
+        if (retryScheduler.hasRetriesLeft(jobMessagePayload)) {
+            retryScheduler.scheduleRetry(queueName, jobMessagePayload).thenAccept(sent -> {
+                if (sent) {
+                    messageDeleteBatcher.delete(queueName, messageId);
+                } else {
+                    log.error("Unable to enqueue retry of execution :{}, releasing the message", jobMessagePayload.getExecutionId());
+                    visibilityLeaseManager.release(queueName, messageId, retryScheduler.getRetryDelaySeconds(RetryScheduler.getAttempt(jobMessagePayload)));
+                }
+            });
+            return;
+        }
+        log.error("Execution :{} ended {} after {} attempts", jobMessagePayload.getExecutionId(), status, RetryScheduler.getAttempt(jobMessagePayload));
+        complete(jobMessagePayload, UpdateJobExecutionDto.builder().endTime(DateTimeUtils.currentTimeMillis())
+                .status(status.name()).executionResponse(
+                        JobExecutionResponse.builder()
+                                .status(statusCode != null ? statusCode + "" : null)
+                                .response(response).build()).build(), messageId, queueName);
+    }
+
+    /**
+     * The message is deleted only once the final status is written. An update dropped by the write-behind hands the
+     * message back once the claim lease ran out, so the execution runs again rather than staying started without a
+     * message.
+     */
+    private void complete(JobMessagePayload jobMessagePayload, UpdateJobExecutionDto updateJobExecutionDto, String messageId, String queueName) {
+        executionStatusWriteBehind.updateWithAck(jobMessagePayload.getExecutionId(), updateJobExecutionDto).thenAccept(written -> {
+            if (written) {
+                completedExecutionFilter.markCompleted(jobMessagePayload.getExecutionId());
+                messageDeleteBatcher.delete(queueName, messageId);
+            } else {
+                visibilityLeaseManager.release(queueName, messageId, (int) Math.ceilDiv(jobConsumerConfig.getClaimLeaseMs(), 1000L));
+            }
+        });
+    }
+
+    private void recordAttempt(JobMessagePayload jobMessagePayload, JobExecutionStatus status, String response, long startTime) {
+        int attempt = RetryScheduler.getAttempt(jobMessagePayload);
+        executionAttemptRecorder.record(JobExecutionAttemptEntity.builder()
+                .runId(jobMessagePayload.getExecutionId() + "_" + attempt)
+                .executionId(jobMessagePayload.getExecutionId())
+                .attempt(attempt)
+                .startTime(startTime)
+                .endTime(DateTimeUtils.currentTimeMillis())
+                .status(status.name())
+                .response(response)
+                .build());
+    }
+
+    /**
+     * Server errors and throttling are worth another attempt, any other response is the outcome of the execution
+     */
+    private static boolean isRetryable(Integer statusCode) {
+        return statusCode != null && (statusCode == 429 || statusCode >= 500);
+    }
+
+    private Mono<ApiResponse> callApi(JobMessagePayload jobMessagePayload) {
+        if (BatchDeliveryAggregator.isBatchDelivery(jobMessagePayload)) {
+            return batchDeliveryAggregator.submit(jobMessagePayload);
+        }
+        return asyncHttpClient.callApi(buildApiRequest(jobMessagePayload));
+    }
+
     private ApiRequest buildApiRequest(JobMessagePayload jobMessagePayload) {
         return ApiRequest.builder().httpMethod(HttpMethod.valueOf(jobMessagePayload.getApiConfig().getHttpMethod()))
                 .url(jobMessagePayload.getApiConfig().getUrl())
-                .payload(jobMessagePayload.getApiConfig().getPayload()).readTimeout(jobMessagePayload.getApiConfig().getReadTimeoutMs())
-                .retries(1)
+                .payload(jobMessagePayload.getApiConfig().getPayload()).payloadHash(jobMessagePayload.getApiConfig().getPayloadHash())
+                .readTimeout(jobMessagePayload.getApiConfig().getReadTimeoutMs())
                 .build();
     }
 }
@@ -1,13 +1,16 @@
 package com.fampay.scheduler.consumer.impl;
 
+import com.fampay.scheduler.commons.http.breaker.EndpointCircuitBreaker;
 import com.fampay.scheduler.commons.http.client.AsyncHttpClient;
 import com.fampay.scheduler.commons.http.dto.ApiRequest;
-import com.fampay.scheduler.commons.lock.annotation.ExecuteInLock;
-import com.fampay.scheduler.commons.queue.IMessageConsumer;
+import com.fampay.scheduler.commons.http.dto.ApiResponse;
+import com.fampay.scheduler.consumer.ack.MessageDeleteBatcher;
+import com.fampay.scheduler.consumer.batch.BatchDeliveryAggregator;
 import com.fampay.scheduler.consumer.JobTypeProcessor;
+import com.fampay.scheduler.consumer.filter.CompletedExecutionFilter;
+import com.fampay.scheduler.consumer.status.ExecutionStatusWriteBehind;
 import com.fampay.scheduler.models.dto.JobExecutionStatus;
 import com.fampay.scheduler.models.dto.JobGuarantee;
-import com.fampay.scheduler.models.entity.JobExecutionEntity;
 import com.fampay.scheduler.models.entity.JobExecutionResponse;
 import com.fampay.scheduler.models.queue.JobMessagePayload;
 import com.fampay.scheduler.repository.JobExecutionDao;
@@ -18,8 +21,7 @@ import org.joda.time.DateTimeUtils;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.http.HttpMethod;
 import org.springframework.stereotype.Component;
-
-import java.util.Optional;
+import reactor.core.publisher.Mono;
 
 @Component
 @RequiredArgsConstructor
@@ -27,35 +29,34 @@ import java.util.Optional;
 @Slf4j
 public class AtmostOnceTypeProcessor implements JobTypeProcessor {
 
-    private final IMessageConsumer messageConsumer;
+    private final MessageDeleteBatcher messageDeleteBatcher;
     private final JobExecutionDao jobExecutionDao;
+    private final ExecutionStatusWriteBehind executionStatusWriteBehind;
+    private final CompletedExecutionFilter completedExecutionFilter;
     private final AsyncHttpClient asyncHttpClient;
+    private final BatchDeliveryAggregator batchDeliveryAggregator;
 
-    @ExecuteInLock(waitingTime = 100L, prefix = "JOB_EXECUTION", lockIdKeys = {"jobMessagePayload.executionId"})
     @Override
     public void processJobExecution(JobMessagePayload jobMessagePayload, String messageId, String queueName) {
-        Optional<JobExecutionEntity> jobExecutionEntityOptional = jobExecutionDao.findByExecutionId(jobMessagePayload.getExecutionId());
-        if (jobExecutionEntityOptional.isPresent()) {
-            JobExecutionEntity jobExecutionEntity = jobExecutionEntityOptional.get();
-            if (!JobExecutionStatus.hasStartedBefore(JobExecutionStatus.from(jobExecutionEntity.getStatus()))) {
-                try {
-                    jobExecutionDao.updateJobExecutionStatus(jobExecutionEntity.getExecutionId(), UpdateJobExecutionDto.builder()
-                            .status(JobExecutionStatus.STARTED.name()).startTime(DateTimeUtils.currentTimeMillis()).build());
-                    asyncHttpClient.callApi(buildApiRequest(jobMessagePayload)).subscribe(apiResponse -> {
-                        handleResponse(jobMessagePayload, apiResponse.getHttpStatus(), apiResponse.getResponse());
-                    });
-                } catch (Exception e) {
-                    jobExecutionDao.updateJobExecutionStatus(jobMessagePayload.getExecutionId(), UpdateJobExecutionDto.builder().endTime(DateTimeUtils.currentTimeMillis())
-                            .status(JobExecutionStatus.FAILED.name()).executionResponse(
-                                    JobExecutionResponse.builder()
-                                            .response(e.getMessage()).build()).build());
-                }
-            } else {
-                log.error("Cannot reprocess as it is a atmost once type processor :{}",jobMessagePayload.getExecutionId());
+        //Only a scheduled execution can be claimed, the claim is durable before the call fires
+        if (jobExecutionDao.claimExecution(jobMessagePayload.getExecutionId(), getTypeProcessor(), 1, DateTimeUtils.currentTimeMillis(), 0L)) {
+            try {
+                callApi(jobMessagePayload).subscribe(apiResponse -> {
+                    handleResponse(jobMessagePayload, apiResponse.getHttpStatus(), apiResponse.getResponse());
+                }, error -> handleFailure(jobMessagePayload, error));
+            } catch (Exception e) {
+                executionStatusWriteBehind.update(jobMessagePayload.getExecutionId(), UpdateJobExecutionDto.builder().endTime(DateTimeUtils.currentTimeMillis())
+                        .status(JobExecutionStatus.FAILED.name()).executionResponse(
+                                JobExecutionResponse.builder()
+                                        .response(e.getMessage()).build()).build());
             }
+        } else {
+            log.error("Cannot reprocess as it is a atmost once type processor :{}",jobMessagePayload.getExecutionId());
         }
+        //Whatever the outcome the execution never runs again
+        completedExecutionFilter.markCompleted(jobMessagePayload.getExecutionId());
         //Delete the message as soon as we get an ack that the request has been fired.
-        messageConsumer.deleteMessage(queueName, messageId);
+        messageDeleteBatcher.delete(queueName, messageId);
     }
 
     @Override
@@ -64,16 +65,41 @@ public class AtmostOnceTypeProcessor implements JobTypeProcessor {
     }
 
     private void handleResponse(JobMessagePayload jobMessagePayload, Integer statusCode, String body) {
-        jobExecutionDao.updateJobExecutionStatus(jobMessagePayload.getExecutionId(), UpdateJobExecutionDto.builder().endTime(DateTimeUtils.currentTimeMillis())
+        executionStatusWriteBehind.update(jobMessagePayload.getExecutionId(), UpdateJobExecutionDto.builder().endTime(DateTimeUtils.currentTimeMillis())
                 .status(JobExecutionStatus.FINISHED.name()).executionResponse(
                         JobExecutionResponse.builder()
                                 .status(statusCode+"")
                                 .response(body).build()).build());
     }
 
+    private void handleFailure(JobMessagePayload jobMessagePayload, Throwable error) {
+        JobExecutionStatus status = JobExecutionStatus.FAILED;
+        if (AsyncHttpClient.isDeadlineExceeded(error)) {
+            log.warn("Api call timed out for execution :{}", jobMessagePayload.getExecutionId());
+            status = JobExecutionStatus.TIMED_OUT;
+        } else if (EndpointCircuitBreaker.isOpenRejection(error)) {
+            //The call never left, an ATMOST_ONE execution is failed rather than run late
+            log.warn("Circuit open for execution :{}, failing it", jobMessagePayload.getExecutionId());
+        } else {
+            log.error("Api call failed for execution :{}", jobMessagePayload.getExecutionId(), error);
+        }
+        executionStatusWriteBehind.update(jobMessagePayload.getExecutionId(), UpdateJobExecutionDto.builder().endTime(DateTimeUtils.currentTimeMillis())
+                .status(status.name()).executionResponse(
+                        JobExecutionResponse.builder()
+                                .response(error.getMessage()).build()).build());
+    }
+
+    private Mono<ApiResponse> callApi(JobMessagePayload jobMessagePayload) {
+        if (BatchDeliveryAggregator.isBatchDelivery(jobMessagePayload)) {
+            return batchDeliveryAggregator.submit(jobMessagePayload);
+        }
+        return asyncHttpClient.callApi(buildApiRequest(jobMessagePayload));
+    }
+
     private ApiRequest buildApiRequest(JobMessagePayload jobMessagePayload) {
        return ApiRequest.builder().httpMethod(HttpMethod.valueOf(jobMessagePayload.getApiConfig().getHttpMethod()))
-                .url(jobMessagePayload.getApiConfig().getUrl()).payload(jobMessagePayload.getApiConfig().getPayload()).readTimeout(jobMessagePayload.getApiConfig().getReadTimeoutMs())
+                .url(jobMessagePayload.getApiConfig().getUrl()).payload(jobMessagePayload.getApiConfig().getPayload())
+                .payloadHash(jobMessagePayload.getApiConfig().getPayloadHash()).readTimeout(jobMessagePayload.getApiConfig().getReadTimeoutMs())
                 .build();
     }
 }
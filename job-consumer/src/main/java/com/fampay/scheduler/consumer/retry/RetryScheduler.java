@@ -0,0 +1,137 @@
+package com.fampay.scheduler.consumer.retry;
+
+import com.fampay.scheduler.commons.queue.IMessageProducer;
+import com.fampay.scheduler.consumer.JobConsumerConfig;
+import com.fampay.scheduler.models.queue.JobMessageCodec;
+import com.fampay.scheduler.models.queue.JobMessageFormat;
+import com.fampay.scheduler.models.queue.JobMessagePayload;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Retries a failed execution by enqueueing a message for its next attempt, held back by SQS for an exponential
+ * backoff. No worker waits for a retry and the attempts of a failing target are spread out instead of arriving
+ * back to back.
+ * <p>
+ * Retries are sent from virtual threads as the send blocks and failures are handled on the http client event loop.
+ * They go out in the configured message format, a slim message is retried as a slim one.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RetryScheduler implements DisposableBean {
+
+    private static final int MAX_QUEUE_DELAY_SECONDS = 900;
+
+    private final IMessageProducer messageProducer;
+    private final JobConsumerConfig jobConsumerConfig;
+    private final ExecutorService sender = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("job-consumer-retry-", 0).factory());
+
+    /**
+     * @return attempt of the execution the message is for, 1 for the first one
+     */
+    public static int getAttempt(JobMessagePayload jobMessagePayload) {
+        return jobMessagePayload.getAttempt() != null ? jobMessagePayload.getAttempt() : 1;
+    }
+
+    public int getMaxRetries(JobMessagePayload jobMessagePayload) {
+        Integer maxRetries = jobMessagePayload.getApiConfig() != null ? jobMessagePayload.getApiConfig().getMaxRetries() : null;
+        return maxRetries != null ? Math.max(0, maxRetries) : jobConsumerConfig.getDefaultMaxRetries();
+    }
+
+    public boolean hasRetriesLeft(JobMessagePayload jobMessagePayload) {
+        return getAttempt(jobMessagePayload) <= getMaxRetries(jobMessagePayload);
+    }
+
+    /**
+     * Base delay doubled per attempt up to the max delay, the upper half of it is spread at random so that
+     * executions failing together do not retry together
+     * @param attempt the attempt that failed
+     */
+    public int getRetryDelaySeconds(int attempt) {
+        int maxDelaySeconds = Math.min(jobConsumerConfig.getRetryMaxDelaySeconds(), MAX_QUEUE_DELAY_SECONDS);
+        long backoffSeconds = Math.min(maxDelaySeconds,
+                (long) jobConsumerConfig.getRetryBaseDelaySeconds() << Math.min(attempt - 1, 30));
+        long halfSeconds = backoffSeconds / 2;
+        return (int) (backoffSeconds - halfSeconds + ThreadLocalRandom.current().nextLong(halfSeconds + 1));
+    }
+
+    /**
+     * Enqueues the next attempt of the execution on the queue the failed one came from, without blocking the caller
+     * @return completes with false if the message could not be sent
+     */
+    public CompletableFuture<Boolean> scheduleRetry(String queueName, JobMessagePayload jobMessagePayload) {
+        try {
+            return CompletableFuture.supplyAsync(() -> send(queueName, jobMessagePayload), sender);
+        } catch (Exception e) {
+            log.error("Unable to hand over retry of execution :{}", jobMessagePayload.getExecutionId(), e);
+            return CompletableFuture.completedFuture(false);
+        }
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        sender.shutdown();
+        if (!sender.awaitTermination(jobConsumerConfig.getShutdownTimeoutMs(), TimeUnit.MILLISECONDS)) {
+            log.warn("Retries still being sent on shutdown");
+        }
+    }
+
+    private boolean send(String queueName, JobMessagePayload jobMessagePayload) {
+        int attempt = getAttempt(jobMessagePayload);
+        int delaySeconds = getRetryDelaySeconds(attempt);
+        JobMessageFormat messageFormat = getMessageFormat();
+        boolean sent;
+        try {
+            sent = messageProducer.sendMessageWithDelay(queueName, JobMessageCodec.encode(nextAttempt(jobMessagePayload), messageFormat),
+                    delaySeconds, messageFormat == JobMessageFormat.JSON ? null : Map.of(JobMessageFormat.ATTRIBUTE_NAME, messageFormat.getValue()));
+        } catch (Exception e) {
+            log.error("Unable to send retry of execution :{}", jobMessagePayload.getExecutionId(), e);
+            return false;
+        }
+        if (sent) {
+            log.info("Retrying execution :{} with attempt {} in {}s", jobMessagePayload.getExecutionId(), attempt + 1, delaySeconds);
+        }
+        return sent;
+    }
+
+    /**
+     * Only slim messages carry the job version, their retries leave out the definition the consumer resolved for them
+     */
+    private static JobMessagePayload nextAttempt(JobMessagePayload jobMessagePayload) {
+        int attempt = getAttempt(jobMessagePayload);
+        if (jobMessagePayload.getJobVersion() != null) {
+            return JobMessagePayload.builder()
+                    .executionId(jobMessagePayload.getExecutionId())
+                    .scheduledRunAt(jobMessagePayload.getScheduledRunAt())
+                    .jobId(jobMessagePayload.getJobId())
+                    .jobVersion(jobMessagePayload.getJobVersion())
+                    .attempt(attempt + 1)
+                    .build();
+        }
+        return JobMessagePayload.builder()
+                .executionId(jobMessagePayload.getExecutionId())
+                .scheduledRunAt(jobMessagePayload.getScheduledRunAt())
+                .jobId(jobMessagePayload.getJobId())
+                .type(jobMessagePayload.getType())
+                .apiConfig(jobMessagePayload.getApiConfig())
+                .attempt(attempt + 1)
+                .createdAt(jobMessagePayload.getCreatedAt())
+                .updatedAt(jobMessagePayload.getUpdatedAt())
+                .build();
+    }
+
+    private JobMessageFormat getMessageFormat() {
+        return jobConsumerConfig.getMessageFormat() != null ? jobConsumerConfig.getMessageFormat() : JobMessageFormat.JSON;
+    }
+}
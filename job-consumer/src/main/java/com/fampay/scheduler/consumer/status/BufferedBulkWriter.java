@@ -0,0 +1,213 @@
+package com.fampay.scheduler.consumer.status;
+
+import com.fampay.scheduler.consumer.JobConsumerConfig;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BinaryOperator;
+
+/**
+ * Buffers entries by id and writes them with one bulk write per flush, every statusFlushIntervalMs or once
+ * statusFlushSize entries are buffered. An entry buffered for an id that already has one is merged over it, a failed
+ * entry is retried under the entries buffered since until it ran out of statusWriteMaxAttempts.
+ * <p>
+ * Closing and buffering take the same monitor, an entry is either buffered before the final flushes of
+ * {@link #destroy} or written on the calling thread after. A statusFlushIntervalMs of 0 writes every entry right away.
+ */
+@Slf4j
+public abstract class BufferedBulkWriter<T> implements DisposableBean {
+
+    private final JobConsumerConfig jobConsumerConfig;
+    private final String entryName;
+    private final Map<String, PendingEntry<T>> pendingEntries = new LinkedHashMap<>();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    private final ScheduledExecutorService flusher;
+    private boolean closed;
+
+    /**
+     * @param entryName what an entry is, for logs and the name of the flusher thread
+     */
+    protected BufferedBulkWriter(JobConsumerConfig jobConsumerConfig, String entryName) {
+        this.jobConsumerConfig = jobConsumerConfig;
+        this.entryName = entryName;
+        Long flushIntervalMs = jobConsumerConfig.getStatusFlushIntervalMs();
+        if (flushIntervalMs != null && flushIntervalMs > 0) {
+            flusher = Executors.newSingleThreadScheduledExecutor(
+                    Thread.ofPlatform().daemon().name("job-consumer-" + entryName.replace(' ', '-') + "-flusher").factory());
+            flusher.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+        } else {
+            flusher = null;
+            closed = true;
+        }
+    }
+
+    /**
+     * @return ids of the entries that could not be written
+     */
+    protected abstract Set<String> write(Map<String, T> entries);
+
+    /**
+     * @return the entry written in place of an earlier one of the same id and a later one, the later one by default
+     */
+    protected T merge(T earlier, T later) {
+        return later;
+    }
+
+    /**
+     * @param written completed with true once the entry is written or with false once it is dropped, null for none
+     */
+    protected void buffer(String id, T entry, CompletableFuture<Boolean> written) {
+        PendingEntry<T> pendingEntry = new PendingEntry<>(entry, 1, written == null ? List.of() : List.of(written));
+        PendingEntry<T> writeNow;
+        int pendingCount;
+        synchronized (this) {
+            PendingEntry<T> pending = pendingEntries.remove(id);
+            PendingEntry<T> merged = pending == null ? pendingEntry : pending.mergedWith(pendingEntry, this::merge);
+            if (closed) {
+                writeNow = merged;
+                pendingCount = 0;
+            } else {
+                writeNow = null;
+                pendingEntries.put(id, merged);
+                pendingCount = pendingEntries.size();
+            }
+        }
+        if (writeNow != null) {
+            writeNow(id, writeNow);
+            return;
+        }
+        if (pendingCount >= jobConsumerConfig.getStatusFlushSize() && flushRequested.compareAndSet(false, true)) {
+            try {
+                flusher.execute(this::flushQuietly);
+            } catch (RejectedExecutionException e) {
+                //Closing, the final flushes of destroy write it
+                flushRequested.set(false);
+            }
+        }
+    }
+
+    public synchronized int getPendingCount() {
+        return pendingEntries.size();
+    }
+
+    /**
+     * Writes every buffered entry on the calling thread, failed entries stay buffered for another attempt
+     */
+    public void flush() {
+        Map<String, PendingEntry<T>> batch;
+        synchronized (this) {
+            if (pendingEntries.isEmpty()) {
+                return;
+            }
+            batch = new LinkedHashMap<>(pendingEntries);
+            pendingEntries.clear();
+        }
+        Map<String, T> entries = new LinkedHashMap<>();
+        batch.forEach((id, pending) -> entries.put(id, pending.entry()));
+        Set<String> failedIds;
+        try {
+            failedIds = write(entries);
+        } catch (Exception e) {
+            log.error("Unable to write {} {}s", entries.size(), entryName, e);
+            failedIds = entries.keySet();
+        }
+        for (Map.Entry<String, PendingEntry<T>> entry : batch.entrySet()) {
+            if (!failedIds.contains(entry.getKey())) {
+                entry.getValue().ack(true);
+            }
+        }
+        requeue(batch, failedIds).forEach(dropped -> dropped.ack(false));
+    }
+
+    @Override
+    public void destroy() {
+        synchronized (this) {
+            closed = true;
+        }
+        if (flusher != null) {
+            flusher.shutdown();
+            try {
+                flusher.awaitTermination(jobConsumerConfig.getShutdownTimeoutMs(), TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        for (int attempt = 0; attempt < jobConsumerConfig.getStatusWriteMaxAttempts() && getPendingCount() > 0; attempt++) {
+            flush();
+        }
+    }
+
+    private void flushQuietly() {
+        flushRequested.set(false);
+        try {
+            flush();
+        } catch (Exception e) {
+            log.error("Unable to flush {}s", entryName, e);
+        }
+    }
+
+    private void writeNow(String id, PendingEntry<T> pendingEntry) {
+        boolean written;
+        try {
+            written = write(Map.of(id, pendingEntry.entry())).isEmpty();
+            if (!written) {
+                log.error("Unable to write {} :{}", entryName, id);
+            }
+        } catch (Exception e) {
+            log.error("Unable to write {} :{}", entryName, id, e);
+            written = false;
+        }
+        pendingEntry.ack(written);
+    }
+
+    /**
+     * Failed entries go back under the entries buffered since, unless they ran out of attempts
+     * @return the entries that ran out of attempts
+     */
+    private synchronized List<PendingEntry<T>> requeue(Map<String, PendingEntry<T>> batch, Set<String> failedIds) {
+        List<PendingEntry<T>> dropped = new ArrayList<>();
+        for (String id : failedIds) {
+            PendingEntry<T> failed = batch.get(id);
+            if (failed.attempts() >= jobConsumerConfig.getStatusWriteMaxAttempts()) {
+                log.error("Dropping {} :{} after {} attempts", entryName, id, failed.attempts());
+                dropped.add(failed);
+                continue;
+            }
+            PendingEntry<T> newer = pendingEntries.get(id);
+            PendingEntry<T> retry = new PendingEntry<>(failed.entry(), failed.attempts() + 1, failed.acks());
+            pendingEntries.put(id, newer == null ? retry : retry.mergedWith(newer, this::merge));
+        }
+        return dropped;
+    }
+
+    /**
+     * @param acks completed once the entry is written or dropped, including those of the entries merged into it
+     */
+    private record PendingEntry<T>(T entry, int attempts, List<CompletableFuture<Boolean>> acks) {
+
+        PendingEntry<T> mergedWith(PendingEntry<T> later, BinaryOperator<T> merger) {
+            T merged = merger.apply(entry, later.entry());
+            if (later.acks().isEmpty()) {
+                return new PendingEntry<>(merged, attempts, acks);
+            }
+            List<CompletableFuture<Boolean>> mergedAcks = new ArrayList<>(acks);
+            mergedAcks.addAll(later.acks());
+            return new PendingEntry<>(merged, attempts, mergedAcks);
+        }
+
+        void ack(boolean written) {
+            acks.forEach(ack -> ack.complete(written));
+        }
+    }
+}
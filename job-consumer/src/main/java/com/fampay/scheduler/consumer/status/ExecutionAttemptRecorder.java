@@ -0,0 +1,35 @@
+package com.fampay.scheduler.consumer.status;
+
+import com.fampay.scheduler.consumer.JobConsumerConfig;
+import com.fampay.scheduler.models.entity.JobExecutionAttemptEntity;
+import com.fampay.scheduler.repository.JobExecutionAttemptDao;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Buffers the attempts of executions and writes them to job_execution_attempts with one unordered bulk write per
+ * flush, on the same interval and size as the execution status updates. Once closed every attempt is written
+ * synchronously.
+ */
+@Component
+public class ExecutionAttemptRecorder extends BufferedBulkWriter<JobExecutionAttemptEntity> {
+
+    private final JobExecutionAttemptDao jobExecutionAttemptDao;
+
+    public ExecutionAttemptRecorder(JobExecutionAttemptDao jobExecutionAttemptDao, JobConsumerConfig jobConsumerConfig) {
+        super(jobConsumerConfig, "execution attempt");
+        this.jobExecutionAttemptDao = jobExecutionAttemptDao;
+    }
+
+    public void record(JobExecutionAttemptEntity jobExecutionAttemptEntity) {
+        buffer(jobExecutionAttemptEntity.getRunId(), jobExecutionAttemptEntity, null);
+    }
+
+    @Override
+    protected Set<String> write(Map<String, JobExecutionAttemptEntity> attemptsByRunId) {
+        return jobExecutionAttemptDao.createJobExecutionAttemptsInBulk(List.copyOf(attemptsByRunId.values()));
+    }
+}
@@ -0,0 +1,68 @@
+package com.fampay.scheduler.consumer.status;
+
+import com.fampay.scheduler.consumer.JobConsumerConfig;
+import com.fampay.scheduler.repository.JobExecutionDao;
+import com.fampay.scheduler.repository.dto.UpdateJobExecutionDto;
+import org.joda.time.DateTimeUtils;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Buffers execution status updates and writes them with one unordered bulk write per flush. Updates of the same
+ * execution that land within a flush are merged into one write, a failed update retried under a newer one too.
+ * <p>
+ * Buffered updates are visible to readers up to one flush interval late. Callers that must not move on before an
+ * update is durable wait for it through {@link #updateWithAck}. Once closed every update is written synchronously.
+ */
+@Component
+public class ExecutionStatusWriteBehind extends BufferedBulkWriter<UpdateJobExecutionDto> {
+
+    private final JobExecutionDao jobExecutionDao;
+
+    public ExecutionStatusWriteBehind(JobExecutionDao jobExecutionDao, JobConsumerConfig jobConsumerConfig) {
+        super(jobConsumerConfig, "status update");
+        this.jobExecutionDao = jobExecutionDao;
+    }
+
+    /**
+     * Buffers the update, merged over the pending update of the execution if there is one
+     */
+    public void update(String executionId, UpdateJobExecutionDto updateJobExecutionDto) {
+        updateJobExecutionDto.setUpdatedAt(DateTimeUtils.currentTimeMillis());
+        buffer(executionId, updateJobExecutionDto, null);
+    }
+
+    /**
+     * Buffers the update like {@link #update}
+     * @return completes with true once the update is written, or with false once it was dropped after
+     * statusWriteMaxAttempts
+     */
+    public CompletableFuture<Boolean> updateWithAck(String executionId, UpdateJobExecutionDto updateJobExecutionDto) {
+        CompletableFuture<Boolean> written = new CompletableFuture<>();
+        updateJobExecutionDto.setUpdatedAt(DateTimeUtils.currentTimeMillis());
+        buffer(executionId, updateJobExecutionDto, written);
+        return written;
+    }
+
+    @Override
+    protected Set<String> write(Map<String, UpdateJobExecutionDto> updates) {
+        return jobExecutionDao.updateJobExecutionStatusesInBulk(updates);
+    }
+
+    /**
+     * Fields set by the later update win, the others are kept
+     */
+    @Override
+    protected UpdateJobExecutionDto merge(UpdateJobExecutionDto update, UpdateJobExecutionDto laterUpdate) {
+        return UpdateJobExecutionDto.builder()
+                .status(laterUpdate.getStatus() != null ? laterUpdate.getStatus() : update.getStatus())
+                .executionResponse(laterUpdate.getExecutionResponse() != null ? laterUpdate.getExecutionResponse() : update.getExecutionResponse())
+                .startTime(laterUpdate.getStartTime() != null ? laterUpdate.getStartTime() : update.getStartTime())
+                .endTime(laterUpdate.getEndTime() != null ? laterUpdate.getEndTime() : update.getEndTime())
+                .updatedAt(laterUpdate.getUpdatedAt() != null ? laterUpdate.getUpdatedAt() : update.getUpdatedAt())
+                .build();
+    }
+}
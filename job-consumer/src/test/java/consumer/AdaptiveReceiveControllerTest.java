@@ -0,0 +1,93 @@
+package consumer;
+
+import com.fampay.scheduler.commons.exception.InternalLibraryException;
+import com.fampay.scheduler.commons.queue.IMessageConsumer;
+import com.fampay.scheduler.consumer.JobConsumerConfig;
+import com.fampay.scheduler.consumer.engine.AdaptiveReceiveController;
+import com.fampay.scheduler.consumer.engine.AdaptiveReceiveController.ReceiveDecision;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class AdaptiveReceiveControllerTest {
+
+    private static final String QUEUE_NAME = "local-job-queue";
+
+    @Mock
+    private IMessageConsumer messageConsumer;
+
+    private final JobConsumerConfig jobConsumerConfig = new JobConsumerConfig();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private AdaptiveReceiveController controller;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        jobConsumerConfig.setReceiversPerQueue(4);
+        jobConsumerConfig.getAdaptiveReceive().setEnabled(true);
+        jobConsumerConfig.getAdaptiveReceive().setSampleIntervalMs(0L);
+        controller = new AdaptiveReceiveController(messageConsumer, jobConsumerConfig, meterRegistry);
+    }
+
+    @Test
+    void testBacklog_UsesAllReceiversWithShortWait() {
+        when(messageConsumer.getApproxMessages(QUEUE_NAME)).thenReturn(1000L);
+
+        assertEquals(new ReceiveDecision(4, 1), controller.getDecision(QUEUE_NAME));
+        assertEquals(4.0, meterRegistry.get("job.consumer.receive.active_receivers").tag("queue", QUEUE_NAME).gauge().value());
+        assertEquals(1000.0, meterRegistry.get("job.consumer.receive.queue_depth").tag("queue", QUEUE_NAME).gauge().value());
+    }
+
+    @Test
+    void testEmptyReceives_FallBackToSingleLongPollingReceiver() {
+        when(messageConsumer.getApproxMessages(QUEUE_NAME)).thenReturn(1000L).thenReturn(0L);
+        controller.getDecision(QUEUE_NAME);
+
+        for (int i = 0; i < 10; i++) {
+            controller.recordReceive(QUEUE_NAME, 0);
+        }
+
+        assertEquals(new ReceiveDecision(1, 20), controller.getDecision(QUEUE_NAME));
+        assertEquals(20.0, meterRegistry.get("job.consumer.receive.wait_time").tag("queue", QUEUE_NAME).gauge().value());
+        controller.getDecision(QUEUE_NAME);
+        verify(messageConsumer, times(2)).getApproxMessages(QUEUE_NAME);
+    }
+
+    @Test
+    void testIdleQueue_DepthIsOnlyReadAgainAfterAFullReceive() {
+        when(messageConsumer.getApproxMessages(QUEUE_NAME)).thenReturn(0L).thenReturn(500L);
+        controller.getDecision(QUEUE_NAME);
+        controller.recordReceive(QUEUE_NAME, 3);
+        controller.getDecision(QUEUE_NAME);
+        verify(messageConsumer, times(1)).getApproxMessages(QUEUE_NAME);
+
+        controller.recordReceive(QUEUE_NAME, AdaptiveReceiveController.MAX_BATCH_SIZE);
+
+        assertEquals(new ReceiveDecision(4, 1), controller.getDecision(QUEUE_NAME));
+        verify(messageConsumer, times(2)).getApproxMessages(QUEUE_NAME);
+    }
+
+    @Test
+    void testModerateDepth_KeepsReceivers() {
+        when(messageConsumer.getApproxMessages(QUEUE_NAME)).thenReturn(250L).thenReturn(30L);
+        controller.recordReceive(QUEUE_NAME, 5);
+
+        assertEquals(new ReceiveDecision(3, 1), controller.getDecision(QUEUE_NAME));
+        assertEquals(new ReceiveDecision(3, 20), controller.getDecision(QUEUE_NAME));
+    }
+
+    @Test
+    void testFailedDepthRead_KeepsPreviousDecision() {
+        when(messageConsumer.getApproxMessages(QUEUE_NAME)).thenReturn(120L)
+                .thenThrow(InternalLibraryException.childBuilder().message("unavailable").build());
+        ReceiveDecision decision = controller.getDecision(QUEUE_NAME);
+
+        assertEquals(decision, controller.getDecision(QUEUE_NAME));
+        assertEquals(new ReceiveDecision(2, 1), decision);
+    }
+}
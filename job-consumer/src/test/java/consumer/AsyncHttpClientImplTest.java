@@ -0,0 +1,126 @@
+package consumer;
+
+import com.fampay.scheduler.commons.http.body.EncodedBody;
+import com.fampay.scheduler.commons.http.body.EncodedBodyCache;
+import com.fampay.scheduler.commons.http.breaker.EndpointCircuitBreakers;
+import com.fampay.scheduler.commons.http.bulkhead.HostBulkheads;
+import com.fampay.scheduler.commons.http.client.AsyncHttpClient;
+import com.fampay.scheduler.commons.http.client.impl.AsyncHttpClientImpl;
+import com.fampay.scheduler.commons.http.config.WebClientProperties;
+import com.fampay.scheduler.commons.http.dto.ApiRequest;
+import com.fampay.scheduler.commons.http.dto.ApiResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AsyncHttpClientImplTest {
+
+    @BeforeAll
+    static void warmUp() {
+        //The first exchange initialises the codecs, which would eat into the short deadlines of the tests
+        client(request -> Mono.just(ClientResponse.create(HttpStatus.OK).build())).callApi(request(5000L, 0))
+                .block(Duration.ofSeconds(10));
+    }
+
+    @Test
+    void testHungCall_IsCancelledAtDeadline() {
+        AtomicBoolean cancelled = new AtomicBoolean();
+        AsyncHttpClient client = client(request -> Mono.<ClientResponse>never().doOnCancel(() -> cancelled.set(true)));
+
+        long start = System.currentTimeMillis();
+        Throwable error = assertThrows(Exception.class, () -> client.callApi(request(200L, 0)).block(Duration.ofSeconds(5)));
+
+        assertTrue(AsyncHttpClient.isDeadlineExceeded(error));
+        assertTrue(System.currentTimeMillis() - start < 2000);
+        assertTrue(cancelled.get());
+    }
+
+    @Test
+    void testRetries_ShareTheDeadline() {
+        AtomicInteger attempts = new AtomicInteger();
+        AsyncHttpClient client = client(request -> {
+            attempts.incrementAndGet();
+            return Mono.delay(Duration.ofMillis(100)).then(Mono.error(new IllegalStateException("connection reset")));
+        });
+
+        long start = System.currentTimeMillis();
+        Throwable error = assertThrows(Exception.class, () -> client.callApi(request(250L, 10)).block(Duration.ofSeconds(5)));
+
+        assertTrue(AsyncHttpClient.isDeadlineExceeded(error));
+        assertTrue(System.currentTimeMillis() - start < 1000);
+        assertTrue(attempts.get() <= 3);
+    }
+
+    @Test
+    void testResponseWithinDeadline_IsReturned() {
+        AsyncHttpClient client = client(request -> Mono.delay(Duration.ofMillis(50))
+                .thenReturn(ClientResponse.create(HttpStatus.OK).body("ok").build()));
+
+        ApiResponse apiResponse = client.callApi(request(5000L, 0)).block(Duration.ofSeconds(5));
+
+        assertEquals(200, apiResponse.getHttpStatus());
+        assertEquals("ok", apiResponse.getResponse());
+    }
+
+    @Test
+    void testPayloadWithHash_IsEncodedOnceAndSentAsJson() {
+        List<ClientRequest> requests = new ArrayList<>();
+        WebClientProperties webClientProperties = new WebClientProperties();
+        EncodedBodyCache encodedBodyCache = new EncodedBodyCache(webClientProperties, new SimpleMeterRegistry());
+        AsyncHttpClient client = client(request -> {
+            requests.add(request);
+            return Mono.just(ClientResponse.create(HttpStatus.OK).build());
+        }, encodedBodyCache);
+        Map<String, Object> payload = Map.of("orderId", "order-1");
+        String payloadHash = EncodedBody.contentHash(payload);
+        ApiRequest apiRequest = ApiRequest.builder().url("https://api.example.com/hook").httpMethod(HttpMethod.POST)
+                .payload(payload).payloadHash(payloadHash).build();
+
+        client.callApi(apiRequest).block(Duration.ofSeconds(5));
+        client.callApi(apiRequest).block(Duration.ofSeconds(5));
+
+        assertEquals(1, encodedBodyCache.size());
+        EncodedBody body = encodedBodyCache.get(payloadHash, payload);
+        assertEquals("{\"orderId\":\"order-1\"}", new String(body.getBytes(), StandardCharsets.UTF_8));
+        assertEquals(2, requests.size());
+        for (ClientRequest request : requests) {
+            assertEquals(MediaType.APPLICATION_JSON, request.headers().getContentType());
+            assertEquals(body.getBytes().length, request.headers().getContentLength());
+        }
+    }
+
+    private static AsyncHttpClient client(ExchangeFunction exchangeFunction) {
+        return client(exchangeFunction, new EncodedBodyCache(new WebClientProperties(), new SimpleMeterRegistry()));
+    }
+
+    private static AsyncHttpClient client(ExchangeFunction exchangeFunction, EncodedBodyCache encodedBodyCache) {
+        WebClientProperties webClientProperties = new WebClientProperties();
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        return new AsyncHttpClientImpl(WebClient.builder().exchangeFunction(exchangeFunction).build(),
+                new HostBulkheads(webClientProperties, meterRegistry), new EndpointCircuitBreakers(webClientProperties, meterRegistry),
+                encodedBodyCache);
+    }
+
+    private static ApiRequest request(Long readTimeout, int retries) {
+        return ApiRequest.builder().url("https://slow.example.com/hook").httpMethod(HttpMethod.GET)
+                .readTimeout(readTimeout).retries(retries).build();
+    }
+}
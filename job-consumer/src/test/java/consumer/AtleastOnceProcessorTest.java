@@ -1,21 +1,32 @@
 package consumer;
 
+import com.fampay.scheduler.commons.exception.InternalLibraryException;
+import com.fampay.scheduler.commons.exception.LibraryErrorMessages;
 import com.fampay.scheduler.commons.http.client.AsyncHttpClient;
 import com.fampay.scheduler.commons.http.dto.ApiResponse;
-import com.fampay.scheduler.commons.queue.IMessageConsumer;
+import com.fampay.scheduler.consumer.JobConsumerConfig;
+import com.fampay.scheduler.consumer.ack.MessageDeleteBatcher;
+import com.fampay.scheduler.consumer.batch.BatchDeliveryAggregator;
+import com.fampay.scheduler.consumer.ack.VisibilityLeaseManager;
 import com.fampay.scheduler.consumer.impl.AtleastOnceTypeProcessor;
+import com.fampay.scheduler.consumer.filter.CompletedExecutionFilter;
+import com.fampay.scheduler.consumer.retry.RetryScheduler;
+import com.fampay.scheduler.consumer.status.ExecutionAttemptRecorder;
+import com.fampay.scheduler.consumer.status.ExecutionStatusWriteBehind;
 import com.fampay.scheduler.models.dto.JobExecutionStatus;
 import com.fampay.scheduler.models.dto.JobGuarantee;
 import com.fampay.scheduler.models.entity.JobExecutionEntity;
 import com.fampay.scheduler.models.queue.ApiConfig;
 import com.fampay.scheduler.models.queue.JobMessagePayload;
 import com.fampay.scheduler.repository.JobExecutionDao;
+import org.joda.time.DateTimeUtils;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
 import reactor.core.publisher.Mono;
 
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
@@ -23,19 +34,39 @@ import static org.mockito.Mockito.*;
 public class AtleastOnceProcessorTest {
 
     @Mock
-    private IMessageConsumer messageConsumer;
+    private MessageDeleteBatcher messageDeleteBatcher;
+
+    @Mock
+    private VisibilityLeaseManager visibilityLeaseManager;
 
     @Mock
     private JobExecutionDao jobExecutionDao;
 
+    @Mock
+    private ExecutionStatusWriteBehind executionStatusWriteBehind;
+
+    @Mock
+    private CompletedExecutionFilter completedExecutionFilter;
+
+    @Mock
+    private ExecutionAttemptRecorder executionAttemptRecorder;
+
+    @Mock
+    private RetryScheduler retryScheduler;
+
     @Mock
     private AsyncHttpClient asyncHttpClient;
 
+    @Mock
+    private BatchDeliveryAggregator batchDeliveryAggregator;
+
+    @Spy
+    private JobConsumerConfig jobConsumerConfig = new JobConsumerConfig();
+
     @InjectMocks
     private AtleastOnceTypeProcessor processor;
 
     private JobMessagePayload payload;
-    private JobExecutionEntity jobEntity;
 
     @BeforeEach
     void setUp() {
@@ -52,16 +83,13 @@ public class AtleastOnceProcessorTest {
         payload = new JobMessagePayload();
         payload.setExecutionId("exec-1");
         payload.setApiConfig(apiConfig);
-
-        jobEntity = new JobExecutionEntity();
-        jobEntity.setExecutionId("exec-1");
-        jobEntity.setStatus(JobExecutionStatus.SCHEDULED.name());
+        when(executionStatusWriteBehind.updateWithAck(anyString(), any())).thenReturn(CompletableFuture.completedFuture(true));
     }
 
     @Test
     void testProcessJobExecution_SuccessfulApiCall() {
         // Given
-        when(jobExecutionDao.findByExecutionId("exec-1")).thenReturn(Optional.of(jobEntity));
+        when(jobExecutionDao.claimExecution(eq("exec-1"), eq(JobGuarantee.ATLEAST_ONCE), anyInt(), anyLong(), anyLong())).thenReturn(true);
 
         ApiResponse mockResponse = ApiResponse.builder()
                 .httpStatus(200)
@@ -74,45 +102,206 @@ public class AtleastOnceProcessorTest {
         processor.processJobExecution(payload, "msg-1", "queue-1");
 
         // Then
-        verify(jobExecutionDao).updateJobExecutionStatus(eq("exec-1"), argThat(dto ->
-                dto.getStatus().equals(JobExecutionStatus.STARTED.name())
-        ));
-        verify(jobExecutionDao, timeout(1000)).updateJobExecutionStatus(eq("exec-1"), argThat(dto ->
+        verify(jobExecutionDao).claimExecution(eq("exec-1"), eq(JobGuarantee.ATLEAST_ONCE), anyInt(), anyLong(), anyLong());
+        verify(executionStatusWriteBehind, timeout(1000)).updateWithAck(eq("exec-1"), argThat(dto ->
                 dto.getStatus().equals(JobExecutionStatus.FINISHED.name())
                         && dto.getExecutionResponse().getStatus().equals("200")
         ));
-        verify(messageConsumer, timeout(1000)).deleteMessage("queue-1", "msg-1");
+        verify(messageDeleteBatcher, timeout(1000)).delete("queue-1", "msg-1");
+        verify(executionAttemptRecorder).record(argThat(attempt -> "exec-1_1".equals(attempt.getRunId())
+                && JobExecutionStatus.FINISHED.name().equals(attempt.getStatus())));
+    }
+
+    @Test
+    void testProcessJobExecution_BatchDeliveryGoesThroughAggregator() {
+        payload.getApiConfig().setBatchDelivery(true);
+        when(jobExecutionDao.claimExecution(eq("exec-1"), eq(JobGuarantee.ATLEAST_ONCE), anyInt(), anyLong(), anyLong())).thenReturn(true);
+        when(batchDeliveryAggregator.submit(payload)).thenReturn(Mono.just(new ApiResponse("\"done\"", 200)));
+
+        processor.processJobExecution(payload, "msg-1", "queue-1");
+
+        verify(executionStatusWriteBehind, timeout(1000)).updateWithAck(eq("exec-1"), argThat(dto ->
+                dto.getStatus().equals(JobExecutionStatus.FINISHED.name()) && "\"done\"".equals(dto.getExecutionResponse().getResponse())));
+        verify(messageDeleteBatcher, timeout(1000)).delete("queue-1", "msg-1");
+        verifyNoInteractions(asyncHttpClient);
+    }
+
+    @Test
+    void testProcessJobExecution_FailedApiCallEnqueuesNextAttempt() {
+        when(jobExecutionDao.claimExecution(eq("exec-1"), eq(JobGuarantee.ATLEAST_ONCE), anyInt(), anyLong(), anyLong())).thenReturn(true);
+        when(asyncHttpClient.callApi(any())).thenReturn(Mono.error(new RuntimeException("connection reset")));
+        when(retryScheduler.hasRetriesLeft(payload)).thenReturn(true);
+        when(retryScheduler.scheduleRetry("queue-1", payload)).thenReturn(CompletableFuture.completedFuture(true));
+
+        processor.processJobExecution(payload, "msg-1", "queue-1");
+
+        verify(messageDeleteBatcher, timeout(1000)).delete("queue-1", "msg-1");
+        verify(executionAttemptRecorder).record(argThat(attempt -> attempt.getAttempt() == 1
+                && JobExecutionStatus.FAILED.name().equals(attempt.getStatus())));
+        verify(visibilityLeaseManager, never()).release(anyString(), anyString());
+        verifyNoInteractions(executionStatusWriteBehind);
+    }
+
+    @Test
+    void testProcessJobExecution_ServerErrorIsRetried() {
+        when(jobExecutionDao.claimExecution(eq("exec-1"), eq(JobGuarantee.ATLEAST_ONCE), anyInt(), anyLong(), anyLong())).thenReturn(true);
+        when(asyncHttpClient.callApi(any())).thenReturn(Mono.just(ApiResponse.builder().httpStatus(503).response("busy").build()));
+        when(retryScheduler.hasRetriesLeft(payload)).thenReturn(true);
+        when(retryScheduler.scheduleRetry("queue-1", payload)).thenReturn(CompletableFuture.completedFuture(true));
+
+        processor.processJobExecution(payload, "msg-1", "queue-1");
+
+        verify(retryScheduler, timeout(1000)).scheduleRetry("queue-1", payload);
+        verify(executionStatusWriteBehind, never()).updateWithAck(anyString(), any());
+    }
+
+    @Test
+    void testProcessJobExecution_FailedRetryEnqueueReleasesMessageWithBackoff() {
+        when(jobExecutionDao.claimExecution(eq("exec-1"), eq(JobGuarantee.ATLEAST_ONCE), anyInt(), anyLong(), anyLong())).thenReturn(true);
+        when(asyncHttpClient.callApi(any())).thenReturn(Mono.error(new RuntimeException("connection reset")));
+        when(retryScheduler.hasRetriesLeft(payload)).thenReturn(true);
+        when(retryScheduler.scheduleRetry("queue-1", payload)).thenReturn(CompletableFuture.completedFuture(false));
+        when(retryScheduler.getRetryDelaySeconds(1)).thenReturn(7);
+
+        processor.processJobExecution(payload, "msg-1", "queue-1");
+
+        verify(visibilityLeaseManager, timeout(1000)).release("queue-1", "msg-1", 7);
+        verify(messageDeleteBatcher, never()).delete(anyString(), anyString());
+    }
+
+    @Test
+    void testProcessJobExecution_MessageIsKeptUntilRetryIsSent() {
+        CompletableFuture<Boolean> sent = new CompletableFuture<>();
+        when(jobExecutionDao.claimExecution(eq("exec-1"), eq(JobGuarantee.ATLEAST_ONCE), anyInt(), anyLong(), anyLong())).thenReturn(true);
+        when(asyncHttpClient.callApi(any())).thenReturn(Mono.error(new RuntimeException("connection reset")));
+        when(retryScheduler.hasRetriesLeft(payload)).thenReturn(true);
+        when(retryScheduler.scheduleRetry("queue-1", payload)).thenReturn(sent);
+
+        processor.processJobExecution(payload, "msg-1", "queue-1");
+
+        verify(retryScheduler, timeout(1000)).scheduleRetry("queue-1", payload);
+        verify(messageDeleteBatcher, never()).delete(anyString(), anyString());
+        sent.complete(true);
+        verify(messageDeleteBatcher).delete("queue-1", "msg-1");
+    }
+
+    @Test
+    void testProcessJobExecution_OpenCircuitDefersWithoutUsingAttempt() {
+        when(jobExecutionDao.claimExecution(eq("exec-1"), eq(JobGuarantee.ATLEAST_ONCE), anyInt(), anyLong(), anyLong())).thenReturn(true);
+        when(asyncHttpClient.callApi(any())).thenReturn(Mono.error(InternalLibraryException.childBuilder()
+                .message(LibraryErrorMessages.CIRCUIT_OPEN).build()));
+
+        processor.processJobExecution(payload, "msg-1", "queue-1");
+
+        verify(visibilityLeaseManager, timeout(1000)).release("queue-1", "msg-1", 30);
+        verifyNoInteractions(executionAttemptRecorder, retryScheduler, messageDeleteBatcher);
+    }
+
+    @Test
+    void testProcessJobExecution_TimedOutLastAttemptEndsExecution() {
+        payload.setAttempt(4);
+        when(jobExecutionDao.claimExecution(eq("exec-1"), eq(JobGuarantee.ATLEAST_ONCE), anyInt(), anyLong(), anyLong())).thenReturn(true);
+        when(asyncHttpClient.callApi(any())).thenReturn(Mono.error(InternalLibraryException.childBuilder()
+                .message(LibraryErrorMessages.DEADLINE_EXCEEDED).build()));
+        when(retryScheduler.hasRetriesLeft(payload)).thenReturn(false);
+
+        processor.processJobExecution(payload, "msg-1", "queue-1");
+
+        verify(executionStatusWriteBehind, timeout(1000)).updateWithAck(eq("exec-1"), argThat(dto ->
+                JobExecutionStatus.TIMED_OUT.name().equals(dto.getStatus())));
+        verify(executionAttemptRecorder).record(argThat(attempt -> "exec-1_4".equals(attempt.getRunId())));
+        verify(completedExecutionFilter).markCompleted("exec-1");
+        verify(messageDeleteBatcher).delete("queue-1", "msg-1");
+        verify(retryScheduler, never()).scheduleRetry(anyString(), any());
+    }
+
+    @Test
+    void testProcessJobExecution_MessageIsKeptUntilFinalStatusIsWritten() {
+        CompletableFuture<Boolean> written = new CompletableFuture<>();
+        when(executionStatusWriteBehind.updateWithAck(anyString(), any())).thenReturn(written);
+        when(jobExecutionDao.claimExecution(eq("exec-1"), eq(JobGuarantee.ATLEAST_ONCE), anyInt(), anyLong(), anyLong())).thenReturn(true);
+        when(asyncHttpClient.callApi(any())).thenReturn(Mono.just(ApiResponse.builder().httpStatus(200).response("ok").build()));
+
+        processor.processJobExecution(payload, "msg-1", "queue-1");
+        verify(executionStatusWriteBehind, timeout(1000)).updateWithAck(eq("exec-1"), any());
+        verifyNoInteractions(messageDeleteBatcher, completedExecutionFilter);
+
+        written.complete(false);
+
+        verify(visibilityLeaseManager).release("queue-1", "msg-1", 300);
+        verifyNoInteractions(messageDeleteBatcher, completedExecutionFilter);
+    }
+
+    @Test
+    void testProcessJobExecution_ClaimsWithTheAttemptAndALease() {
+        payload.setAttempt(3);
+        when(jobExecutionDao.claimExecution(eq("exec-1"), eq(JobGuarantee.ATLEAST_ONCE), anyInt(), anyLong(), anyLong())).thenReturn(false);
+
+        processor.processJobExecution(payload, "msg-1", "queue-1");
+
+        verify(jobExecutionDao).claimExecution(eq("exec-1"), eq(JobGuarantee.ATLEAST_ONCE), eq(3), anyLong(), eq(300000L));
     }
 
     @Test
     void testProcessJobExecution_JobExecutionNotFound() {
+        when(jobExecutionDao.claimExecution(eq("exec-1"), eq(JobGuarantee.ATLEAST_ONCE), anyInt(), anyLong(), anyLong())).thenReturn(false);
         when(jobExecutionDao.findByExecutionId("exec-1")).thenReturn(Optional.empty());
 
         processor.processJobExecution(payload, "msg-1", "queue-1");
 
-        verify(messageConsumer).deleteMessage("queue-1", "msg-1");
+        verify(messageDeleteBatcher).delete("queue-1", "msg-1");
         verifyNoInteractions(asyncHttpClient);
+        verify(completedExecutionFilter, never()).markCompleted(anyString());
     }
 
     @Test
     void testProcessJobExecution_TerminalJobState() {
-        jobEntity.setStatus(JobExecutionStatus.FINISHED.name());
-        when(jobExecutionDao.findByExecutionId("exec-1")).thenReturn(Optional.of(jobEntity));
+        when(jobExecutionDao.claimExecution(eq("exec-1"), eq(JobGuarantee.ATLEAST_ONCE), anyInt(), anyLong(), anyLong())).thenReturn(false);
+        when(jobExecutionDao.findByExecutionId("exec-1")).thenReturn(Optional.of(execution(JobExecutionStatus.FAILED, 4, null)));
 
         processor.processJobExecution(payload, "msg-1", "queue-1");
 
-        verify(messageConsumer).deleteMessage("queue-1", "msg-1");
+        verify(messageDeleteBatcher).delete("queue-1", "msg-1");
         verifyNoInteractions(asyncHttpClient);
+        verify(completedExecutionFilter).markCompleted("exec-1");
+    }
+
+    @Test
+    void testProcessJobExecution_LiveClaimOfTheSameAttemptHandsTheDuplicateBackAfterTheLease() {
+        when(jobExecutionDao.claimExecution(eq("exec-1"), eq(JobGuarantee.ATLEAST_ONCE), anyInt(), anyLong(), anyLong())).thenReturn(false);
+        when(jobExecutionDao.findByExecutionId("exec-1")).thenReturn(Optional.of(
+                execution(JobExecutionStatus.STARTED, 1, DateTimeUtils.currentTimeMillis() + 60_000L)));
+
+        processor.processJobExecution(payload, "msg-1", "queue-1");
+
+        verify(visibilityLeaseManager).release(eq("queue-1"), eq("msg-1"), intThat(delay -> delay > 55 && delay <= 60));
+        verify(messageDeleteBatcher, never()).delete(anyString(), anyString());
+        verify(completedExecutionFilter, never()).markCompleted(anyString());
+        verifyNoInteractions(asyncHttpClient);
+    }
+
+    @Test
+    void testProcessJobExecution_MessageOfAnAttemptTakenOverIsDropped() {
+        payload.setAttempt(2);
+        when(jobExecutionDao.claimExecution(eq("exec-1"), eq(JobGuarantee.ATLEAST_ONCE), anyInt(), anyLong(), anyLong())).thenReturn(false);
+        when(jobExecutionDao.findByExecutionId("exec-1")).thenReturn(Optional.of(
+                execution(JobExecutionStatus.STARTED, 3, DateTimeUtils.currentTimeMillis() + 60_000L)));
+
+        processor.processJobExecution(payload, "msg-1", "queue-1");
+
+        verify(messageDeleteBatcher).delete("queue-1", "msg-1");
+        verify(completedExecutionFilter, never()).markCompleted(anyString());
+        verify(visibilityLeaseManager, never()).release(anyString(), anyString(), anyInt());
     }
 
     @Test
     void testProcessJobExecution_ApiCallThrowsException() {
-        when(jobExecutionDao.findByExecutionId("exec-1")).thenReturn(Optional.of(jobEntity));
+        when(jobExecutionDao.claimExecution(eq("exec-1"), eq(JobGuarantee.ATLEAST_ONCE), anyInt(), anyLong(), anyLong())).thenReturn(true);
         when(asyncHttpClient.callApi(any())).thenThrow(new RuntimeException("HTTP failure"));
 
         processor.processJobExecution(payload, "msg-1", "queue-1");
 
-        verify(jobExecutionDao).updateJobExecutionStatus(eq("exec-1"), argThat(dto ->
+        verify(executionStatusWriteBehind).updateWithAck(eq("exec-1"), argThat(dto ->
                 dto.getStatus().equals(JobExecutionStatus.FAILED.name()) &&
                         dto.getExecutionResponse().getResponse().contains("HTTP failure")
         ));
@@ -122,5 +311,8 @@ public class AtleastOnceProcessorTest {
     void testGetTypeProcessor_ReturnsAtleastOnce() {
         assert(processor.getTypeProcessor() == JobGuarantee.ATLEAST_ONCE);
     }
-}
 
+    private static JobExecutionEntity execution(JobExecutionStatus status, Integer attempt, Long claimedUntil) {
+        return JobExecutionEntity.builder().executionId("exec-1").status(status.name()).attempt(attempt).claimedUntil(claimedUntil).build();
+    }
+}
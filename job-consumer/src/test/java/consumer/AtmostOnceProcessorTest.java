@@ -1,12 +1,16 @@
 package consumer;
 
+import com.fampay.scheduler.commons.exception.InternalLibraryException;
+import com.fampay.scheduler.commons.exception.LibraryErrorMessages;
 import com.fampay.scheduler.commons.http.client.AsyncHttpClient;
 import com.fampay.scheduler.commons.http.dto.ApiResponse;
-import com.fampay.scheduler.commons.queue.IMessageConsumer;
+import com.fampay.scheduler.consumer.ack.MessageDeleteBatcher;
+import com.fampay.scheduler.consumer.batch.BatchDeliveryAggregator;
 import com.fampay.scheduler.consumer.impl.AtmostOnceTypeProcessor;
+import com.fampay.scheduler.consumer.filter.CompletedExecutionFilter;
+import com.fampay.scheduler.consumer.status.ExecutionStatusWriteBehind;
 import com.fampay.scheduler.models.dto.JobExecutionStatus;
 import com.fampay.scheduler.models.dto.JobGuarantee;
-import com.fampay.scheduler.models.entity.JobExecutionEntity;
 import com.fampay.scheduler.models.queue.ApiConfig;
 import com.fampay.scheduler.models.queue.JobMessagePayload;
 import com.fampay.scheduler.repository.JobExecutionDao;
@@ -15,27 +19,33 @@ import org.junit.jupiter.api.Test;
 import org.mockito.*;
 import reactor.core.publisher.Mono;
 
-import java.util.Optional;
-
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
 public class AtmostOnceProcessorTest {
 
     @Mock
-    private IMessageConsumer messageConsumer;
+    private MessageDeleteBatcher messageDeleteBatcher;
 
     @Mock
     private JobExecutionDao jobExecutionDao;
 
+    @Mock
+    private ExecutionStatusWriteBehind executionStatusWriteBehind;
+
+    @Mock
+    private CompletedExecutionFilter completedExecutionFilter;
+
     @Mock
     private AsyncHttpClient asyncHttpClient;
 
+    @Mock
+    private BatchDeliveryAggregator batchDeliveryAggregator;
+
     @InjectMocks
     private AtmostOnceTypeProcessor processor;
 
     private JobMessagePayload payload;
-    private JobExecutionEntity jobEntity;
 
     @BeforeEach
     void setUp() {
@@ -51,15 +61,11 @@ public class AtmostOnceProcessorTest {
         payload = new JobMessagePayload();
         payload.setExecutionId("exec-1");
         payload.setApiConfig(apiConfig);
-
-        jobEntity = new JobExecutionEntity();
-        jobEntity.setExecutionId("exec-1");
-        jobEntity.setStatus(JobExecutionStatus.SCHEDULED.name());
     }
 
     @Test
     void testProcessJobExecution_SuccessfulApiCall() {
-        when(jobExecutionDao.findByExecutionId("exec-1")).thenReturn(Optional.of(jobEntity));
+        when(jobExecutionDao.claimExecution(eq("exec-1"), eq(JobGuarantee.ATMOST_ONE), anyInt(), anyLong(), anyLong())).thenReturn(true);
         when(asyncHttpClient.callApi(any())).thenReturn(Mono.just(
                 ApiResponse.builder().httpStatus(200).response("{\"ok\":true}").build()
         ));
@@ -67,57 +73,65 @@ public class AtmostOnceProcessorTest {
         processor.processJobExecution(payload, "msg-1", "queue-1");
 
         // Verify status moved to STARTED
-        verify(jobExecutionDao).updateJobExecutionStatus(eq("exec-1"), argThat(dto ->
-                dto.getStatus().equals(JobExecutionStatus.STARTED.name())
-        ));
+        verify(jobExecutionDao).claimExecution(eq("exec-1"), eq(JobGuarantee.ATMOST_ONE), anyInt(), anyLong(), anyLong());
 
         // Verify message deleted immediately
-        verify(messageConsumer).deleteMessage("queue-1", "msg-1");
+        verify(messageDeleteBatcher).delete("queue-1", "msg-1");
 
         // Verify response eventually leads to FINISHED state
-        verify(jobExecutionDao, timeout(1000)).updateJobExecutionStatus(eq("exec-1"), argThat(dto ->
+        verify(executionStatusWriteBehind, timeout(1000)).update(eq("exec-1"), argThat(dto ->
                 dto.getStatus().equals(JobExecutionStatus.FINISHED.name()) &&
                         dto.getExecutionResponse().getStatus().equals("200")
         ));
     }
 
+    @Test
+    void testProcessJobExecution_TimedOutApiCall_ShouldMarkTimedOut() {
+        when(jobExecutionDao.claimExecution(eq("exec-1"), eq(JobGuarantee.ATMOST_ONE), anyInt(), anyLong(), anyLong())).thenReturn(true);
+        when(asyncHttpClient.callApi(any())).thenReturn(Mono.error(InternalLibraryException.childBuilder()
+                .message(LibraryErrorMessages.DEADLINE_EXCEEDED).build()));
+
+        processor.processJobExecution(payload, "msg-1", "queue-1");
+
+        verify(executionStatusWriteBehind, timeout(1000)).update(eq("exec-1"), argThat(dto ->
+                JobExecutionStatus.TIMED_OUT.name().equals(dto.getStatus())));
+        verify(messageDeleteBatcher).delete("queue-1", "msg-1");
+    }
+
     @Test
     void testProcessJobExecution_AlreadyStarted_ShouldNotCallApi() {
-        jobEntity.setStatus(JobExecutionStatus.STARTED.name());
-        when(jobExecutionDao.findByExecutionId("exec-1")).thenReturn(Optional.of(jobEntity));
+        when(jobExecutionDao.claimExecution(eq("exec-1"), eq(JobGuarantee.ATMOST_ONE), anyInt(), anyLong(), anyLong())).thenReturn(false);
 
         processor.processJobExecution(payload, "msg-1", "queue-1");
 
-        verify(messageConsumer).deleteMessage("queue-1", "msg-1");
+        verify(messageDeleteBatcher).delete("queue-1", "msg-1");
         verifyNoInteractions(asyncHttpClient);
-        verify(jobExecutionDao, never()).updateJobExecutionStatus(eq("exec-1"), argThat(dto ->
-                JobExecutionStatus.STARTED.name().equals(dto.getStatus())
-        ));
+        verifyNoInteractions(executionStatusWriteBehind);
     }
 
     @Test
     void testProcessJobExecution_JobNotFound_ShouldOnlyDeleteMessage() {
-        when(jobExecutionDao.findByExecutionId("exec-1")).thenReturn(Optional.empty());
+        when(jobExecutionDao.claimExecution(eq("exec-1"), eq(JobGuarantee.ATMOST_ONE), anyInt(), anyLong(), anyLong())).thenReturn(false);
 
         processor.processJobExecution(payload, "msg-1", "queue-1");
 
-        verify(messageConsumer).deleteMessage("queue-1", "msg-1");
+        verify(messageDeleteBatcher).delete("queue-1", "msg-1");
         verifyNoInteractions(asyncHttpClient);
     }
 
     @Test
     void testProcessJobExecution_ApiCallThrowsException_ShouldMarkFailed() {
-        when(jobExecutionDao.findByExecutionId("exec-1")).thenReturn(Optional.of(jobEntity));
+        when(jobExecutionDao.claimExecution(eq("exec-1"), eq(JobGuarantee.ATMOST_ONE), anyInt(), anyLong(), anyLong())).thenReturn(true);
         when(asyncHttpClient.callApi(any())).thenThrow(new RuntimeException("HTTP failed"));
 
         processor.processJobExecution(payload, "msg-1", "queue-1");
 
-        verify(jobExecutionDao).updateJobExecutionStatus(eq("exec-1"), argThat(dto ->
+        verify(executionStatusWriteBehind).update(eq("exec-1"), argThat(dto ->
                 dto.getStatus().equals(JobExecutionStatus.FAILED.name()) &&
                         dto.getExecutionResponse().getResponse().contains("HTTP failed")
         ));
 
-        verify(messageConsumer).deleteMessage("queue-1", "msg-1");
+        verify(messageDeleteBatcher).delete("queue-1", "msg-1");
     }
 
     @Test
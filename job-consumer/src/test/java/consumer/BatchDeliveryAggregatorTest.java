@@ -0,0 +1,124 @@
+package consumer;
+
+import com.fampay.scheduler.commons.http.client.AsyncHttpClient;
+import com.fampay.scheduler.commons.http.dto.ApiRequest;
+import com.fampay.scheduler.commons.http.dto.ApiResponse;
+import com.fampay.scheduler.consumer.JobConsumerConfig;
+import com.fampay.scheduler.consumer.batch.BatchDeliveryAggregator;
+import com.fampay.scheduler.consumer.batch.BatchDeliveryEnvelope;
+import com.fampay.scheduler.models.queue.ApiConfig;
+import com.fampay.scheduler.models.queue.JobMessagePayload;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpMethod;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class BatchDeliveryAggregatorTest {
+
+    @Mock
+    private AsyncHttpClient asyncHttpClient;
+
+    private final JobConsumerConfig jobConsumerConfig = new JobConsumerConfig();
+    private BatchDeliveryAggregator aggregator;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        jobConsumerConfig.getBatchDelivery().setLingerMs(50L);
+        jobConsumerConfig.getBatchDelivery().setMaxBatchSize(3);
+        aggregator = new BatchDeliveryAggregator(asyncHttpClient, jobConsumerConfig, new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        aggregator.destroy();
+    }
+
+    @Test
+    void testExecutionsDueTogether_AreDeliveredInOneCallAndFannedOut() throws Exception {
+        when(asyncHttpClient.callApi(any())).thenReturn(Mono.just(new ApiResponse(
+                "[{\"executionId\":\"exec-2\",\"status\":409,\"response\":{\"reason\":\"duplicate\"}},"
+                        + "{\"executionId\":\"exec-1\",\"status\":200,\"response\":\"done\"}]", 200)));
+
+        CompletableFuture<ApiResponse> first = aggregator.submit(payload("exec-1", 1000L, 3000L)).toFuture();
+        CompletableFuture<ApiResponse> second = aggregator.submit(payload("exec-2", 1000L, 2000L)).toFuture();
+        CompletableFuture<ApiResponse> third = aggregator.submit(payload("exec-3", 1000L, null)).toFuture();
+
+        assertEquals(new ApiResponse("done", 200), first.get(5, TimeUnit.SECONDS));
+        assertEquals(new ApiResponse("{\"reason\":\"duplicate\"}", 409), second.get(5, TimeUnit.SECONDS));
+        assertEquals(BatchDeliveryAggregator.MISSING_RESULT_STATUS, third.get(5, TimeUnit.SECONDS).getHttpStatus());
+
+        ArgumentCaptor<ApiRequest> request = ArgumentCaptor.forClass(ApiRequest.class);
+        verify(asyncHttpClient).callApi(request.capture());
+        assertEquals(HttpMethod.POST, request.getValue().getHttpMethod());
+        assertEquals("https://internal.example.com/batch", request.getValue().getUrl());
+        assertEquals(2000L, request.getValue().getReadTimeout());
+        List<?> envelopes = (List<?>) request.getValue().getPayload();
+        assertEquals(3, envelopes.size());
+        assertEquals(BatchDeliveryEnvelope.builder().executionId("exec-1").jobId("job-exec-1").scheduledRunAt(1000L).attempt(1)
+                .payload(Map.of("id", "exec-1")).build(), envelopes.getFirst());
+    }
+
+    @Test
+    void testDifferentFireTimes_AreSentAfterLingerInSeparateCalls() throws Exception {
+        when(asyncHttpClient.callApi(any())).thenReturn(Mono.just(new ApiResponse("[]", 200)));
+
+        CompletableFuture<ApiResponse> first = aggregator.submit(payload("exec-1", 1000L, null)).toFuture();
+        CompletableFuture<ApiResponse> second = aggregator.submit(payload("exec-2", 2000L, null)).toFuture();
+
+        assertEquals(BatchDeliveryAggregator.MISSING_RESULT_STATUS, first.get(5, TimeUnit.SECONDS).getHttpStatus());
+        assertEquals(BatchDeliveryAggregator.MISSING_RESULT_STATUS, second.get(5, TimeUnit.SECONDS).getHttpStatus());
+        verify(asyncHttpClient, times(2)).callApi(argThat(request -> ((List<?>) request.getPayload()).size() == 1));
+        assertEquals(0, aggregator.getOpenBatchCount());
+    }
+
+    @Test
+    void testFailedBatch_HandsItsOutcomeToEveryExecution() throws Exception {
+        when(asyncHttpClient.callApi(any())).thenReturn(Mono.just(new ApiResponse("unavailable", 503)))
+                .thenReturn(Mono.error(new IllegalStateException("connection reset")));
+
+        CompletableFuture<ApiResponse> first = aggregator.submit(payload("exec-1", 1000L, null)).toFuture();
+        CompletableFuture<ApiResponse> second = aggregator.submit(payload("exec-2", 1000L, null)).toFuture();
+        assertEquals(new ApiResponse("unavailable", 503), first.get(5, TimeUnit.SECONDS));
+        assertEquals(new ApiResponse("unavailable", 503), second.get(5, TimeUnit.SECONDS));
+
+        CompletableFuture<ApiResponse> third = aggregator.submit(payload("exec-3", 2000L, null)).toFuture();
+        ExecutionException error = assertThrows(ExecutionException.class, () -> third.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, error.getCause());
+    }
+
+    @Test
+    void testBatchDelivery_OnlyAppliesToPostCallsOfJobsThatOptIn() {
+        JobMessagePayload optedIn = payload("exec-1", 1000L, null);
+        JobMessagePayload get = payload("exec-2", 1000L, null);
+        get.getApiConfig().setHttpMethod("GET");
+        JobMessagePayload single = payload("exec-3", 1000L, null);
+        single.getApiConfig().setBatchDelivery(false);
+
+        assertTrue(BatchDeliveryAggregator.isBatchDelivery(optedIn));
+        assertFalse(BatchDeliveryAggregator.isBatchDelivery(get));
+        assertFalse(BatchDeliveryAggregator.isBatchDelivery(single));
+    }
+
+    private static JobMessagePayload payload(String executionId, long scheduledRunAt, Long readTimeoutMs) {
+        return JobMessagePayload.builder().executionId(executionId).jobId("job-" + executionId).scheduledRunAt(scheduledRunAt)
+                .type("ATLEAST_ONCE").apiConfig(ApiConfig.builder().url("https://internal.example.com/batch").httpMethod("POST")
+                        .payload(Map.of("id", executionId)).readTimeoutMs(readTimeoutMs).batchDelivery(true).build())
+                .build();
+    }
+}
@@ -0,0 +1,72 @@
+package consumer;
+
+import com.fampay.scheduler.consumer.JobConsumerConfig;
+import com.fampay.scheduler.consumer.filter.CompletedExecutionFilter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CompletedExecutionFilterTest {
+
+    private final JobConsumerConfig jobConsumerConfig = new JobConsumerConfig();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    void setUp() {
+        jobConsumerConfig.setCompletedFilterExpectedInsertions(1000);
+        jobConsumerConfig.setCompletedFilterFalsePositiveRate(0.0001);
+    }
+
+    @Test
+    void testMarkedExecutions_AreKnownComplete() {
+        CompletedExecutionFilter filter = new CompletedExecutionFilter(jobConsumerConfig, meterRegistry);
+
+        filter.markCompleted("exec-1");
+
+        assertTrue(filter.isKnownComplete("exec-1"));
+        assertFalse(filter.isKnownComplete("exec-2"));
+        assertEquals(1.0, meterRegistry.get("job.consumer.completed_filter.hits").counter().count());
+        assertEquals(1.0, meterRegistry.get("job.consumer.completed_filter.size").gauge().value());
+    }
+
+    @Test
+    void testFullGeneration_IsRotatedOutAfterTheNextOne() {
+        jobConsumerConfig.setCompletedFilterExpectedInsertions(10);
+        CompletedExecutionFilter filter = new CompletedExecutionFilter(jobConsumerConfig, meterRegistry);
+
+        for (int i = 0; i < 10; i++) {
+            filter.markCompleted("first-" + i);
+        }
+        filter.markCompleted("second-0");
+        assertTrue(filter.isKnownComplete("first-0"));
+
+        for (int i = 1; i < 11; i++) {
+            filter.markCompleted("second-" + i);
+        }
+        assertTrue(filter.isKnownComplete("second-0"));
+        assertFalse(filter.isKnownComplete("first-0"));
+    }
+
+    @Test
+    void testFalsePositiveRate_IsPublished() {
+        CompletedExecutionFilter filter = new CompletedExecutionFilter(jobConsumerConfig, meterRegistry);
+        for (int i = 0; i < 1000; i++) {
+            filter.markCompleted("exec-" + i);
+        }
+
+        double falsePositiveRate = meterRegistry.get("job.consumer.completed_filter.false_positive_rate").gauge().value();
+        assertTrue(falsePositiveRate > 0 && falsePositiveRate < 0.001);
+    }
+
+    @Test
+    void testDisabledFilter_KnowsNothing() {
+        jobConsumerConfig.setCompletedFilterEnabled(false);
+        CompletedExecutionFilter filter = new CompletedExecutionFilter(jobConsumerConfig, meterRegistry);
+
+        filter.markCompleted("exec-1");
+
+        assertFalse(filter.isKnownComplete("exec-1"));
+    }
+}
@@ -0,0 +1,128 @@
+package consumer;
+
+import com.fampay.scheduler.commons.http.breaker.EndpointCircuitBreaker;
+import com.fampay.scheduler.commons.http.breaker.EndpointCircuitBreakers;
+import com.fampay.scheduler.commons.http.config.WebClientProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EndpointCircuitBreakerTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000L);
+
+    @Test
+    void testFailuresOverWindow_OpenBreakerAndFailFast() {
+        EndpointCircuitBreaker breaker = breaker();
+        for (int i = 0; i < 4; i++) {
+            call(breaker, i % 2 == 0 ? Mono.error(new IllegalStateException("down")) : Mono.just(200));
+        }
+        assertEquals(EndpointCircuitBreaker.State.CLOSED, breaker.getState());
+        call(breaker, Mono.just(503));
+        assertEquals(EndpointCircuitBreaker.State.OPEN, breaker.getState());
+
+        AtomicInteger started = new AtomicInteger();
+        Throwable rejection = call(breaker, Mono.fromSupplier(started::incrementAndGet));
+
+        assertTrue(EndpointCircuitBreaker.isOpenRejection(rejection));
+        assertEquals(0, started.get());
+        assertEquals(1, breaker.getRejectedCalls());
+    }
+
+    @Test
+    void testHalfOpen_LetsLimitedProbesThroughAndClosesOnSuccess() {
+        EndpointCircuitBreaker breaker = openBreaker();
+        now.addAndGet(30_000L);
+
+        call(breaker, Mono.just(200));
+        call(breaker, Mono.just(200));
+        assertEquals(EndpointCircuitBreaker.State.HALF_OPEN, breaker.getState());
+        call(breaker, Mono.just(200));
+
+        assertEquals(EndpointCircuitBreaker.State.CLOSED, breaker.getState());
+        assertEquals(0.0, breaker.getFailureRate());
+    }
+
+    @Test
+    void testHalfOpen_FailingProbesReopenAndExtraCallsFailFast() {
+        EndpointCircuitBreaker breaker = openBreaker();
+        now.addAndGet(30_000L);
+        breaker.execute(Mono::never, status -> false).subscribe();
+        breaker.execute(Mono::never, status -> false).subscribe();
+        breaker.execute(() -> Mono.just(503), status -> status >= 500).subscribe();
+
+        assertTrue(EndpointCircuitBreaker.isOpenRejection(call(breaker, Mono.just(200))));
+
+        EndpointCircuitBreaker reopened = openBreaker();
+        now.addAndGet(30_000L);
+        for (int i = 0; i < 3; i++) {
+            call(reopened, Mono.just(503));
+        }
+        assertEquals(EndpointCircuitBreaker.State.OPEN, reopened.getState());
+    }
+
+    @Test
+    void testSlowCalls_OpenBreakerAndTargetsAreKeyedByPrefixOrHost() {
+        EndpointCircuitBreaker breaker = breaker();
+        for (int i = 0; i < 5; i++) {
+            breaker.execute(() -> Mono.fromSupplier(() -> now.addAndGet(5_000L)).thenReturn(200), status -> false).block();
+        }
+        assertEquals(EndpointCircuitBreaker.State.OPEN, breaker.getState());
+
+        WebClientProperties webClientProperties = new WebClientProperties();
+        webClientProperties.getCircuitBreaker().getUrlPrefixes().add("https://api.example.com/payments");
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        EndpointCircuitBreakers breakers = new EndpointCircuitBreakers(webClientProperties, meterRegistry);
+        breakers.execute("https://api.example.com/payments/hook", () -> Mono.just(200), status -> false).block();
+
+        assertEquals("https://api.example.com/payments", breakers.getTarget("https://api.example.com/payments/hook"));
+        assertEquals("api.example.com", breakers.getTarget("https://api.example.com/orders/hook"));
+        assertEquals(0.0, meterRegistry.get("http.client.circuit.state").tag("target", "https://api.example.com/payments").gauge().value());
+    }
+
+    @Test
+    void testIdleTarget_IsDroppedWithItsMetrics() throws InterruptedException {
+        WebClientProperties webClientProperties = new WebClientProperties();
+        webClientProperties.getCircuitBreaker().setIdleExpiryMs(200L);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        EndpointCircuitBreakers breakers = new EndpointCircuitBreakers(webClientProperties, meterRegistry);
+        EndpointCircuitBreaker expired = breakers.getBreaker("once.example.com");
+        Thread.sleep(300L);
+
+        EndpointCircuitBreaker breaker = breakers.getBreaker("once.example.com");
+
+        assertNotSame(expired, breaker);
+        assertEquals(1, meterRegistry.find("http.client.circuit.state").tag("target", "once.example.com").gauges().size());
+        assertEquals(1, meterRegistry.find("http.client.circuit.rejected").tag("target", "once.example.com").functionCounters().size());
+    }
+
+    private EndpointCircuitBreaker openBreaker() {
+        EndpointCircuitBreaker breaker = breaker();
+        for (int i = 0; i < 5; i++) {
+            call(breaker, Mono.error(new IllegalStateException("down")));
+        }
+        assertEquals(EndpointCircuitBreaker.State.OPEN, breaker.getState());
+        return breaker;
+    }
+
+    private EndpointCircuitBreaker breaker() {
+        WebClientProperties.CircuitBreaker settings = new WebClientProperties.CircuitBreaker();
+        settings.setWindowSize(10);
+        settings.setMinimumCalls(5);
+        settings.setHalfOpenProbeCalls(3);
+        settings.setSlowCallDurationMs(2_000L);
+        return new EndpointCircuitBreaker("api.example.com", settings, now::get);
+    }
+
+    private static Throwable call(EndpointCircuitBreaker breaker, Mono<Integer> response) {
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        breaker.execute(() -> response, status -> status >= 500).subscribe(status -> { }, error::set);
+        return error.get();
+    }
+}
@@ -0,0 +1,80 @@
+package consumer;
+
+import com.fampay.scheduler.consumer.JobConsumerConfig;
+import com.fampay.scheduler.consumer.status.ExecutionAttemptRecorder;
+import com.fampay.scheduler.models.entity.JobExecutionAttemptEntity;
+import com.fampay.scheduler.repository.JobExecutionAttemptDao;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class ExecutionAttemptRecorderTest {
+
+    @Mock
+    private JobExecutionAttemptDao jobExecutionAttemptDao;
+
+    private final JobConsumerConfig jobConsumerConfig = new JobConsumerConfig();
+    private ExecutionAttemptRecorder recorder;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        jobConsumerConfig.setStatusFlushIntervalMs(60_000L);
+        when(jobExecutionAttemptDao.createJobExecutionAttemptsInBulk(anyList())).thenReturn(Set.of());
+        recorder = new ExecutionAttemptRecorder(jobExecutionAttemptDao, jobConsumerConfig);
+    }
+
+    @AfterEach
+    void tearDown() {
+        recorder.destroy();
+    }
+
+    @Test
+    void testBufferedAttempts_AreWrittenInOneBulkWrite() {
+        recorder.record(attempt("exec-1_1"));
+        recorder.record(attempt("exec-2_1"));
+
+        recorder.flush();
+
+        verify(jobExecutionAttemptDao).createJobExecutionAttemptsInBulk(argThat(attempts -> attempts.size() == 2));
+        assertEquals(0, recorder.getPendingCount());
+    }
+
+    @Test
+    void testFailedAttempts_AreKeptForNextFlush() {
+        when(jobExecutionAttemptDao.createJobExecutionAttemptsInBulk(anyList())).thenReturn(Set.of("exec-2_1")).thenReturn(Set.of());
+        recorder.record(attempt("exec-1_1"));
+        recorder.record(attempt("exec-2_1"));
+
+        recorder.flush();
+        assertEquals(1, recorder.getPendingCount());
+        recorder.flush();
+
+        verify(jobExecutionAttemptDao).createJobExecutionAttemptsInBulk(List.of(attempt("exec-2_1")));
+        assertEquals(0, recorder.getPendingCount());
+    }
+
+    @Test
+    void testAttemptsAfterDestroy_AreWrittenWithoutFailingTheCaller() {
+        recorder.destroy();
+        when(jobExecutionAttemptDao.createJobExecutionAttemptsInBulk(anyList())).thenThrow(new IllegalStateException("unavailable"));
+
+        assertDoesNotThrow(() -> recorder.record(attempt("exec-1_1")));
+
+        verify(jobExecutionAttemptDao).createJobExecutionAttemptsInBulk(List.of(attempt("exec-1_1")));
+        assertEquals(0, recorder.getPendingCount());
+    }
+
+    private static JobExecutionAttemptEntity attempt(String runId) {
+        return JobExecutionAttemptEntity.builder().runId(runId).executionId(runId.substring(0, 6)).status("FAILED").build();
+    }
+}
@@ -0,0 +1,121 @@
+package consumer;
+
+import com.fampay.scheduler.consumer.JobConsumerConfig;
+import com.fampay.scheduler.consumer.status.ExecutionStatusWriteBehind;
+import com.fampay.scheduler.models.dto.JobExecutionStatus;
+import com.fampay.scheduler.repository.JobExecutionDao;
+import com.fampay.scheduler.repository.dto.UpdateJobExecutionDto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class ExecutionStatusWriteBehindTest {
+
+    @Mock
+    private JobExecutionDao jobExecutionDao;
+
+    private final JobConsumerConfig jobConsumerConfig = new JobConsumerConfig();
+    private ExecutionStatusWriteBehind writeBehind;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        jobConsumerConfig.setShutdownTimeoutMs(1000L);
+        jobConsumerConfig.setStatusFlushIntervalMs(60_000L);
+        when(jobExecutionDao.updateJobExecutionStatusesInBulk(anyMap())).thenReturn(Set.of());
+    }
+
+    @AfterEach
+    void tearDown() {
+        writeBehind.destroy();
+    }
+
+    @Test
+    void testUpdatesOfSameExecution_AreMergedIntoOneWrite() {
+        writeBehind = new ExecutionStatusWriteBehind(jobExecutionDao, jobConsumerConfig);
+
+        writeBehind.update("exec-1", UpdateJobExecutionDto.builder().status(JobExecutionStatus.STARTED.name()).startTime(10L).build());
+        writeBehind.update("exec-1", UpdateJobExecutionDto.builder().status(JobExecutionStatus.FINISHED.name()).endTime(20L).build());
+        writeBehind.update("exec-2", UpdateJobExecutionDto.builder().status(JobExecutionStatus.STARTED.name()).build());
+        writeBehind.flush();
+
+        verify(jobExecutionDao, times(1)).updateJobExecutionStatusesInBulk(argThat(updates -> {
+            UpdateJobExecutionDto merged = updates.get("exec-1");
+            return updates.size() == 2
+                    && JobExecutionStatus.FINISHED.name().equals(merged.getStatus())
+                    && merged.getStartTime() == 10L && merged.getEndTime() == 20L;
+        }));
+        assertEquals(0, writeBehind.getPendingCount());
+    }
+
+    @Test
+    void testFailedUpdates_AreRetriedUnderNewerUpdates() {
+        when(jobExecutionDao.updateJobExecutionStatusesInBulk(anyMap())).thenReturn(Set.of("exec-1")).thenReturn(Set.of());
+        writeBehind = new ExecutionStatusWriteBehind(jobExecutionDao, jobConsumerConfig);
+
+        writeBehind.update("exec-1", UpdateJobExecutionDto.builder().status(JobExecutionStatus.STARTED.name()).startTime(10L).build());
+        writeBehind.flush();
+        assertEquals(1, writeBehind.getPendingCount());
+
+        writeBehind.update("exec-1", UpdateJobExecutionDto.builder().status(JobExecutionStatus.FINISHED.name()).build());
+        writeBehind.flush();
+
+        verify(jobExecutionDao).updateJobExecutionStatusesInBulk(argThat(updates ->
+                JobExecutionStatus.FINISHED.name().equals(updates.get("exec-1").getStatus())
+                        && Long.valueOf(10L).equals(updates.get("exec-1").getStartTime())));
+        assertEquals(0, writeBehind.getPendingCount());
+    }
+
+    @Test
+    void testUpdateWithAck_CompletesOnceTheCarryingFlushWroteOrDroppedIt() throws Exception {
+        jobConsumerConfig.setStatusWriteMaxAttempts(2);
+        when(jobExecutionDao.updateJobExecutionStatusesInBulk(anyMap())).thenReturn(Set.of("exec-2"));
+        writeBehind = new ExecutionStatusWriteBehind(jobExecutionDao, jobConsumerConfig);
+
+        CompletableFuture<Boolean> written = writeBehind.updateWithAck("exec-1", UpdateJobExecutionDto.builder().status(JobExecutionStatus.FINISHED.name()).build());
+        CompletableFuture<Boolean> dropped = writeBehind.updateWithAck("exec-2", UpdateJobExecutionDto.builder().status(JobExecutionStatus.FINISHED.name()).build());
+        assertFalse(written.isDone());
+
+        writeBehind.flush();
+        assertTrue(written.get());
+        assertFalse(dropped.isDone());
+
+        writeBehind.flush();
+        assertFalse(dropped.get());
+        assertEquals(0, writeBehind.getPendingCount());
+    }
+
+    @Test
+    void testDestroy_FlushesPendingUpdates() {
+        writeBehind = new ExecutionStatusWriteBehind(jobExecutionDao, jobConsumerConfig);
+
+        writeBehind.update("exec-1", UpdateJobExecutionDto.builder().status(JobExecutionStatus.FINISHED.name()).build());
+        writeBehind.destroy();
+
+        verify(jobExecutionDao).updateJobExecutionStatusesInBulk(argThat(updates -> updates.containsKey("exec-1")));
+        assertEquals(0, writeBehind.getPendingCount());
+    }
+
+    @Test
+    void testUpdatesAfterDestroy_AreWrittenOnTheCallingThread() throws Exception {
+        writeBehind = new ExecutionStatusWriteBehind(jobExecutionDao, jobConsumerConfig);
+        writeBehind.destroy();
+
+        CompletableFuture<Boolean> written = writeBehind.updateWithAck("exec-1", UpdateJobExecutionDto.builder().status(JobExecutionStatus.FINISHED.name()).build());
+
+        assertTrue(written.getNow(false));
+        verify(jobExecutionDao).updateJobExecutionStatusesInBulk(argThat(updates -> updates.containsKey("exec-1")));
+        when(jobExecutionDao.updateJobExecutionStatusesInBulk(anyMap())).thenThrow(new IllegalStateException("unavailable"));
+        assertFalse(writeBehind.updateWithAck("exec-2", UpdateJobExecutionDto.builder().status(JobExecutionStatus.FAILED.name()).build()).getNow(true));
+        assertEquals(0, writeBehind.getPendingCount());
+    }
+}
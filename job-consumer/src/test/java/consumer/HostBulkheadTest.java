@@ -0,0 +1,114 @@
+package consumer;
+
+import com.fampay.scheduler.commons.http.bulkhead.HostBulkhead;
+import com.fampay.scheduler.commons.http.bulkhead.HostBulkheads;
+import com.fampay.scheduler.commons.http.config.WebClientProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HostBulkheadTest {
+
+    @Test
+    void testCallsBeyondLimit_WaitAndRunAsSlotsFree() {
+        HostBulkhead bulkhead = new HostBulkhead("slow.example.com", 2, 10);
+        List<Sinks.One<String>> responses = new ArrayList<>();
+        AtomicInteger started = new AtomicInteger();
+        List<String> results = new ArrayList<>();
+
+        for (int i = 0; i < 3; i++) {
+            bulkhead.execute(() -> {
+                started.incrementAndGet();
+                Sinks.One<String> response = Sinks.one();
+                responses.add(response);
+                return response.asMono();
+            }).subscribe(results::add);
+        }
+
+        assertEquals(2, started.get());
+        assertEquals(2, bulkhead.getInFlightCalls());
+        assertEquals(1, bulkhead.getPendingCalls());
+        assertEquals(1.0, bulkhead.getSaturation());
+
+        responses.get(0).tryEmitValue("first");
+
+        assertEquals(3, started.get());
+        assertEquals(0, bulkhead.getPendingCalls());
+        assertEquals(List.of("first"), results);
+    }
+
+    @Test
+    void testCallsBeyondQueue_AreRejected() {
+        HostBulkhead bulkhead = new HostBulkhead("slow.example.com", 1, 1);
+        AtomicReference<Throwable> rejection = new AtomicReference<>();
+
+        bulkhead.execute(() -> Mono.never()).subscribe();
+        bulkhead.execute(() -> Mono.never()).subscribe();
+        bulkhead.execute(() -> Mono.never()).subscribe(value -> { }, rejection::set);
+
+        assertTrue(HostBulkhead.isRejection(rejection.get()));
+        assertEquals(1, bulkhead.getRejectedCalls());
+    }
+
+    @Test
+    void testCancelledWaitingCall_LeavesTheQueue() {
+        HostBulkhead bulkhead = new HostBulkhead("slow.example.com", 1, 5);
+        Sinks.One<String> response = Sinks.one();
+        AtomicInteger started = new AtomicInteger();
+
+        bulkhead.execute(response::asMono).subscribe();
+        Disposable waiting = bulkhead.execute(() -> {
+            started.incrementAndGet();
+            return Mono.just("late");
+        }).subscribe();
+        waiting.dispose();
+        response.tryEmitValue("done");
+
+        assertEquals(0, started.get());
+        assertEquals(0, bulkhead.getPendingCalls());
+        assertEquals(0, bulkhead.getInFlightCalls());
+    }
+
+    @Test
+    void testHostBulkheads_UseHostOverridesAndExposeMetrics() {
+        WebClientProperties webClientProperties = new WebClientProperties();
+        WebClientProperties.HostLimit hostLimit = new WebClientProperties.HostLimit();
+        hostLimit.setMaxConcurrentCalls(5);
+        webClientProperties.getBulkhead().getHosts().put("slow.example.com", hostLimit);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        HostBulkheads hostBulkheads = new HostBulkheads(webClientProperties, meterRegistry);
+
+        hostBulkheads.execute("https://slow.example.com/hook", Mono::never).subscribe();
+        hostBulkheads.execute("https://fast.example.com/hook", () -> Mono.just("ok")).block();
+
+        assertEquals(5, hostBulkheads.getBulkhead("slow.example.com").getMaxConcurrentCalls());
+        assertEquals(100, hostBulkheads.getBulkhead("fast.example.com").getMaxConcurrentCalls());
+        assertEquals(0.2, meterRegistry.get("http.client.host.saturation").tag("host", "slow.example.com").gauge().value());
+        assertEquals(0.0, meterRegistry.get("http.client.host.in_flight").tag("host", "fast.example.com").gauge().value());
+    }
+
+    @Test
+    void testHostBulkheads_IdleHostIsDroppedWithItsMetrics() throws InterruptedException {
+        WebClientProperties webClientProperties = new WebClientProperties();
+        webClientProperties.getBulkhead().setIdleExpiryMs(200L);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        HostBulkheads hostBulkheads = new HostBulkheads(webClientProperties, meterRegistry);
+        HostBulkhead expired = hostBulkheads.getBulkhead("once.example.com");
+        Thread.sleep(300L);
+
+        hostBulkheads.execute("https://once.example.com/hook", Mono::never).subscribe();
+
+        assertNotSame(expired, hostBulkheads.getBulkhead("once.example.com"));
+        assertEquals(1, meterRegistry.find("http.client.host.in_flight").tag("host", "once.example.com").gauges().size());
+        assertEquals(1.0, meterRegistry.get("http.client.host.in_flight").tag("host", "once.example.com").gauge().value());
+    }
+}
@@ -0,0 +1,56 @@
+package consumer;
+
+import com.fampay.scheduler.consumer.JobConsumerConfig;
+import com.fampay.scheduler.consumer.definition.JobDefinitionCache;
+import com.fampay.scheduler.models.entity.ApiConfigEntity;
+import com.fampay.scheduler.models.entity.JobEntity;
+import com.fampay.scheduler.repository.JobDao;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class JobDefinitionCacheTest {
+
+    @Mock
+    private JobDao jobDao;
+
+    private final JobConsumerConfig jobConsumerConfig = new JobConsumerConfig();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    void testCachedDefinition_IsServedWithoutDatabaseRead() {
+        when(jobDao.getJobById("job-1")).thenReturn(Optional.of(job(2L)));
+        JobDefinitionCache cache = new JobDefinitionCache(jobDao, jobConsumerConfig);
+
+        cache.getJob("job-1");
+        Optional<JobEntity> jobEntity = cache.getJob("job-1");
+
+        assertEquals(2L, jobEntity.get().getVersion());
+        verify(jobDao, times(1)).getJobById("job-1");
+    }
+
+    @Test
+    void testMissingJob_IsNotCached() {
+        when(jobDao.getJobById("job-1")).thenReturn(Optional.empty());
+        JobDefinitionCache cache = new JobDefinitionCache(jobDao, jobConsumerConfig);
+
+        assertTrue(cache.getJob("job-1").isEmpty());
+        assertTrue(cache.getJob("job-1").isEmpty());
+        verify(jobDao, times(2)).getJobById("job-1");
+    }
+
+    private static JobEntity job(Long version) {
+        return JobEntity.builder().id("job-1").type("ATLEAST_ONCE").version(version)
+                .apiConfig(ApiConfigEntity.builder().url("https://example.com/hook").httpMethod("POST").build()).build();
+    }
+}
@@ -0,0 +1,101 @@
+package consumer;
+
+import com.fampay.scheduler.commons.queue.IMessageConsumer;
+import com.fampay.scheduler.consumer.JobConsumerConfig;
+import com.fampay.scheduler.consumer.ack.MessageDeleteBatcher;
+import com.fampay.scheduler.consumer.ack.VisibilityLeaseManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class MessageDeleteBatcherTest {
+
+    private static final String QUEUE_NAME = "local-job-queue";
+
+    @Mock
+    private IMessageConsumer messageConsumer;
+
+    @Mock
+    private VisibilityLeaseManager visibilityLeaseManager;
+
+    private final JobConsumerConfig jobConsumerConfig = new JobConsumerConfig();
+    private MessageDeleteBatcher batcher;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        jobConsumerConfig.setShutdownTimeoutMs(1000L);
+        when(messageConsumer.deleteMessageBatch(anyString(), anyList())).thenReturn(List.of());
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        batcher.destroy();
+    }
+
+    @Test
+    void testFullBatch_IsDeletedWithoutWaitingForLinger() {
+        jobConsumerConfig.setDeleteLingerMs(60_000L);
+        batcher = new MessageDeleteBatcher(messageConsumer, visibilityLeaseManager, jobConsumerConfig);
+        List<String> receiptHandles = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            receiptHandles.add("receipt-" + i);
+            batcher.delete(QUEUE_NAME, "receipt-" + i);
+        }
+
+        verify(messageConsumer, timeout(1000)).deleteMessageBatch(QUEUE_NAME, receiptHandles);
+        verify(messageConsumer, never()).deleteMessage(anyString(), anyString());
+    }
+
+    @Test
+    void testPartialBatch_IsDeletedAfterLinger() {
+        jobConsumerConfig.setDeleteLingerMs(20L);
+        batcher = new MessageDeleteBatcher(messageConsumer, visibilityLeaseManager, jobConsumerConfig);
+
+        batcher.delete(QUEUE_NAME, "receipt-1");
+        batcher.delete(QUEUE_NAME, "receipt-2");
+
+        verify(messageConsumer, timeout(1000)).deleteMessageBatch(QUEUE_NAME, List.of("receipt-1", "receipt-2"));
+        verify(visibilityLeaseManager).complete("receipt-1");
+    }
+
+    @Test
+    void testFailedHandles_AreRetriedUpToMaxAttempts() {
+        // long enough for both handles to land in the first batch
+        jobConsumerConfig.setDeleteLingerMs(100L);
+        jobConsumerConfig.setDeleteMaxAttempts(3);
+        jobConsumerConfig.setDeleteRetryBackoffMs(50L);
+        when(messageConsumer.deleteMessageBatch(QUEUE_NAME, List.of("receipt-1", "receipt-2"))).thenReturn(List.of("receipt-2"));
+        when(messageConsumer.deleteMessageBatch(QUEUE_NAME, List.of("receipt-2"))).thenThrow(new RuntimeException("throttled"));
+        batcher = new MessageDeleteBatcher(messageConsumer, visibilityLeaseManager, jobConsumerConfig);
+
+        batcher.delete(QUEUE_NAME, "receipt-1");
+        batcher.delete(QUEUE_NAME, "receipt-2");
+
+        verify(messageConsumer, timeout(1000)).deleteMessageBatch(QUEUE_NAME, List.of("receipt-2"));
+        verify(messageConsumer, after(120).times(1)).deleteMessageBatch(QUEUE_NAME, List.of("receipt-2"));
+        verify(messageConsumer, timeout(2000).times(2)).deleteMessageBatch(QUEUE_NAME, List.of("receipt-2"));
+        verify(messageConsumer, after(300).times(3)).deleteMessageBatch(eq(QUEUE_NAME), anyList());
+    }
+
+    @Test
+    void testDeletesAfterShutdown_AreSentRightAway() throws Exception {
+        jobConsumerConfig.setDeleteLingerMs(60_000L);
+        batcher = new MessageDeleteBatcher(messageConsumer, visibilityLeaseManager, jobConsumerConfig);
+        batcher.delete(QUEUE_NAME, "receipt-1");
+        batcher.destroy();
+        verify(messageConsumer).deleteMessageBatch(QUEUE_NAME, List.of("receipt-1"));
+
+        batcher.delete(QUEUE_NAME, "receipt-2");
+
+        verify(messageConsumer).deleteMessageBatch(QUEUE_NAME, List.of("receipt-2"));
+    }
+}
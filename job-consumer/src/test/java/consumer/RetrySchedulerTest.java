@@ -0,0 +1,113 @@
+package consumer;
+
+import com.fampay.scheduler.commons.queue.IMessageProducer;
+import com.fampay.scheduler.consumer.JobConsumerConfig;
+import com.fampay.scheduler.consumer.retry.RetryScheduler;
+import com.fampay.scheduler.models.queue.ApiConfig;
+import com.fampay.scheduler.models.queue.JobMessageCodec;
+import com.fampay.scheduler.models.queue.JobMessageFormat;
+import com.fampay.scheduler.models.queue.JobMessagePayload;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class RetrySchedulerTest {
+
+    @Mock
+    private IMessageProducer messageProducer;
+
+    private final JobConsumerConfig jobConsumerConfig = new JobConsumerConfig();
+    private RetryScheduler retryScheduler;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        retryScheduler = new RetryScheduler(messageProducer, jobConsumerConfig);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        retryScheduler.destroy();
+    }
+
+    @Test
+    void testRetryDelay_DoublesWithJitterUpToMaxDelay() {
+        for (int i = 0; i < 100; i++) {
+            int first = retryScheduler.getRetryDelaySeconds(1);
+            int third = retryScheduler.getRetryDelaySeconds(3);
+            int late = retryScheduler.getRetryDelaySeconds(40);
+            assertTrue(first >= 2 && first <= 5, "first retry delay " + first);
+            assertTrue(third >= 10 && third <= 20, "third retry delay " + third);
+            assertTrue(late >= 450 && late <= 900, "late retry delay " + late);
+        }
+    }
+
+    @Test
+    void testRetryBudget_ComesFromJobOrDefault() {
+        JobMessagePayload withBudget = payload(1);
+        withBudget.getApiConfig().setMaxRetries(1);
+
+        assertEquals(3, retryScheduler.getMaxRetries(payload(1)));
+        assertTrue(retryScheduler.hasRetriesLeft(withBudget));
+        withBudget.setAttempt(2);
+        assertFalse(retryScheduler.hasRetriesLeft(withBudget));
+        assertEquals(1, RetryScheduler.getAttempt(payload(null)));
+    }
+
+    @Test
+    void testScheduleRetry_EnqueuesNextAttemptWithDelay() throws Exception {
+        when(messageProducer.sendMessageWithDelay(anyString(), anyString(), anyInt(), any())).thenReturn(true);
+
+        assertTrue(retryScheduler.scheduleRetry("queue-1", payload(2)).get(5, TimeUnit.SECONDS));
+
+        ArgumentCaptor<String> body = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<Integer> delay = ArgumentCaptor.forClass(Integer.class);
+        verify(messageProducer).sendMessageWithDelay(eq("queue-1"), body.capture(), delay.capture(), isNull());
+        JobMessagePayload nextAttempt = JobMessageCodec.decode(body.getValue(), JobMessageFormat.JSON);
+        assertEquals(3, nextAttempt.getAttempt());
+        assertEquals("exec-1", nextAttempt.getExecutionId());
+        assertEquals("https://example.com/hook", nextAttempt.getApiConfig().getUrl());
+        assertTrue(delay.getValue() >= 5 && delay.getValue() <= 10);
+    }
+
+    @Test
+    void testScheduleRetry_KeepsSlimMessagesSlimInTheConfiguredFormat() throws Exception {
+        jobConsumerConfig.setMessageFormat(JobMessageFormat.CBOR_V1);
+        when(messageProducer.sendMessageWithDelay(anyString(), anyString(), anyInt(), any())).thenReturn(true);
+        JobMessagePayload resolved = payload(null);
+        resolved.setJobVersion(4L);
+
+        assertTrue(retryScheduler.scheduleRetry("queue-1", resolved).get(5, TimeUnit.SECONDS));
+
+        ArgumentCaptor<String> body = ArgumentCaptor.forClass(String.class);
+        verify(messageProducer).sendMessageWithDelay(eq("queue-1"), body.capture(), anyInt(),
+                eq(Map.of(JobMessageFormat.ATTRIBUTE_NAME, JobMessageFormat.CBOR_V1.getValue())));
+        JobMessagePayload nextAttempt = JobMessageCodec.decode(body.getValue(), JobMessageFormat.CBOR_V1);
+        assertEquals(2, nextAttempt.getAttempt());
+        assertEquals(4L, nextAttempt.getJobVersion());
+        assertNull(nextAttempt.getApiConfig());
+        assertNull(nextAttempt.getType());
+    }
+
+    @Test
+    void testScheduleRetry_FailedSendCompletesWithFalse() throws Exception {
+        when(messageProducer.sendMessageWithDelay(anyString(), anyString(), anyInt(), any())).thenThrow(new IllegalStateException("throttled"));
+
+        assertFalse(retryScheduler.scheduleRetry("queue-1", payload(1)).get(5, TimeUnit.SECONDS));
+    }
+
+    private static JobMessagePayload payload(Integer attempt) {
+        return JobMessagePayload.builder().executionId("exec-1").jobId("job-1").type("ATLEAST_ONCE").attempt(attempt)
+                .apiConfig(ApiConfig.builder().url("https://example.com/hook").httpMethod("POST").build()).build();
+    }
+}
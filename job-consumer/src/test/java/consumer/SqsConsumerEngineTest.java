@@ -0,0 +1,183 @@
+package consumer;
+
+import com.fampay.scheduler.commons.queue.IMessageConsumer;
+import com.fampay.scheduler.consumer.JobConsumer;
+import com.fampay.scheduler.consumer.JobConsumerConfig;
+import com.fampay.scheduler.consumer.ack.VisibilityLeaseManager;
+import com.fampay.scheduler.consumer.engine.AdaptiveReceiveController;
+import com.fampay.scheduler.consumer.engine.SqsConsumerEngine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class SqsConsumerEngineTest {
+
+    private static final String QUEUE_NAME = "local-job-queue";
+
+    @Mock
+    private IMessageConsumer messageConsumer;
+
+    @Mock
+    private JobConsumer jobConsumer;
+
+    @Mock
+    private VisibilityLeaseManager visibilityLeaseManager;
+
+    @Mock
+    private AdaptiveReceiveController adaptiveReceiveController;
+
+    private final JobConsumerConfig jobConsumerConfig = new JobConsumerConfig();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private SqsConsumerEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        jobConsumerConfig.setReceiversPerQueue(1);
+        jobConsumerConfig.setShutdownTimeoutMs(1000L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        engine.stop();
+    }
+
+    @Test
+    void testReceivedMessages_AreHandedToWorkers() {
+        jobConsumerConfig.setWorkerCount(4);
+        AtomicInteger receives = new AtomicInteger();
+        when(messageConsumer.receiveMessage(eq(QUEUE_NAME), eq(String.class))).thenAnswer(invocation -> {
+            if (receives.getAndIncrement() == 0) {
+                return List.of(message("m1"), message("m2"), message("m3"));
+            }
+            Thread.sleep(20);
+            return List.of();
+        });
+        engine = new SqsConsumerEngine(messageConsumer, jobConsumer, visibilityLeaseManager, adaptiveReceiveController, jobConsumerConfig, meterRegistry);
+
+        engine.start();
+
+        verify(jobConsumer, timeout(2000)).consumeMessage(eq(QUEUE_NAME), argThat(m -> "m1".equals(m.getMessage())));
+        verify(jobConsumer, timeout(2000)).consumeMessage(eq(QUEUE_NAME), argThat(m -> "m2".equals(m.getMessage())));
+        verify(jobConsumer, timeout(2000)).consumeMessage(eq(QUEUE_NAME), argThat(m -> "m3".equals(m.getMessage())));
+        verify(visibilityLeaseManager).track(QUEUE_NAME, "receipt-m1");
+        assertTrue(engine.isRunning());
+    }
+
+    @Test
+    void testFullBuffer_StopsReceiverFromPolling() throws InterruptedException {
+        jobConsumerConfig.setWorkerCount(1);
+        jobConsumerConfig.setBufferCapacity(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(messageConsumer.receiveMessage(eq(QUEUE_NAME), eq(String.class))).thenReturn(List.of(message("m")));
+        doAnswer(invocation -> {
+            release.await();
+            return null;
+        }).when(jobConsumer).consumeMessage(anyString(), any());
+        engine = new SqsConsumerEngine(messageConsumer, jobConsumer, visibilityLeaseManager, adaptiveReceiveController, jobConsumerConfig, meterRegistry);
+
+        engine.start();
+        Thread.sleep(300);
+
+        // one message with the worker, one in the buffer and one held by the blocked receiver
+        verify(messageConsumer, atMost(3)).receiveMessage(QUEUE_NAME, String.class);
+        assertEquals(1.0, meterRegistry.get("job.consumer.buffer.depth").gauge().value());
+        assertEquals(1.0, meterRegistry.get("job.consumer.workers.utilisation").gauge().value());
+        release.countDown();
+    }
+
+    @Test
+    void testStop_ReleasesMessagesLeftInBuffer() throws InterruptedException {
+        jobConsumerConfig.setWorkerCount(1);
+        jobConsumerConfig.setBufferCapacity(1);
+        jobConsumerConfig.setShutdownTimeoutMs(50L);
+        CountDownLatch release = new CountDownLatch(1);
+        when(messageConsumer.receiveMessage(eq(QUEUE_NAME), eq(String.class))).thenReturn(List.of(message("m")));
+        doAnswer(invocation -> {
+            release.await();
+            return null;
+        }).when(jobConsumer).consumeMessage(anyString(), any());
+        engine = new SqsConsumerEngine(messageConsumer, jobConsumer, visibilityLeaseManager, adaptiveReceiveController, jobConsumerConfig, meterRegistry);
+
+        engine.start();
+        verify(jobConsumer, timeout(2000)).consumeMessage(anyString(), any());
+        Thread.sleep(100);
+        engine.stop();
+
+        // the message in the buffer and the one held by the blocked receiver
+        verify(visibilityLeaseManager, times(2)).release(QUEUE_NAME, "receipt-m");
+        assertEquals(0, engine.getBufferDepth());
+    }
+
+    @Test
+    void testStop_DrainsBufferAndStopsReceivers() throws InterruptedException {
+        jobConsumerConfig.setWorkerCount(1);
+        AtomicInteger consumed = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        when(messageConsumer.receiveMessage(eq(QUEUE_NAME), eq(String.class)))
+                .thenReturn(List.of(message("m1"), message("m2")))
+                .thenAnswer(invocation -> {
+                    Thread.sleep(20);
+                    return List.of();
+                });
+        doAnswer(invocation -> {
+            release.await();
+            consumed.incrementAndGet();
+            return null;
+        }).when(jobConsumer).consumeMessage(anyString(), any());
+        engine = new SqsConsumerEngine(messageConsumer, jobConsumer, visibilityLeaseManager, adaptiveReceiveController, jobConsumerConfig, meterRegistry);
+
+        engine.start();
+        verify(jobConsumer, timeout(2000)).consumeMessage(anyString(), any());
+        // stop interrupts the receiver, so m2 has to be in the buffer before it is called
+        long deadline = System.currentTimeMillis() + 2000;
+        while (engine.getBufferDepth() < 1 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(1, engine.getBufferDepth());
+        release.countDown();
+        engine.stop();
+
+        assertFalse(engine.isRunning());
+        assertEquals(2, consumed.get());
+        assertEquals(0, engine.getBufferDepth());
+    }
+
+    @Test
+    void testAdaptiveReceive_OnlyActiveReceiversPollWithDecidedSettings() {
+        jobConsumerConfig.setReceiversPerQueue(2);
+        jobConsumerConfig.getAdaptiveReceive().setInactiveReceiverPollMs(10L);
+        when(adaptiveReceiveController.isEnabled()).thenReturn(true);
+        when(adaptiveReceiveController.getDecision(QUEUE_NAME)).thenReturn(new AdaptiveReceiveController.ReceiveDecision(1, 1));
+        Set<String> pollingThreads = ConcurrentHashMap.newKeySet();
+        when(messageConsumer.receiveMessage(eq(QUEUE_NAME), eq(String.class), eq(10), eq(1))).thenAnswer(invocation -> {
+            pollingThreads.add(Thread.currentThread().getName());
+            Thread.sleep(20);
+            return List.of();
+        });
+        engine = new SqsConsumerEngine(messageConsumer, jobConsumer, visibilityLeaseManager, adaptiveReceiveController, jobConsumerConfig, meterRegistry);
+
+        engine.start();
+
+        verify(adaptiveReceiveController, timeout(2000).atLeast(3)).recordReceive(QUEUE_NAME, 0);
+        assertEquals(Set.of("job-consumer-receiver-" + QUEUE_NAME + "-0"), pollingThreads);
+        verify(messageConsumer, never()).receiveMessage(anyString(), any());
+    }
+
+    private static IMessageConsumer.MessageValue message(String body) {
+        return IMessageConsumer.MessageValue.builder().message(body).receiptHandle("receipt-" + body).build();
+    }
+}
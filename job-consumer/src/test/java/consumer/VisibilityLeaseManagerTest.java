@@ -0,0 +1,102 @@
+package consumer;
+
+import com.fampay.scheduler.commons.queue.IMessageConsumer;
+import com.fampay.scheduler.consumer.JobConsumerConfig;
+import com.fampay.scheduler.consumer.ack.VisibilityLeaseManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class VisibilityLeaseManagerTest {
+
+    private static final String QUEUE_NAME = "local-job-queue";
+
+    @Mock
+    private IMessageConsumer messageConsumer;
+
+    private final JobConsumerConfig jobConsumerConfig = new JobConsumerConfig();
+    private VisibilityLeaseManager leaseManager;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        jobConsumerConfig.setLeaseCheckIntervalMs(20L);
+        when(messageConsumer.changeMessageVisibilityBatch(anyString(), anyList(), anyInt())).thenReturn(List.of());
+    }
+
+    @AfterEach
+    void tearDown() {
+        leaseManager.destroy();
+    }
+
+    @Test
+    void testLeases_AreExtendedOnlyCloseToTheirEnd() {
+        jobConsumerConfig.setVisibilityTimeoutSeconds(120);
+        jobConsumerConfig.setLeaseExtensionMarginSeconds(130);
+        leaseManager = new VisibilityLeaseManager(messageConsumer, jobConsumerConfig);
+
+        leaseManager.track(QUEUE_NAME, "receipt-1");
+        leaseManager.track(QUEUE_NAME, "receipt-2");
+
+        verify(messageConsumer, timeout(1000)).changeMessageVisibilityBatch(eq(QUEUE_NAME),
+                argThat(handles -> handles.containsAll(List.of("receipt-1", "receipt-2"))), eq(120));
+    }
+
+    @Test
+    void testLeases_AreNotExtendedBeforeTheMargin() {
+        jobConsumerConfig.setVisibilityTimeoutSeconds(120);
+        jobConsumerConfig.setLeaseExtensionMarginSeconds(30);
+        leaseManager = new VisibilityLeaseManager(messageConsumer, jobConsumerConfig);
+
+        leaseManager.track(QUEUE_NAME, "receipt-1");
+
+        verify(messageConsumer, after(200).never()).changeMessageVisibilityBatch(anyString(), anyList(), anyInt());
+        assertEquals(1, leaseManager.getLeaseCount());
+    }
+
+    @Test
+    void testCompletedLeases_AreNoLongerExtended() {
+        jobConsumerConfig.setVisibilityTimeoutSeconds(120);
+        jobConsumerConfig.setLeaseExtensionMarginSeconds(130);
+        leaseManager = new VisibilityLeaseManager(messageConsumer, jobConsumerConfig);
+
+        leaseManager.track(QUEUE_NAME, "receipt-1");
+        leaseManager.complete("receipt-1");
+
+        verify(messageConsumer, after(200).never()).changeMessageVisibilityBatch(anyString(), anyList(), anyInt());
+        assertEquals(0, leaseManager.getLeaseCount());
+    }
+
+    @Test
+    void testLeasesThatCannotBeExtended_AreDropped() {
+        jobConsumerConfig.setVisibilityTimeoutSeconds(120);
+        jobConsumerConfig.setLeaseExtensionMarginSeconds(130);
+        when(messageConsumer.changeMessageVisibilityBatch(anyString(), anyList(), eq(120))).thenReturn(List.of("receipt-1"));
+        leaseManager = new VisibilityLeaseManager(messageConsumer, jobConsumerConfig);
+
+        leaseManager.track(QUEUE_NAME, "receipt-1");
+
+        verify(messageConsumer, timeout(1000)).changeMessageVisibilityBatch(QUEUE_NAME, List.of("receipt-1"), 120);
+        verify(messageConsumer, after(200).times(1)).changeMessageVisibilityBatch(anyString(), anyList(), anyInt());
+        assertEquals(0, leaseManager.getLeaseCount());
+    }
+
+    @Test
+    void testRelease_MakesMessageVisibleRightAway() {
+        leaseManager = new VisibilityLeaseManager(messageConsumer, jobConsumerConfig);
+
+        leaseManager.track(QUEUE_NAME, "receipt-1");
+        leaseManager.release(QUEUE_NAME, "receipt-1");
+
+        verify(messageConsumer, timeout(1000)).changeMessageVisibilityBatch(QUEUE_NAME, List.of("receipt-1"), 0);
+        assertEquals(0, leaseManager.getLeaseCount());
+    }
+}
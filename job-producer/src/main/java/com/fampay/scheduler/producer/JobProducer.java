@@ -1,5 +1,11 @@
 package com.fampay.scheduler.producer;
 
+import com.fampay.scheduler.models.dto.ShardRange;
+
 public interface JobProducer {
-    void produceJobs(long startTime, long endTime,Integer pageSize);
+    /**
+     * @return number of executions produced
+     */
+    int produceJobs(long startTime, long endTime,Integer pageSize);
+    int produceJobs(long startTime, long endTime,Integer pageSize,ShardRange shardRange);
 }
\ No newline at end of file
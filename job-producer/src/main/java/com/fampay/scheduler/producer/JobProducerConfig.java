@@ -1,5 +1,6 @@
 package com.fampay.scheduler.producer;
 
+import com.fampay.scheduler.models.queue.JobMessageFormat;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
@@ -12,4 +13,69 @@ import org.springframework.context.annotation.Configuration;
 public class JobProducerConfig {
     private String configId;
     private Integer pageSize=60;
+    /**
+     * Number of partitions of a page produced concurrently, 1 produces the jobs one by one on the scheduler thread.
+     */
+    private Integer parallelism=1;
+    /**
+     * Read the due jobs through a single streaming cursor instead of one query per page
+     */
+    private Boolean streamingScan=false;
+    /**
+     * Number of jobs fetched per round trip by the streaming cursor
+     */
+    private Integer scanBatchSize=1000;
+    /**
+     * Maximum number of execution upserts in one bulk write
+     */
+    private Integer executionFlushSize=1000;
+    /**
+     * Maximum number of next run updates in one bulk write
+     */
+    private Integer nextRunFlushSize=500;
+    /**
+     * Enqueue only a reference to the job, consumers resolve the definition from their cache. Consumers must be
+     * deployed with the job definition cache before this is turned on.
+     */
+    private Boolean slimMessages=false;
+    /**
+     * Encoding of enqueued messages. Consumers read both, they must be deployed with the codec before producers
+     * switch away from JSON.
+     */
+    private JobMessageFormat messageFormat=JobMessageFormat.JSON;
+    /**
+     * Number of producer shards, each with its own lock and checkpoint. 1 keeps a single global producer.
+     * Every node must run with the same value.
+     */
+    private Integer shardCount=1;
+    /**
+     * Maximum number of shards a node produces in one cycle, null or 0 for no limit.
+     */
+    private Integer maxShardsPerNode;
+    /**
+     * How far ahead of now executions are produced, null to produce until the end of the next minute.
+     * Executions due beyond the 15 minute SQS delay limit are enqueued by a later cycle once they enter it.
+     */
+    private Long lookaheadMs;
+    /**
+     * Adaptive sizing of the lookahead and of the cycle interval, lookaheadMs is ignored when enabled.
+     */
+    private Horizon horizon = new Horizon();
+
+    @Data
+    public static class Horizon {
+        private Boolean enabled=false;
+        private Long minLookaheadMs=120000L;
+        private Long maxLookaheadMs=3600000L;
+        private Long minIntervalMs=1000L;
+        private Long maxIntervalMs=10000L;
+        /**
+         * Maximum number of executions a cycle produces on top of the steady state while the lookahead grows
+         */
+        private Integer maxExecutionsPerStep=20000;
+        /**
+         * Number of visible messages on the queue above which the lookahead shrinks
+         */
+        private Long maxQueueBacklog=50000L;
+    }
 }
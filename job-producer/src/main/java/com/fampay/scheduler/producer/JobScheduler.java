@@ -1,27 +1,32 @@
 package com.fampay.scheduler.producer;
 
 import com.fampay.scheduler.commons.lock.client.CustomDistributedLock;
+import com.fampay.scheduler.models.dto.ShardRange;
 import com.fampay.scheduler.models.entity.ProducerConfig;
+import com.fampay.scheduler.producer.horizon.ProducerHorizonController;
+import com.fampay.scheduler.producer.queue.DelayedExecutionDispatcher;
 import com.fampay.scheduler.producer.utils.TimeUtils;
 import com.fampay.scheduler.repository.ProducerConfigDao;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.joda.time.DateTimeUtils;
 import org.springframework.scheduling.annotation.EnableScheduling;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
 import org.springframework.stereotype.Component;
 
 import java.time.Instant;
 import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
 import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.locks.Lock;
 
 @Component
 @RequiredArgsConstructor
 @Slf4j
 @EnableScheduling
-public class JobScheduler {
+public class JobScheduler implements SchedulingConfigurer {
 
     private static final String JOB_PRODUCER_LOCK_ID = "job-producer-lock";
 
@@ -29,18 +34,41 @@ public class JobScheduler {
     private final CustomDistributedLock customDistributedLock;
     private final ProducerConfigDao producerConfigDao;
     private final JobProducerConfig jobProducerConfig;
+    private final ProducerHorizonController producerHorizonController;
+    private final DelayedExecutionDispatcher delayedExecutionDispatcher;
+
+    /**
+     * Cycles start every interval given by the horizon controller, like a fixed rate: a cycle overrunning the
+     * interval is followed by the next one right away.
+     */
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar taskRegistrar) {
+        taskRegistrar.addTriggerTask(this::scheduleJobFetching, triggerContext -> {
+            Instant lastScheduledExecution = triggerContext.lastScheduledExecution();
+            return lastScheduledExecution==null?Instant.now():lastScheduledExecution.plusMillis(producerHorizonController.getIntervalMs());
+        });
+    }
 
-    @Scheduled(fixedRate = 10000L)
     public void scheduleJobFetching() {
         log.info("Job Scheduler is running");
+        long cycleStartTime = DateTimeUtils.currentTimeMillis();
+        int shardCount = jobProducerConfig.getShardCount()!=null?jobProducerConfig.getShardCount():1;
+        if (shardCount > 1) {
+            long endTimestamp = getEndTimestamp();
+            int producedExecutions = produceShards(shardCount,endTimestamp);
+            producerHorizonController.onCycleCompleted(endTimestamp,producedExecutions,DateTimeUtils.currentTimeMillis()-cycleStartTime);
+            return;
+        }
         Optional<Lock> lock = customDistributedLock.acquireLockWithWait(JOB_PRODUCER_LOCK_ID, 1000L,true);
         if (lock.isPresent()) {
             try {
+                dispatchDueExecutions(null);
                 ProducerConfig producerConfig = producerConfigDao.findProducerConfById(jobProducerConfig.getConfigId());
                 long startTimestamp = getStartTimestamp(producerConfig);
-                long endTimestamp = TimeUtils.getEndOfNextMinute(DateTimeUtils.currentTimeMillis());
-                jobProducer.produceJobs(startTimestamp,endTimestamp,jobProducerConfig.getPageSize());
+                long endTimestamp = getEndTimestamp();
+                int producedExecutions = jobProducer.produceJobs(startTimestamp,endTimestamp,jobProducerConfig.getPageSize());
                 producerConfigDao.updateLastProducedTimestamp(producerConfig.getConfigId(),DateTimeUtils.currentTimeMillis());
+                producerHorizonController.onCycleCompleted(endTimestamp,producedExecutions,DateTimeUtils.currentTimeMillis()-cycleStartTime);
             } catch (Exception e) {
                 log.error("Exception occurred while scheduling for timestamp :{}",DateTimeUtils.currentTimeMillis(),e);
                 throw e;
@@ -52,6 +80,73 @@ public class JobScheduler {
         }
     }
 
+    /**
+     * Every node walks all the shards starting from a random one and produces each shard whose lock it can take
+     * without waiting, holding one shard lock at a time. Busy nodes therefore leave shards to idle ones, and the
+     * shards of a dead node are picked up by the others once its lock lease expires.
+     */
+    private int produceShards(int shardCount, long endTimestamp) {
+        Integer maxShardsPerNode = jobProducerConfig.getMaxShardsPerNode();
+        int maxShards = maxShardsPerNode!=null && maxShardsPerNode>0?maxShardsPerNode:shardCount;
+        int offset = ThreadLocalRandom.current().nextInt(shardCount);
+        int claimedShards = 0;
+        int producedExecutions = 0;
+        for (int i = 0; i < shardCount && claimedShards < maxShards; i++) {
+            int shardIndex = (offset + i) % shardCount;
+            Optional<Lock> lock = customDistributedLock.acquireLock(JOB_PRODUCER_LOCK_ID + "-" + shardIndex,true);
+            if (lock.isEmpty()) {
+                continue;
+            }
+            claimedShards++;
+            try {
+                producedExecutions += produceShard(ShardRange.of(shardIndex,shardCount),endTimestamp);
+            } catch (Exception e) {
+                log.error("Exception occurred while producing shard :{} for timestamp :{}",shardIndex,DateTimeUtils.currentTimeMillis(),e);
+            } finally {
+                lock.get().unlock();
+            }
+        }
+        log.info("Produced {} of {} shards",claimedShards,shardCount);
+        return producedExecutions;
+    }
+
+    private int produceShard(ShardRange shardRange, long endTimestamp) {
+        dispatchDueExecutions(shardRange);
+        String checkpointId = jobProducerConfig.getConfigId() + "-" + shardRange.getShardIndex();
+        ProducerConfig checkpoint = producerConfigDao.findProducerConfById(checkpointId);
+        if (checkpoint==null || checkpoint.getLastProducedTimestamp()==null) {
+            // first cycle of the shard, continue from where the unsharded producer stopped
+            checkpoint = producerConfigDao.findProducerConfById(jobProducerConfig.getConfigId());
+        }
+        long startTimestamp = getStartTimestamp(checkpoint);
+        int producedExecutions = jobProducer.produceJobs(startTimestamp,endTimestamp,jobProducerConfig.getPageSize(),shardRange);
+        producerConfigDao.updateLastProducedTimestamp(checkpointId,DateTimeUtils.currentTimeMillis());
+        return producedExecutions;
+    }
+
+    /**
+     * Runs under the same lock as the producer, a failure is left for the next cycle and does not keep the shard
+     * from being produced.
+     */
+    private void dispatchDueExecutions(ShardRange shardRange) {
+        try {
+            delayedExecutionDispatcher.dispatchDueExecutions(shardRange);
+        } catch (Exception e) {
+            log.error("Exception occurred while dispatching due executions of shard :{}",shardRange,e);
+        }
+    }
+
+    private long getEndTimestamp() {
+        if (producerHorizonController.isEnabled()) {
+            return DateTimeUtils.currentTimeMillis()+producerHorizonController.getLookaheadMs();
+        }
+        Long lookaheadMs = jobProducerConfig.getLookaheadMs();
+        if (lookaheadMs==null || lookaheadMs<=0) {
+            return TimeUtils.getEndOfNextMinute(DateTimeUtils.currentTimeMillis());
+        }
+        return TimeUtils.getEndOfMinute(DateTimeUtils.currentTimeMillis()+lookaheadMs);
+    }
+
     private long getStartTimestamp(ProducerConfig producerConfig) {
         Long currentTime = DateTimeUtils.currentTimeMillis();
         if (producerConfig==null || producerConfig.getLastProducedTimestamp()==null) {
@@ -14,7 +14,21 @@ public class MessageAdapter {
         return JobMessagePayload.builder().jobId(jobEntity.getId()).type(jobEntity.getType())
                 .executionId(jobExecutionEntity.getExecutionId()).scheduledRunAt(jobExecutionEntity.getScheduledRunAt())
                 .createdAt(jobExecutionEntity.getCreatedAt()).updatedAt(jobExecutionEntity.getUpdatedAt())
-                .apiConfig(ApiConfig.builder().payload(jobEntity.getApiConfig().getPayload()).readTimeoutMs(jobEntity.getApiConfig().getReadTimeoutMs()).url(jobEntity.getApiConfig().getUrl()).httpMethod(jobEntity.getApiConfig().getHttpMethod()).build())
+                .apiConfig(ApiConfig.builder().payload(jobEntity.getApiConfig().getPayload()).readTimeoutMs(jobEntity.getApiConfig().getReadTimeoutMs()).maxRetries(jobEntity.getApiConfig().getMaxRetries()).payloadHash(jobEntity.getApiConfig().getPayloadHash())
+                        .batchDelivery(jobEntity.getApiConfig().isBatchDelivery()).url(jobEntity.getApiConfig().getUrl()).httpMethod(jobEntity.getApiConfig().getHttpMethod()).build())
+                .build();
+    }
+
+    /**
+     * Message carrying a reference to the job instead of its definition, the consumer resolves type and apiConfig
+     * from its job definition cache. Falls back to the full message for jobs written before versioning.
+     */
+    public static JobMessagePayload fromJobProduceData(JobExecutionEntity jobExecutionEntity, JobEntity jobEntity, boolean slim) {
+        if (!slim || jobEntity.getVersion() == null) {
+            return fromJobProduceData(jobExecutionEntity, jobEntity);
+        }
+        return JobMessagePayload.builder().jobId(jobEntity.getId()).jobVersion(jobEntity.getVersion())
+                .executionId(jobExecutionEntity.getExecutionId()).scheduledRunAt(jobExecutionEntity.getScheduledRunAt())
                 .build();
     }
 }
@@ -0,0 +1,117 @@
+package com.fampay.scheduler.producer.horizon;
+
+import com.fampay.scheduler.producer.JobProducerConfig;
+import com.fampay.scheduler.producer.queue.JobQueue;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.joda.time.DateTimeUtils;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sizes how far ahead the producer runs and how often it runs from what the previous cycles measured.
+ * <ul>
+ *     <li>The interval is twice the last cycle duration within bounds, so new jobs wait as little as possible
+ *     while the producer stays idle at least half of the time.</li>
+ *     <li>The lookahead always covers the next cycle with margin. Above that it grows by as much as
+ *     maxExecutionsPerStep executions at the measured job density, up to maxLookaheadMs, and halves while the
+ *     queue backlog is above maxQueueBacklog since the consumers are behind.</li>
+ * </ul>
+ * Once the lookahead is stable a cycle only produces the executions of the newly covered span, so a larger
+ * lookahead does not make cycles more expensive.
+ */
+@Component
+@Slf4j
+public class ProducerHorizonController {
+
+    private static final long DEFAULT_INTERVAL_MS = 10000L;
+    private static final double DENSITY_SMOOTHING = 0.3;
+
+    private final JobProducerConfig jobProducerConfig;
+    private final JobQueue jobQueue;
+    private final AtomicLong lookaheadMs = new AtomicLong();
+    private final AtomicLong intervalMs = new AtomicLong(DEFAULT_INTERVAL_MS);
+    private final AtomicLong queueBacklog = new AtomicLong(-1);
+
+    /**
+     * Smoothed number of executions per ms of schedule, negative until measured
+     */
+    private double executionDensity = -1;
+    private long lastWindowEnd = -1;
+
+    public ProducerHorizonController(JobProducerConfig jobProducerConfig, JobQueue jobQueue, MeterRegistry meterRegistry) {
+        this.jobProducerConfig = jobProducerConfig;
+        this.jobQueue = jobQueue;
+        if (isEnabled()) {
+            lookaheadMs.set(jobProducerConfig.getHorizon().getMinLookaheadMs());
+            intervalMs.set(jobProducerConfig.getHorizon().getMaxIntervalMs());
+        }
+        Gauge.builder("job.producer.lookahead", lookaheadMs, AtomicLong::get).baseUnit("milliseconds")
+                .description("How far ahead of now executions are produced").register(meterRegistry);
+        Gauge.builder("job.producer.interval", intervalMs, AtomicLong::get).baseUnit("milliseconds")
+                .description("Delay between the starts of two producer cycles").register(meterRegistry);
+        Gauge.builder("job.producer.queue.backlog", queueBacklog, AtomicLong::get)
+                .description("Messages waiting on the job queue, as last read by the producer").register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        JobProducerConfig.Horizon horizon = jobProducerConfig.getHorizon();
+        return horizon != null && Boolean.TRUE.equals(horizon.getEnabled());
+    }
+
+    public long getLookaheadMs() {
+        return lookaheadMs.get();
+    }
+
+    public long getIntervalMs() {
+        return intervalMs.get();
+    }
+
+    /**
+     * @param windowEnd           end of the window the cycle produced
+     * @param producedExecutions  executions produced by this node in the cycle
+     * @param cycleDurationMs     time the cycle took
+     */
+    public synchronized void onCycleCompleted(long windowEnd, int producedExecutions, long cycleDurationMs) {
+        long now = DateTimeUtils.currentTimeMillis();
+        if (!isEnabled()) {
+            lookaheadMs.set(Math.max(0, windowEnd - now));
+            return;
+        }
+        JobProducerConfig.Horizon horizon = jobProducerConfig.getHorizon();
+        long coveredSpan = lastWindowEnd < 0 ? windowEnd - now : windowEnd - lastWindowEnd;
+        lastWindowEnd = Math.max(lastWindowEnd, windowEnd);
+        if (coveredSpan > 0) {
+            double density = (double) producedExecutions / coveredSpan;
+            executionDensity = executionDensity < 0 ? density
+                    : DENSITY_SMOOTHING * density + (1 - DENSITY_SMOOTHING) * executionDensity;
+        }
+
+        long interval = clamp(2 * cycleDurationMs, horizon.getMinIntervalMs(), horizon.getMaxIntervalMs());
+        long minLookahead = Math.max(horizon.getMinLookaheadMs(), 2 * (interval + cycleDurationMs));
+        long lookahead = lookaheadMs.get();
+        long backlog = jobQueue.getBacklog(JobQueue.JOB_QUEUE_NAME);
+        queueBacklog.set(backlog);
+        if (backlog > horizon.getMaxQueueBacklog()) {
+            lookahead = lookahead / 2;
+        } else if (executionDensity > 0) {
+            lookahead = lookahead + (long) (horizon.getMaxExecutionsPerStep() / executionDensity);
+        } else {
+            lookahead = horizon.getMaxLookaheadMs();
+        }
+        lookahead = clamp(lookahead, minLookahead, Math.max(minLookahead, horizon.getMaxLookaheadMs()));
+
+        if (lookahead != lookaheadMs.get() || interval != intervalMs.get()) {
+            log.info("Producer horizon is now {}ms every {}ms, cycle took {}ms for {} executions with backlog {}",
+                    lookahead, interval, cycleDurationMs, producedExecutions, backlog);
+        }
+        lookaheadMs.set(lookahead);
+        intervalMs.set(interval);
+    }
+
+    private static long clamp(long value, long min, long max) {
+        return Math.max(min, Math.min(max, value));
+    }
+}
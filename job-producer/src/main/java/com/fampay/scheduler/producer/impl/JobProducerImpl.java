@@ -1,81 +1,321 @@
 package com.fampay.scheduler.producer.impl;
 
+import com.fampay.scheduler.commons.exception.InternalLibraryException;
+import com.fampay.scheduler.commons.exception.LibraryErrorMessages;
+import com.fampay.scheduler.commons.helper.cron.TimestampBuffer;
 import com.fampay.scheduler.commons.helper.utils.CronUtilsHelper;
+import com.fampay.scheduler.models.dto.ShardRange;
 import com.fampay.scheduler.producer.JobProducer;
+import com.fampay.scheduler.producer.JobProducerConfig;
 import com.fampay.scheduler.producer.adapter.MessageAdapter;
+import com.fampay.scheduler.producer.queue.DelayedExecutionDispatcher;
 import com.fampay.scheduler.producer.queue.JobQueue;
 import com.fampay.scheduler.repository.JobDao;
 import com.fampay.scheduler.repository.JobExecutionDao;
 import com.fampay.scheduler.models.entity.JobEntity;
 import com.fampay.scheduler.models.entity.JobExecutionEntity;
 import com.fampay.scheduler.models.entity.PagedJobs;
+import com.fampay.scheduler.models.queue.JobMessagePayload;
 import com.fampay.scheduler.producer.utils.JobExecutionUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.joda.time.DateTimeUtils;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class JobProducerImpl implements JobProducer {
 
-    private static final String QUEUE_NAME = "local-job-queue";
-
     private final JobDao jobDao;
     private final JobExecutionDao jobExecutionDao;
     private final JobQueue jobQueue;
+    private final JobProducerConfig jobProducerConfig;
 
     @Override
-    public void produceJobs(long startTime, long endTime,Integer pageSize) {
+    public int produceJobs(long startTime, long endTime,Integer pageSize) {
+        return produceJobs(startTime,endTime,pageSize,null);
+    }
+
+    /**
+     * @param shardRange Buckets of jobs to produce, null to produce every job
+     */
+    @Override
+    public int produceJobs(long startTime, long endTime, Integer pageSize, ShardRange shardRange) {
         pageSize = pageSize!=null?pageSize:60;
+        int parallelism = getParallelism();
+        if (Boolean.TRUE.equals(jobProducerConfig.getStreamingScan())) {
+            return produceJobsStreaming(startTime,endTime,pageSize,parallelism,shardRange);
+        }
+        if (parallelism > 1) {
+            return produceJobsInParallel(startTime,endTime,pageSize,parallelism,shardRange);
+        }
+        int producedExecutions = 0;
         Long nextTimeOffset=null;
         String nextJobId=null;
         PagedJobs pagedJobs;
         do {
-            pagedJobs = jobDao.getJobsPaginated(startTime,endTime,pageSize,nextTimeOffset,nextJobId);
+            pagedJobs = getJobsPaginated(startTime,endTime,pageSize,nextTimeOffset,nextJobId,shardRange);
             nextTimeOffset = pagedJobs.getNextScheduledTimestamp();
             nextJobId = pagedJobs.getNextJobId();
-            for (JobEntity jobEntity : pagedJobs.getJobEntities()) {
-                try {
-                    Long timestampToStartScheduling = determineTimeToSchedule(jobEntity.getNextScheduledTime(),startTime,jobEntity.getSchedule());
-                    if (timestampToStartScheduling>endTime) {
-                        log.info("Repair the jobs to correct their next schedule as we skip the previous schedules {}",jobEntity.getId());
-                        jobDao.updateNextRunForJob(jobEntity.getId(),timestampToStartScheduling);
-                    } else if (timestampToStartScheduling==-1) {
-                        log.info("Ignoring next run for the job :{} as nextScheduledTimestamp is -1",jobEntity.getId());
-                    } else {
-                        List<JobExecutionEntity> jobExecutionEntities = createJobExecutions(jobEntity,timestampToStartScheduling,endTime);
-                        for (JobExecutionEntity jobExecutionEntity : jobExecutionEntities) {
-                            boolean success = jobQueue.enqueueJobExecution(MessageAdapter.fromJobProduceData(jobExecutionEntity,jobEntity),QUEUE_NAME);
-                            if (!success) {
-                                //Send this message to DLQ in future releases.
-                                log.error("Message failed to be produced to queue for jobid:{} and execution :{}",jobExecutionEntity.getJobId(),jobExecutionEntity.getExecutionId());
-                            }
-                        }
-                        Long nextTimestamp = CronUtilsHelper.getNextRunInGMTFromStartTime(jobEntity.getSchedule(),endTime);
-                        jobDao.updateNextRunForJob(jobEntity.getId(),nextTimestamp);
+            producedExecutions += produceJobBatch(pagedJobs.getJobEntities(),startTime,endTime);
+        } while (!pagedJobs.isLast());
+        return producedExecutions;
+    }
+
+    /**
+     * Pages are still read sequentially since the cursor of a page depends on the previous one, but every page is
+     * split into partitions by hash of the job id and the partitions are produced on virtual threads. At most
+     * {@code parallelism} partitions are in flight, reading the next page blocks until one of them finishes.
+     * Returns only once every partition of the window is done.
+     */
+    private int produceJobsInParallel(long startTime, long endTime, int pageSize, int parallelism, ShardRange shardRange) {
+        Semaphore permits = new Semaphore(parallelism);
+        AtomicInteger producedExecutions = new AtomicInteger();
+        try (ExecutorService executorService = Executors.newVirtualThreadPerTaskExecutor()) {
+            Long nextTimeOffset=null;
+            String nextJobId=null;
+            PagedJobs pagedJobs;
+            do {
+                pagedJobs = getJobsPaginated(startTime,endTime,pageSize,nextTimeOffset,nextJobId,shardRange);
+                nextTimeOffset = pagedJobs.getNextScheduledTimestamp();
+                nextJobId = pagedJobs.getNextJobId();
+                for (List<JobEntity> partition : partition(pagedJobs.getJobEntities(),parallelism)) {
+                    submitBatch(executorService,permits,partition,startTime,endTime,producedExecutions);
+                }
+            } while (!pagedJobs.isLast());
+        }
+        return producedExecutions.get();
+    }
+
+    /**
+     * Jobs are read through one cursor and produced in batches of pageSize as they arrive. At most
+     * {@code parallelism} batches are in flight, the cursor is not advanced until one of them finishes, so memory
+     * stays bounded however many jobs are due.
+     */
+    private int produceJobsStreaming(long startTime, long endTime, int pageSize, int parallelism, ShardRange shardRange) {
+        Semaphore permits = new Semaphore(parallelism);
+        AtomicInteger producedExecutions = new AtomicInteger();
+        try (ExecutorService executorService = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<JobEntity> batch = new ArrayList<>(pageSize);
+            jobDao.streamJobsScheduledBetween(startTime,endTime,shardRange,getScanBatchSize(),jobEntity -> {
+                batch.add(jobEntity);
+                if (batch.size() == pageSize) {
+                    submitBatch(executorService,permits,new ArrayList<>(batch),startTime,endTime,producedExecutions);
+                    batch.clear();
+                }
+            });
+            if (!batch.isEmpty()) {
+                submitBatch(executorService,permits,batch,startTime,endTime,producedExecutions);
+            }
+        }
+        return producedExecutions.get();
+    }
+
+    private void submitBatch(ExecutorService executorService, Semaphore permits, List<JobEntity> jobEntities, long startTime, long endTime, AtomicInteger producedExecutions) {
+        acquire(permits);
+        executorService.execute(() -> {
+            try {
+                producedExecutions.addAndGet(produceJobBatch(jobEntities,startTime,endTime));
+            } catch (Exception e) {
+                log.error("Unable to produce partition of {} jobs",jobEntities.size(),e);
+            } finally {
+                permits.release();
+            }
+        });
+    }
+
+    /**
+     * Mongo writes and the enqueue are done for the whole batch at once: execution upserts are flushed together,
+     * the executions of every job whose upserts all succeeded are enqueued together, and only then the next run of
+     * those jobs is moved forward. A job with a failed write keeps its next run, so it is produced again on the
+     * next cycle.
+     * <p>
+     * Executions due within the queue delay window are written as enqueued and enqueued right away, the others are
+     * left to the {@link DelayedExecutionDispatcher}. Marking them before the enqueue saves a write, but until the
+     * queue accepts them the mark is only kept by their job not moving its next run forward: if the node dies before
+     * the enqueue, or the executions the queue rejects cannot be marked unqueued again, the job is produced again
+     * and the insert, which keeps the existing executions, enqueues them again.
+     * @return number of executions produced
+     */
+    private int produceJobBatch(List<JobEntity> jobEntities, long startTime, long endTime) {
+        TimestampBuffer timestampBuffer = new TimestampBuffer();
+        Map<String,Long> nextTimestampByJobId = new LinkedHashMap<>();
+        Map<String,JobEntity> producedJobsById = new LinkedHashMap<>();
+        List<JobExecutionEntity> jobExecutionEntities = new ArrayList<>();
+        for (JobEntity jobEntity : jobEntities) {
+            try {
+                Long timestampToStartScheduling = determineTimeToSchedule(jobEntity.getNextScheduledTime(),startTime,jobEntity.getSchedule());
+                if (timestampToStartScheduling>endTime) {
+                    log.info("Repair the jobs to correct their next schedule as we skip the previous schedules {}",jobEntity.getId());
+                    nextTimestampByJobId.put(jobEntity.getId(),timestampToStartScheduling);
+                } else if (timestampToStartScheduling==-1) {
+                    log.info("Ignoring next run for the job :{} as nextScheduledTimestamp is -1",jobEntity.getId());
+                } else {
+                    jobExecutionEntities.addAll(JobExecutionUtil.generate(jobEntity,timestampToStartScheduling,endTime,timestampBuffer));
+                    producedJobsById.put(jobEntity.getId(),jobEntity);
+                }
+            } catch (Exception e) {
+                log.error("Unable to produce job with id :{}",jobEntity.getId(),e);
+            }
+        }
+        long enqueuedAt = DateTimeUtils.currentTimeMillis();
+        for (JobExecutionEntity jobExecutionEntity : jobExecutionEntities) {
+            if (DelayedExecutionDispatcher.isWithinDelayWindow(jobExecutionEntity.getScheduledRunAt(),enqueuedAt)) {
+                jobExecutionEntity.setEnqueuedAt(enqueuedAt);
+            }
+        }
+        Set<String> failedJobIds = createJobExecutions(jobExecutionEntities);
+        List<JobMessagePayload> jobMessagePayloads = new ArrayList<>(jobExecutionEntities.size());
+        int producedExecutions = 0;
+        for (JobExecutionEntity jobExecutionEntity : jobExecutionEntities) {
+            if (failedJobIds.contains(jobExecutionEntity.getJobId())) {
+                continue;
+            }
+            producedExecutions++;
+            if (jobExecutionEntity.getEnqueuedAt()==null) {
+                continue;
+            }
+            try {
+                jobMessagePayloads.add(MessageAdapter.fromJobProduceData(jobExecutionEntity,producedJobsById.get(jobExecutionEntity.getJobId()),Boolean.TRUE.equals(jobProducerConfig.getSlimMessages())));
+            } catch (Exception e) {
+                log.error("Unable to produce job with id :{}",jobExecutionEntity.getJobId(),e);
+                failedJobIds.add(jobExecutionEntity.getJobId());
+            }
+        }
+        jobMessagePayloads.removeIf(jobMessagePayload -> failedJobIds.contains(jobMessagePayload.getJobId()));
+        failedJobIds.addAll(enqueueJobExecutions(jobMessagePayloads));
+        for (JobEntity jobEntity : producedJobsById.values()) {
+            if (failedJobIds.contains(jobEntity.getId())) {
+                log.error("Skipping next run update for job with id :{} as its executions could not be produced",jobEntity.getId());
+                continue;
+            }
+            nextTimestampByJobId.put(jobEntity.getId(),CronUtilsHelper.getNextRunInGMTFromStartTime(jobEntity.getSchedule(),endTime));
+        }
+        updateNextRunForJobs(nextTimestampByJobId);
+        return producedExecutions;
+    }
+
+    /**
+     * Note that this is idempotent, we are only creating the schedule if it's not created already.
+     * @param jobExecutionEntities Executions of the batch, flushed in chunks of the configured size
+     * @return ids of the jobs for which at least one execution could not be created
+     */
+    private Set<String> createJobExecutions(List<JobExecutionEntity> jobExecutionEntities) {
+        Set<String> failedJobIds = new HashSet<>();
+        int flushSize = getFlushSize(jobProducerConfig.getExecutionFlushSize());
+        for (int from = 0; from < jobExecutionEntities.size(); from += flushSize) {
+            List<JobExecutionEntity> chunk = jobExecutionEntities.subList(from,Math.min(jobExecutionEntities.size(),from+flushSize));
+            try {
+                Set<String> failedExecutionIds = jobExecutionDao.createJobExecutionsInBulk(chunk);
+                for (JobExecutionEntity jobExecutionEntity : chunk) {
+                    if (failedExecutionIds.contains(jobExecutionEntity.getExecutionId())) {
+                        failedJobIds.add(jobExecutionEntity.getJobId());
                     }
-                } catch (Exception e) {
-                    log.error("Unable to produce job with id :{}",jobEntity.getId(),e);
                 }
+            } catch (Exception e) {
+                log.error("Unable to create {} job executions",chunk.size(),e);
+                chunk.forEach(jobExecutionEntity -> failedJobIds.add(jobExecutionEntity.getJobId()));
             }
-        } while (!pagedJobs.isLast());
+        }
+        return failedJobIds;
+    }
+
+    private void updateNextRunForJobs(Map<String,Long> nextTimestampByJobId) {
+        List<String> jobIds = new ArrayList<>(nextTimestampByJobId.keySet());
+        int flushSize = getFlushSize(jobProducerConfig.getNextRunFlushSize());
+        for (int from = 0; from < jobIds.size(); from += flushSize) {
+            Map<String,Long> chunk = new LinkedHashMap<>();
+            jobIds.subList(from,Math.min(jobIds.size(),from+flushSize)).forEach(jobId -> chunk.put(jobId,nextTimestampByJobId.get(jobId)));
+            Set<String> failedJobIds;
+            try {
+                failedJobIds = jobDao.updateNextRunForJobs(chunk);
+            } catch (Exception e) {
+                log.error("Unable to update next run of {} jobs",chunk.size(),e);
+                failedJobIds = chunk.keySet();
+            }
+            failedJobIds.forEach(jobId -> log.error("Unable to update next run for job with id :{}",jobId));
+        }
     }
 
     /**
-     * Note that this is an idempotent method, we are only creating the schedule if it's not created already.
-     * @param jobEntity Entity for which executions need to be created
-     * @param startTimestamp Timestamp from which executions need to be created
-     * @param endTimestamp Timestamp till executions need to be created
-     * @return
+     * Executions the queue rejects are marked unqueued again, so the dispatcher retries them on the next cycle.
+     * @return ids of the jobs with rejected executions that could not be marked unqueued again
      */
-    private List<JobExecutionEntity> createJobExecutions(JobEntity jobEntity,Long startTimestamp, Long endTimestamp) {
-        List<JobExecutionEntity> jobExecutionEntities = JobExecutionUtil.generate(jobEntity,startTimestamp,endTimestamp);
-        jobExecutionDao.createMultipleJobExecutions(jobExecutionEntities);
-        return jobExecutionEntities;
+    private Set<String> enqueueJobExecutions(List<JobMessagePayload> jobMessagePayloads) {
+        if (jobMessagePayloads.isEmpty()) {
+            return Set.of();
+        }
+        Set<String> failedExecutionIds = jobQueue.enqueueJobExecutions(jobMessagePayloads,JobQueue.JOB_QUEUE_NAME);
+        if (failedExecutionIds.isEmpty()) {
+            return Set.of();
+        }
+        failedExecutionIds.forEach(executionId -> log.warn("Message failed to be produced to queue for execution :{}, leaving it to the dispatcher",executionId));
+        try {
+            jobExecutionDao.setEnqueuedAt(failedExecutionIds,null);
+            return Set.of();
+        } catch (Exception e) {
+            log.error("Unable to return {} executions to the dispatcher, producing their jobs again",failedExecutionIds.size(),e);
+            return jobMessagePayloads.stream()
+                    .filter(jobMessagePayload -> failedExecutionIds.contains(jobMessagePayload.getExecutionId()))
+                    .map(JobMessagePayload::getJobId)
+                    .collect(Collectors.toSet());
+        }
+    }
+
+    private PagedJobs getJobsPaginated(long startTime, long endTime, int pageSize, Long nextTimeOffset, String nextJobId, ShardRange shardRange) {
+        if (shardRange == null) {
+            return jobDao.getJobsPaginated(startTime,endTime,pageSize,nextTimeOffset,nextJobId);
+        }
+        return jobDao.getJobsPaginated(startTime,endTime,pageSize,nextTimeOffset,nextJobId,shardRange);
+    }
+
+    private static List<List<JobEntity>> partition(List<JobEntity> jobEntities, int partitionCount) {
+        List<List<JobEntity>> partitions = new ArrayList<>(partitionCount);
+        for (int i = 0; i < partitionCount; i++) {
+            partitions.add(new ArrayList<>());
+        }
+        for (JobEntity jobEntity : jobEntities) {
+            partitions.get(Math.floorMod(jobEntity.getId().hashCode(),partitionCount)).add(jobEntity);
+        }
+        partitions.removeIf(List::isEmpty);
+        return partitions;
+    }
+
+    private static void acquire(Semaphore permits) {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw InternalLibraryException.childBuilder().message(LibraryErrorMessages.SYSTEM_ERROR)
+                    .displayMessage("Interrupted while waiting for a producer partition").build();
+        }
+    }
+
+    private int getParallelism() {
+        Integer parallelism = jobProducerConfig.getParallelism();
+        return parallelism!=null && parallelism>0?parallelism:1;
+    }
+
+    private int getScanBatchSize() {
+        Integer scanBatchSize = jobProducerConfig.getScanBatchSize();
+        return scanBatchSize!=null && scanBatchSize>0?scanBatchSize:1000;
+    }
+
+    private static int getFlushSize(Integer flushSize) {
+        return flushSize!=null && flushSize>0?flushSize:Integer.MAX_VALUE;
     }
 
     private Long determineTimeToSchedule(Long nextTimeToRun, Long producerStartTime,String jobSchedule) {
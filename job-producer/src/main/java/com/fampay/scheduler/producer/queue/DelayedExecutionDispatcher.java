@@ -0,0 +1,125 @@
+package com.fampay.scheduler.producer.queue;
+
+import com.fampay.scheduler.models.dto.ShardRange;
+import com.fampay.scheduler.models.entity.JobEntity;
+import com.fampay.scheduler.models.entity.JobExecutionEntity;
+import com.fampay.scheduler.models.entity.PagedJobExecutions;
+import com.fampay.scheduler.models.queue.JobMessagePayload;
+import com.fampay.scheduler.producer.JobProducerConfig;
+import com.fampay.scheduler.producer.adapter.MessageAdapter;
+import com.fampay.scheduler.repository.JobDao;
+import com.fampay.scheduler.repository.JobExecutionDao;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.joda.time.DateTimeUtils;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * SQS caps the delivery delay at 15 minutes. Executions produced further ahead are only persisted, as SCHEDULED
+ * with a null enqueuedAt, and every producer cycle enqueues the ones of its shard that entered that window,
+ * overdue ones included. Nothing is held in memory, so executions of a dead node are dispatched by whichever node
+ * takes its shard next.
+ * <p>
+ * The dispatcher marks executions enqueued only after the queue accepted them. If the node dies in between they are
+ * enqueued again by the next cycle, and the consumer claim keeps the second delivery from running them twice.
+ * Executions already within the window when produced are written marked and enqueued by the producer itself, and
+ * marked unqueued again if the queue rejects them. Until the queue accepted those, their job keeps its next run, so a
+ * node dying in between has the job produced again instead of leaving them to this dispatcher.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class DelayedExecutionDispatcher {
+
+    public static final long MAX_QUEUE_DELAY_MS = 900_000L;
+
+    private final JobDao jobDao;
+    private final JobExecutionDao jobExecutionDao;
+    private final JobQueue jobQueue;
+    private final JobProducerConfig jobProducerConfig;
+
+    /**
+     * @return true if the execution may be enqueued now, false if it is due beyond the queue delay window
+     */
+    public static boolean isWithinDelayWindow(long scheduledRunAt, long now) {
+        return scheduledRunAt - MAX_QUEUE_DELAY_MS <= now;
+    }
+
+    /**
+     * @param shardRange Buckets of executions to dispatch, null to dispatch every execution
+     * @return number of executions enqueued
+     */
+    public int dispatchDueExecutions(ShardRange shardRange) {
+        long dueBefore = DateTimeUtils.currentTimeMillis() + MAX_QUEUE_DELAY_MS;
+        int pageSize = jobProducerConfig.getScanBatchSize() != null ? jobProducerConfig.getScanBatchSize() : 1000;
+        int enqueuedExecutions = 0;
+        Long lastScheduledRunAt = null;
+        String lastExecutionId = null;
+        PagedJobExecutions pagedJobExecutions;
+        do {
+            pagedJobExecutions = jobExecutionDao.getUnqueuedExecutionsPaginated(dueBefore, pageSize, lastScheduledRunAt, lastExecutionId, shardRange);
+            enqueuedExecutions += enqueue(pagedJobExecutions.getJobExecutionEntities());
+            lastScheduledRunAt = pagedJobExecutions.getNextScheduledRunAt();
+            lastExecutionId = pagedJobExecutions.getNextExecutionId();
+        } while (!pagedJobExecutions.isLast());
+        if (enqueuedExecutions > 0) {
+            log.info("Dispatched {} executions entering the queue delay window of shard :{}", enqueuedExecutions, shardRange);
+        }
+        return enqueuedExecutions;
+    }
+
+    /**
+     * Executions the queue rejects stay unmarked and are tried again by the next cycle.
+     */
+    private int enqueue(List<JobExecutionEntity> jobExecutionEntities) {
+        if (jobExecutionEntities.isEmpty()) {
+            return 0;
+        }
+        Set<String> jobIds = jobExecutionEntities.stream().map(JobExecutionEntity::getJobId).collect(Collectors.toSet());
+        Map<String, JobEntity> jobsById = jobDao.getJobsByIds(jobIds).stream()
+                .collect(Collectors.toMap(JobEntity::getId, Function.identity(), (first, second) -> first));
+        List<JobMessagePayload> jobMessagePayloads = new ArrayList<>(jobExecutionEntities.size());
+        for (JobExecutionEntity jobExecutionEntity : jobExecutionEntities) {
+            JobEntity jobEntity = jobsById.get(jobExecutionEntity.getJobId());
+            if (jobEntity == null) {
+                log.error("Skipping execution :{} as its job :{} does not exist", jobExecutionEntity.getExecutionId(), jobExecutionEntity.getJobId());
+                continue;
+            }
+            try {
+                jobMessagePayloads.add(MessageAdapter.fromJobProduceData(jobExecutionEntity, jobEntity, Boolean.TRUE.equals(jobProducerConfig.getSlimMessages())));
+            } catch (Exception e) {
+                log.error("Unable to dispatch execution :{} of job :{}", jobExecutionEntity.getExecutionId(), jobExecutionEntity.getJobId(), e);
+            }
+        }
+        if (jobMessagePayloads.isEmpty()) {
+            return 0;
+        }
+        Set<String> failedExecutionIds;
+        try {
+            failedExecutionIds = jobQueue.enqueueJobExecutions(jobMessagePayloads, JobQueue.JOB_QUEUE_NAME);
+        } catch (Exception e) {
+            log.error("Unable to enqueue {} executions entering the queue delay window", jobMessagePayloads.size(), e);
+            return 0;
+        }
+        Set<String> enqueuedExecutionIds = new HashSet<>();
+        for (JobMessagePayload jobMessagePayload : jobMessagePayloads) {
+            if (failedExecutionIds.contains(jobMessagePayload.getExecutionId())) {
+                log.warn("Retrying enqueue of execution :{} of job :{} on the next cycle", jobMessagePayload.getExecutionId(), jobMessagePayload.getJobId());
+            } else {
+                enqueuedExecutionIds.add(jobMessagePayload.getExecutionId());
+            }
+        }
+        if (!enqueuedExecutionIds.isEmpty()) {
+            jobExecutionDao.setEnqueuedAt(enqueuedExecutionIds, DateTimeUtils.currentTimeMillis());
+        }
+        return enqueuedExecutionIds.size();
+    }
+}
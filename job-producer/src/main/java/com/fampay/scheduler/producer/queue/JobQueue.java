@@ -3,6 +3,23 @@ package com.fampay.scheduler.producer.queue;
 
 import com.fampay.scheduler.models.queue.JobMessagePayload;
 
+import java.util.List;
+import java.util.Set;
+
 public interface JobQueue {
+
+    String JOB_QUEUE_NAME = "local-job-queue";
+
     boolean enqueueJobExecution(JobMessagePayload jobMessagePayload, String queueName);
+
+    /**
+     * Enqueues the executions in batches, entries rejected by a batch are retried one by one.
+     * @return execution ids that could not be enqueued
+     */
+    Set<String> enqueueJobExecutions(List<JobMessagePayload> jobMessagePayloads, String queueName);
+
+    /**
+     * @return approximate number of messages waiting on the queue, -1 if it could not be read
+     */
+    long getBacklog(String queueName);
 }
@@ -1,8 +1,10 @@
 package com.fampay.scheduler.producer.queue.impl;
 
-import com.fampay.scheduler.commons.helper.utils.CommonSerializationUtil;
 import com.fampay.scheduler.commons.queue.IMessageProducer;
+import com.fampay.scheduler.models.queue.JobMessageCodec;
+import com.fampay.scheduler.models.queue.JobMessageFormat;
 import com.fampay.scheduler.models.queue.JobMessagePayload;
+import com.fampay.scheduler.producer.JobProducerConfig;
 import com.fampay.scheduler.producer.queue.JobQueue;
 import com.fampay.scheduler.producer.utils.TimeUtils;
 import lombok.RequiredArgsConstructor;
@@ -10,24 +12,93 @@ import lombok.extern.slf4j.Slf4j;
 import org.joda.time.DateTimeUtils;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class JobQueueImpl implements JobQueue {
 
     private final IMessageProducer iMessageProducer;
+    private final JobProducerConfig jobProducerConfig;
 
     @Override
     public boolean enqueueJobExecution(JobMessagePayload jobMessagePayload,String queueName) {
         try {
-            String message = CommonSerializationUtil.writeString(jobMessagePayload);
-            return iMessageProducer.sendMessageWithDelay(queueName,message,calculateDelay(jobMessagePayload.getScheduledRunAt()));
+            JobMessageFormat messageFormat = getMessageFormat();
+            String message = JobMessageCodec.encode(jobMessagePayload,messageFormat);
+            if (messageFormat == JobMessageFormat.JSON) {
+                return iMessageProducer.sendMessageWithDelay(queueName,message,calculateDelay(jobMessagePayload.getScheduledRunAt()));
+            }
+            return iMessageProducer.sendMessageWithDelay(queueName,message,calculateDelay(jobMessagePayload.getScheduledRunAt()),formatAttributes(messageFormat));
         } catch (Exception e) {
             log.error("Couldnt produce message to queue for payload :{}",jobMessagePayload.getExecutionId(),e);
             return false;
         }
     }
 
+    @Override
+    public Set<String> enqueueJobExecutions(List<JobMessagePayload> jobMessagePayloads, String queueName) {
+        Set<String> failedExecutionIds = new HashSet<>();
+        if (jobMessagePayloads.isEmpty()) {
+            return failedExecutionIds;
+        }
+        JobMessageFormat messageFormat = getMessageFormat();
+        Map<String,JobMessagePayload> payloadsByExecutionId = new HashMap<>();
+        List<IMessageProducer.BatchEntry> batchEntries = new ArrayList<>(jobMessagePayloads.size());
+        for (JobMessagePayload jobMessagePayload : jobMessagePayloads) {
+            try {
+                batchEntries.add(IMessageProducer.BatchEntry.builder().id(jobMessagePayload.getExecutionId())
+                        .message(JobMessageCodec.encode(jobMessagePayload,messageFormat))
+                        .attributes(formatAttributes(messageFormat))
+                        .delayInSeconds(calculateDelay(jobMessagePayload.getScheduledRunAt())).build());
+                payloadsByExecutionId.put(jobMessagePayload.getExecutionId(),jobMessagePayload);
+            } catch (Exception e) {
+                log.error("Couldnt serialize message for payload :{}",jobMessagePayload.getExecutionId(),e);
+                failedExecutionIds.add(jobMessagePayload.getExecutionId());
+            }
+        }
+        List<String> rejectedExecutionIds;
+        try {
+            rejectedExecutionIds = iMessageProducer.sendMessageBatch(queueName,batchEntries).getFailedIds();
+        } catch (Exception e) {
+            log.error("Couldnt produce batch of {} messages to queue",batchEntries.size(),e);
+            rejectedExecutionIds = new ArrayList<>(payloadsByExecutionId.keySet());
+        }
+        for (String executionId : rejectedExecutionIds) {
+            if (!enqueueJobExecution(payloadsByExecutionId.get(executionId),queueName)) {
+                failedExecutionIds.add(executionId);
+            }
+        }
+        return failedExecutionIds;
+    }
+
+    @Override
+    public long getBacklog(String queueName) {
+        try {
+            return iMessageProducer.getApproximateBacklog(queueName);
+        } catch (Exception e) {
+            log.error("Couldnt read backlog of queue :{}",queueName,e);
+            return -1;
+        }
+    }
+
+    private JobMessageFormat getMessageFormat() {
+        return jobProducerConfig.getMessageFormat() != null ? jobProducerConfig.getMessageFormat() : JobMessageFormat.JSON;
+    }
+
+    /**
+     * JSON messages go without the attribute, as they did before the format existed
+     */
+    private static Map<String,String> formatAttributes(JobMessageFormat messageFormat) {
+        return messageFormat == JobMessageFormat.JSON ? null : Map.of(JobMessageFormat.ATTRIBUTE_NAME,messageFormat.getValue());
+    }
+
     /**
      * Calculates the delay in seconds for an SQS message based on a scheduled timestamp.
      * Valid delay is clamped between 0 and 900 seconds as per SQS constraints.
@@ -6,8 +6,10 @@ import java.util.ArrayList;
 import java.util.HexFormat;
 import java.util.List;
 
+import com.fampay.scheduler.commons.helper.cron.TimestampBuffer;
 import com.fampay.scheduler.commons.helper.utils.CronUtilsHelper;
 import com.fampay.scheduler.models.dto.JobExecutionStatus;
+import com.fampay.scheduler.models.dto.ShardRange;
 import com.fampay.scheduler.models.entity.JobEntity;
 import com.fampay.scheduler.models.entity.JobExecutionEntity;
 import com.google.common.hash.Hashing;
@@ -20,12 +22,22 @@ public class JobExecutionUtil {
     private static final HexFormat HEX = HexFormat.of();
 
     public static List<JobExecutionEntity> generate(JobEntity jobEntity, long startTimestamp, long endTimestamp) {
+        return generate(jobEntity, startTimestamp, endTimestamp, new TimestampBuffer());
+    }
+
+    /**
+     * Same as {@link #generate(JobEntity, long, long)}, reusing the caller's buffer for the fire times.
+     */
+    public static List<JobExecutionEntity> generate(JobEntity jobEntity, long startTimestamp, long endTimestamp,
+                                                    TimestampBuffer timestampBuffer) {
         byte []jobHashId = hashJobId(jobEntity.getId());
-        List<Long> scheduledTimestamps = CronUtilsHelper.getTimestampsBetween(jobEntity.getSchedule(),startTimestamp,endTimestamp);
-        List<JobExecutionEntity> jobExecutionEntities = new ArrayList<>();
-        for (Long timestamp : scheduledTimestamps) {
+        int shardKey = ShardRange.bucketOf(jobEntity.getId());
+        TimestampBuffer scheduledTimestamps = CronUtilsHelper.getTimestampsBetween(jobEntity.getSchedule(),startTimestamp,endTimestamp,timestampBuffer);
+        List<JobExecutionEntity> jobExecutionEntities = new ArrayList<>(scheduledTimestamps.size());
+        for (int i = 0; i < scheduledTimestamps.size(); i++) {
+            long timestamp = scheduledTimestamps.get(i);
             String executionId = generate(jobHashId,timestamp);
-            JobExecutionEntity jobExecutionEntity = JobExecutionEntity.builder().jobId(jobEntity.getId()).executionId(executionId)
+            JobExecutionEntity jobExecutionEntity = JobExecutionEntity.builder().jobId(jobEntity.getId()).executionId(executionId).shardKey(shardKey)
                     .scheduledRunAt(timestamp).status(JobExecutionStatus.SCHEDULED.name()).build();
             jobExecutionEntities.add(jobExecutionEntity);
         }
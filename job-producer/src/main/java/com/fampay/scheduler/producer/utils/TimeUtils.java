@@ -21,6 +21,10 @@ public class TimeUtils {
         return nextMinute.toInstant().toEpochMilli();
     }
 
+    public static long getEndOfMinute(long timestamp) {
+        return Math.floorDiv(timestamp, 60_000L) * 60_000L + 59_999L;
+    }
+
     public static Integer calculateDelay(long scheduledTimestamp) {
         long currTime = DateTimeUtils.currentTimeMillis();
         long diffMillis = scheduledTimestamp - currTime;
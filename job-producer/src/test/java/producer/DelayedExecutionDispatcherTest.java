@@ -0,0 +1,94 @@
+package producer;
+
+import com.fampay.scheduler.models.dto.JobExecutionStatus;
+import com.fampay.scheduler.models.dto.ShardRange;
+import com.fampay.scheduler.models.entity.ApiConfigEntity;
+import com.fampay.scheduler.models.entity.JobEntity;
+import com.fampay.scheduler.models.entity.JobExecutionEntity;
+import com.fampay.scheduler.models.entity.PagedJobExecutions;
+import com.fampay.scheduler.models.queue.JobMessagePayload;
+import com.fampay.scheduler.producer.JobProducerConfig;
+import com.fampay.scheduler.producer.queue.DelayedExecutionDispatcher;
+import com.fampay.scheduler.producer.queue.JobQueue;
+import com.fampay.scheduler.repository.JobDao;
+import com.fampay.scheduler.repository.JobExecutionDao;
+import org.joda.time.DateTimeUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DelayedExecutionDispatcherTest {
+
+    @Mock
+    private JobDao jobDao;
+
+    @Mock
+    private JobExecutionDao jobExecutionDao;
+
+    @Mock
+    private JobQueue jobQueue;
+
+    @Mock
+    private JobProducerConfig jobProducerConfig;
+
+    @InjectMocks
+    private DelayedExecutionDispatcher delayedExecutionDispatcher;
+
+    @Test
+    void testDispatch_PagesThroughTheShardAndMarksAcceptedExecutions() {
+        ShardRange shardRange = ShardRange.of(1, 4);
+        long now = DateTimeUtils.currentTimeMillis();
+        when(jobProducerConfig.getScanBatchSize()).thenReturn(2);
+        when(jobExecutionDao.getUnqueuedExecutionsPaginated(anyLong(), eq(2), isNull(), isNull(), eq(shardRange)))
+                .thenReturn(PagedJobExecutions.builder().jobExecutionEntities(List.of(execution("exec-1", "job-1", now - 60_000L),
+                        execution("exec-2", "job-1", now + 1000L))).nextScheduledRunAt(now + 1000L).nextExecutionId("exec-2").last(false).build());
+        when(jobExecutionDao.getUnqueuedExecutionsPaginated(anyLong(), eq(2), eq(now + 1000L), eq("exec-2"), eq(shardRange)))
+                .thenReturn(PagedJobExecutions.builder().jobExecutionEntities(List.of(execution("exec-3", "job-2", now + 2000L),
+                        execution("exec-4", "job-missing", now + 2000L))).last(true).build());
+        when(jobDao.getJobsByIds(anyCollection())).thenAnswer(invocation -> invocation.<Set<String>>getArgument(0).stream()
+                .filter(jobId -> !jobId.equals("job-missing")).map(DelayedExecutionDispatcherTest::job).toList());
+        when(jobQueue.enqueueJobExecutions(anyList(), eq(JobQueue.JOB_QUEUE_NAME)))
+                .thenReturn(Set.of()).thenReturn(Set.of("exec-3"));
+
+        int enqueuedExecutions = delayedExecutionDispatcher.dispatchDueExecutions(shardRange);
+
+        assertEquals(2, enqueuedExecutions);
+        verify(jobExecutionDao).getUnqueuedExecutionsPaginated(longThat(dueBefore -> dueBefore >= now + DelayedExecutionDispatcher.MAX_QUEUE_DELAY_MS),
+                eq(2), isNull(), isNull(), eq(shardRange));
+        verify(jobQueue).enqueueJobExecutions(argThat(payloads -> payloads.stream().map(JobMessagePayload::getExecutionId).toList()
+                .equals(List.of("exec-3"))), eq(JobQueue.JOB_QUEUE_NAME));
+        verify(jobExecutionDao).setEnqueuedAt(eq(Set.of("exec-1", "exec-2")), notNull());
+        verify(jobExecutionDao, times(1)).setEnqueuedAt(anyCollection(), any());
+    }
+
+    @Test
+    void testIsWithinDelayWindow_AcceptsOverdueExecutionsAndThoseDueWithinFifteenMinutes() {
+        assertTrue(DelayedExecutionDispatcher.isWithinDelayWindow(1000L, 5000L));
+        assertTrue(DelayedExecutionDispatcher.isWithinDelayWindow(5000L + DelayedExecutionDispatcher.MAX_QUEUE_DELAY_MS, 5000L));
+        assertFalse(DelayedExecutionDispatcher.isWithinDelayWindow(5001L + DelayedExecutionDispatcher.MAX_QUEUE_DELAY_MS, 5000L));
+    }
+
+    private static JobExecutionEntity execution(String executionId, String jobId, long scheduledRunAt) {
+        return JobExecutionEntity.builder().executionId(executionId).jobId(jobId).scheduledRunAt(scheduledRunAt)
+                .status(JobExecutionStatus.SCHEDULED.name()).build();
+    }
+
+    private static JobEntity job(String jobId) {
+        JobEntity jobEntity = new JobEntity();
+        jobEntity.setId(jobId);
+        jobEntity.setApiConfig(ApiConfigEntity.builder().url("").httpMethod("POST").payload(Map.of("message", "hi")).build());
+        jobEntity.setSchedule("*/1 * * * * ? *");
+        return jobEntity;
+    }
+}
@@ -5,7 +5,10 @@ import com.fampay.scheduler.models.entity.ApiConfigEntity;
 import com.fampay.scheduler.models.entity.JobEntity;
 import com.fampay.scheduler.models.entity.JobExecutionEntity;
 import com.fampay.scheduler.models.entity.PagedJobs;
+import com.fampay.scheduler.models.queue.JobMessagePayload;
+import com.fampay.scheduler.producer.JobProducerConfig;
 import com.fampay.scheduler.producer.impl.JobProducerImpl;
+import com.fampay.scheduler.producer.queue.DelayedExecutionDispatcher;
 import com.fampay.scheduler.producer.queue.JobQueue;
 import com.fampay.scheduler.repository.JobDao;
 import com.fampay.scheduler.repository.JobExecutionDao;
@@ -19,8 +22,14 @@ import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
@@ -36,6 +45,9 @@ class JobProducerImplTest {
     @Mock
     private JobQueue jobQueue;
 
+    @Mock
+    private JobProducerConfig jobProducerConfig;
+
     @InjectMocks
     private JobProducerImpl jobProducer;
 
@@ -67,19 +79,18 @@ class JobProducerImplTest {
         when(jobDao.getJobsPaginated(eq(START_TIME), eq(END_TIME), eq(60), isNull(), isNull()))
                 .thenReturn(pagedJobs);
 
-        JobExecutionEntity execution = createJobExecutionEntity(JOB_ID, "exec-1");
-        Mockito.doNothing().when(jobExecutionDao).createMultipleJobExecutions(anyList());
+        when(jobExecutionDao.createJobExecutionsInBulk(anyList())).thenReturn(Collections.emptySet());
 
-        when(jobQueue.enqueueJobExecution(any(), eq("local-job-queue")))
-                .thenReturn(true);
+        when(jobQueue.enqueueJobExecutions(anyList(), eq("local-job-queue")))
+                .thenReturn(Collections.emptySet());
 
         // Act
         jobProducer.produceJobs(START_TIME, END_TIME, 60);
 
         // Assert
         verify(jobDao, atLeastOnce()).getJobsPaginated(eq(START_TIME), eq(END_TIME), eq(60), isNull(), isNull());
-        verify(jobQueue, atLeastOnce()).enqueueJobExecution(any(), eq("local-job-queue"));
-        verify(jobDao, times(1)).updateNextRunForJob(eq(JOB_ID), anyLong());
+        verify(jobQueue, times(1)).enqueueJobExecutions(argThat(payloads -> !payloads.isEmpty()), eq("local-job-queue"));
+        verifyNextRunUpdated(JOB_ID);
     }
 
     @Test
@@ -101,17 +112,18 @@ class JobProducerImplTest {
                 .thenReturn(pagedJobs)
                 .thenReturn(emptyPage);
 
-        when(jobQueue.enqueueJobExecution(any(), anyString()))
-                .thenReturn(false); // Simulate enqueue failure
+        when(jobQueue.enqueueJobExecutions(anyList(), anyString()))
+                .thenAnswer(invocation -> ((List<JobMessagePayload>) invocation.getArgument(0)).stream()
+                        .map(JobMessagePayload::getExecutionId).collect(Collectors.toSet())); // Simulate enqueue failure
 
         // Act
         jobProducer.produceJobs(START_TIME, END_TIME, null);
 
         // Assert
-        verify(jobQueue, atLeastOnce()).enqueueJobExecution(any(), eq("local-job-queue"));
-        verify(jobExecutionDao, times(1)).createMultipleJobExecutions(anyList());
+        verify(jobQueue, times(1)).enqueueJobExecutions(anyList(), eq("local-job-queue"));
+        verify(jobExecutionDao, times(1)).createJobExecutionsInBulk(anyList());
         // Verify the method continues and updates next run even after failure
-        verify(jobDao, times(1)).updateNextRunForJob(eq(JOB_ID), anyLong());
+        verifyNextRunUpdated(JOB_ID);
     }
 
     @Test
@@ -149,12 +161,225 @@ class JobProducerImplTest {
 
         // Assert
         verify(jobDao, times(3)).getJobsPaginated(anyLong(), anyLong(), anyInt(), any(), any());
-        verify(jobExecutionDao, times(2)).createMultipleJobExecutions(anyList());
-        verify(jobDao, times(1)).updateNextRunForJob(eq("job-1"), anyLong());
-        verify(jobDao, times(1)).updateNextRunForJob(eq("job-2"), anyLong());
+        verify(jobExecutionDao, times(2)).createJobExecutionsInBulk(anyList());
+        verifyNextRunUpdated("job-1");
+        verifyNextRunUpdated("job-2");
+    }
+
+    @Test
+    void testProduceJobs_EnqueuesExecutionsOfAPageInOneBatch() {
+        // Arrange
+        List<JobEntity> jobs = IntStream.range(0, 3)
+                .mapToObj(i -> createJobEntity("job-" + i, START_TIME + 100, CRON_SCHEDULE)).toList();
+        PagedJobs page = PagedJobs.builder()
+                .jobEntities(jobs)
+                .last(true)
+                .build();
+        when(jobDao.getJobsPaginated(anyLong(), anyLong(), anyInt(), any(), any())).thenReturn(page);
+        when(jobQueue.enqueueJobExecutions(anyList(), eq("local-job-queue"))).thenReturn(Collections.emptySet());
+
+        // Act
+        jobProducer.produceJobs(START_TIME, END_TIME, 60);
+
+        // Assert
+        verify(jobQueue, times(1)).enqueueJobExecutions(argThat(payloads -> payloads.stream().map(JobMessagePayload::getJobId).distinct().count() == 3), eq("local-job-queue"));
+        verify(jobQueue, never()).enqueueJobExecution(any(), anyString());
+        IntStream.range(0, 3).forEach(i -> verifyNextRunUpdated("job-" + i));
+    }
+
+    @Test
+    void testProduceJobs_InParallel_ProcessesEveryJobOfEveryPage() {
+        // Arrange
+        when(jobProducerConfig.getParallelism()).thenReturn(4);
+        List<JobEntity> firstJobs = IntStream.range(0, 10)
+                .mapToObj(i -> createJobEntity("job-" + i, START_TIME + 100, CRON_SCHEDULE)).toList();
+        List<JobEntity> secondJobs = IntStream.range(10, 15)
+                .mapToObj(i -> createJobEntity("job-" + i, START_TIME + 200, CRON_SCHEDULE)).toList();
+        PagedJobs firstPage = PagedJobs.builder()
+                .jobEntities(firstJobs)
+                .nextScheduledTimestamp(START_TIME + 100)
+                .nextJobId("job-9")
+                .last(false)
+                .build();
+        PagedJobs secondPage = PagedJobs.builder()
+                .jobEntities(secondJobs)
+                .last(true)
+                .build();
+
+        when(jobDao.getJobsPaginated(eq(START_TIME), eq(END_TIME), eq(60), isNull(), isNull()))
+                .thenReturn(firstPage);
+        when(jobDao.getJobsPaginated(eq(START_TIME), eq(END_TIME), eq(60), eq(START_TIME + 100), eq("job-9")))
+                .thenReturn(secondPage);
+        when(jobQueue.enqueueJobExecutions(anyList(), eq("local-job-queue"))).thenReturn(Collections.emptySet());
+
+        // Act
+        jobProducer.produceJobs(START_TIME, END_TIME, 60);
+
+        // Assert
+        verify(jobExecutionDao, atLeastOnce()).createJobExecutionsInBulk(anyList());
+        IntStream.range(0, 15).forEach(i -> verifyNextRunUpdated("job-" + i));
+    }
+
+    @Test
+    void testProduceJobs_InParallel_FailingJobDoesNotStopOtherJobs() {
+        // Arrange
+        when(jobProducerConfig.getParallelism()).thenReturn(2);
+        List<JobEntity> jobs = IntStream.range(0, 6)
+                .mapToObj(i -> createJobEntity("job-" + i, START_TIME + 100, CRON_SCHEDULE)).toList();
+        PagedJobs page = PagedJobs.builder()
+                .jobEntities(jobs)
+                .last(true)
+                .build();
+
+        when(jobDao.getJobsPaginated(anyLong(), anyLong(), anyInt(), any(), any())).thenReturn(page);
+        when(jobQueue.enqueueJobExecutions(anyList(), eq("local-job-queue"))).thenReturn(Collections.emptySet());
+        when(jobExecutionDao.createJobExecutionsInBulk(anyList())).thenAnswer(invocation -> failedExecutionIdsOf(invocation.getArgument(0), "job-3"));
+
+        // Act
+        jobProducer.produceJobs(START_TIME, END_TIME, 60);
+
+        // Assert
+        IntStream.range(0, 6).filter(i -> i != 3).forEach(i -> verifyNextRunUpdated("job-" + i));
+        verify(jobDao, never()).updateNextRunForJobs(argThat(nextRuns -> nextRuns.containsKey("job-3")));
+    }
+
+    @Test
+    void testProduceJobs_WhenExecutionWritesFail_SkipsOnlyThatJob() {
+        // Arrange
+        List<JobEntity> jobs = IntStream.range(0, 3)
+                .mapToObj(i -> createJobEntity("job-" + i, START_TIME + 100, CRON_SCHEDULE)).toList();
+        JobEntity repairedJob = createJobEntity("job-repair", END_TIME + 5000, CRON_SCHEDULE);
+        PagedJobs page = PagedJobs.builder()
+                .jobEntities(List.of(jobs.get(0), jobs.get(1), jobs.get(2), repairedJob))
+                .last(true)
+                .build();
+        when(jobDao.getJobsPaginated(anyLong(), anyLong(), anyInt(), any(), any())).thenReturn(page);
+        when(jobExecutionDao.createJobExecutionsInBulk(anyList())).thenAnswer(invocation -> failedExecutionIdsOf(invocation.getArgument(0), "job-1"));
+        when(jobQueue.enqueueJobExecutions(anyList(), eq("local-job-queue"))).thenReturn(Collections.emptySet());
+
+        // Act
+        jobProducer.produceJobs(START_TIME, END_TIME, 60);
+
+        // Assert
+        verify(jobExecutionDao, times(1)).createJobExecutionsInBulk(anyList());
+        verify(jobQueue).enqueueJobExecutions(argThat(payloads -> !payloads.isEmpty()
+                && payloads.stream().noneMatch(payload -> payload.getJobId().equals("job-1"))), eq("local-job-queue"));
+        verify(jobDao, times(1)).updateNextRunForJobs(argThat(nextRuns -> nextRuns.keySet()
+                .equals(Set.of("job-0", "job-2", "job-repair")) && nextRuns.get("job-repair") == END_TIME + 5000));
+        verify(jobDao, never()).updateNextRunForJob(anyString(), anyLong());
+    }
+
+    @Test
+    void testProduceJobs_FlushesExecutionsInConfiguredChunks() {
+        // Arrange
+        when(jobProducerConfig.getExecutionFlushSize()).thenReturn(5);
+        List<JobEntity> jobs = IntStream.range(0, 3)
+                .mapToObj(i -> createJobEntity("job-" + i, START_TIME + 100, "*/10 * * * * ?")).toList();
+        PagedJobs page = PagedJobs.builder()
+                .jobEntities(jobs)
+                .last(true)
+                .build();
+        when(jobDao.getJobsPaginated(anyLong(), anyLong(), anyInt(), any(), any())).thenReturn(page);
+        when(jobQueue.enqueueJobExecutions(anyList(), eq("local-job-queue"))).thenReturn(Collections.emptySet());
+
+        // Act
+        jobProducer.produceJobs(START_TIME, END_TIME, 60);
+
+        // Assert
+        verify(jobExecutionDao, atLeast(3)).createJobExecutionsInBulk(argThat(chunk -> chunk.size() <= 5));
+        verify(jobExecutionDao, never()).createJobExecutionsInBulk(argThat(chunk -> chunk.size() > 5));
+        verify(jobDao, times(1)).updateNextRunForJobs(argThat(nextRuns -> nextRuns.size() == 3));
+    }
+
+    @Test
+    void testProduceJobs_ExecutionsBeyondDelayWindowAreOnlyPersisted() {
+        // Arrange
+        long windowEnd = START_TIME + 2 * DelayedExecutionDispatcher.MAX_QUEUE_DELAY_MS;
+        List<JobEntity> jobs = IntStream.range(0, 3)
+                .mapToObj(i -> createJobEntity("job-" + i, START_TIME + 100, "0 */5 * * * ? *")).toList();
+        PagedJobs page = PagedJobs.builder()
+                .jobEntities(jobs)
+                .last(true)
+                .build();
+        when(jobDao.getJobsPaginated(anyLong(), anyLong(), anyInt(), any(), any())).thenReturn(page);
+        when(jobExecutionDao.createJobExecutionsInBulk(anyList())).thenReturn(Collections.emptySet());
+        when(jobQueue.enqueueJobExecutions(anyList(), eq("local-job-queue"))).thenReturn(Set.of("rejected"));
+
+        // Act
+        jobProducer.produceJobs(START_TIME, windowEnd, 60);
+
+        // Assert
+        long dueBefore = DateTimeUtils.currentTimeMillis() + DelayedExecutionDispatcher.MAX_QUEUE_DELAY_MS;
+        verify(jobExecutionDao).createJobExecutionsInBulk(argThat(executions -> executions.stream().allMatch(execution -> execution.getShardKey() != null
+                && (execution.getEnqueuedAt() == null ? execution.getScheduledRunAt() > START_TIME + DelayedExecutionDispatcher.MAX_QUEUE_DELAY_MS
+                : execution.getScheduledRunAt() <= dueBefore))
+                && executions.stream().anyMatch(execution -> execution.getEnqueuedAt() == null)));
+        verify(jobQueue).enqueueJobExecutions(argThat(payloads -> !payloads.isEmpty()
+                && payloads.stream().allMatch(payload -> payload.getScheduledRunAt() <= dueBefore)), eq("local-job-queue"));
+        verify(jobExecutionDao).setEnqueuedAt(eq(Set.of("rejected")), isNull());
+        IntStream.range(0, 3).forEach(i -> verifyNextRunUpdated("job-" + i));
+    }
+
+    @Test
+    void testProduceJobs_RejectedExecutionsThatStayMarked_KeepTheNextRunOfTheirJob() {
+        // Arrange
+        List<JobEntity> jobs = IntStream.range(0, 2)
+                .mapToObj(i -> createJobEntity("job-" + i, START_TIME + 100, CRON_SCHEDULE)).toList();
+        PagedJobs page = PagedJobs.builder()
+                .jobEntities(jobs)
+                .last(true)
+                .build();
+        when(jobDao.getJobsPaginated(anyLong(), anyLong(), anyInt(), any(), any())).thenReturn(page);
+        when(jobExecutionDao.createJobExecutionsInBulk(anyList())).thenReturn(Collections.emptySet());
+        when(jobQueue.enqueueJobExecutions(anyList(), eq("local-job-queue"))).thenAnswer(invocation -> {
+            List<JobMessagePayload> payloads = invocation.getArgument(0);
+            return payloads.stream().filter(payload -> payload.getJobId().equals("job-1"))
+                    .map(JobMessagePayload::getExecutionId).collect(Collectors.toSet());
+        });
+        doThrow(new RuntimeException("unavailable")).when(jobExecutionDao).setEnqueuedAt(anyCollection(), isNull());
+
+        // Act
+        jobProducer.produceJobs(START_TIME, END_TIME, 60);
+
+        // Assert
+        verify(jobDao, times(1)).updateNextRunForJobs(argThat(nextRuns -> nextRuns.containsKey("job-0") && !nextRuns.containsKey("job-1")));
+    }
+
+    @Test
+    void testProduceJobs_StreamingScan_ProducesJobsInBatchesAsTheyArrive() {
+        // Arrange
+        when(jobProducerConfig.getStreamingScan()).thenReturn(true);
+        when(jobProducerConfig.getScanBatchSize()).thenReturn(500);
+        List<JobEntity> jobs = IntStream.range(0, 5)
+                .mapToObj(i -> createJobEntity("job-" + i, START_TIME + 100, CRON_SCHEDULE)).toList();
+        when(jobDao.streamJobsScheduledBetween(eq(START_TIME), eq(END_TIME), isNull(), eq(500), any())).thenAnswer(invocation -> {
+            Consumer<JobEntity> consumer = invocation.getArgument(4);
+            jobs.forEach(consumer);
+            return (long) jobs.size();
+        });
+        when(jobQueue.enqueueJobExecutions(anyList(), eq("local-job-queue"))).thenReturn(Collections.emptySet());
+
+        // Act
+        int producedExecutions = jobProducer.produceJobs(START_TIME, END_TIME, 2);
+
+        // Assert
+        verify(jobDao, never()).getJobsPaginated(anyLong(), anyLong(), anyInt(), any(), any());
+        verify(jobDao, times(3)).updateNextRunForJobs(anyMap());
+        verify(jobQueue, times(3)).enqueueJobExecutions(argThat(payloads -> payloads.stream().map(JobMessagePayload::getJobId).distinct().count() <= 2), eq("local-job-queue"));
+        IntStream.range(0, 5).forEach(i -> verifyNextRunUpdated("job-" + i));
+        assertTrue(producedExecutions >= 5);
     }
 
     // Helper methods
+    private void verifyNextRunUpdated(String jobId) {
+        verify(jobDao, times(1)).updateNextRunForJobs(argThat(nextRuns -> nextRuns.containsKey(jobId)));
+    }
+
+    private static Set<String> failedExecutionIdsOf(List<JobExecutionEntity> jobExecutionEntities, String jobId) {
+        return jobExecutionEntities.stream().filter(entity -> entity.getJobId().equals(jobId))
+                .map(JobExecutionEntity::getExecutionId).collect(Collectors.toSet());
+    }
+
     private JobEntity createJobEntity(String id, Long nextScheduledTime, String schedule) {
         JobEntity entity = new JobEntity();
         entity.setId(id);
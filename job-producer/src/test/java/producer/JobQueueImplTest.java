@@ -0,0 +1,96 @@
+package producer;
+
+import com.fampay.scheduler.commons.queue.IMessageProducer;
+import com.fampay.scheduler.models.queue.JobMessageCodec;
+import com.fampay.scheduler.models.queue.JobMessageFormat;
+import com.fampay.scheduler.models.queue.JobMessagePayload;
+import com.fampay.scheduler.producer.JobProducerConfig;
+import com.fampay.scheduler.producer.queue.impl.JobQueueImpl;
+import org.joda.time.DateTimeUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class JobQueueImplTest {
+
+    private static final String QUEUE_NAME = "local-job-queue";
+
+    @Mock
+    private IMessageProducer iMessageProducer;
+
+    @Spy
+    private JobProducerConfig jobProducerConfig = new JobProducerConfig();
+
+    @InjectMocks
+    private JobQueueImpl jobQueue;
+
+    @Test
+    void testEnqueueJobExecutions_SendsAllPayloadsInOneBatchCall() {
+        List<JobMessagePayload> payloads = List.of(payload("exec-1", 0L), payload("exec-2", DateTimeUtils.currentTimeMillis() + 30_000L));
+        when(iMessageProducer.sendMessageBatch(eq(QUEUE_NAME), anyList()))
+                .thenReturn(IMessageProducer.BatchResult.builder().successfulIds(List.of("exec-1", "exec-2")).build());
+
+        Set<String> failed = jobQueue.enqueueJobExecutions(payloads, QUEUE_NAME);
+
+        assertTrue(failed.isEmpty());
+        verify(iMessageProducer).sendMessageBatch(eq(QUEUE_NAME), argThat(entries -> entries.size() == 2
+                && entries.get(0).getId().equals("exec-1") && entries.get(0).getDelayInSeconds() == 0
+                && entries.get(1).getDelayInSeconds() > 0));
+        verify(iMessageProducer, never()).sendMessageWithDelay(anyString(), anyString(), anyInt());
+    }
+
+    @Test
+    void testEnqueueJobExecutions_RetriesRejectedEntriesIndividually() {
+        List<JobMessagePayload> payloads = List.of(payload("exec-1", 0L), payload("exec-2", 0L), payload("exec-3", 0L));
+        when(iMessageProducer.sendMessageBatch(eq(QUEUE_NAME), anyList()))
+                .thenReturn(IMessageProducer.BatchResult.builder().successfulIds(List.of("exec-1"))
+                        .failedIds(List.of("exec-2", "exec-3")).build());
+        when(iMessageProducer.sendMessageWithDelay(eq(QUEUE_NAME), contains("exec-2"), anyInt())).thenReturn(true);
+        when(iMessageProducer.sendMessageWithDelay(eq(QUEUE_NAME), contains("exec-3"), anyInt())).thenReturn(false);
+
+        Set<String> failed = jobQueue.enqueueJobExecutions(payloads, QUEUE_NAME);
+
+        assertEquals(Set.of("exec-3"), failed);
+        verify(iMessageProducer, times(2)).sendMessageWithDelay(eq(QUEUE_NAME), anyString(), anyInt());
+    }
+
+    @Test
+    void testEnqueueJobExecutions_WhenBatchCallThrows_RetriesEveryEntry() {
+        List<JobMessagePayload> payloads = List.of(payload("exec-1", 0L), payload("exec-2", 0L));
+        when(iMessageProducer.sendMessageBatch(eq(QUEUE_NAME), anyList())).thenThrow(new RuntimeException("sqs down"));
+        when(iMessageProducer.sendMessageWithDelay(eq(QUEUE_NAME), anyString(), anyInt())).thenReturn(true);
+
+        Set<String> failed = jobQueue.enqueueJobExecutions(payloads, QUEUE_NAME);
+
+        assertTrue(failed.isEmpty());
+        verify(iMessageProducer, times(2)).sendMessageWithDelay(eq(QUEUE_NAME), anyString(), anyInt());
+    }
+
+    @Test
+    void testEnqueueJobExecutions_BinaryFormatIsMarkedOnEveryEntry() {
+        jobProducerConfig.setMessageFormat(JobMessageFormat.CBOR_V1);
+        when(iMessageProducer.sendMessageBatch(eq(QUEUE_NAME), anyList()))
+                .thenReturn(IMessageProducer.BatchResult.builder().successfulIds(List.of("exec-1")).build());
+
+        jobQueue.enqueueJobExecutions(List.of(payload("exec-1", 0L)), QUEUE_NAME);
+
+        verify(iMessageProducer).sendMessageBatch(eq(QUEUE_NAME), argThat(entries ->
+                "cbor-v1".equals(entries.get(0).getAttributes().get(JobMessageFormat.ATTRIBUTE_NAME))
+                        && "exec-1".equals(JobMessageCodec.decode(entries.get(0).getMessage(), JobMessageFormat.CBOR_V1).getExecutionId())));
+    }
+
+    private JobMessagePayload payload(String executionId, long scheduledRunAt) {
+        return JobMessagePayload.builder().executionId(executionId).jobId("job-1").scheduledRunAt(scheduledRunAt).build();
+    }
+}
@@ -0,0 +1,104 @@
+package producer;
+
+import com.fampay.scheduler.producer.JobProducerConfig;
+import com.fampay.scheduler.producer.horizon.ProducerHorizonController;
+import com.fampay.scheduler.producer.queue.JobQueue;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.joda.time.DateTimeUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProducerHorizonControllerTest {
+
+    private static final long NOW = 1704067200000L;
+
+    @Mock
+    private JobQueue jobQueue;
+
+    private final JobProducerConfig jobProducerConfig = new JobProducerConfig();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    void setUp() {
+        DateTimeUtils.setCurrentMillisFixed(NOW);
+    }
+
+    @AfterEach
+    void tearDown() {
+        DateTimeUtils.setCurrentMillisSystem();
+    }
+
+    @Test
+    void testDisabled_KeepsFixedIntervalAndReportsWindow() {
+        ProducerHorizonController controller = new ProducerHorizonController(jobProducerConfig, jobQueue, meterRegistry);
+
+        controller.onCycleCompleted(NOW + 90_000L, 100, 500L);
+
+        assertFalse(controller.isEnabled());
+        assertEquals(10_000L, controller.getIntervalMs());
+        assertEquals(90_000.0, meterRegistry.get("job.producer.lookahead").gauge().value());
+        verifyNoInteractions(jobQueue);
+    }
+
+    @Test
+    void testEnabled_GrowsLookaheadByBoundedStepsUpToMax() {
+        jobProducerConfig.getHorizon().setEnabled(true);
+        jobProducerConfig.getHorizon().setMaxExecutionsPerStep(1000);
+        when(jobQueue.getBacklog(anyString())).thenReturn(0L);
+        ProducerHorizonController controller = new ProducerHorizonController(jobProducerConfig, jobQueue, meterRegistry);
+        assertEquals(120_000L, controller.getLookaheadMs());
+
+        // 1 execution per second of schedule, a step may add 1000 executions i.e. 1000 seconds
+        controller.onCycleCompleted(NOW + 120_000L, 120, 300L);
+        assertEquals(1_120_000L, controller.getLookaheadMs());
+        assertEquals(1000L, controller.getIntervalMs());
+
+        for (int cycle = 1; cycle < 5; cycle++) {
+            long windowEnd = NOW + controller.getLookaheadMs();
+            controller.onCycleCompleted(windowEnd, 1000, 3000L);
+        }
+        assertEquals(3_600_000L, controller.getLookaheadMs());
+        assertEquals(6000L, controller.getIntervalMs());
+        assertEquals(6000.0, meterRegistry.get("job.producer.interval").gauge().value());
+    }
+
+    @Test
+    void testEnabled_HalvesLookaheadWhileQueueIsBacklogged() {
+        jobProducerConfig.getHorizon().setEnabled(true);
+        when(jobQueue.getBacklog(anyString())).thenReturn(0L, 100_000L, 100_000L, 100_000L, 100_000L, 100_000L);
+        ProducerHorizonController controller = new ProducerHorizonController(jobProducerConfig, jobQueue, meterRegistry);
+
+        controller.onCycleCompleted(NOW + 120_000L, 0, 100L);
+        assertEquals(3_600_000L, controller.getLookaheadMs());
+        controller.onCycleCompleted(NOW + 3_600_000L, 0, 100L);
+        assertEquals(1_800_000L, controller.getLookaheadMs());
+        for (int cycle = 0; cycle < 4; cycle++) {
+            controller.onCycleCompleted(NOW + 3_600_000L, 0, 100L);
+        }
+        assertEquals(120_000L, controller.getLookaheadMs());
+        assertEquals(100_000.0, meterRegistry.get("job.producer.queue.backlog").gauge().value());
+    }
+
+    @Test
+    void testEnabled_LookaheadCoversSlowCycles() {
+        jobProducerConfig.getHorizon().setEnabled(true);
+        jobProducerConfig.getHorizon().setMaxLookaheadMs(60_000L);
+        jobProducerConfig.getHorizon().setMinLookaheadMs(30_000L);
+        when(jobQueue.getBacklog(anyString())).thenReturn(0L);
+        ProducerHorizonController controller = new ProducerHorizonController(jobProducerConfig, jobQueue, meterRegistry);
+
+        controller.onCycleCompleted(NOW + 30_000L, 10, 40_000L);
+
+        assertEquals(10_000L, controller.getIntervalMs());
+        assertEquals(100_000L, controller.getLookaheadMs());
+    }
+}
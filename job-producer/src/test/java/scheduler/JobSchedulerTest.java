@@ -7,10 +7,13 @@ import java.util.Optional;
 import java.util.concurrent.locks.Lock;
 
 import com.fampay.scheduler.commons.lock.client.CustomDistributedLock;
+import com.fampay.scheduler.models.dto.ShardRange;
 import com.fampay.scheduler.models.entity.ProducerConfig;
 import com.fampay.scheduler.producer.JobProducer;
 import com.fampay.scheduler.producer.JobProducerConfig;
 import com.fampay.scheduler.producer.JobScheduler;
+import com.fampay.scheduler.producer.horizon.ProducerHorizonController;
+import com.fampay.scheduler.producer.queue.DelayedExecutionDispatcher;
 import com.fampay.scheduler.producer.utils.TimeUtils;
 import com.fampay.scheduler.repository.ProducerConfigDao;
 import org.joda.time.DateTimeUtils;
@@ -47,6 +50,12 @@ public class JobSchedulerTest {
     @Mock
     private JobProducerConfig jobProducerConfig;
 
+    @Mock
+    private ProducerHorizonController producerHorizonController;
+
+    @Mock
+    private DelayedExecutionDispatcher delayedExecutionDispatcher;
+
     @Mock
     private Lock lock;
 
@@ -82,6 +91,7 @@ public class JobSchedulerTest {
 
         // Assert
         verify(jobProducer).produceJobs(eq(1000L), eq(60000L), eq(10));
+        verify(delayedExecutionDispatcher).dispatchDueExecutions(isNull());
         verify(producerConfigDao).updateLastProducedTimestamp(eq("config-1"), anyLong());
         verify(lock).unlock();
     }
@@ -158,6 +168,115 @@ public class JobSchedulerTest {
         verify(lock).unlock();
     }
 
+    @Test
+    void shouldProduceEveryShardWhoseLockIsFree() {
+        when(jobProducerConfig.getShardCount()).thenReturn(3);
+        when(jobProducerConfig.getConfigId()).thenReturn("config-1");
+        when(jobProducerConfig.getPageSize()).thenReturn(10);
+        when(customDistributedLock.acquireLock(anyString(), eq(true))).thenReturn(Optional.of(lock));
+        when(customDistributedLock.acquireLock(eq("job-producer-lock-1"), eq(true))).thenReturn(Optional.empty());
+
+        ProducerConfig checkpoint = new ProducerConfig();
+        checkpoint.setConfigId("config-1-0");
+        checkpoint.setLastProducedTimestamp(1000L);
+        when(producerConfigDao.findProducerConfById("config-1-0")).thenReturn(checkpoint);
+        ProducerConfig legacyCheckpoint = new ProducerConfig();
+        legacyCheckpoint.setConfigId("config-1");
+        legacyCheckpoint.setLastProducedTimestamp(500L);
+        when(producerConfigDao.findProducerConfById("config-1")).thenReturn(legacyCheckpoint);
+
+        mockStaticDateTimeUtils(2000L);
+
+        jobScheduler.scheduleJobFetching();
+
+        verify(jobProducer).produceJobs(eq(1000L), eq(60000L), eq(10), argThat(range -> range.getShardIndex() == 0));
+        // shard 2 has no checkpoint yet and continues from the unsharded one
+        verify(jobProducer).produceJobs(eq(500L), eq(60000L), eq(10), argThat(range -> range.getShardIndex() == 2));
+        verify(jobProducer, times(2)).produceJobs(anyLong(), anyLong(), anyInt(), any(ShardRange.class));
+        verify(producerConfigDao).updateLastProducedTimestamp(eq("config-1-0"), anyLong());
+        verify(producerConfigDao).updateLastProducedTimestamp(eq("config-1-2"), anyLong());
+        verify(producerConfigDao, never()).updateLastProducedTimestamp(eq("config-1-1"), anyLong());
+        verify(customDistributedLock, never()).acquireLockWithWait(anyString(), anyLong(), anyBoolean());
+        verify(delayedExecutionDispatcher).dispatchDueExecutions(argThat(range -> range.getShardIndex() == 0));
+        verify(delayedExecutionDispatcher).dispatchDueExecutions(argThat(range -> range.getShardIndex() == 2));
+        verify(delayedExecutionDispatcher, never()).dispatchDueExecutions(argThat(range -> range.getShardIndex() == 1));
+        verify(lock, times(2)).unlock();
+    }
+
+    @Test
+    void shouldProduceShardWhenDispatchingItsDueExecutionsFails() {
+        when(jobProducerConfig.getShardCount()).thenReturn(2);
+        when(jobProducerConfig.getConfigId()).thenReturn("config-1");
+        when(jobProducerConfig.getPageSize()).thenReturn(10);
+        when(customDistributedLock.acquireLock(anyString(), eq(true))).thenReturn(Optional.of(lock));
+        when(delayedExecutionDispatcher.dispatchDueExecutions(any())).thenThrow(new RuntimeException("Simulated Failure"));
+
+        mockStaticDateTimeUtils(3000L);
+
+        jobScheduler.scheduleJobFetching();
+
+        verify(jobProducer, times(2)).produceJobs(anyLong(), anyLong(), anyInt(), any(ShardRange.class));
+        verify(producerConfigDao).updateLastProducedTimestamp(eq("config-1-0"), anyLong());
+        verify(producerConfigDao).updateLastProducedTimestamp(eq("config-1-1"), anyLong());
+    }
+
+    @Test
+    void shouldContinueWithOtherShardsWhenOneFails() {
+        when(jobProducerConfig.getShardCount()).thenReturn(2);
+        when(jobProducerConfig.getConfigId()).thenReturn("config-1");
+        when(jobProducerConfig.getPageSize()).thenReturn(10);
+        when(customDistributedLock.acquireLock(anyString(), eq(true))).thenReturn(Optional.of(lock));
+        doThrow(new RuntimeException("Simulated Failure")).when(jobProducer)
+                .produceJobs(anyLong(), anyLong(), anyInt(), argThat(range -> range != null && range.getShardIndex() == 0));
+
+        mockStaticDateTimeUtils(3000L);
+
+        jobScheduler.scheduleJobFetching();
+
+        verify(producerConfigDao, never()).updateLastProducedTimestamp(eq("config-1-0"), anyLong());
+        verify(producerConfigDao).updateLastProducedTimestamp(eq("config-1-1"), anyLong());
+        verify(lock, times(2)).unlock();
+    }
+
+    @Test
+    void shouldStopClaimingShardsAtTheNodeLimit() {
+        when(jobProducerConfig.getShardCount()).thenReturn(4);
+        when(jobProducerConfig.getMaxShardsPerNode()).thenReturn(1);
+        when(jobProducerConfig.getConfigId()).thenReturn("config-1");
+        when(customDistributedLock.acquireLock(anyString(), eq(true))).thenReturn(Optional.of(lock));
+
+        mockStaticDateTimeUtils(3000L);
+
+        jobScheduler.scheduleJobFetching();
+
+        verify(customDistributedLock, times(1)).acquireLock(anyString(), eq(true));
+        verify(jobProducer, times(1)).produceJobs(anyLong(), anyLong(), any(), any(ShardRange.class));
+        verify(lock).unlock();
+    }
+
+    @Test
+    void shouldProduceUntilAdaptiveLookaheadAndReportTheCycle() {
+        when(customDistributedLock.acquireLockWithWait(anyString(), anyLong(), eq(true)))
+                .thenReturn(Optional.of(lock));
+        ProducerConfig producerConfig = new ProducerConfig();
+        producerConfig.setConfigId("config-1");
+        producerConfig.setLastProducedTimestamp(1000L);
+        when(producerConfigDao.findProducerConfById(anyString())).thenReturn(producerConfig);
+        when(jobProducerConfig.getConfigId()).thenReturn("config-1");
+        when(jobProducerConfig.getPageSize()).thenReturn(10);
+        when(producerHorizonController.isEnabled()).thenReturn(true);
+        when(producerHorizonController.getLookaheadMs()).thenReturn(600000L);
+        when(jobProducer.produceJobs(anyLong(), anyLong(), anyInt())).thenReturn(42);
+
+        mockStaticDateTimeUtils(2000L);
+
+        jobScheduler.scheduleJobFetching();
+
+        verify(jobProducer).produceJobs(eq(1000L), eq(602000L), eq(10));
+        verify(producerHorizonController).onCycleCompleted(eq(602000L), eq(42), eq(0L));
+        verify(lock).unlock();
+    }
+
     // --- Helper for mocking static time utility ---
     private void mockStaticDateTimeUtils(long fixedTimeMillis) {
         mockStatic(DateTimeUtils.class);
@@ -238,5 +238,41 @@ public class CronUtilsHelperTest {
             assertEquals(-1L, result);
         }
     }
+    @Nested
+    @DisplayName("Tests for compiled cron cache")
+    class CompiledCronCacheTests {
+
+        @Test
+        void testRepeatedExpressionIsServedFromCache() {
+            String cron = "0 0/7 * * * ?";
+            CronUtilsHelper.getNextRunInGMTFromStartTime(cron, NOW);
+            long hitsBefore = CronUtilsHelper.getCompiledCronCacheStats().hitCount();
+
+            CronUtilsHelper.getNextRunInGMTFromStartTime(cron, NOW);
+            CronUtilsHelper.getTimestampsBetween(cron, NOW, NOW + Duration.ofMinutes(30).toMillis());
+            CronUtilsHelper.isValidCron(cron);
+
+            assertEquals(hitsBefore + 3, CronUtilsHelper.getCompiledCronCacheStats().hitCount());
+        }
+
+        @Test
+        void testWhitespaceVariantsShareCacheEntry() {
+            CronUtilsHelper.isValidCron("0 0/11 * * * ?");
+            long hitsBefore = CronUtilsHelper.getCompiledCronCacheStats().hitCount();
+
+            assertTrue(CronUtilsHelper.isValidCron("  0  0/11 *   * * ? "));
+
+            assertEquals(hitsBefore + 1, CronUtilsHelper.getCompiledCronCacheStats().hitCount());
+        }
+
+        @Test
+        void testInvalidExpressionIsNotCached() {
+            long sizeBefore = CronUtilsHelper.getCompiledCronCacheSize();
+
+            assertFalse(CronUtilsHelper.isValidCron("not a cron"));
+
+            assertEquals(sizeBefore, CronUtilsHelper.getCompiledCronCacheSize());
+        }
+    }
 }
 
@@ -0,0 +1,124 @@
+package utils;
+
+import com.fampay.scheduler.commons.helper.utils.CommonSerializationUtil;
+import com.fampay.scheduler.commons.mongo.codec.EntityCodecs;
+import com.fampay.scheduler.models.entity.ApiConfigEntity;
+import com.fampay.scheduler.models.entity.JobEntity;
+import com.fampay.scheduler.models.entity.JobExecutionAttemptEntity;
+import com.fampay.scheduler.models.entity.JobExecutionEntity;
+import com.fampay.scheduler.models.entity.JobExecutionResponse;
+import com.fampay.scheduler.models.entity.ProducerConfig;
+import com.fampay.scheduler.repository.codec.JobEntityCodec;
+import com.fampay.scheduler.repository.codec.JobExecutionAttemptEntityCodec;
+import com.fampay.scheduler.repository.codec.JobExecutionEntityCodec;
+import com.fampay.scheduler.repository.codec.ProducerConfigCodec;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EntityCodecTest {
+
+    private final EntityCodecs entityCodecs = new EntityCodecs(List.of(new JobEntityCodec(), new JobExecutionEntityCodec(),
+            new ProducerConfigCodec(), new JobExecutionAttemptEntityCodec()));
+
+    @Test
+    void testCodecs_ReadDocumentsWrittenThroughJson() {
+        for (Object entity : List.of(jobEntity(), jobExecutionEntity(), producerConfig(), attemptEntity())) {
+            Document document = new Document(CommonSerializationUtil.convertObjectToMap(entity));
+            document.put("_id", "key");
+
+            assertEquals(entity, decode(document, entity.getClass()));
+        }
+    }
+
+    @Test
+    void testCodecs_WriteDocumentsReadableThroughJson() {
+        for (Object entity : List.of(jobEntity(), jobExecutionEntity(), producerConfig(), attemptEntity())) {
+            Document document = new Document(entityCodecs.encode(entity));
+
+            assertFalse(document.containsKey("_id"));
+            assertEquals(CommonSerializationUtil.convertObjectToMap(entity).keySet(), document.keySet());
+            assertEquals(entity, CommonSerializationUtil.readObject(document.toJson(), entity.getClass()));
+        }
+    }
+
+    @Test
+    void testJobEntityCodec_FallsBackToKeyAndSkipsUnknownFields() {
+        Document document = new Document("_id", "job-1").append("schedule", "0 * * * * ?")
+                .append("nextScheduledTime", 1704067200)
+                .append("legacyField", new Document("nested", List.of(1, 2)));
+
+        JobEntity jobEntity = decode(document, JobEntity.class);
+
+        assertEquals("job-1", jobEntity.getId());
+        assertEquals(1704067200L, jobEntity.getNextScheduledTime());
+        assertNull(jobEntity.getApiConfig());
+    }
+
+    private <T> T decode(Document document, Class<T> cls) {
+        return RawBsonDocument.parse(document.toJson()).decode(entityCodecs.getCodec(cls));
+    }
+
+    private static JobEntity jobEntity() {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("userId", "u-1");
+        payload.put("amount", 250);
+        payload.put("tags", List.of("a", "b"));
+        payload.put("meta", Map.of("retry", true));
+        return JobEntity.builder()
+                .id("job-1")
+                .schedule("0 0/5 * * * ?")
+                .apiConfig(ApiConfigEntity.builder().url("https://example.com/hook").httpMethod("POST")
+                        .payload(payload).readTimeoutMs(3000L).maxRetries(5).payloadHash("3f0a9c").build())
+                .type("RECURRING")
+                .nextScheduledTime(1704067200000L)
+                .shardKey(42)
+                .active(true)
+                .version(3L)
+                .createdAt(1704000000000L)
+                .updatedAt(null)
+                .build();
+    }
+
+    private static JobExecutionEntity jobExecutionEntity() {
+        return JobExecutionEntity.builder()
+                .executionId("exec-1")
+                .scheduledRunAt(1704067200000L)
+                .jobId("job-1")
+                .shardKey(42)
+                .status("COMPLETED")
+                .startTime(1704067200100L)
+                .endTime(null)
+                .attempt(2)
+                .claimedUntil(1704067500100L)
+                .createdAt(1704067100000L)
+                .updatedAt(1704067200200L)
+                .enqueuedAt(1704067100000L)
+                .executionResponse(new JobExecutionResponse("200", "ok"))
+                .build();
+    }
+
+    private static ProducerConfig producerConfig() {
+        ProducerConfig producerConfig = new ProducerConfig();
+        producerConfig.setConfigId("1");
+        producerConfig.setLastProducedTimestamp(1704067200000L);
+        return producerConfig;
+    }
+
+    private static JobExecutionAttemptEntity attemptEntity() {
+        return JobExecutionAttemptEntity.builder()
+                .runId("run-1")
+                .executionId("exec-1")
+                .startTime(1704067200100L)
+                .status("FAILED")
+                .response("timeout")
+                .createdAt(1704067200100L)
+                .build();
+    }
+}
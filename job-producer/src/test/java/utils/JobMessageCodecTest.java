@@ -0,0 +1,69 @@
+package utils;
+
+import com.fampay.scheduler.commons.helper.utils.CommonSerializationUtil;
+import com.fampay.scheduler.models.queue.ApiConfig;
+import com.fampay.scheduler.models.queue.JobMessageCodec;
+import com.fampay.scheduler.models.queue.JobMessageFormat;
+import com.fampay.scheduler.models.queue.JobMessagePayload;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JobMessageCodecTest {
+
+    @Test
+    void testCborV1_RoundTripsEveryField() {
+        JobMessagePayload jobMessagePayload = payload();
+
+        String body = JobMessageCodec.encode(jobMessagePayload, JobMessageFormat.CBOR_V1);
+
+        assertEquals(jobMessagePayload, JobMessageCodec.decode(body, JobMessageFormat.CBOR_V1));
+    }
+
+    @Test
+    void testCborV1_IsSmallerThanJsonEvenWithBase64() {
+        JobMessagePayload jobMessagePayload = payload();
+
+        int jsonBytes = JobMessageCodec.encode(jobMessagePayload, JobMessageFormat.JSON).getBytes(StandardCharsets.UTF_8).length;
+        int cborBytes = JobMessageCodec.encode(jobMessagePayload, JobMessageFormat.CBOR_V1).getBytes(StandardCharsets.UTF_8).length;
+
+        assertTrue(cborBytes < jsonBytes);
+    }
+
+    @Test
+    void testJson_ReadsMessagesWrittenBeforeTheCodec() {
+        String legacyBody = CommonSerializationUtil.writeString(payload());
+
+        assertEquals(payload(), JobMessageCodec.decode(legacyBody, JobMessageFormat.JSON));
+        assertEquals(legacyBody, JobMessageCodec.encode(payload(), JobMessageFormat.JSON));
+    }
+
+    @Test
+    void testFormat_DefaultsToJsonAndRejectsUnknownValues() {
+        assertEquals(JobMessageFormat.JSON, JobMessageFormat.from(null));
+        assertEquals(JobMessageFormat.CBOR_V1, JobMessageFormat.from("cbor-v1"));
+        assertThrows(IllegalArgumentException.class, () -> JobMessageFormat.from("cbor-v9"));
+    }
+
+    private static JobMessagePayload payload() {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("userId", "u-1");
+        body.put("amount", 250);
+        body.put("tags", List.of("a", "b"));
+        return JobMessagePayload.builder()
+                .executionId("65a1f0c2e4b0a1b2c3d4e5f6_1704067200000")
+                .jobId("65a1f0c2e4b0a1b2c3d4e5f6")
+                .scheduledRunAt(1704067200000L)
+                .type("ATLEAST_ONCE")
+                .apiConfig(ApiConfig.builder().url("https://example.com/hook").httpMethod("POST")
+                        .payload(body).readTimeoutMs(3000L).maxRetries(5).payloadHash("3f0a9c").build())
+                .createdAt(1704067100000L)
+                .updatedAt(1704067100000L)
+                .build();
+    }
+}
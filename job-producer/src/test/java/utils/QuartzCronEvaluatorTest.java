@@ -0,0 +1,172 @@
+package utils;
+
+import com.cronutils.model.CronType;
+import com.cronutils.model.definition.CronDefinitionBuilder;
+import com.cronutils.model.time.ExecutionTime;
+import com.cronutils.parser.CronParser;
+import com.fampay.scheduler.commons.helper.cron.QuartzCronEvaluator;
+import com.fampay.scheduler.commons.helper.cron.TimestampBuffer;
+import com.fampay.scheduler.commons.helper.utils.CronUtilsHelper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Optional;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QuartzCronEvaluatorTest {
+
+    private static final CronParser PARSER =
+            new CronParser(CronDefinitionBuilder.instanceDefinitionFor(CronType.QUARTZ));
+
+    private static final long YEAR_2000 = 946684800000L;
+    private static final long YEAR_2090 = 3786912000000L;
+    private static final String[] MONTH_NAMES =
+            {"JAN", "FEB", "MAR", "APR", "MAY", "JUN", "JUL", "AUG", "SEP", "OCT", "NOV", "DEC"};
+    private static final String[] DAY_OF_WEEK_NAMES = {"SUN", "MON", "TUE", "WED", "THU", "FRI", "SAT"};
+
+    @Test
+    @DisplayName("Random expressions over short windows match cron-utils")
+    void testMatchesCronUtilsOverShortWindows() {
+        Random random = new Random(20240101L);
+        for (int i = 0; i < 1500; i++) {
+            String expression = String.join(" ",
+                    randomField(random, 0, 59, null), randomField(random, 0, 59, null), randomField(random, 0, 23, null),
+                    dayFields(random), randomYear(random));
+            long start = YEAR_2000 + (long) (random.nextDouble() * (YEAR_2090 - YEAR_2000));
+            long end = start + (long) (random.nextDouble() * 3 * 3600_000L);
+            assertMatchesCronUtils(expression, start, end);
+        }
+    }
+
+    @Test
+    @DisplayName("Random day, month and year fields over long windows match cron-utils")
+    void testMatchesCronUtilsOverLongWindows() {
+        Random random = new Random(20240102L);
+        for (int i = 0; i < 400; i++) {
+            String expression = String.join(" ",
+                    String.valueOf(random.nextInt(60)), String.valueOf(random.nextInt(60)),
+                    random.nextBoolean() ? String.valueOf(random.nextInt(24)) : "*/" + (6 + random.nextInt(18)),
+                    dayFields(random), randomYear(random));
+            long start = YEAR_2000 + (long) (random.nextDouble() * (YEAR_2090 - YEAR_2000));
+            long end = start + (long) (random.nextDouble() * 800 * 86400_000L);
+            assertMatchesCronUtils(expression, start, end);
+        }
+    }
+
+    @Test
+    @DisplayName("Window bounds are inclusive on whole seconds")
+    void testWindowBoundsAreInclusive() {
+        long start = 1704067200000L; // 2024-01-01 00:00:00 UTC
+        assertArrayEquals(new long[]{start, start + 1000L, start + 2000L},
+                collect("* * * * * ?", start, start + 2000L));
+        assertArrayEquals(new long[]{start + 1000L, start + 2000L},
+                collect("* * * * * ?", start + 1L, start + 2999L));
+        assertArrayEquals(new long[0], collect("* * * * * ?", start + 1L, start + 999L));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"0 0 0 L * ?", "0 0 0 15W * ?", "0 0 0 ? * 6#3", "0 0 0 ? * 6L", "0 0 22-2 * * ?",
+            "0 0 0 ? * FRI-MON"})
+    @DisplayName("Unsupported syntax is left to cron-utils")
+    void testUnsupportedSyntaxFallsBackToCronUtils(String expression) {
+        assertNull(QuartzCronEvaluator.compile(expression));
+        long start = 1704067200000L;
+        long end = start + 90L * 86400_000L;
+        TimestampBuffer buffer = CronUtilsHelper.getTimestampsBetween(expression, start, end, new TimestampBuffer());
+        assertArrayEquals(referenceFireTimes(expression, start, end), buffer.toArray());
+    }
+
+    @Test
+    @DisplayName("Buffer is cleared and reused between calls")
+    void testBufferIsReused() {
+        TimestampBuffer buffer = new TimestampBuffer(1);
+        long start = 1704067200000L;
+        CronUtilsHelper.getTimestampsBetween("*/10 * * * * ?", start, start + 60_000L, buffer);
+        assertEquals(7, buffer.size());
+        CronUtilsHelper.getTimestampsBetween("0 * * * * ?", start, start + 60_000L, buffer);
+        assertArrayEquals(new long[]{start, start + 60_000L}, buffer.toArray());
+    }
+
+    private static void assertMatchesCronUtils(String expression, long start, long end) {
+        QuartzCronEvaluator evaluator = QuartzCronEvaluator.compile(expression);
+        assertNotNull(evaluator, expression);
+        TimestampBuffer buffer = new TimestampBuffer();
+        evaluator.collect(start, end, buffer);
+        assertArrayEquals(referenceFireTimes(expression, start, end), buffer.toArray(),
+                () -> expression + " between " + start + " and " + end);
+    }
+
+    private static long[] collect(String expression, long start, long end) {
+        TimestampBuffer buffer = new TimestampBuffer();
+        QuartzCronEvaluator.compile(expression).collect(start, end, buffer);
+        return buffer.toArray();
+    }
+
+    /**
+     * Fire times computed by cron-utils, probing from whole seconds so that matches are not shifted by the
+     * sub-second part of the probe.
+     */
+    private static long[] referenceFireTimes(String expression, long start, long end) {
+        ExecutionTime executionTime = ExecutionTime.forCron(PARSER.parse(expression));
+        TimestampBuffer buffer = new TimestampBuffer();
+        long probe = Math.ceilDiv(start, 1000L) * 1000L - 1000L;
+        Optional<ZonedDateTime> next = executionTime.nextExecution(Instant.ofEpochMilli(probe).atZone(ZoneOffset.UTC));
+        while (next.isPresent() && next.get().toInstant().toEpochMilli() <= end) {
+            buffer.add(next.get().toInstant().toEpochMilli());
+            next = executionTime.nextExecution(next.get());
+        }
+        return buffer.toArray();
+    }
+
+    private static String dayFields(Random random) {
+        if (random.nextBoolean()) {
+            return randomField(random, 1, 31, null) + " " + randomField(random, 1, 12, MONTH_NAMES) + " ?";
+        }
+        return "? " + randomField(random, 1, 12, MONTH_NAMES) + " " + randomField(random, 1, 7, DAY_OF_WEEK_NAMES);
+    }
+
+    private static String randomYear(Random random) {
+        return switch (random.nextInt(4)) {
+            case 0 -> "";
+            case 1 -> "*";
+            default -> randomField(random, 2000, 2099, null);
+        };
+    }
+
+    private static String randomField(Random random, int min, int max, String[] names) {
+        int parts = random.nextInt(5) == 0 ? 2 + random.nextInt(2) : 1;
+        StringBuilder field = new StringBuilder();
+        for (int i = 0; i < parts; i++) {
+            if (i > 0) {
+                field.append(',');
+            }
+            field.append(randomPart(random, min, max, names, parts == 1));
+        }
+        return field.toString();
+    }
+
+    private static String randomPart(Random random, int min, int max, String[] names, boolean allowWildcard) {
+        int low = min + random.nextInt(max - min + 1);
+        int high = low + random.nextInt(max - low + 1);
+        int step = 1 + random.nextInt(Math.max(1, (max - min) / 2));
+        return switch (random.nextInt(allowWildcard ? 6 : 4)) {
+            case 0 -> value(random, low, min, names);
+            case 1 -> value(random, low, min, names) + "-" + value(random, high, min, names);
+            case 2 -> value(random, low, min, names) + "/" + step;
+            case 3 -> value(random, low, min, names) + "-" + value(random, high, min, names) + "/" + step;
+            case 4 -> "*/" + step;
+            default -> "*";
+        };
+    }
+
+    private static String value(Random random, int value, int min, String[] names) {
+        return names != null && random.nextBoolean() ? names[value - min] : String.valueOf(value);
+    }
+}
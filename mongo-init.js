@@ -26,3 +26,14 @@ db.producer_config.insertOne({
   lastProducedTimestamp: 1759740104824
 });
 
+
+// Producers scan due jobs by nextScheduledTime within the bucket range of their shard
+db.jobs.createIndex({ shardKey: 1, nextScheduledTime: 1 });
+db.jobs.createIndex({ nextScheduledTime: 1 });
+
+
+// Producers page through the executions of their shard waiting for the queue delay window
+db.job_executions.createIndex(
+  { shardKey: 1, scheduledRunAt: 1, _id: 1 },
+  { partialFilterExpression: { enqueuedAt: { $type: "null" } } }
+);
@@ -47,7 +47,8 @@ public class ControllerAdapter {
         return JobRequestDto.builder().type(JobGuarantee.valueOf(jobRequest.getType()))
                 .api(ApiConfigDto.builder().httpMethod(HttpMethod.valueOf(jobRequest.getApi().getHttpMethod())).url(jobRequest.getApi().getUrl())
                         .payload(jobRequest.getApi().getPayload())
-                        .readTimeoutMs(jobRequest.getApi().getReadTimeoutMs()).build()).correlationId(jobRequest.getCorrelationId()).schedule(
+                        .readTimeoutMs(jobRequest.getApi().getReadTimeoutMs()).maxRetries(jobRequest.getApi().getMaxRetries())
+                        .batchDelivery(Boolean.TRUE.equals(jobRequest.getApi().getBatchDelivery())).build()).correlationId(jobRequest.getCorrelationId()).schedule(
                         jobRequest.getSchedule()).build();
     }
 
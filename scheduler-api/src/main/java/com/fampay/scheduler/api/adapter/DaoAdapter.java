@@ -2,6 +2,7 @@ package com.fampay.scheduler.api.adapter;
 
 import com.fampay.scheduler.api.dto.service.JobRequestDto;
 import com.fampay.scheduler.commons.helper.utils.CronUtilsHelper;
+import com.fampay.scheduler.commons.http.body.EncodedBody;
 import com.fampay.scheduler.models.dto.JobExecutionStatus;
 import com.fampay.scheduler.models.entity.ApiConfigEntity;
 import com.fampay.scheduler.models.entity.JobEntity;
@@ -20,9 +21,11 @@ public class DaoAdapter {
 
     public static JobEntity createJobEntityFromDto(JobRequestDto jobRequest) {
         return JobEntity.builder().apiConfig(ApiConfigEntity.builder()
-                        .url(jobRequest.getApi().getUrl()).payload(jobRequest.getApi().getPayload()).httpMethod(
+                        .url(jobRequest.getApi().getUrl()).payload(jobRequest.getApi().getPayload())
+                        .payloadHash(EncodedBody.contentHash(jobRequest.getApi().getPayload())).httpMethod(
                                 jobRequest.getApi().getHttpMethod().name())
-                        .readTimeoutMs(jobRequest.getApi().getReadTimeoutMs()).build()).type(jobRequest.getType().name()).schedule(jobRequest.getSchedule())
+                        .readTimeoutMs(jobRequest.getApi().getReadTimeoutMs()).maxRetries(jobRequest.getApi().getMaxRetries())
+                        .batchDelivery(jobRequest.getApi().isBatchDelivery()).build()).type(jobRequest.getType().name()).schedule(jobRequest.getSchedule())
                 .nextScheduledTime(CronUtilsHelper.getScheduledTimeFrom1Min(jobRequest.getSchedule()))
                 .createdAt(DateTimeUtils.currentTimeMillis())
                 .updatedAt(DateTimeUtils.currentTimeMillis()).build();
@@ -8,4 +8,13 @@ public class ApiConfig {
     private String httpMethod;
     private Object payload;
     private Long readTimeoutMs=90000L;
+    /**
+     * Attempts after the first one a failed call of an ATLEAST_ONCE job gets, the consumer default if not set
+     */
+    private Integer maxRetries;
+    /**
+     * The endpoint takes an array of executions, executions of jobs due at the same time for the same url are
+     * delivered together in one POST and the endpoint answers with a result per execution
+     */
+    private Boolean batchDelivery;
 }
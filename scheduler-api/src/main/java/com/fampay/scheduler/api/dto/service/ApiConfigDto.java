@@ -15,4 +15,6 @@ public class ApiConfigDto {
     private HttpMethod httpMethod;
     private Object payload;
     private Long readTimeoutMs=120000L;
+    private Integer maxRetries;
+    private boolean batchDelivery;
 }
@@ -28,6 +28,9 @@ public class LibraryErrorMessages {
     public static final String KEY_PARSING_ERROR = "KEY_PARSING_ERROR";
     public static final String RATE_LIMIT_BREACHED = "RATE_LIMIT_BREACHED";
     public static final String ACQUIRE_LOCK_FAILED = "ACQUIRE_LOCK_FAILED";
+    public static final String BULKHEAD_FULL = "BULKHEAD_FULL";
+    public static final String DEADLINE_EXCEEDED = "DEADLINE_EXCEEDED";
+    public static final String CIRCUIT_OPEN = "CIRCUIT_OPEN";
 
     public static final String SYSTEM_ERROR = "SYSTEM_ERROR";
     public static final String PREFIX_MISSING = "PREFIX_MISSING";
@@ -0,0 +1,231 @@
+package com.fampay.scheduler.commons.helper.cron;
+
+import java.util.Locale;
+
+/**
+ * Quartz cron expression compiled into per-field bitmasks. Fire times are enumerated in UTC epoch millis
+ * straight into a {@link TimestampBuffer}, without going through {@code ZonedDateTime} or boxed values.
+ * <p>
+ * Only the plain subset of the Quartz syntax is supported: values, names, ranges, lists, steps, {@code *} and
+ * {@code ?}. Expressions using {@code L}, {@code W}, {@code #} or wrap-around ranges are not compiled and
+ * should keep being evaluated by cron-utils.
+ */
+public final class QuartzCronEvaluator {
+
+    private static final long SECONDS_PER_DAY = 86_400L;
+    private static final int MIN_YEAR = 1970;
+    private static final int MAX_YEAR = 2099;
+
+    private static final String[] MONTH_NAMES =
+            {"JAN", "FEB", "MAR", "APR", "MAY", "JUN", "JUL", "AUG", "SEP", "OCT", "NOV", "DEC"};
+    private static final String[] DAY_OF_WEEK_NAMES = {"SUN", "MON", "TUE", "WED", "THU", "FRI", "SAT"};
+
+    private final long seconds;
+    private final long minutes;
+    private final long hours;
+    private final long daysOfMonth;
+    private final long months;
+    private final long daysOfWeek;
+    private final long[] years;
+
+    private QuartzCronEvaluator(long seconds, long minutes, long hours, long daysOfMonth, long months,
+                                long daysOfWeek, long[] years) {
+        this.seconds = seconds;
+        this.minutes = minutes;
+        this.hours = hours;
+        this.daysOfMonth = daysOfMonth;
+        this.months = months;
+        this.daysOfWeek = daysOfWeek;
+        this.years = years;
+    }
+
+    /**
+     * Compiles an already validated quartz expression.
+     *
+     * @return the evaluator, or null if the expression uses syntax this evaluator does not support
+     */
+    public static QuartzCronEvaluator compile(String cronExpression) {
+        if (cronExpression == null) {
+            return null;
+        }
+        String[] fields = cronExpression.trim().toUpperCase(Locale.ROOT).split("\\s+");
+        if (fields.length != 6 && fields.length != 7) {
+            return null;
+        }
+        boolean anyDayOfMonth = "?".equals(fields[3]);
+        boolean anyDayOfWeek = "?".equals(fields[5]);
+        // quartz requires exactly one of the two day fields to be '?'
+        if (anyDayOfMonth == anyDayOfWeek) {
+            return null;
+        }
+        long[] seconds = parseField(fields[0], 0, 59, 0, null);
+        long[] minutes = parseField(fields[1], 0, 59, 0, null);
+        long[] hours = parseField(fields[2], 0, 23, 0, null);
+        long[] daysOfMonth = anyDayOfMonth ? parseField("*", 1, 31, 0, null) : parseField(fields[3], 1, 31, 0, null);
+        long[] months = parseField(fields[4], 1, 12, 0, MONTH_NAMES);
+        long[] daysOfWeek = anyDayOfWeek ? parseField("*", 1, 7, 0, null) : parseField(fields[5], 1, 7, 0, DAY_OF_WEEK_NAMES);
+        long[] years = fields.length == 7
+                ? parseField(fields[6], MIN_YEAR, MAX_YEAR, MIN_YEAR, null)
+                : parseField("*", MIN_YEAR, MAX_YEAR, MIN_YEAR, null);
+        if (seconds == null || minutes == null || hours == null || daysOfMonth == null || months == null
+                || daysOfWeek == null || years == null) {
+            return null;
+        }
+        return new QuartzCronEvaluator(seconds[0], minutes[0], hours[0], daysOfMonth[0], months[0], daysOfWeek[0], years);
+    }
+
+    /**
+     * Appends every fire time t with startMillis <= t <= endMillis to the buffer, in ascending order.
+     */
+    public void collect(long startMillis, long endMillis, TimestampBuffer buffer) {
+        long firstSecond = Math.ceilDiv(startMillis, 1000L);
+        long lastSecond = Math.floorDiv(endMillis, 1000L);
+        if (firstSecond > lastSecond) {
+            return;
+        }
+        long day = Math.floorDiv(firstSecond, SECONDS_PER_DAY);
+        long lastDay = Math.floorDiv(lastSecond, SECONDS_PER_DAY);
+        while (day <= lastDay) {
+            // civil date from epoch day, see http://howardhinnant.github.io/date_algorithms.html
+            long z = day + 719_468L;
+            long era = Math.floorDiv(z, 146_097L);
+            long dayOfEra = z - era * 146_097L;
+            long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36_524 - dayOfEra / 146_096) / 365;
+            long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+            long shiftedMonth = (5 * dayOfYear + 2) / 153;
+            int dayOfMonth = (int) (dayOfYear - (153 * shiftedMonth + 2) / 5 + 1);
+            int month = (int) (shiftedMonth < 10 ? shiftedMonth + 3 : shiftedMonth - 9);
+            long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+
+            if (!matchesYear(year)) {
+                if (year >= MAX_YEAR) {
+                    return;
+                }
+                day = daysFromCivil(Math.max(year + 1, MIN_YEAR), 1, 1);
+                continue;
+            }
+            if (!isSet(months, month)) {
+                day = month == 12 ? daysFromCivil(year + 1, 1, 1) : daysFromCivil(year, month + 1, 1);
+                continue;
+            }
+            int dayOfWeek = (int) Math.floorMod(day + 4, 7L) + 1;
+            if (isSet(daysOfMonth, dayOfMonth) && isSet(daysOfWeek, dayOfWeek)) {
+                collectDay(day * SECONDS_PER_DAY, firstSecond, lastSecond, buffer);
+            }
+            day++;
+        }
+    }
+
+    private void collectDay(long dayStartSecond, long firstSecond, long lastSecond, TimestampBuffer buffer) {
+        int from = (int) Math.max(0L, firstSecond - dayStartSecond);
+        int to = (int) Math.min(SECONDS_PER_DAY - 1, lastSecond - dayStartSecond);
+        for (int hour = from / 3600; hour <= to / 3600; hour++) {
+            if (!isSet(hours, hour)) {
+                continue;
+            }
+            for (int minute = 0; minute < 60; minute++) {
+                int minuteStart = hour * 3600 + minute * 60;
+                if (!isSet(minutes, minute) || minuteStart + 59 < from) {
+                    continue;
+                }
+                if (minuteStart > to) {
+                    return;
+                }
+                long remaining = seconds;
+                while (remaining != 0) {
+                    int second = Long.numberOfTrailingZeros(remaining);
+                    remaining &= remaining - 1;
+                    int secondOfDay = minuteStart + second;
+                    if (secondOfDay < from) {
+                        continue;
+                    }
+                    if (secondOfDay > to) {
+                        return;
+                    }
+                    buffer.add((dayStartSecond + secondOfDay) * 1000L);
+                }
+            }
+        }
+    }
+
+    private boolean matchesYear(long year) {
+        if (year < MIN_YEAR || year > MAX_YEAR) {
+            return false;
+        }
+        int bit = (int) (year - MIN_YEAR);
+        return (years[bit >>> 6] & (1L << (bit & 63))) != 0;
+    }
+
+    private static boolean isSet(long mask, int value) {
+        return (mask & (1L << value)) != 0;
+    }
+
+    private static long daysFromCivil(long year, int month, int dayOfMonth) {
+        long y = month <= 2 ? year - 1 : year;
+        long era = Math.floorDiv(y, 400L);
+        long yearOfEra = y - era * 400;
+        long dayOfYear = (153L * (month > 2 ? month - 3 : month + 9) + 2) / 5 + dayOfMonth - 1;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146_097L + dayOfEra - 719_468L;
+    }
+
+    /**
+     * Parses a single field into a bitmask where bit (value - base) is set for every matching value.
+     * Returns null for anything outside the supported subset.
+     */
+    private static long[] parseField(String token, int min, int max, int base, String[] names) {
+        long[] mask = new long[((max - base) >>> 6) + 1];
+        try {
+            for (String part : token.split(",", -1)) {
+                int step = 1;
+                String range = part;
+                int slash = part.indexOf('/');
+                if (slash >= 0) {
+                    step = Integer.parseInt(part.substring(slash + 1));
+                    range = part.substring(0, slash);
+                }
+                int low;
+                int high;
+                if ("*".equals(range)) {
+                    low = min;
+                    high = max;
+                } else {
+                    int dash = range.indexOf('-');
+                    if (dash >= 0) {
+                        low = parseValue(range.substring(0, dash), names);
+                        high = parseValue(range.substring(dash + 1), names);
+                    } else {
+                        low = parseValue(range, names);
+                        high = slash >= 0 ? max : low;
+                    }
+                }
+                if (step <= 0 || low < min || high > max || low > high) {
+                    return null;
+                }
+                for (int value = low; value <= high; value += step) {
+                    int bit = value - base;
+                    mask[bit >>> 6] |= 1L << (bit & 63);
+                }
+            }
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        return mask;
+    }
+
+    private static int parseValue(String value, String[] names) {
+        if (names != null) {
+            for (int i = 0; i < names.length; i++) {
+                if (names[i].equals(value)) {
+                    return i + 1;
+                }
+            }
+        }
+        for (int i = 0; i < value.length(); i++) {
+            if (!Character.isDigit(value.charAt(i))) {
+                throw new NumberFormatException(value);
+            }
+        }
+        return Integer.parseInt(value);
+    }
+}
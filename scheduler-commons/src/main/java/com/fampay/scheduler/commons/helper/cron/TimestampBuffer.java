@@ -0,0 +1,53 @@
+package com.fampay.scheduler.commons.helper.cron;
+
+import java.util.Arrays;
+
+/**
+ * Growable buffer of epoch millis, meant to be cleared and reused across cron evaluations
+ * so that fire times are never boxed.
+ */
+public final class TimestampBuffer {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private long[] values;
+    private int size;
+
+    public TimestampBuffer() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public TimestampBuffer(int initialCapacity) {
+        this.values = new long[Math.max(1, initialCapacity)];
+    }
+
+    public void add(long value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, values.length << 1);
+        }
+        values[size++] = value;
+    }
+
+    public long get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+        }
+        return values[index];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    public long[] toArray() {
+        return Arrays.copyOf(values, size);
+    }
+}
@@ -5,8 +5,15 @@ import com.cronutils.model.CronType;
 import com.cronutils.model.definition.CronDefinitionBuilder;
 import com.cronutils.model.time.ExecutionTime;
 import com.cronutils.parser.CronParser;
+import com.fampay.scheduler.commons.helper.cron.QuartzCronEvaluator;
+import com.fampay.scheduler.commons.helper.cron.TimestampBuffer;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
 import lombok.AccessLevel;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.RequiredArgsConstructor;
 import org.apache.commons.lang3.StringUtils;
 import org.joda.time.DateTimeUtils;
 
@@ -25,6 +32,17 @@ public class CronUtilsHelper {
     private static final CronParser PARSER =
             new CronParser(CronDefinitionBuilder.instanceDefinitionFor(CronType.QUARTZ));
 
+    /**
+     * Jobs share a small number of distinct schedules, so parsed expressions are kept in a bounded cache
+     * keyed by the normalized expression instead of being re-parsed on every producer cycle.
+     */
+    private static final long MAX_COMPILED_CRON_CACHE_SIZE = 10_000L;
+
+    private static final Cache<String, CompiledCron> COMPILED_CRON_CACHE = CacheBuilder.newBuilder()
+            .maximumSize(MAX_COMPILED_CRON_CACHE_SIZE)
+            .recordStats()
+            .build();
+
     /**
      * Validates if a cron expression (with seconds) is valid.
      *
@@ -33,8 +51,7 @@ public class CronUtilsHelper {
      */
     public static boolean isValidCron(String cronExpression) {
         try {
-            PARSER.parse(cronExpression).validate();
-            return true;
+            return compile(cronExpression).isValid();
         } catch (Exception e) {
             return false;
         }
@@ -57,11 +74,11 @@ public class CronUtilsHelper {
             return -1L;
         }
         try {
-
-            Cron cron = PARSER.parse(cronExpression);
-            cron.validate();
-
-            ExecutionTime executionTime = ExecutionTime.forCron(cron);
+            CompiledCron compiledCron = compile(cronExpression);
+            if (!compiledCron.isValid()) {
+                return -1L;
+            }
+            ExecutionTime executionTime = compiledCron.getExecutionTime();
 
             ZonedDateTime start = ZonedDateTime.ofInstant(
                     Instant.ofEpochMilli(startTimestampMillis),
@@ -83,24 +100,46 @@ public class CronUtilsHelper {
      * @return list of execution timestamps (epoch millis UTC)
      */
     public static List<Long> getTimestampsBetween(String cronExpression, long startMillis, long endMillis) {
-        List<Long> timestamps = new ArrayList<>();
-        if (cronExpression == null || cronExpression.isEmpty()) return timestamps;
+        TimestampBuffer buffer = getTimestampsBetween(cronExpression, startMillis, endMillis, new TimestampBuffer());
+        List<Long> timestamps = new ArrayList<>(buffer.size());
+        for (int i = 0; i < buffer.size(); i++) {
+            timestamps.add(buffer.get(i));
+        }
+        return timestamps;
+    }
 
-        Cron cron = PARSER.parse(cronExpression);
-        ExecutionTime executionTime = ExecutionTime.forCron(cron);
+    /**
+     * Same as {@link #getTimestampsBetween(String, long, long)} but fills the given buffer, which is cleared first.
+     * Expressions supported by {@link QuartzCronEvaluator} are enumerated without any allocation, the rest fall back
+     * to cron-utils.
+     */
+    public static TimestampBuffer getTimestampsBetween(String cronExpression, long startMillis, long endMillis,
+                                                       TimestampBuffer buffer) {
+        buffer.clear();
+        if (cronExpression == null || cronExpression.isEmpty()) return buffer;
+
+        CompiledCron compiledCron = compile(cronExpression);
+        if (compiledCron.getEvaluator() != null) {
+            compiledCron.getEvaluator().collect(startMillis, endMillis, buffer);
+            return buffer;
+        }
 
-        ZonedDateTime start = Instant.ofEpochMilli(startMillis).atZone(ZoneOffset.UTC);
+        ExecutionTime executionTime = compiledCron.getExecutionTime();
+        // fire times are whole seconds, probing from a whole second keeps cron-utils from carrying the
+        // sub-second part of the probe into the returned matches
+        long firstSecondMillis = Math.ceilDiv(startMillis, 1000L) * 1000L;
         ZonedDateTime end = Instant.ofEpochMilli(endMillis).atZone(ZoneOffset.UTC);
 
-        Optional<ZonedDateTime> next = executionTime.nextExecution(start.minusNanos(1));
+        Optional<ZonedDateTime> next = executionTime.nextExecution(
+                Instant.ofEpochMilli(firstSecondMillis - 1000L).atZone(ZoneOffset.UTC));
 
         while (next.isPresent() && !next.get().isAfter(end)) {
             ZonedDateTime fireTime = next.get();
-            timestamps.add(fireTime.toInstant().toEpochMilli());
+            buffer.add(fireTime.toInstant().toEpochMilli());
             next = executionTime.nextExecution(fireTime);
         }
 
-        return timestamps;
+        return buffer;
     }
 
     public static Long getScheduledTimeFrom1Min(String cronExpression) {
@@ -109,5 +148,60 @@ public class CronUtilsHelper {
         return getNextRunInGMTFromStartTime(cronExpression,timestamp);
     }
 
+    /**
+     * Hit/miss counters of the compiled cron cache.
+     */
+    public static CacheStats getCompiledCronCacheStats() {
+        return COMPILED_CRON_CACHE.stats();
+    }
+
+    public static long getCompiledCronCacheSize() {
+        return COMPILED_CRON_CACHE.size();
+    }
+
+    /**
+     * Returns the compiled form of the expression, parsing it only on a cache miss.
+     * Throws IllegalArgumentException for expressions that cannot be parsed, these are never cached.
+     */
+    private static CompiledCron compile(String cronExpression) {
+        if (cronExpression == null) {
+            throw new IllegalArgumentException("Cron expression cannot be null");
+        }
+        String normalizedExpression = normalize(cronExpression);
+        CompiledCron compiledCron = COMPILED_CRON_CACHE.getIfPresent(normalizedExpression);
+        if (compiledCron == null) {
+            Cron cron = PARSER.parse(normalizedExpression);
+            boolean valid = isValid(cron);
+            compiledCron = new CompiledCron(ExecutionTime.forCron(cron), valid,
+                    valid ? QuartzCronEvaluator.compile(normalizedExpression) : null);
+            COMPILED_CRON_CACHE.put(normalizedExpression, compiledCron);
+        }
+        return compiledCron;
+    }
+
+    private static String normalize(String cronExpression) {
+        return StringUtils.normalizeSpace(cronExpression);
+    }
+
+    private static boolean isValid(Cron cron) {
+        try {
+            cron.validate();
+            return true;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    private static final class CompiledCron {
+        private final ExecutionTime executionTime;
+        private final boolean valid;
+        /**
+         * Null when the expression uses syntax only cron-utils understands.
+         */
+        private final QuartzCronEvaluator evaluator;
+    }
+
 
 }
@@ -0,0 +1,56 @@
+package com.fampay.scheduler.commons.http.body;
+
+import com.fampay.scheduler.commons.exception.InternalLibraryException;
+import com.fampay.scheduler.commons.helper.utils.CommonSerializationUtil;
+import com.google.common.hash.Hashing;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Request body encoded once into bytes, sent as is by every call it is used for. Strings are sent as plain text and
+ * any other payload as JSON, the same content types the payload objects were written with.
+ */
+@Getter
+@AllArgsConstructor
+public class EncodedBody {
+
+    private final byte[] bytes;
+    private final MediaType contentType;
+    private final String contentHash;
+
+    public static EncodedBody of(Object payload) {
+        if (payload instanceof String text) {
+            byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+            return new EncodedBody(bytes, MediaType.TEXT_PLAIN, hash(bytes));
+        }
+        try {
+            byte[] bytes = CommonSerializationUtil.getObjectMapper().writeValueAsBytes(payload);
+            return new EncodedBody(bytes, MediaType.APPLICATION_JSON, hash(bytes));
+        } catch (Exception e) {
+            throw InternalLibraryException.childBuilder().message(e.getMessage()).build();
+        }
+    }
+
+    /**
+     * @return hash of the encoded payload, null for a job without a payload
+     */
+    public static String contentHash(Object payload) {
+        return payload == null ? null : of(payload).getContentHash();
+    }
+
+    /**
+     * @return a new buffer over the encoded bytes, every write of the body needs its own read position
+     */
+    public DataBuffer toDataBuffer() {
+        return DefaultDataBufferFactory.sharedInstance.wrap(bytes);
+    }
+
+    private static String hash(byte[] bytes) {
+        return Hashing.sha256().hashBytes(bytes).toString();
+    }
+}
@@ -0,0 +1,48 @@
+package com.fampay.scheduler.commons.http.body;
+
+import com.fampay.scheduler.commons.exception.InternalLibraryException;
+import com.fampay.scheduler.commons.http.config.WebClientProperties;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Encoded request bodies keyed by the content hash of their payload, taken when the job was created. Every execution
+ * of a job after the first one sends the bytes already encoded for it instead of serializing the payload again, jobs
+ * with the same payload share one entry.
+ */
+@Component
+public class EncodedBodyCache {
+
+    private final Cache<String, EncodedBody> bodiesByHash;
+
+    public EncodedBodyCache(WebClientProperties webClientProperties, MeterRegistry meterRegistry) {
+        this.bodiesByHash = CacheBuilder.newBuilder()
+                .maximumSize(webClientProperties.getEncodedBodyCacheSize())
+                .recordStats()
+                .build();
+        GuavaCacheMetrics.monitor(meterRegistry, bodiesByHash, "http.client.encoded_bodies");
+    }
+
+    /**
+     * @param contentHash hash of the payload, a payload without one is encoded on every call
+     */
+    public EncodedBody get(String contentHash, Object payload) {
+        if (contentHash == null) {
+            return EncodedBody.of(payload);
+        }
+        try {
+            return bodiesByHash.get(contentHash, () -> EncodedBody.of(payload));
+        } catch (ExecutionException e) {
+            throw InternalLibraryException.childBuilder().message(e.getMessage()).build();
+        }
+    }
+
+    public long size() {
+        return bodiesByHash.size();
+    }
+}
@@ -0,0 +1,175 @@
+package com.fampay.scheduler.commons.http.breaker;
+
+import com.fampay.scheduler.commons.exception.InternalLibraryException;
+import com.fampay.scheduler.commons.http.config.WebClientProperties;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import static com.fampay.scheduler.commons.exception.LibraryErrorMessages.CIRCUIT_OPEN;
+
+/**
+ * Circuit breaker of one call target. The outcomes of the latest windowSize calls are kept in a ring buffer, the
+ * breaker opens once enough of them failed or were slow. An open breaker fails calls right away with
+ * {@code CIRCUIT_OPEN} for openDurationMs, then turns half open and lets halfOpenProbeCalls probes through, whose
+ * failure rate either closes it with an empty window or opens it again.
+ * <p>
+ * A cancelled call counts as failed, calls are only cancelled once they ran out of their deadline.
+ */
+@Slf4j
+public class EndpointCircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private static final byte FAILED = 1;
+    private static final byte SLOW = 2;
+
+    @Getter
+    private final String target;
+    private final WebClientProperties.CircuitBreaker settings;
+    private final LongSupplier clock;
+    private final byte[] outcomes;
+    private final AtomicLong rejectedCalls = new AtomicLong();
+    private int nextOutcome;
+    private int recordedCalls;
+    private int failedCalls;
+    private int slowCalls;
+    private State state = State.CLOSED;
+    private long openedAt;
+    private int probesStarted;
+    private int probesDone;
+    private int probesFailed;
+
+    public EndpointCircuitBreaker(String target, WebClientProperties.CircuitBreaker settings) {
+        this(target, settings, System::currentTimeMillis);
+    }
+
+    public EndpointCircuitBreaker(String target, WebClientProperties.CircuitBreaker settings, LongSupplier clock) {
+        this.target = target;
+        this.settings = settings;
+        this.clock = clock;
+        this.outcomes = new byte[Math.max(1, settings.getWindowSize())];
+    }
+
+    /**
+     * Subscribes to the call if the breaker lets it through and records its outcome
+     * @param isFailure tells which values the call completes with count as failed
+     */
+    public <T> Mono<T> execute(Supplier<Mono<T>> callSupplier, Predicate<T> isFailure) {
+        return Mono.defer(() -> {
+            if (!tryAcquirePermission()) {
+                rejectedCalls.incrementAndGet();
+                return Mono.error(InternalLibraryException.childBuilder().message(CIRCUIT_OPEN)
+                        .displayMessage("Circuit open for " + target).build());
+            }
+            long startedAt = clock.getAsLong();
+            AtomicBoolean recorded = new AtomicBoolean();
+            return Mono.defer(callSupplier)
+                    .doOnSuccess(value -> record(recorded, value != null && isFailure.test(value), startedAt))
+                    .doOnError(error -> record(recorded, true, startedAt))
+                    .doOnCancel(() -> record(recorded, true, startedAt));
+        });
+    }
+
+    /**
+     * @return true if the error is a call failed fast by an open breaker
+     */
+    public static boolean isOpenRejection(Throwable error) {
+        return error instanceof InternalLibraryException exception && CIRCUIT_OPEN.equals(exception.getMessage());
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    public synchronized double getFailureRate() {
+        return recordedCalls == 0 ? 0 : (double) failedCalls / recordedCalls;
+    }
+
+    public synchronized double getSlowCallRate() {
+        return recordedCalls == 0 ? 0 : (double) slowCalls / recordedCalls;
+    }
+
+    public long getRejectedCalls() {
+        return rejectedCalls.get();
+    }
+
+    private synchronized boolean tryAcquirePermission() {
+        if (state == State.OPEN) {
+            if (clock.getAsLong() - openedAt < settings.getOpenDurationMs()) {
+                return false;
+            }
+            transitionTo(State.HALF_OPEN);
+        }
+        if (state == State.HALF_OPEN) {
+            if (probesStarted >= settings.getHalfOpenProbeCalls()) {
+                return false;
+            }
+            probesStarted++;
+        }
+        return true;
+    }
+
+    private void record(AtomicBoolean recorded, boolean failed, long startedAt) {
+        if (recorded.compareAndSet(false, true)) {
+            onResult(failed, clock.getAsLong() - startedAt >= settings.getSlowCallDurationMs());
+        }
+    }
+
+    private synchronized void onResult(boolean failed, boolean slow) {
+        if (state == State.HALF_OPEN) {
+            probesDone++;
+            if (failed || slow) {
+                probesFailed++;
+            }
+            if (probesDone >= settings.getHalfOpenProbeCalls()) {
+                transitionTo((double) probesFailed / probesDone >= settings.getFailureRateThreshold() ? State.OPEN : State.CLOSED);
+            }
+            return;
+        }
+        if (state == State.OPEN) {
+            //Call started before the breaker opened
+            return;
+        }
+        if (recordedCalls == outcomes.length) {
+            byte evicted = outcomes[nextOutcome];
+            failedCalls -= evicted & FAILED;
+            slowCalls -= (evicted & SLOW) >> 1;
+        } else {
+            recordedCalls++;
+        }
+        byte outcome = (byte) ((failed ? FAILED : 0) | (slow ? SLOW : 0));
+        outcomes[nextOutcome] = outcome;
+        nextOutcome = (nextOutcome + 1) % outcomes.length;
+        failedCalls += outcome & FAILED;
+        slowCalls += (outcome & SLOW) >> 1;
+        if (recordedCalls >= settings.getMinimumCalls() && (getFailureRate() >= settings.getFailureRateThreshold()
+                || getSlowCallRate() >= settings.getSlowCallRateThreshold())) {
+            transitionTo(State.OPEN);
+        }
+    }
+
+    private void transitionTo(State next) {
+        log.warn("Circuit of {} is now {}, failure rate {} slow call rate {}", target, next, getFailureRate(), getSlowCallRate());
+        state = next;
+        probesStarted = 0;
+        probesDone = 0;
+        probesFailed = 0;
+        if (next == State.OPEN) {
+            openedAt = clock.getAsLong();
+        } else if (next == State.CLOSED) {
+            nextOutcome = 0;
+            recordedCalls = 0;
+            failedCalls = 0;
+            slowCalls = 0;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.fampay.scheduler.commons.http.breaker;
+
+import com.fampay.scheduler.commons.http.bulkhead.HostBulkheads;
+import com.fampay.scheduler.commons.http.config.WebClientProperties;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * One {@link EndpointCircuitBreaker} per call target, created on the first call to it. The target of a URL is the
+ * longest configured prefix it starts with, or else its host. A breaker is dropped along with its metrics once its
+ * target was not called for idleExpiryMs, calls rejected by an open breaker count as calls.
+ */
+@Component
+public class EndpointCircuitBreakers {
+
+    private static final List<String> METER_NAMES = List.of("http.client.circuit.state", "http.client.circuit.failure_rate",
+            "http.client.circuit.slow_call_rate", "http.client.circuit.rejected");
+
+    private final WebClientProperties webClientProperties;
+    private final MeterRegistry meterRegistry;
+    private final LoadingCache<String, RegisteredBreaker> breakersByTarget;
+
+    public EndpointCircuitBreakers(WebClientProperties webClientProperties, MeterRegistry meterRegistry) {
+        this.webClientProperties = webClientProperties;
+        this.meterRegistry = meterRegistry;
+        this.breakersByTarget = CacheBuilder.newBuilder()
+                .expireAfterAccess(webClientProperties.getCircuitBreaker().getIdleExpiryMs(), TimeUnit.MILLISECONDS)
+                .<String, RegisteredBreaker>removalListener(removal -> removeMeters(removal.getValue()))
+                .build(CacheLoader.from(this::createBreaker));
+    }
+
+    public <T> Mono<T> execute(String url, Supplier<Mono<T>> callSupplier, Predicate<T> isFailure) {
+        WebClientProperties.CircuitBreaker circuitBreaker = webClientProperties.getCircuitBreaker();
+        if (circuitBreaker == null || !circuitBreaker.isEnabled()) {
+            return Mono.defer(callSupplier);
+        }
+        return getBreaker(getTarget(url)).execute(callSupplier, isFailure);
+    }
+
+    public EndpointCircuitBreaker getBreaker(String target) {
+        return breakersByTarget.getUnchecked(target).breaker();
+    }
+
+    public String getTarget(String url) {
+        String target = null;
+        for (String urlPrefix : webClientProperties.getCircuitBreaker().getUrlPrefixes()) {
+            if (url != null && url.startsWith(urlPrefix) && (target == null || urlPrefix.length() > target.length())) {
+                target = urlPrefix;
+            }
+        }
+        return target != null ? target : HostBulkheads.getHost(url);
+    }
+
+    private synchronized RegisteredBreaker createBreaker(String target) {
+        EndpointCircuitBreaker breaker = new EndpointCircuitBreaker(target, webClientProperties.getCircuitBreaker());
+
+        Tags tags = Tags.of("target", target);
+        //Left over by an expired breaker of the target whose removal was not handled yet
+        METER_NAMES.forEach(name -> meterRegistry.find(name).tags(tags).meters().forEach(meterRegistry::remove));
+        List<Meter> meters = List.of(
+                Gauge.builder("http.client.circuit.state", breaker, b -> b.getState().ordinal()).tags(tags)
+                        .description("0 closed, 1 open, 2 half open").register(meterRegistry),
+                Gauge.builder("http.client.circuit.failure_rate", breaker, EndpointCircuitBreaker::getFailureRate).tags(tags).register(meterRegistry),
+                Gauge.builder("http.client.circuit.slow_call_rate", breaker, EndpointCircuitBreaker::getSlowCallRate).tags(tags).register(meterRegistry),
+                FunctionCounter.builder("http.client.circuit.rejected", breaker, EndpointCircuitBreaker::getRejectedCalls).tags(tags).register(meterRegistry));
+        return new RegisteredBreaker(breaker, meters);
+    }
+
+    /**
+     * Leaves the meters alone if a new breaker of the target registered its own in the meantime
+     */
+    private synchronized void removeMeters(RegisteredBreaker registeredBreaker) {
+        for (Meter meter : registeredBreaker.meters()) {
+            if (meterRegistry.find(meter.getId().getName()).tags(meter.getId().getTagsAsIterable()).meters().stream()
+                    .anyMatch(registered -> registered == meter)) {
+                meterRegistry.remove(meter);
+            }
+        }
+    }
+
+    private record RegisteredBreaker(EndpointCircuitBreaker breaker, List<Meter> meters) {
+    }
+}
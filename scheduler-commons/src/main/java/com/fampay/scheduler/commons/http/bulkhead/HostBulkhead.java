@@ -0,0 +1,158 @@
+package com.fampay.scheduler.commons.http.bulkhead;
+
+import com.fampay.scheduler.commons.exception.InternalLibraryException;
+import lombok.Getter;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static com.fampay.scheduler.commons.exception.LibraryErrorMessages.BULKHEAD_FULL;
+
+/**
+ * Caps the calls in flight to one host. Calls beyond the cap wait in a bounded queue and start as earlier calls
+ * finish, calls beyond the queue fail right away with {@code BULKHEAD_FULL}.
+ */
+public class HostBulkhead {
+
+    @Getter
+    private final String host;
+    @Getter
+    private final int maxConcurrentCalls;
+    @Getter
+    private final int maxPendingCalls;
+    private final Queue<Call<?>> pendingCalls = new ArrayDeque<>();
+    private final AtomicLong rejectedCalls = new AtomicLong();
+    private int inFlightCalls;
+
+    public HostBulkhead(String host, int maxConcurrentCalls, int maxPendingCalls) {
+        this.host = host;
+        this.maxConcurrentCalls = Math.max(1, maxConcurrentCalls);
+        this.maxPendingCalls = Math.max(0, maxPendingCalls);
+    }
+
+    /**
+     * Subscribes to the call once the host has room for it. Cancelling a waiting call takes it out of the queue.
+     */
+    public <T> Mono<T> execute(Supplier<Mono<T>> callSupplier) {
+        return Mono.create(sink -> {
+            Call<T> call = new Call<>(callSupplier, sink);
+            sink.onCancel(call::cancel);
+            Admission admission = admit(call);
+            if (admission == Admission.RUN) {
+                call.run();
+            } else if (admission == Admission.REJECTED) {
+                rejectedCalls.incrementAndGet();
+                sink.error(InternalLibraryException.childBuilder().message(BULKHEAD_FULL)
+                        .displayMessage("Too many calls to host " + host).build());
+            }
+        });
+    }
+
+    /**
+     * @return true if the error is a call rejected by a full bulkhead
+     */
+    public static boolean isRejection(Throwable error) {
+        return error instanceof InternalLibraryException exception && BULKHEAD_FULL.equals(exception.getMessage());
+    }
+
+    public synchronized int getInFlightCalls() {
+        return inFlightCalls;
+    }
+
+    public synchronized int getPendingCalls() {
+        return pendingCalls.size();
+    }
+
+    public long getRejectedCalls() {
+        return rejectedCalls.get();
+    }
+
+    /**
+     * Share of the concurrent calls in use, 1 once calls have to wait.
+     */
+    public synchronized double getSaturation() {
+        return (double) inFlightCalls / maxConcurrentCalls;
+    }
+
+    private synchronized Admission admit(Call<?> call) {
+        if (inFlightCalls < maxConcurrentCalls) {
+            inFlightCalls++;
+            return Admission.RUN;
+        }
+        if (pendingCalls.size() < maxPendingCalls) {
+            pendingCalls.add(call);
+            return Admission.QUEUED;
+        }
+        return Admission.REJECTED;
+    }
+
+    /**
+     * Hands the slot of a finished call to the oldest waiting call, if any.
+     */
+    private void release() {
+        Call<?> next;
+        synchronized (this) {
+            next = pendingCalls.poll();
+            if (next == null) {
+                inFlightCalls--;
+                return;
+            }
+        }
+        next.run();
+    }
+
+    private synchronized boolean removePending(Call<?> call) {
+        return pendingCalls.remove(call);
+    }
+
+    private enum Admission {
+        RUN, QUEUED, REJECTED
+    }
+
+    private final class Call<T> {
+        private final Supplier<Mono<T>> callSupplier;
+        private final MonoSink<T> sink;
+        private volatile boolean cancelled;
+        private volatile Disposable subscription;
+
+        private Call(Supplier<Mono<T>> callSupplier, MonoSink<T> sink) {
+            this.callSupplier = callSupplier;
+            this.sink = sink;
+        }
+
+        private void run() {
+            if (cancelled) {
+                release();
+                return;
+            }
+            Mono<T> mono;
+            try {
+                mono = callSupplier.get();
+            } catch (Exception e) {
+                release();
+                sink.error(e);
+                return;
+            }
+            subscription = mono.doFinally(signal -> release()).subscribe(sink::success, sink::error, sink::success);
+            if (cancelled) {
+                subscription.dispose();
+            }
+        }
+
+        private void cancel() {
+            cancelled = true;
+            if (removePending(this)) {
+                return;
+            }
+            Disposable current = subscription;
+            if (current != null) {
+                current.dispose();
+            }
+        }
+    }
+}
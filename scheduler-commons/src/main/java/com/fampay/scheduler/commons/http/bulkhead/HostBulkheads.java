@@ -0,0 +1,99 @@
+package com.fampay.scheduler.commons.http.bulkhead;
+
+import com.fampay.scheduler.commons.http.config.WebClientProperties;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * One {@link HostBulkhead} per target host, created on the first call to the host with the configured limits. A
+ * bulkhead is dropped along with its metrics once its host was not called for idleExpiryMs, so hosts called once
+ * do not pile up.
+ */
+@Component
+public class HostBulkheads {
+
+    private static final List<String> METER_NAMES = List.of("http.client.host.in_flight", "http.client.host.pending",
+            "http.client.host.saturation", "http.client.host.rejected");
+
+    private final WebClientProperties webClientProperties;
+    private final MeterRegistry meterRegistry;
+    private final LoadingCache<String, RegisteredBulkhead> bulkheadsByHost;
+
+    public HostBulkheads(WebClientProperties webClientProperties, MeterRegistry meterRegistry) {
+        this.webClientProperties = webClientProperties;
+        this.meterRegistry = meterRegistry;
+        this.bulkheadsByHost = CacheBuilder.newBuilder()
+                .expireAfterAccess(webClientProperties.getBulkhead().getIdleExpiryMs(), TimeUnit.MILLISECONDS)
+                .<String, RegisteredBulkhead>removalListener(removal -> removeMeters(removal.getValue()))
+                .build(CacheLoader.from(this::createBulkhead));
+    }
+
+    public <T> Mono<T> execute(String url, Supplier<Mono<T>> callSupplier) {
+        WebClientProperties.Bulkhead bulkhead = webClientProperties.getBulkhead();
+        if (bulkhead == null || !bulkhead.isEnabled()) {
+            return Mono.defer(callSupplier);
+        }
+        return getBulkhead(getHost(url)).execute(callSupplier);
+    }
+
+    public HostBulkhead getBulkhead(String host) {
+        return bulkheadsByHost.getUnchecked(host).bulkhead();
+    }
+
+    private synchronized RegisteredBulkhead createBulkhead(String host) {
+        WebClientProperties.Bulkhead bulkhead = webClientProperties.getBulkhead();
+        WebClientProperties.HostLimit hostLimit = bulkhead.getHosts().get(host);
+        int maxConcurrentCalls = hostLimit != null && hostLimit.getMaxConcurrentCalls() != null
+                ? hostLimit.getMaxConcurrentCalls() : bulkhead.getMaxConcurrentCalls();
+        int maxPendingCalls = hostLimit != null && hostLimit.getMaxPendingCalls() != null
+                ? hostLimit.getMaxPendingCalls() : bulkhead.getMaxPendingCalls();
+        HostBulkhead hostBulkhead = new HostBulkhead(host, maxConcurrentCalls, maxPendingCalls);
+
+        Tags tags = Tags.of("host", host);
+        //Left over by an expired bulkhead of the host whose removal was not handled yet
+        METER_NAMES.forEach(name -> meterRegistry.find(name).tags(tags).meters().forEach(meterRegistry::remove));
+        List<Meter> meters = List.of(
+                Gauge.builder("http.client.host.in_flight", hostBulkhead, HostBulkhead::getInFlightCalls).tags(tags).register(meterRegistry),
+                Gauge.builder("http.client.host.pending", hostBulkhead, HostBulkhead::getPendingCalls).tags(tags).register(meterRegistry),
+                Gauge.builder("http.client.host.saturation", hostBulkhead, HostBulkhead::getSaturation).tags(tags).register(meterRegistry),
+                FunctionCounter.builder("http.client.host.rejected", hostBulkhead, HostBulkhead::getRejectedCalls).tags(tags).register(meterRegistry));
+        return new RegisteredBulkhead(hostBulkhead, meters);
+    }
+
+    /**
+     * Leaves the meters alone if a new bulkhead of the host registered its own in the meantime
+     */
+    private synchronized void removeMeters(RegisteredBulkhead registeredBulkhead) {
+        for (Meter meter : registeredBulkhead.meters()) {
+            if (meterRegistry.find(meter.getId().getName()).tags(meter.getId().getTagsAsIterable()).meters().stream()
+                    .anyMatch(registered -> registered == meter)) {
+                meterRegistry.remove(meter);
+            }
+        }
+    }
+
+    public static String getHost(String url) {
+        try {
+            return Objects.requireNonNullElse(URI.create(url).getHost(), "unknown");
+        } catch (IllegalArgumentException e) {
+            return "unknown";
+        }
+    }
+
+    private record RegisteredBulkhead(HostBulkhead bulkhead, List<Meter> meters) {
+    }
+}
@@ -1,11 +1,21 @@
 package com.fampay.scheduler.commons.http.client;
 
+import com.fampay.scheduler.commons.exception.InternalLibraryException;
 import com.fampay.scheduler.commons.http.dto.ApiRequest;
 import com.fampay.scheduler.commons.http.dto.ApiResponse;
 import org.springframework.stereotype.Component;
 import reactor.core.publisher.Mono;
 
+import static com.fampay.scheduler.commons.exception.LibraryErrorMessages.DEADLINE_EXCEEDED;
+
 @Component
 public interface AsyncHttpClient {
     Mono<ApiResponse> callApi(ApiRequest apiRequest);
+
+    /**
+     * @return true if the error is a call that ran out of its deadline, the host may or may not have handled it
+     */
+    static boolean isDeadlineExceeded(Throwable error) {
+        return error instanceof InternalLibraryException exception && DEADLINE_EXCEEDED.equals(exception.getMessage());
+    }
 }
@@ -1,39 +1,104 @@
 package com.fampay.scheduler.commons.http.client.impl;
 
+import com.fampay.scheduler.commons.exception.InternalLibraryException;
+import com.fampay.scheduler.commons.http.body.EncodedBody;
+import com.fampay.scheduler.commons.http.body.EncodedBodyCache;
+import com.fampay.scheduler.commons.http.breaker.EndpointCircuitBreaker;
+import com.fampay.scheduler.commons.http.breaker.EndpointCircuitBreakers;
+import com.fampay.scheduler.commons.http.bulkhead.HostBulkhead;
+import com.fampay.scheduler.commons.http.bulkhead.HostBulkheads;
 import com.fampay.scheduler.commons.http.client.AsyncHttpClient;
 import com.fampay.scheduler.commons.http.dto.ApiRequest;
 import com.fampay.scheduler.commons.http.dto.ApiResponse;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.BodyInserters;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
 
 import java.time.Duration;
 
+import static com.fampay.scheduler.commons.exception.LibraryErrorMessages.DEADLINE_EXCEEDED;
+
 @Data
 @RequiredArgsConstructor
 @Component
 public class AsyncHttpClientImpl implements AsyncHttpClient {
 
     private final WebClient webClient;
+    private final HostBulkheads hostBulkheads;
+    private final EndpointCircuitBreakers endpointCircuitBreakers;
+    private final EncodedBodyCache encodedBodyCache;
 
+    /**
+     * The call has a single deadline that every attempt runs against, waiting for a slot of the bulkhead of the
+     * target host, connecting and waiting for the response all use up the same budget and a retry only gets what
+     * is left of it. Once the deadline passes the request is cancelled, which closes its connection, and the call
+     * fails with {@code DEADLINE_EXCEEDED}.
+     * <p>
+     * Within its bulkhead slot an attempt goes through the circuit breaker of its target, errors, timeouts and 5xx
+     * responses count as failed calls. While the breaker is open the attempt fails right away with
+     * {@code CIRCUIT_OPEN}.
+     * <p>
+     * Calls rejected by a full bulkhead or an open breaker or out of time are not retried here.
+     * <p>
+     * The payload is sent as bytes encoded once per payload hash, every attempt writes them from a fresh buffer.
+     */
     @Override
     public Mono<ApiResponse> callApi(ApiRequest apiRequest) {
+        long deadline = getDeadline(apiRequest);
+        Mono<ApiResponse> exchange = Mono.defer(() -> exchange(apiRequest));
+        return Mono.defer(() -> {
+                    long remainingMs = deadline - System.currentTimeMillis();
+                    if (remainingMs <= 0) {
+                        return Mono.error(deadlineExceeded(apiRequest));
+                    }
+                    return hostBulkheads.execute(apiRequest.getUrl(), () -> endpointCircuitBreakers.execute(apiRequest.getUrl(),
+                                    () -> exchange, apiResponse -> apiResponse.getHttpStatus() >= 500))
+                            .timeout(Duration.ofMillis(remainingMs), Mono.error(() -> deadlineExceeded(apiRequest)));
+                })
+                .retryWhen(Retry.max(apiRequest.getRetries())
+                        .filter(error -> !HostBulkhead.isRejection(error) && !EndpointCircuitBreaker.isOpenRejection(error)
+                                && !AsyncHttpClient.isDeadlineExceeded(error))
+                        .onRetryExhaustedThrow((retrySpec, retrySignal) -> retrySignal.failure()));
+    }
 
+    private static long getDeadline(ApiRequest apiRequest) {
+        if (apiRequest.getDeadline() != null) {
+            return apiRequest.getDeadline();
+        }
+        long readTimeout = apiRequest.getReadTimeout() != null ? apiRequest.getReadTimeout() : ApiRequest.DEFAULT_READ_TIMEOUT_MS;
+        return System.currentTimeMillis() + readTimeout;
+    }
+
+    private static InternalLibraryException deadlineExceeded(ApiRequest apiRequest) {
+        return InternalLibraryException.childBuilder().message(DEADLINE_EXCEEDED)
+                .displayMessage("Call to " + apiRequest.getUrl() + " did not complete before its deadline").build();
+    }
+
+    private WebClient.RequestHeadersSpec<?> post(ApiRequest apiRequest) {
+        WebClient.RequestBodySpec request = webClient.post().uri(apiRequest.getUrl());
+        if (apiRequest.getPayload() == null) {
+            return request;
+        }
+        EncodedBody body = encodedBodyCache.get(apiRequest.getPayloadHash(), apiRequest.getPayload());
+        return request.contentType(body.getContentType())
+                .contentLength(body.getBytes().length)
+                .body(BodyInserters.fromDataBuffers(Mono.fromSupplier(body::toDataBuffer)));
+    }
+
+    private Mono<ApiResponse> exchange(ApiRequest apiRequest) {
         return switch (apiRequest.getHttpMethod().name()) {
-            case "POST" -> webClient.post()
-                    .uri(apiRequest.getUrl())
-                    .bodyValue(apiRequest.getPayload())
+            case "POST" -> post(apiRequest)
                     .exchangeToMono(clientResponse ->
                             clientResponse.bodyToMono(String.class)
                                     .defaultIfEmpty("")
                                     .map(body -> new ApiResponse(
                                             body,
                                             clientResponse.statusCode().value())
-                                    ))
-                    .timeout(Duration.ofSeconds(apiRequest.getReadTimeout()))
-                    .retry(apiRequest.getRetries());
+                                    ));
 
             case "GET" -> webClient.get()
                     .uri(apiRequest.getUrl())
@@ -43,9 +108,7 @@ public class AsyncHttpClientImpl implements AsyncHttpClient {
                                     .map(body -> new ApiResponse(
                                             body,
                                             clientResponse.statusCode().value())
-                                    ))
-                    .timeout(Duration.ofSeconds(apiRequest.getReadTimeout()))
-                    .retry(apiRequest.getRetries());
+                                    ));
             default -> throw new IllegalArgumentException("Unsupported http method");
         };
     }
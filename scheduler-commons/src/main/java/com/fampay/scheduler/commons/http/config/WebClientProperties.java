@@ -4,6 +4,11 @@ import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 @Configuration
 @ConfigurationProperties(prefix = "webclient")
 @Data
@@ -58,4 +63,94 @@ public class WebClientProperties {
      */
     private boolean tcpNoDelay = true;
 
+    /**
+     * Limits of the calls made to a single host, so that one slow host cannot hold every connection.
+     */
+    private Bulkhead bulkhead = new Bulkhead();
+
+    /**
+     * Fails calls to a target right away while too many of its recent calls failed or were slow.
+     */
+    private CircuitBreaker circuitBreaker = new CircuitBreaker();
+
+    /**
+     * Request bodies kept encoded for the payloads called most recently.
+     */
+    private int encodedBodyCacheSize = 10000;
+
+    @Data
+    public static class Bulkhead {
+        private boolean enabled = true;
+
+        /**
+         * Calls in flight to a host at once.
+         */
+        private int maxConcurrentCalls = 100;
+
+        /**
+         * Calls waiting for a host beyond the concurrent ones, further calls are rejected.
+         */
+        private int maxPendingCalls = 1000;
+
+        /**
+         * Time after the last call to a host its bulkhead and metrics are dropped (in milliseconds).
+         */
+        private long idleExpiryMs = 600000;
+
+        /**
+         * Limits of specific hosts, keyed by host name (use the [host.name] form for names with dots).
+         */
+        private Map<String, HostLimit> hosts = new HashMap<>();
+    }
+
+    @Data
+    public static class CircuitBreaker {
+        private boolean enabled = true;
+
+        /**
+         * Outcomes of the latest calls to a target the failure and slow call rates are taken over.
+         */
+        private int windowSize = 50;
+
+        /**
+         * Calls in the window before the rates can open the breaker.
+         */
+        private int minimumCalls = 20;
+
+        private double failureRateThreshold = 0.5;
+
+        /**
+         * Calls taking at least this long count as slow (in milliseconds).
+         */
+        private long slowCallDurationMs = 10000;
+
+        private double slowCallRateThreshold = 0.8;
+
+        /**
+         * Time an open breaker fails calls before it lets probes through (in milliseconds).
+         */
+        private long openDurationMs = 30000;
+
+        /**
+         * Probe calls let through while half open, their failure rate closes or opens the breaker again.
+         */
+        private int halfOpenProbeCalls = 5;
+
+        /**
+         * URL prefixes with a breaker of their own, other URLs share the breaker of their host.
+         */
+        private List<String> urlPrefixes = new ArrayList<>();
+
+        /**
+         * Time after the last call to a target its breaker and metrics are dropped (in milliseconds).
+         */
+        private long idleExpiryMs = 600000;
+    }
+
+    @Data
+    public static class HostLimit {
+        private Integer maxConcurrentCalls;
+        private Integer maxPendingCalls;
+    }
+
 }
\ No newline at end of file
@@ -11,9 +11,23 @@ import org.springframework.http.HttpMethod;
 @AllArgsConstructor
 @NoArgsConstructor
 public class ApiRequest {
+    public static final long DEFAULT_READ_TIMEOUT_MS = 120000L;
+
     private String url;
     private HttpMethod httpMethod;
     private Object payload;
+    /**
+     * Content hash of the payload taken when the job was created, its encoded body is reused across calls if set
+     */
+    private String payloadHash;
     private int retries=0;
-    private Long readTimeout=120000L;
+    /**
+     * Budget of the call in ms, every attempt including connecting and waiting for the host must finish within it
+     */
+    @Builder.Default
+    private Long readTimeout=DEFAULT_READ_TIMEOUT_MS;
+    /**
+     * Epoch ms by which the call must be done, readTimeout from the start of the call if not set
+     */
+    private Long deadline;
 }
@@ -0,0 +1,13 @@
+package com.fampay.scheduler.commons.mongo.codec;
+
+import org.bson.codecs.Codec;
+
+/**
+ * Codec mapping an entity straight from and to BSON. Beans of this type are picked up by {@link EntityCodecs},
+ * and reads and writes of their entity class then skip the JSON conversion of the mongo helper.
+ * <p>
+ * The codec must use the field names the JSON conversion used and must not write {@code _id}, which is set
+ * by the helper from the key.
+ */
+public interface EntityCodec<T> extends Codec<T> {
+}
@@ -0,0 +1,64 @@
+package com.fampay.scheduler.commons.mongo.codec;
+
+import com.mongodb.MongoClientSettings;
+import lombok.Getter;
+import org.bson.BsonDocument;
+import org.bson.BsonDocumentWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.EncoderContext;
+import org.bson.codecs.configuration.CodecRegistries;
+import org.bson.codecs.configuration.CodecRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Registry of the {@link EntityCodec} beans, on top of the default codecs of the driver.
+ */
+@Component
+public class EntityCodecs {
+
+    private final Map<Class<?>, Codec<?>> codecsByClass = new HashMap<>();
+
+    @Getter
+    private final CodecRegistry codecRegistry;
+
+    @Autowired
+    public EntityCodecs(ObjectProvider<EntityCodec<?>> entityCodecs) {
+        this(entityCodecs.orderedStream().toList());
+    }
+
+    public EntityCodecs(List<? extends EntityCodec<?>> entityCodecs) {
+        entityCodecs.forEach(codec -> codecsByClass.put(codec.getEncoderClass(), codec));
+        this.codecRegistry = CodecRegistries.fromRegistries(
+                CodecRegistries.fromCodecs(List.copyOf(codecsByClass.values())),
+                MongoClientSettings.getDefaultCodecRegistry());
+    }
+
+    public boolean hasCodec(Class<?> cls) {
+        return cls != null && codecsByClass.containsKey(cls);
+    }
+
+    /**
+     * @return the codec of the entity class, null if there is none
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Codec<T> getCodec(Class<T> cls) {
+        return (Codec<T>) codecsByClass.get(cls);
+    }
+
+    /**
+     * Encodes the entity with its codec, the entity class must have one.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> BsonDocument encode(T value) {
+        BsonDocument document = new BsonDocument();
+        Codec<T> codec = (Codec<T>) codecsByClass.get(value.getClass());
+        codec.encode(new BsonDocumentWriter(document), value, EncoderContext.builder().build());
+        return document;
+    }
+}
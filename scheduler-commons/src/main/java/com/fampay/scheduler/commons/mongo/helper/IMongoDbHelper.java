@@ -11,6 +11,8 @@ import org.bson.conversions.Bson;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 
 public interface IMongoDbHelper {
     IMongoDbHelper withConsistencyLevel(ConsistencyLevel consistencyLevel);
@@ -21,7 +23,19 @@ public interface IMongoDbHelper {
     void deleteOne(String collectionName, String id);
     boolean updateById(String collectionName, String key, Object valuesToUpdate);
     boolean upsertById(String collectionName, String id, Object valuesToUpdate);
+
+    /**
+     * Applies the update to the first document matching the filter as a single atomic operation.
+     * @param projection fields of the updated document to return, null for the whole document
+     * @return the document after the update, empty if no document matched
+     */
+    Optional<Document> findOneAndUpdate(String collectionName, Bson filter, Bson update, Bson projection) throws InternalLibraryException;
     MongoCollection<Document> getCollection(String collectionName);
+
+    /**
+     * Document of the value as written by the save methods, encoded by its entity codec when it has one.
+     */
+    Document toDocument(Object value);
     <T> T findById(String collectionName, String key, Class<T> cls) throws InternalLibraryException;
     <T> List<T> findAll(String collectionName, Map<String, Object> searchParams, Class<T> cls) throws InternalLibraryException;
     <T> List<T> findAllByExpression(String collectionName, String expression, Class<T> cls) throws InternalLibraryException;
@@ -30,6 +44,20 @@ public interface IMongoDbHelper {
     <T> List<T> findDistinctFromAll(String collectionName, String key, Bson bson, Class<T> cls) throws InternalLibraryException;
     <T> T findOne(String collectionName, Map<String, Object> searchParams, Class<T> cls) throws InternalLibraryException;
     <T> void executeBulkWrite(String collectionName, List<BulkOperation<Map<String, T>>> operations);
+
+    /**
+     * Unordered bulk write that does not throw on write errors.
+     * @return indexes in operations of the writes that failed, every index if the whole write failed
+     */
+    <T> Set<Integer> executeBulkWriteWithFailures(String collectionName, List<BulkOperation<Map<String, T>>> operations);
     <T> PagedResult<T> getDocumentsPaginated(String collectionName,Bson filter,Bson sort,int pageSize,List<String>cursorFields, Class<T> cls);
+
+    /**
+     * Reads every matching document through a single cursor, fetching batchSize documents per round trip, and
+     * hands them to the consumer as they arrive instead of collecting them.
+     * @param projection fields to read, null for the whole document
+     * @return number of documents read
+     */
+    long stream(String collectionName, Bson filter, Bson projection, int batchSize, Consumer<Document> consumer) throws InternalLibraryException;
     boolean isHealthy();
 }
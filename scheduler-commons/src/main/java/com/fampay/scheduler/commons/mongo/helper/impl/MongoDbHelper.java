@@ -6,17 +6,24 @@ import com.fampay.scheduler.commons.helper.utils.CommonSerializationUtil;
 import com.fampay.scheduler.commons.mongo.BulkOperation;
 import com.fampay.scheduler.commons.mongo.client.IMongoClient;
 import com.fampay.scheduler.commons.mongo.client.impl.ConsistencyLevel;
+import com.fampay.scheduler.commons.mongo.codec.EntityCodecs;
 import com.fampay.scheduler.commons.mongo.dto.PagedResult;
 import com.fampay.scheduler.commons.mongo.helper.IMongoDbHelper;
 import com.fampay.scheduler.commons.exception.LibraryErrorMessages;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.MongoException;
 import com.mongodb.ReadPreference;
+import com.mongodb.bulk.BulkWriteError;
 import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.FindIterable;
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.MongoCursor;
 import com.mongodb.client.MongoDatabase;
 import com.mongodb.client.model.BulkWriteOptions;
 import com.mongodb.client.model.DeleteOneModel;
+import com.mongodb.client.model.FindOneAndUpdateOptions;
 import com.mongodb.client.model.InsertOneModel;
+import com.mongodb.client.model.ReturnDocument;
 import com.mongodb.client.model.Sorts;
 import com.mongodb.client.model.UpdateOneModel;
 import com.mongodb.client.model.UpdateOptions;
@@ -26,7 +33,10 @@ import com.mongodb.client.result.UpdateResult;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.ObjectUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.bson.BsonValue;
 import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.Codec;
 import org.bson.conversions.Bson;
 import org.joda.time.DateTimeUtils;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -41,7 +51,11 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static com.mongodb.client.model.Filters.*;
 
@@ -53,19 +67,21 @@ public class MongoDbHelper implements IMongoDbHelper {
 
     private final IMongoClient mongoClient;
     private final ConsistencyLevel consistencyLevel;
+    private final EntityCodecs entityCodecs;
 
     @Autowired
-    public MongoDbHelper(IMongoClient mongoClient) {
-        this(mongoClient, ConsistencyLevel.STRONG);
+    public MongoDbHelper(IMongoClient mongoClient, EntityCodecs entityCodecs) {
+        this(mongoClient, ConsistencyLevel.STRONG, entityCodecs);
     }
 
-    public MongoDbHelper(IMongoClient mongoClient, ConsistencyLevel consistencyLevel) {
+    public MongoDbHelper(IMongoClient mongoClient, ConsistencyLevel consistencyLevel, EntityCodecs entityCodecs) {
         this.mongoClient = mongoClient;
         this.consistencyLevel = consistencyLevel;
+        this.entityCodecs = entityCodecs;
     }
 
     public IMongoDbHelper withConsistencyLevel(ConsistencyLevel consistencyLevel) {
-        return new MongoDbHelper(mongoClient, consistencyLevel);
+        return new MongoDbHelper(mongoClient, consistencyLevel, entityCodecs);
     }
 
     @Override
@@ -77,7 +93,7 @@ public class MongoDbHelper implements IMongoDbHelper {
         }
         try {
             MongoCollection<Document> collection = getCollection(collectionName);
-            Document document = new Document(CommonSerializationUtil.convertObjectToMap(value));
+            Document document = toDocument(value);
             document.put("_id", key);
             collection.insertOne(document);
         } catch (Exception ex) {
@@ -96,7 +112,7 @@ public class MongoDbHelper implements IMongoDbHelper {
         }
         try {
             MongoCollection<Document> collection = getCollection(collectionName);
-            Document document = new Document(CommonSerializationUtil.convertObjectToMap(value));
+            Document document = toDocument(value);
             document.put("_id", key);
             document.put("ttlCompatibleDate", new Date(DateTimeUtils.currentTimeMillis()));
             collection.insertOne(document);
@@ -118,7 +134,7 @@ public class MongoDbHelper implements IMongoDbHelper {
             MongoCollection<Document> collection = getCollection(collectionName);
             final List<Document> documents = new ArrayList<>();
             values.forEach((key, value) -> {
-                Document document = new Document(CommonSerializationUtil.convertObjectToMap(value));
+                Document document = toDocument(value);
                 document.put("_id", key);
                 documents.add(document);
             });
@@ -169,6 +185,18 @@ public class MongoDbHelper implements IMongoDbHelper {
         return updateById(collectionName, id, valuesToUpdate, true);
     }
 
+    @Override
+    public Optional<Document> findOneAndUpdate(String collectionName, Bson filter, Bson update, Bson projection) {
+        try {
+            FindOneAndUpdateOptions options = new FindOneAndUpdateOptions().returnDocument(ReturnDocument.AFTER).projection(projection);
+            return Optional.ofNullable(getCollection(collectionName).findOneAndUpdate(filter, update, options));
+        } catch (Exception ex) {
+            log.error("[MongoDb]Failed to update in database with error = ", ex);
+            throw InternalLibraryException.childBuilder().message(LibraryErrorMessages.DB_INSERT_FAILED)
+                    .displayMessage(StringUtils.isNotBlank(ex.getMessage()) ? ex.getMessage() : "Unable to update in mongoDb").build();
+        }
+    }
+
     private boolean updateById(String collectionName, String id, Object valuesToUpdate, boolean upsert) {
         boolean updateDone;
         try {
@@ -195,6 +223,41 @@ public class MongoDbHelper implements IMongoDbHelper {
         return updateDone;
     }
 
+    @Override
+    public Document toDocument(Object value) {
+        if (value != null && entityCodecs.hasCodec(value.getClass())) {
+            return new Document(entityCodecs.encode(value));
+        }
+        return new Document(CommonSerializationUtil.convertObjectToMap(value));
+    }
+
+    private <T> MongoCollection<T> getCollection(String collectionName, Class<T> cls) {
+        return getCollection(collectionName).withDocumentClass(cls).withCodecRegistry(entityCodecs.getCodecRegistry());
+    }
+
+    private <T> void findInto(String collectionName, Bson filter, Class<T> cls, List<T> result) {
+        if (entityCodecs.hasCodec(cls)) {
+            getCollection(collectionName, cls).find(filter).into(result);
+        } else {
+            getCollection(collectionName).find(filter).forEach(document -> result.add(CommonSerializationUtil.readObject(CommonSerializationUtil.writeString(document), cls)));
+        }
+    }
+
+    private static Object toJavaValue(BsonValue value) {
+        if (value == null || value.isNull()) {
+            return null;
+        }
+        return switch (value.getBsonType()) {
+            case STRING -> value.asString().getValue();
+            case INT32 -> value.asInt32().getValue();
+            case INT64 -> value.asInt64().getValue();
+            case DOUBLE -> value.asDouble().getValue();
+            case BOOLEAN -> value.asBoolean().getValue();
+            case OBJECT_ID -> value.asObjectId().getValue().toHexString();
+            default -> value;
+        };
+    }
+
     @Override
     public MongoCollection<Document> getCollection(String collectionName) {
         MongoCollection<Document> collection;
@@ -217,9 +280,13 @@ public class MongoDbHelper implements IMongoDbHelper {
     public <T> T findById(String collectionName, String key, Class<T> cls) throws InternalLibraryException {
         T result;
         try {
-            MongoCollection<Document> collection = getCollection(collectionName);
-            Document searchResult = collection.find(eq("_id", key)).first();
-            result = CommonSerializationUtil.readObject(CommonSerializationUtil.writeString(searchResult), cls);
+            if (entityCodecs.hasCodec(cls)) {
+                result = getCollection(collectionName, cls).find(eq("_id", key)).first();
+            } else {
+                MongoCollection<Document> collection = getCollection(collectionName);
+                Document searchResult = collection.find(eq("_id", key)).first();
+                result = CommonSerializationUtil.readObject(CommonSerializationUtil.writeString(searchResult), cls);
+            }
         } catch (final Exception ex) {
             log.error("[MongoDb]Failed to fetch from database for key: {} with error = ", key, ex);
             throw InternalLibraryException.childBuilder().message(LibraryErrorMessages.DB_GET_FAILED)
@@ -232,10 +299,14 @@ public class MongoDbHelper implements IMongoDbHelper {
     public <T> Optional<T> findOptionalById(String collectionName, String key, Class<T> cls) throws InternalLibraryException {
         T result = null;
         try {
-            MongoCollection<Document> collection = getCollection(collectionName);
-            Document searchResult = collection.find(eq("_id", key)).first();
-            if (Objects.nonNull(searchResult)) {
-                result = CommonSerializationUtil.readObject(CommonSerializationUtil.writeString(searchResult), cls);
+            if (entityCodecs.hasCodec(cls)) {
+                result = getCollection(collectionName, cls).find(eq("_id", key)).first();
+            } else {
+                MongoCollection<Document> collection = getCollection(collectionName);
+                Document searchResult = collection.find(eq("_id", key)).first();
+                if (Objects.nonNull(searchResult)) {
+                    result = CommonSerializationUtil.readObject(CommonSerializationUtil.writeString(searchResult), cls);
+                }
             }
         } catch (final Exception ex) {
             log.error("[MongoDb]Failed to fetch from database for key: {} with error = ", key, ex);
@@ -249,9 +320,8 @@ public class MongoDbHelper implements IMongoDbHelper {
     public <T> List<T> findAllByExpression(String collectionName, String expression, Class<T> cls) throws InternalLibraryException {
         List<T> result = new ArrayList<>();
         try {
-            MongoCollection<Document> collection = getCollection(collectionName);
             Bson filterXpr = expr(Document.parse(expression));
-            collection.find(filterXpr).forEach(document -> result.add(CommonSerializationUtil.readObject(CommonSerializationUtil.writeString(document), cls)));
+            findInto(collectionName, filterXpr, cls, result);
         } catch (final Exception ex) {
             log.error("[MongoDb]Failed to fetch from database for expression: {} with error = ", expression, ex);
             throw InternalLibraryException.childBuilder().message(LibraryErrorMessages.DB_GET_FAILED)
@@ -264,9 +334,8 @@ public class MongoDbHelper implements IMongoDbHelper {
     public <T> List<T> findAll(String collectionName, Map<String, Object> searchParams, Class<T> cls) throws InternalLibraryException {
         List<T> result = new ArrayList<>();
         try {
-            MongoCollection<Document> collection = getCollection(collectionName);
             List<Bson> search = searchParams.keySet().stream().map(key -> eq(key, searchParams.get(key))).collect(Collectors.toList());
-            collection.find(and(search)).forEach(document -> result.add(CommonSerializationUtil.readObject(CommonSerializationUtil.writeString(document), cls)));
+            findInto(collectionName, and(search), cls, result);
         } catch (final Exception ex) {
             log.error("[MongoDb]Failed to fetch all from database for searchParams: {} with error = ", searchParams, ex);
             throw InternalLibraryException.childBuilder().message(LibraryErrorMessages.DB_GET_FAILED)
@@ -279,8 +348,7 @@ public class MongoDbHelper implements IMongoDbHelper {
     public <T> List<T> findAll(String collectionName, Bson bson, Class<T> cls) throws InternalLibraryException {
         List<T> result = new ArrayList<>();
         try {
-            MongoCollection<Document> collection = getCollection(collectionName);
-            collection.find(bson).forEach(document -> result.add(CommonSerializationUtil.readObject(CommonSerializationUtil.writeString(document), cls)));
+            findInto(collectionName, bson, cls, result);
         } catch (final Exception ex) {
             log.error("[MongoDb]Failed to fetch all from database with error = ", ex);
             throw InternalLibraryException.childBuilder().message(LibraryErrorMessages.DB_GET_FAILED)
@@ -307,10 +375,14 @@ public class MongoDbHelper implements IMongoDbHelper {
     public <T> T findOne(String collectionName, Map<String, Object> searchParams, Class<T> cls) throws InternalLibraryException {
         T result;
         try {
-            MongoCollection<Document> collection = getCollection(collectionName);
             List<Bson> search = searchParams.keySet().stream().map(key -> eq(key, searchParams.get(key))).collect(Collectors.toList());
-            Document searchResult = collection.find(and(search)).first();
-            result = CommonSerializationUtil.readObject(CommonSerializationUtil.writeString(searchResult), cls);
+            if (entityCodecs.hasCodec(cls)) {
+                result = getCollection(collectionName, cls).find(and(search)).first();
+            } else {
+                MongoCollection<Document> collection = getCollection(collectionName);
+                Document searchResult = collection.find(and(search)).first();
+                result = CommonSerializationUtil.readObject(CommonSerializationUtil.writeString(searchResult), cls);
+            }
         } catch (final Exception ex) {
             log.error("[MongoDb]Failed to fetch one from database for searchParams: {} with error = ", searchParams, ex);
             throw InternalLibraryException.childBuilder().message(LibraryErrorMessages.DB_GET_FAILED)
@@ -322,9 +394,33 @@ public class MongoDbHelper implements IMongoDbHelper {
 
     @Override
     public <T> void executeBulkWrite(String collectionName, List<BulkOperation<Map<String, T>>> operations) {
-        List<WriteModel<Document>> models = new ArrayList<>();
         MongoCollection<Document> collection = getCollection(collectionName);
+        collection.bulkWrite(toWriteModels(operations), new BulkWriteOptions().ordered(false));
+    }
 
+    @Override
+    public <T> Set<Integer> executeBulkWriteWithFailures(String collectionName, List<BulkOperation<Map<String, T>>> operations) {
+        Set<Integer> failedIndexes = new TreeSet<>();
+        if (operations.isEmpty()) {
+            return failedIndexes;
+        }
+        try {
+            MongoCollection<Document> collection = getCollection(collectionName);
+            collection.bulkWrite(toWriteModels(operations), new BulkWriteOptions().ordered(false));
+        } catch (MongoBulkWriteException ex) {
+            log.error("[MongoDb]Bulk write on {} failed for {} of {} operations", collectionName, ex.getWriteErrors().size(), operations.size(), ex);
+            for (BulkWriteError writeError : ex.getWriteErrors()) {
+                failedIndexes.add(writeError.getIndex());
+            }
+        } catch (Exception ex) {
+            log.error("[MongoDb]Bulk write on {} failed for all {} operations", collectionName, operations.size(), ex);
+            IntStream.range(0, operations.size()).forEach(failedIndexes::add);
+        }
+        return failedIndexes;
+    }
+
+    private <T> List<WriteModel<Document>> toWriteModels(List<BulkOperation<Map<String, T>>> operations) {
+        List<WriteModel<Document>> models = new ArrayList<>();
         for (BulkOperation<Map<String, T>> op : operations) {
             Document filterDoc = op.getFilter() != null ? new Document(op.getFilter()) : new Document();
             Document updateDoc = op.getUpdateOrDocument() != null ? new Document(op.getUpdateOrDocument()) : null;
@@ -344,11 +440,14 @@ public class MongoDbHelper implements IMongoDbHelper {
                     break;
             }
         }
-        collection.bulkWrite(models, new BulkWriteOptions().ordered(false));
+        return models;
     }
 
     @Override
     public <T> PagedResult<T> getDocumentsPaginated(String collectionName, Bson finalFilter, Bson sorts, int pageSize, List<String> cursorList,Class<T> cls) {
+        if (entityCodecs.hasCodec(cls)) {
+            return getEntitiesPaginated(collectionName, finalFilter, sorts, pageSize, cursorList, entityCodecs.getCodec(cls));
+        }
         List<T> results = new ArrayList<>();
         List<Document> documents = new ArrayList<>();
         MongoCollection<Document> collection = getCollection(collectionName);
@@ -378,6 +477,52 @@ public class MongoDbHelper implements IMongoDbHelper {
 
     }
 
+    /**
+     * Pages are read as raw BSON and decoded by the entity codec, the cursor fields are read from the raw bytes
+     * of the last document.
+     */
+    private <T> PagedResult<T> getEntitiesPaginated(String collectionName, Bson finalFilter, Bson sorts, int pageSize, List<String> cursorList, Codec<T> codec) {
+        List<T> results = new ArrayList<>();
+        RawBsonDocument lastDoc = null;
+        try (MongoCursor<RawBsonDocument> mongoCursor = getCollection(collectionName, RawBsonDocument.class)
+                .find(finalFilter)
+                .sort(sorts)
+                .limit(pageSize + 1)
+                .iterator()) {
+            while (mongoCursor.hasNext() && results.size() < pageSize) {
+                lastDoc = mongoCursor.next();
+                results.add(lastDoc.decode(codec));
+            }
+            Map<String, Object> cursorMap = new HashMap<>();
+            if (mongoCursor.hasNext() && lastDoc != null) {
+                for (String key : cursorList) {
+                    cursorMap.put(key, toJavaValue(lastDoc.get(key)));
+                }
+                return PagedResult.<T>builder().results(results).cursorMap(cursorMap).lastPage(false).build();
+            }
+            return PagedResult.<T>builder().results(results).cursorMap(cursorMap).lastPage(true).build();
+        }
+    }
+
+    @Override
+    public long stream(String collectionName, Bson filter, Bson projection, int batchSize, Consumer<Document> consumer) throws InternalLibraryException {
+        long count = 0;
+        FindIterable<Document> findIterable = getCollection(collectionName).find(filter).batchSize(batchSize);
+        if (projection != null) {
+            findIterable = findIterable.projection(projection);
+        }
+        try (MongoCursor<Document> mongoCursor = findIterable.iterator()) {
+            while (mongoCursor.hasNext()) {
+                consumer.accept(mongoCursor.next());
+                count++;
+            }
+        } catch (final MongoException ex) {
+            log.error("[MongoDb]Failed to stream from database with error = ", ex);
+            throw InternalLibraryException.childBuilder().message(LibraryErrorMessages.DB_GET_FAILED)
+                    .displayMessage(StringUtils.isNotBlank(ex.getMessage()) ? ex.getMessage() : "Unable to stream data from mongoDb").build();
+        }
+        return count;
+    }
 
     @Override
     public boolean isHealthy() {
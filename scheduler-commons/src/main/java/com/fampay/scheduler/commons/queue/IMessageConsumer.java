@@ -30,10 +30,30 @@ public interface IMessageConsumer {
      */
     <T> List<MessageValue> receiveMessage(String queueName, Class<T> cls) throws InternalLibraryException;
 
+    /**
+     * Consume messages with the given batch size and long polling wait instead of the ones configured for the queue,
+     * a null wait time leaves the queue's own receive wait time in place
+     */
+    <T> List<MessageValue> receiveMessage(String queueName, Class<T> cls, int maxNumberOfMessages, Integer waitTimeSeconds)
+            throws InternalLibraryException;
+
     <T> List<MessageValue<T>> receiveGenericMessage(String queueName, Class<T> cls) throws InternalLibraryException;
 
     boolean deleteMessage(String queueName, String identifier) throws InternalLibraryException;
 
+    /**
+     * Delete messages in as few requests as the queue allows
+     * @return the identifiers that could not be deleted
+     */
+    List<String> deleteMessageBatch(String queueName, List<String> identifiers) throws InternalLibraryException;
+
+    /**
+     * Change the visibility timeout of received messages in as few requests as the queue allows, 0 makes them
+     * visible right away
+     * @return the identifiers whose visibility could not be changed
+     */
+    List<String> changeMessageVisibilityBatch(String queueName, List<String> identifiers, int visibilityTimeoutSeconds) throws InternalLibraryException;
+
     boolean purgeQueue(String queueName) throws InternalLibraryException;
 
     @Builder
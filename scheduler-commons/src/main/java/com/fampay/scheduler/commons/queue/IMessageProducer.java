@@ -2,12 +2,38 @@ package com.fampay.scheduler.commons.queue;
 
 import com.fampay.scheduler.commons.exception.InternalLibraryException;
 import com.fampay.scheduler.commons.helper.utils.CommonSerializationUtil;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 public interface IMessageProducer {
 
-    boolean sendMessageWithDelay(String queueName,String message,Integer delayInMs);
+    default boolean sendMessageWithDelay(String queueName,String message,Integer delayInMs) {
+        return sendMessageWithDelay(queueName, message, delayInMs, Map.of());
+    }
+
+    /**
+     * Send a message with string message attributes
+     */
+    boolean sendMessageWithDelay(String queueName,String message,Integer delayInSeconds,Map<String,String> attributes);
+
+    /**
+     * Send messages in as few requests as the queue allows, every entry with its own delay.
+     * Entry ids must be unique within the call, the result tells which of them were accepted.
+     */
+    BatchResult sendMessageBatch(String queueName, List<BatchEntry> entries) throws InternalLibraryException;
+
+    /**
+     * Approximate number of messages visible on the queue, i.e. waiting to be received
+     */
+    long getApproximateBacklog(String queueName) throws InternalLibraryException;
+
     /**
      * Send a message
      */
@@ -37,4 +63,29 @@ public interface IMessageProducer {
      */
     void stop();
 
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Data
+    public static class BatchEntry {
+        private String id;
+        private String message;
+        private Integer delayInSeconds;
+        /**
+         * String message attributes, null for none
+         */
+        private Map<String,String> attributes;
+    }
+
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Data
+    public static class BatchResult {
+        @Builder.Default
+        private List<String> successfulIds = new ArrayList<>();
+        @Builder.Default
+        private List<String> failedIds = new ArrayList<>();
+    }
+
 }
\ No newline at end of file
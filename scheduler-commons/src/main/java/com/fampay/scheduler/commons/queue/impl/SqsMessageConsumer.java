@@ -6,6 +6,13 @@ import com.amazonaws.auth.AWSStaticCredentialsProvider;
 import com.amazonaws.auth.BasicAWSCredentials;
 import com.amazonaws.services.sqs.AmazonSQS;
 import com.amazonaws.services.sqs.AmazonSQSClientBuilder;
+import com.amazonaws.services.sqs.model.BatchResultErrorEntry;
+import com.amazonaws.services.sqs.model.ChangeMessageVisibilityBatchRequest;
+import com.amazonaws.services.sqs.model.ChangeMessageVisibilityBatchRequestEntry;
+import com.amazonaws.services.sqs.model.ChangeMessageVisibilityBatchResult;
+import com.amazonaws.services.sqs.model.DeleteMessageBatchRequest;
+import com.amazonaws.services.sqs.model.DeleteMessageBatchRequestEntry;
+import com.amazonaws.services.sqs.model.DeleteMessageBatchResult;
 import com.amazonaws.services.sqs.model.DeleteMessageRequest;
 import com.amazonaws.services.sqs.model.DeleteMessageResult;
 import com.amazonaws.services.sqs.model.GetQueueAttributesRequest;
@@ -40,6 +47,8 @@ import static com.fampay.scheduler.commons.exception.LibraryErrorMessages.UNKNOW
 @Qualifier("sqs")
 public class SqsMessageConsumer implements IMessageConsumer, DisposableBean {
 
+    private static final int MAX_BATCH_ENTRIES = 10;
+
     private AmazonSQS sqsClient;
     private final SqsConfiguration config;
 
@@ -71,7 +80,16 @@ public class SqsMessageConsumer implements IMessageConsumer, DisposableBean {
 
     @Override
     public <T> List<MessageValue> receiveMessage(String queueName, Class<T> cls) throws InternalLibraryException {
-        return receiveGenericMessage(queueName, cls).stream().map(message -> MessageValue.builder()
+        SqsConfiguration.MessageQueue queueConfig = validateAndGetConfig(queueName);
+        return receiveMessage(queueName, cls, queueConfig.getConsumerSetting().getMaxNumberOfMessages(),
+                queueConfig.getConsumerSetting().getWaitTimeInSeconds());
+    }
+
+    @Override
+    public <T> List<MessageValue> receiveMessage(String queueName, Class<T> cls, int maxNumberOfMessages,
+                                                 Integer waitTimeSeconds) throws InternalLibraryException {
+        return receiveGenericMessage(queueName, cls, maxNumberOfMessages, waitTimeSeconds).stream().map(message -> MessageValue.builder()
+                .rawMessage(message.getRawMessage())
                 .receiptHandle(message.getReceiptHandle())
                 .message(message.getMessage())
                 .build()).collect(Collectors.toList());
@@ -80,13 +98,20 @@ public class SqsMessageConsumer implements IMessageConsumer, DisposableBean {
     @Override
     public <T> List<MessageValue<T>> receiveGenericMessage(String queueName, Class<T> cls) throws InternalLibraryException {
         SqsConfiguration.MessageQueue queueConfig = validateAndGetConfig(queueName);
+        return receiveGenericMessage(queueName, cls, queueConfig.getConsumerSetting().getMaxNumberOfMessages(),
+                queueConfig.getConsumerSetting().getWaitTimeInSeconds());
+    }
+
+    private <T> List<MessageValue<T>> receiveGenericMessage(String queueName, Class<T> cls, int maxNumberOfMessages,
+                                                            Integer waitTimeSeconds) throws InternalLibraryException {
+        SqsConfiguration.MessageQueue queueConfig = validateAndGetConfig(queueName);
 
         ReceiveMessageRequest consumerRequest = new ReceiveMessageRequest()
                 .withQueueUrl(queueConfig.getTopicQueueUrl())
                 .withMessageAttributeNames("All");
-        consumerRequest.setMaxNumberOfMessages(queueConfig.getConsumerSetting().getMaxNumberOfMessages());
-        if(Objects.nonNull(queueConfig.getConsumerSetting().getWaitTimeInSeconds())) {
-            consumerRequest.setWaitTimeSeconds(queueConfig.getConsumerSetting().getWaitTimeInSeconds());
+        consumerRequest.setMaxNumberOfMessages(maxNumberOfMessages);
+        if(Objects.nonNull(waitTimeSeconds)) {
+            consumerRequest.setWaitTimeSeconds(waitTimeSeconds);
         }
 
         List<MessageValue<T>> mappedMessages = new ArrayList<>();
@@ -132,6 +157,60 @@ public class SqsMessageConsumer implements IMessageConsumer, DisposableBean {
         return messageDeleted;
     }
 
+    @Override
+    public List<String> deleteMessageBatch(String queueName, List<String> identifiers) throws InternalLibraryException {
+        SqsConfiguration.MessageQueue queueConfig = validateAndGetConfig(queueName);
+
+        List<String> failedIdentifiers = new ArrayList<>();
+        for (int from = 0; from < identifiers.size(); from += MAX_BATCH_ENTRIES) {
+            List<String> chunk = identifiers.subList(from, Math.min(from + MAX_BATCH_ENTRIES, identifiers.size()));
+            List<DeleteMessageBatchRequestEntry> requestEntries = new ArrayList<>(chunk.size());
+            for (int i = 0; i < chunk.size(); i++) {
+                requestEntries.add(new DeleteMessageBatchRequestEntry(String.valueOf(i), chunk.get(i)));
+            }
+            try {
+                DeleteMessageBatchResult result = sqsClient.deleteMessageBatch(
+                        new DeleteMessageBatchRequest(queueConfig.getTopicQueueUrl(), requestEntries));
+                for (BatchResultErrorEntry errorEntry : result.getFailed()) {
+                    log.error("Failed to delete message in batch, code: {} message: {}", errorEntry.getCode(), errorEntry.getMessage());
+                    failedIdentifiers.add(chunk.get(Integer.parseInt(errorEntry.getId())));
+                }
+            } catch (Exception ex) {
+                log.error("Error deleting batch of size {} from queue:{}", chunk.size(), queueName, ex);
+                failedIdentifiers.addAll(chunk);
+            }
+        }
+        return failedIdentifiers;
+    }
+
+    @Override
+    public List<String> changeMessageVisibilityBatch(String queueName, List<String> identifiers, int visibilityTimeoutSeconds) throws InternalLibraryException {
+        SqsConfiguration.MessageQueue queueConfig = validateAndGetConfig(queueName);
+
+        List<String> failedIdentifiers = new ArrayList<>();
+        for (int from = 0; from < identifiers.size(); from += MAX_BATCH_ENTRIES) {
+            List<String> chunk = identifiers.subList(from, Math.min(from + MAX_BATCH_ENTRIES, identifiers.size()));
+            List<ChangeMessageVisibilityBatchRequestEntry> requestEntries = new ArrayList<>(chunk.size());
+            for (int i = 0; i < chunk.size(); i++) {
+                requestEntries.add(new ChangeMessageVisibilityBatchRequestEntry(String.valueOf(i), chunk.get(i))
+                        .withVisibilityTimeout(visibilityTimeoutSeconds));
+            }
+            try {
+                ChangeMessageVisibilityBatchResult result = sqsClient.changeMessageVisibilityBatch(
+                        new ChangeMessageVisibilityBatchRequest(queueConfig.getTopicQueueUrl(), requestEntries));
+                for (BatchResultErrorEntry errorEntry : result.getFailed()) {
+                    log.warn("Failed to change message visibility in batch, code: {} message: {}", errorEntry.getCode(), errorEntry.getMessage());
+                    failedIdentifiers.add(chunk.get(Integer.parseInt(errorEntry.getId())));
+                }
+            } catch (Exception ex) {
+                log.error("Error changing visibility of batch of size {} on queue:{}", chunk.size(), queueName, ex);
+                throw InternalLibraryException.childBuilder().message(UNKNOWN_ERROR)
+                        .displayMessage(ex.getMessage()).build();
+            }
+        }
+        return failedIdentifiers;
+    }
+
     @Override
     public boolean purgeQueue(String queueName) throws InternalLibraryException {
         SqsConfiguration.MessageQueue queueConfig = validateAndGetConfig(queueName);
@@ -5,6 +5,15 @@ import com.amazonaws.auth.AWSStaticCredentialsProvider;
 import com.amazonaws.auth.BasicAWSCredentials;
 import com.amazonaws.services.sqs.AmazonSQS;
 import com.amazonaws.services.sqs.AmazonSQSClientBuilder;
+import com.amazonaws.services.sqs.model.BatchResultErrorEntry;
+import com.amazonaws.services.sqs.model.GetQueueAttributesRequest;
+import com.amazonaws.services.sqs.model.GetQueueAttributesResult;
+import com.amazonaws.services.sqs.model.MessageAttributeValue;
+import com.amazonaws.services.sqs.model.QueueAttributeName;
+import com.amazonaws.services.sqs.model.SendMessageBatchRequest;
+import com.amazonaws.services.sqs.model.SendMessageBatchRequestEntry;
+import com.amazonaws.services.sqs.model.SendMessageBatchResult;
+import com.amazonaws.services.sqs.model.SendMessageBatchResultEntry;
 import com.amazonaws.services.sqs.model.SendMessageRequest;
 import com.amazonaws.services.sqs.model.SendMessageResult;
 import com.fampay.scheduler.commons.exception.InternalLibraryException;
@@ -17,6 +26,11 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 
 import static com.fampay.scheduler.commons.exception.LibraryErrorMessages.CONFIG_MISSING;
@@ -27,6 +41,12 @@ import static com.fampay.scheduler.commons.queue.config.SqsConfiguration.QueueTy
 @Qualifier("sqs")
 public class SqsMessageProducer implements IMessageProducer, DisposableBean {
 
+    /**
+     * SQS limits of a single SendMessageBatch request
+     */
+    private static final int MAX_BATCH_ENTRIES = 10;
+    private static final int MAX_BATCH_PAYLOAD_BYTES = 262_144;
+
     private AmazonSQS sqsClient;
     private final SqsConfiguration config;
 
@@ -57,7 +77,7 @@ public class SqsMessageProducer implements IMessageProducer, DisposableBean {
     }
 
     @Override
-    public boolean sendMessageWithDelay(String queueName,String message, Integer delayInSeconds) {
+    public boolean sendMessageWithDelay(String queueName,String message, Integer delayInSeconds, Map<String,String> attributes) {
         if(!config.getQueues().containsKey(queueName)) {
             throw InternalLibraryException.childBuilder().message(CONFIG_MISSING)
                     .displayMessage("Queue Config missing").build();
@@ -66,6 +86,7 @@ public class SqsMessageProducer implements IMessageProducer, DisposableBean {
         SqsConfiguration.MessageQueue queueConfig = config.getQueues().get(queueName);
         SendMessageRequest publishRequest = new SendMessageRequest(queueConfig.getTopicQueueUrl(), message);
         publishRequest.setDelaySeconds(delayInSeconds);
+        publishRequest.setMessageAttributes(toMessageAttributes(attributes));
 
         try {
             SendMessageResult publishResult = sqsClient.sendMessage(publishRequest);
@@ -81,6 +102,91 @@ public class SqsMessageProducer implements IMessageProducer, DisposableBean {
         return messageSent;
     }
 
+    @Override
+    public BatchResult sendMessageBatch(String queueName, List<BatchEntry> entries) throws InternalLibraryException {
+        if(!config.getQueues().containsKey(queueName)) {
+            throw InternalLibraryException.childBuilder().message(CONFIG_MISSING)
+                    .displayMessage("Queue Config missing").build();
+        }
+        SqsConfiguration.MessageQueue queueConfig = config.getQueues().get(queueName);
+        BatchResult batchResult = BatchResult.builder().build();
+        List<BatchEntry> chunk = new ArrayList<>(MAX_BATCH_ENTRIES);
+        int chunkBytes = 0;
+        for (BatchEntry entry : entries) {
+            int entryBytes = entry.getMessage().getBytes(StandardCharsets.UTF_8).length + attributeBytes(entry.getAttributes());
+            if (!chunk.isEmpty() && (chunk.size() == MAX_BATCH_ENTRIES || chunkBytes + entryBytes > MAX_BATCH_PAYLOAD_BYTES)) {
+                sendChunk(queueConfig, chunk, batchResult);
+                chunk = new ArrayList<>(MAX_BATCH_ENTRIES);
+                chunkBytes = 0;
+            }
+            chunk.add(entry);
+            chunkBytes += entryBytes;
+        }
+        if (!chunk.isEmpty()) {
+            sendChunk(queueConfig, chunk, batchResult);
+        }
+        return batchResult;
+    }
+
+    private static Map<String, MessageAttributeValue> toMessageAttributes(Map<String, String> attributes) {
+        Map<String, MessageAttributeValue> messageAttributes = new HashMap<>();
+        if (attributes != null) {
+            attributes.forEach((name, value) -> messageAttributes.put(name,
+                    new MessageAttributeValue().withDataType("String").withStringValue(value)));
+        }
+        return messageAttributes;
+    }
+
+    /**
+     * Attribute names, types and values count towards the message size
+     */
+    private static int attributeBytes(Map<String, String> attributes) {
+        int bytes = 0;
+        if (attributes != null) {
+            for (Map.Entry<String, String> attribute : attributes.entrySet()) {
+                bytes += attribute.getKey().getBytes(StandardCharsets.UTF_8).length + "String".length()
+                        + attribute.getValue().getBytes(StandardCharsets.UTF_8).length;
+            }
+        }
+        return bytes;
+    }
+
+    private void sendChunk(SqsConfiguration.MessageQueue queueConfig, List<BatchEntry> chunk, BatchResult batchResult) {
+        List<SendMessageBatchRequestEntry> requestEntries = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            // positional ids as caller ids are not guaranteed to fit the SQS batch entry id format
+            requestEntries.add(new SendMessageBatchRequestEntry(String.valueOf(i), chunk.get(i).getMessage())
+                    .withDelaySeconds(chunk.get(i).getDelayInSeconds())
+                    .withMessageAttributes(toMessageAttributes(chunk.get(i).getAttributes())));
+        }
+        try {
+            SendMessageBatchResult sendResult = sqsClient.sendMessageBatch(
+                    new SendMessageBatchRequest(queueConfig.getTopicQueueUrl(), requestEntries));
+            for (SendMessageBatchResultEntry resultEntry : sendResult.getSuccessful()) {
+                batchResult.getSuccessfulIds().add(chunk.get(Integer.parseInt(resultEntry.getId())).getId());
+            }
+            for (BatchResultErrorEntry errorEntry : sendResult.getFailed()) {
+                log.error("Failed to send message in batch, code: {} message: {}", errorEntry.getCode(), errorEntry.getMessage());
+                batchResult.getFailedIds().add(chunk.get(Integer.parseInt(errorEntry.getId())).getId());
+            }
+        } catch (Exception ex) {
+            log.error("Failed to send message batch of size {}", chunk.size(), ex);
+            chunk.forEach(entry -> batchResult.getFailedIds().add(entry.getId()));
+        }
+    }
+
+    @Override
+    public long getApproximateBacklog(String queueName) throws InternalLibraryException {
+        if(!config.getQueues().containsKey(queueName)) {
+            throw InternalLibraryException.childBuilder().message(CONFIG_MISSING)
+                    .displayMessage("Queue Config missing").build();
+        }
+        GetQueueAttributesResult attributes = sqsClient.getQueueAttributes(
+                new GetQueueAttributesRequest(config.getQueues().get(queueName).getTopicQueueUrl())
+                        .withAttributeNames(QueueAttributeName.ApproximateNumberOfMessages));
+        return Long.parseLong(attributes.getAttributes().get(QueueAttributeName.ApproximateNumberOfMessages.toString()));
+    }
+
     @Override
     public boolean send(String queueName, String key, String deduplicationId, String message) throws InternalLibraryException {
 
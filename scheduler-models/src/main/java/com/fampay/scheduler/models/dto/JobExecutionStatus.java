@@ -6,7 +6,11 @@ public enum JobExecutionStatus {
     SCHEDULED,
     STARTED,
     FAILED,
-    FINISHED;
+    FINISHED,
+    /**
+     * The call ran out of its deadline, the target may or may not have handled it
+     */
+    TIMED_OUT;
 
 
     public static JobExecutionStatus from(String s) {
@@ -19,7 +23,7 @@ public enum JobExecutionStatus {
     }
 
     public static boolean isTerminalState(JobExecutionStatus jobExecutionStatus) {
-        return jobExecutionStatus== FINISHED || jobExecutionStatus == FAILED;
+        return jobExecutionStatus== FINISHED || jobExecutionStatus == FAILED || jobExecutionStatus == TIMED_OUT;
     }
 
     public static boolean hasStartedBefore(JobExecutionStatus jobExecutionStatus) {
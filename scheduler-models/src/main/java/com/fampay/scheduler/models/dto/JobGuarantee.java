@@ -1,6 +1,20 @@
 package com.fampay.scheduler.models.dto;
 
 public enum JobGuarantee {
-    ATLEAST_ONCE,
-    ATMOST_ONE;
+    //a started execution may be claimed again by its next attempt, or by a redelivery once the claim lease ran out
+    ATLEAST_ONCE(true),
+    ATMOST_ONE(false);
+
+    private final boolean reclaimable;
+
+    JobGuarantee(boolean reclaimable) {
+        this.reclaimable = reclaimable;
+    }
+
+    /**
+     * Whether a STARTED execution can be claimed again, a SCHEDULED one can always be claimed
+     */
+    public boolean isReclaimable() {
+        return reclaimable;
+    }
 }
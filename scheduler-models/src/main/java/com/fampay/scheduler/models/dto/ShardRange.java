@@ -0,0 +1,51 @@
+package com.fampay.scheduler.models.dto;
+
+import com.google.common.hash.Hashing;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Jobs are hashed into a fixed number of buckets at creation time, a producer shard owns a contiguous range of
+ * buckets. Keeping the bucket count fixed means the shard count can change without rewriting any job.
+ */
+@Getter
+@ToString
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class ShardRange {
+
+    public static final int BUCKET_COUNT = 1024;
+
+    private final int shardIndex;
+    /**
+     * Inclusive
+     */
+    private final int fromBucket;
+    /**
+     * Exclusive
+     */
+    private final int toBucket;
+
+    public static ShardRange of(int shardIndex, int shardCount) {
+        if (shardCount <= 0 || shardCount > BUCKET_COUNT || shardIndex < 0 || shardIndex >= shardCount) {
+            throw new IllegalArgumentException("Invalid shard " + shardIndex + " of " + shardCount);
+        }
+        return new ShardRange(shardIndex, shardIndex * BUCKET_COUNT / shardCount,
+                (shardIndex + 1) * BUCKET_COUNT / shardCount);
+    }
+
+    public static int bucketOf(String jobId) {
+        return Math.floorMod(Hashing.murmur3_32_fixed().hashString(jobId, StandardCharsets.UTF_8).asInt(), BUCKET_COUNT);
+    }
+
+    /**
+     * Jobs created before sharding have no bucket until their next run is updated, until then they are owned by the
+     * shard holding bucket 0.
+     */
+    public boolean ownsUnassignedJobs() {
+        return fromBucket == 0;
+    }
+}
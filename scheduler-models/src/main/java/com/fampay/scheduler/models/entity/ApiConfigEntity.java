@@ -13,5 +13,14 @@ public class ApiConfigEntity {
     private String url;
     private String httpMethod;
     private Object payload;
+    /**
+     * Content hash of the encoded payload, consumers keep one encoded body per hash
+     */
+    private String payloadHash;
     private Long readTimeoutMs;
+    private Integer maxRetries;
+    /**
+     * Executions due at the same time for the same url are delivered to the endpoint in one call
+     */
+    private boolean batchDelivery;
 }
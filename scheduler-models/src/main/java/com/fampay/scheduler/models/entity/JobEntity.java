@@ -15,7 +15,16 @@ public class JobEntity {
     private ApiConfigEntity apiConfig;
     private String type;
     private Long nextScheduledTime;
+    /**
+     * Bucket used to assign the job to a producer shard, see {@link com.fampay.scheduler.models.dto.ShardRange}
+     */
+    private Integer shardKey;
     private boolean active;
+    /**
+     * Version of the job definition, set once when the job is created as definitions are never changed. Jobs
+     * written before it have none and are always produced as full messages
+     */
+    private Long version;
     private Long createdAt;
     private Long updatedAt;
 
@@ -12,6 +12,7 @@ import lombok.NoArgsConstructor;
 public class JobExecutionAttemptEntity {
     private String runId;
     private String executionId;
+    private Integer attempt;
     private Long startTime;
     private Long endTime;
     private String status;
@@ -13,10 +13,26 @@ public class JobExecutionEntity {
     private String executionId;
     private long scheduledRunAt;
     private String jobId;
+    /**
+     * Bucket of the job, see {@link com.fampay.scheduler.models.dto.ShardRange}
+     */
+    private Integer shardKey;
     private String status;
     private Long startTime;
     private Long endTime;
+    /**
+     * Attempt that holds the current claim
+     */
+    private Integer attempt;
+    /**
+     * End of the current claim, a redelivered message of the same attempt can only claim the execution after it
+     */
+    private Long claimedUntil;
     private long createdAt;
     private long updatedAt;
+    /**
+     * When the execution was handed to the job queue, null while it waits for the queue delay window
+     */
+    private Long enqueuedAt;
     private JobExecutionResponse executionResponse;
 }
\ No newline at end of file
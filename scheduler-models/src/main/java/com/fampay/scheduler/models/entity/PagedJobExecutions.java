@@ -0,0 +1,19 @@
+package com.fampay.scheduler.models.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class PagedJobExecutions {
+    List<JobExecutionEntity> jobExecutionEntities;
+    Long nextScheduledRunAt;
+    String nextExecutionId;
+    boolean last;
+}
@@ -13,5 +13,17 @@ public class ApiConfig {
     private String url;
     private String httpMethod;
     private Object payload;
+    /**
+     * Content hash of the payload taken when the job was created, null for jobs created before it was
+     */
+    private String payloadHash;
     private Long readTimeoutMs;
+    /**
+     * Attempts after the first one a failed call gets, the consumer default if not set
+     */
+    private Integer maxRetries;
+    /**
+     * The consumer delivers the execution together with the others due at the same time for the same url
+     */
+    private boolean batchDelivery;
 }
@@ -0,0 +1,62 @@
+package com.fampay.scheduler.models.queue;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Base64;
+
+/**
+ * Encodes job messages into queue message bodies and back. JSON bodies are the same as the ones written through
+ * CommonSerializationUtil, CBOR bodies drop the field names by writing every object as an array in a fixed order.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class JobMessageCodec {
+
+    private static final ObjectMapper JSON_MAPPER = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private static final ObjectMapper CBOR_V1_MAPPER = CBORMapper.builder()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
+            .addMixIn(JobMessagePayload.class, JobMessagePayloadV1.class)
+            .addMixIn(ApiConfig.class, ApiConfigV1.class)
+            .build();
+
+    public static String encode(JobMessagePayload jobMessagePayload, JobMessageFormat jobMessageFormat) {
+        try {
+            return switch (jobMessageFormat) {
+                case JSON -> JSON_MAPPER.writeValueAsString(jobMessagePayload);
+                case CBOR_V1 -> Base64.getEncoder().encodeToString(CBOR_V1_MAPPER.writeValueAsBytes(jobMessagePayload));
+            };
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static JobMessagePayload decode(String body, JobMessageFormat jobMessageFormat) {
+        try {
+            return switch (jobMessageFormat) {
+                case JSON -> JSON_MAPPER.readValue(body, JobMessagePayload.class);
+                case CBOR_V1 -> CBOR_V1_MAPPER.readValue(Base64.getDecoder().decode(body), JobMessagePayload.class);
+            };
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @JsonFormat(shape = JsonFormat.Shape.ARRAY)
+    @JsonPropertyOrder({"executionId", "jobId", "jobVersion", "scheduledRunAt", "type", "apiConfig", "createdAt", "updatedAt", "attempt"})
+    private abstract static class JobMessagePayloadV1 {
+    }
+
+    @JsonFormat(shape = JsonFormat.Shape.ARRAY)
+    @JsonPropertyOrder({"url", "httpMethod", "payload", "readTimeoutMs", "maxRetries", "payloadHash", "batchDelivery"})
+    private abstract static class ApiConfigV1 {
+    }
+}
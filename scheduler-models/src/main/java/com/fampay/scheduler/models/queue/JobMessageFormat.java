@@ -0,0 +1,43 @@
+package com.fampay.scheduler.models.queue;
+
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Encoding of a queued {@link JobMessagePayload}, carried in the {@link #ATTRIBUTE_NAME} message attribute. A message
+ * without the attribute is JSON, so messages of both formats can be on the queue while producers switch over.
+ */
+public enum JobMessageFormat {
+    JSON("json"),
+    /**
+     * CBOR with the fields written by position, base64 framed. Fields may only be appended, any other change to the
+     * layout is a new version.
+     */
+    CBOR_V1("cbor-v1");
+
+    public static final String ATTRIBUTE_NAME = "format";
+
+    private final String value;
+
+    JobMessageFormat(String value) {
+        this.value = value;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    /**
+     * @return the format with the attribute value, JSON if the attribute is missing
+     */
+    public static JobMessageFormat from(String value) {
+        if (StringUtils.isBlank(value)) {
+            return JSON;
+        }
+        for (JobMessageFormat jobMessageFormat : values()) {
+            if (jobMessageFormat.value.equals(value)) {
+                return jobMessageFormat;
+            }
+        }
+        throw new IllegalArgumentException("Unknown job message format " + value);
+    }
+}
@@ -1,6 +1,7 @@
 package com.fampay.scheduler.models.queue;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -11,12 +12,26 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 @NoArgsConstructor
 @JsonIgnoreProperties(ignoreUnknown = true)
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class JobMessagePayload {
     private String executionId;
     private long scheduledRunAt;
     private String jobId;
+    /**
+     * Version of the job the message was produced from, set on slim messages
+     */
+    private Long jobVersion;
+    /**
+     * Left out of slim messages, the consumer resolves type and apiConfig from the job definition
+     */
     private String type;
     private ApiConfig apiConfig;
+    /**
+     * Attempt of the execution the message is for, starting at 1 and left out of the first attempt
+     */
+    private Integer attempt;
+    @JsonInclude(JsonInclude.Include.NON_DEFAULT)
     private long createdAt;
+    @JsonInclude(JsonInclude.Include.NON_DEFAULT)
     private long updatedAt;
 }
@@ -1,19 +1,40 @@
 package com.fampay.scheduler.repository;
 
 
+import com.fampay.scheduler.models.dto.ShardRange;
 import com.fampay.scheduler.models.entity.JobEntity;
 import com.fampay.scheduler.models.entity.PagedJobs;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 
 public interface JobDao {
     void createJob(JobEntity jobEntity);
     Optional<JobEntity> getJobById(String jobId);
+    List<JobEntity> getJobsByIds(Collection<String> jobIds);
     Optional<JobEntity> getJobByCorrelationId(String correlationId);
     List<JobEntity> getJobsScheduledBetween(long startTimestamp,long endTimestamp);
     List<JobEntity> getJobsScheduledBefore(long endTimestamp);
     void updateNextRunForJob(String id,Long nextTimestamp);
+
+    /**
+     * Updates the next run of many jobs in one unordered bulk write.
+     * @return ids of the jobs which could not be updated
+     */
+    Set<String> updateNextRunForJobs(Map<String,Long> nextTimestampByJobId);
     PagedJobs getJobsPaginated(long startTimestamp, long endTimestamp, int pagesize, Long lastNextScheduledTimestamp, String lastJobId);
+    PagedJobs getJobsPaginated(long startTimestamp, long endTimestamp, int pagesize, Long lastNextScheduledTimestamp, String lastJobId, ShardRange shardRange);
+
+    /**
+     * Streams the jobs due in the window through one cursor, in no particular order. Only the fields needed to
+     * produce executions are read: id, schedule, nextScheduledTime, type, apiConfig and version.
+     * @param shardRange Buckets of jobs to read, null to read every job
+     * @return number of jobs read
+     */
+    long streamJobsScheduledBetween(long startTimestamp, long endTimestamp, ShardRange shardRange, int batchSize, Consumer<JobEntity> consumer);
 
 }
@@ -4,9 +4,16 @@ import com.fampay.scheduler.models.entity.JobExecutionAttemptEntity;
 import com.fampay.scheduler.repository.dto.UpdateJobExecutionAttemptDto;
 
 import java.util.List;
+import java.util.Set;
 
 public interface JobExecutionAttemptDao {
     void createJobExecutionAttempt(JobExecutionAttemptEntity jobExecutionAttemptEntity);
+
+    /**
+     * Writes the attempts with one unordered bulk write, an attempt whose runId is already written is left as is.
+     * @return runIds of the attempts which could not be written
+     */
+    Set<String> createJobExecutionAttemptsInBulk(List<JobExecutionAttemptEntity> jobExecutionAttemptEntities);
     void updateJobExecutionAttempt(String runId,UpdateJobExecutionAttemptDto updateJobExecutionAttemptDto);
     List<JobExecutionAttemptEntity> findByJobExecutionId(String executionId);
 }
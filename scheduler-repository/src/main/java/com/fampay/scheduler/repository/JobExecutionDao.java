@@ -1,13 +1,51 @@
 package com.fampay.scheduler.repository;
 
+import com.fampay.scheduler.models.dto.JobGuarantee;
+import com.fampay.scheduler.models.dto.ShardRange;
 import com.fampay.scheduler.models.entity.JobExecutionEntity;
+import com.fampay.scheduler.models.entity.PagedJobExecutions;
 import com.fampay.scheduler.repository.dto.UpdateJobExecutionDto;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 public interface JobExecutionDao {
     void createMultipleJobExecutions(List<JobExecutionEntity> jobExecutionEntities);
+
+    /**
+     * Same as createMultipleJobExecutions but does not fail the whole batch on a write error.
+     * @return execution ids which could not be written
+     */
+    Set<String> createJobExecutionsInBulk(List<JobExecutionEntity> jobExecutionEntities);
     void updateJobExecutionStatus(String executionId,UpdateJobExecutionDto updateJobExecutionDto);
+
+    /**
+     * Applies the updates with one unordered bulk write, the updatedAt of each update is kept as given.
+     * @return execution ids whose update could not be written
+     */
+    Set<String> updateJobExecutionStatusesInBulk(Map<String, UpdateJobExecutionDto> updatesByExecutionId);
+
+    /**
+     * Moves the execution to STARTED with one conditional update. A SCHEDULED execution can always be claimed, a
+     * STARTED one only if the guarantee is reclaimable and either a later attempt claims it or its claim lease ran out.
+     * @param leaseMs how long the claim keeps redeliveries of the same attempt out
+     * @return true if this caller won the claim, false if the execution is missing, held by another claim or completed
+     */
+    boolean claimExecution(String executionId, JobGuarantee jobGuarantee, int attempt, long startTime, long leaseMs);
     Optional<JobExecutionEntity> findByExecutionId(String executionId);
     List<JobExecutionEntity> findCompletedJobExecutionsByJobId(String jobId, int limit);
+
+    /**
+     * Pages through the SCHEDULED executions not handed to the queue yet that are due up to the given time, overdue
+     * ones included, ordered by scheduledRunAt and id.
+     * @param shardRange Buckets of executions to read, null to read every execution
+     */
+    PagedJobExecutions getUnqueuedExecutionsPaginated(long dueBefore, int pageSize, Long lastScheduledRunAt, String lastExecutionId, ShardRange shardRange);
+
+    /**
+     * @param enqueuedAt time the executions were handed to the queue, null to return them to the unqueued ones
+     */
+    void setEnqueuedAt(Collection<String> executionIds, Long enqueuedAt);
 }
@@ -0,0 +1,163 @@
+package com.fampay.scheduler.repository.codec;
+
+import com.mongodb.MongoClientSettings;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.EncoderContext;
+import org.bson.codecs.configuration.CodecRegistry;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Readers and writers of the field types used by the entity codecs. Nulls are written explicitly and numbers
+ * are read whatever their stored width, as the JSON conversion did.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+final class BsonFields {
+
+    static final String ID = "_id";
+
+    private static final CodecRegistry DEFAULT_REGISTRY = MongoClientSettings.getDefaultCodecRegistry();
+
+    static String readString(BsonReader reader) {
+        BsonType type = reader.getCurrentBsonType();
+        if (type == BsonType.NULL) {
+            reader.readNull();
+            return null;
+        }
+        if (type == BsonType.OBJECT_ID) {
+            return reader.readObjectId().toHexString();
+        }
+        return reader.readString();
+    }
+
+    static Long readLong(BsonReader reader) {
+        return switch (reader.getCurrentBsonType()) {
+            case NULL -> {
+                reader.readNull();
+                yield null;
+            }
+            case INT32 -> (long) reader.readInt32();
+            case DOUBLE -> (long) reader.readDouble();
+            default -> reader.readInt64();
+        };
+    }
+
+    static long readLong(BsonReader reader, long defaultValue) {
+        Long value = readLong(reader);
+        return value != null ? value : defaultValue;
+    }
+
+    static Integer readInteger(BsonReader reader) {
+        Long value = readLong(reader);
+        return value != null ? value.intValue() : null;
+    }
+
+    static boolean readBoolean(BsonReader reader) {
+        if (reader.getCurrentBsonType() == BsonType.NULL) {
+            reader.readNull();
+            return false;
+        }
+        return reader.readBoolean();
+    }
+
+    /**
+     * Reads a free form value the way the JSON conversion mapped it to {@link Object}: documents as maps,
+     * arrays as lists and numbers as integers when they fit.
+     */
+    static Object readValue(BsonReader reader) {
+        switch (reader.getCurrentBsonType()) {
+            case NULL -> {
+                reader.readNull();
+                return null;
+            }
+            case STRING -> {
+                return reader.readString();
+            }
+            case INT32 -> {
+                return reader.readInt32();
+            }
+            case INT64 -> {
+                long value = reader.readInt64();
+                return value == (int) value ? (Object) (int) value : (Object) value;
+            }
+            case DATE_TIME -> {
+                return reader.readDateTime();
+            }
+            case DOUBLE -> {
+                return reader.readDouble();
+            }
+            case BOOLEAN -> {
+                return reader.readBoolean();
+            }
+            case OBJECT_ID -> {
+                return reader.readObjectId().toHexString();
+            }
+            case DOCUMENT -> {
+                Map<String, Object> map = new LinkedHashMap<>();
+                reader.readStartDocument();
+                while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+                    String name = reader.readName();
+                    map.put(name, readValue(reader));
+                }
+                reader.readEndDocument();
+                return map;
+            }
+            case ARRAY -> {
+                List<Object> list = new ArrayList<>();
+                reader.readStartArray();
+                while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+                    list.add(readValue(reader));
+                }
+                reader.readEndArray();
+                return list;
+            }
+            default -> {
+                reader.skipValue();
+                return null;
+            }
+        }
+    }
+
+    static void writeString(BsonWriter writer, String name, String value) {
+        if (value == null) {
+            writer.writeNull(name);
+        } else {
+            writer.writeString(name, value);
+        }
+    }
+
+    static void writeLong(BsonWriter writer, String name, Long value) {
+        if (value == null) {
+            writer.writeNull(name);
+        } else {
+            writer.writeInt64(name, value);
+        }
+    }
+
+    static void writeInteger(BsonWriter writer, String name, Integer value) {
+        if (value == null) {
+            writer.writeNull(name);
+        } else {
+            writer.writeInt32(name, value);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    static void writeValue(BsonWriter writer, String name, Object value, EncoderContext encoderContext) {
+        writer.writeName(name);
+        if (value == null) {
+            writer.writeNull();
+            return;
+        }
+        Codec<Object> codec = (Codec<Object>) DEFAULT_REGISTRY.get(value.getClass());
+        encoderContext.encodeWithChildContext(codec, writer, value);
+    }
+}
@@ -0,0 +1,106 @@
+package com.fampay.scheduler.repository.codec;
+
+import com.fampay.scheduler.commons.mongo.codec.EntityCodec;
+import com.fampay.scheduler.models.entity.ApiConfigEntity;
+import com.fampay.scheduler.models.entity.JobEntity;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.springframework.stereotype.Component;
+
+import static com.fampay.scheduler.repository.codec.BsonFields.*;
+
+@Component
+public class JobEntityCodec implements EntityCodec<JobEntity> {
+
+    @Override
+    public JobEntity decode(BsonReader reader, DecoderContext decoderContext) {
+        JobEntity jobEntity = new JobEntity();
+        String key = null;
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            switch (reader.readName()) {
+                case ID -> key = readString(reader);
+                case "id" -> jobEntity.setId(readString(reader));
+                case "schedule" -> jobEntity.setSchedule(readString(reader));
+                case "apiConfig" -> jobEntity.setApiConfig(readApiConfig(reader));
+                case "type" -> jobEntity.setType(readString(reader));
+                case "nextScheduledTime" -> jobEntity.setNextScheduledTime(readLong(reader));
+                case "shardKey" -> jobEntity.setShardKey(readInteger(reader));
+                case "active" -> jobEntity.setActive(readBoolean(reader));
+                case "version" -> jobEntity.setVersion(readLong(reader));
+                case "createdAt" -> jobEntity.setCreatedAt(readLong(reader));
+                case "updatedAt" -> jobEntity.setUpdatedAt(readLong(reader));
+                default -> reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+        if (jobEntity.getId() == null) {
+            jobEntity.setId(key);
+        }
+        return jobEntity;
+    }
+
+    @Override
+    public void encode(BsonWriter writer, JobEntity value, EncoderContext encoderContext) {
+        writer.writeStartDocument();
+        writeString(writer, "id", value.getId());
+        writeString(writer, "schedule", value.getSchedule());
+        writer.writeName("apiConfig");
+        writeApiConfig(writer, value.getApiConfig(), encoderContext);
+        writeString(writer, "type", value.getType());
+        writeLong(writer, "nextScheduledTime", value.getNextScheduledTime());
+        writeInteger(writer, "shardKey", value.getShardKey());
+        writer.writeBoolean("active", value.isActive());
+        writeLong(writer, "version", value.getVersion());
+        writeLong(writer, "createdAt", value.getCreatedAt());
+        writeLong(writer, "updatedAt", value.getUpdatedAt());
+        writer.writeEndDocument();
+    }
+
+    @Override
+    public Class<JobEntity> getEncoderClass() {
+        return JobEntity.class;
+    }
+
+    private static ApiConfigEntity readApiConfig(BsonReader reader) {
+        if (reader.getCurrentBsonType() == BsonType.NULL) {
+            reader.readNull();
+            return null;
+        }
+        ApiConfigEntity apiConfig = new ApiConfigEntity();
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            switch (reader.readName()) {
+                case "url" -> apiConfig.setUrl(readString(reader));
+                case "httpMethod" -> apiConfig.setHttpMethod(readString(reader));
+                case "payload" -> apiConfig.setPayload(readValue(reader));
+                case "readTimeoutMs" -> apiConfig.setReadTimeoutMs(readLong(reader));
+                case "maxRetries" -> apiConfig.setMaxRetries(readInteger(reader));
+                case "payloadHash" -> apiConfig.setPayloadHash(readString(reader));
+                case "batchDelivery" -> apiConfig.setBatchDelivery(readBoolean(reader));
+                default -> reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+        return apiConfig;
+    }
+
+    private static void writeApiConfig(BsonWriter writer, ApiConfigEntity apiConfig, EncoderContext encoderContext) {
+        if (apiConfig == null) {
+            writer.writeNull();
+            return;
+        }
+        writer.writeStartDocument();
+        writeString(writer, "url", apiConfig.getUrl());
+        writeString(writer, "httpMethod", apiConfig.getHttpMethod());
+        writeValue(writer, "payload", apiConfig.getPayload(), encoderContext);
+        writeLong(writer, "readTimeoutMs", apiConfig.getReadTimeoutMs());
+        writeInteger(writer, "maxRetries", apiConfig.getMaxRetries());
+        writeString(writer, "payloadHash", apiConfig.getPayloadHash());
+        writer.writeBoolean("batchDelivery", apiConfig.isBatchDelivery());
+        writer.writeEndDocument();
+    }
+}
@@ -0,0 +1,58 @@
+package com.fampay.scheduler.repository.codec;
+
+import com.fampay.scheduler.commons.mongo.codec.EntityCodec;
+import com.fampay.scheduler.models.entity.JobExecutionAttemptEntity;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.springframework.stereotype.Component;
+
+import static com.fampay.scheduler.repository.codec.BsonFields.*;
+
+@Component
+public class JobExecutionAttemptEntityCodec implements EntityCodec<JobExecutionAttemptEntity> {
+
+    @Override
+    public JobExecutionAttemptEntity decode(BsonReader reader, DecoderContext decoderContext) {
+        JobExecutionAttemptEntity attemptEntity = new JobExecutionAttemptEntity();
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            switch (reader.readName()) {
+                case "runId" -> attemptEntity.setRunId(readString(reader));
+                case "executionId" -> attemptEntity.setExecutionId(readString(reader));
+                case "attempt" -> attemptEntity.setAttempt(readInteger(reader));
+                case "startTime" -> attemptEntity.setStartTime(readLong(reader));
+                case "endTime" -> attemptEntity.setEndTime(readLong(reader));
+                case "status" -> attemptEntity.setStatus(readString(reader));
+                case "response" -> attemptEntity.setResponse(readString(reader));
+                case "createdAt" -> attemptEntity.setCreatedAt(readLong(reader));
+                case "updatedAt" -> attemptEntity.setUpdatedAt(readLong(reader));
+                default -> reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+        return attemptEntity;
+    }
+
+    @Override
+    public void encode(BsonWriter writer, JobExecutionAttemptEntity value, EncoderContext encoderContext) {
+        writer.writeStartDocument();
+        writeString(writer, "runId", value.getRunId());
+        writeString(writer, "executionId", value.getExecutionId());
+        writeInteger(writer, "attempt", value.getAttempt());
+        writeLong(writer, "startTime", value.getStartTime());
+        writeLong(writer, "endTime", value.getEndTime());
+        writeString(writer, "status", value.getStatus());
+        writeString(writer, "response", value.getResponse());
+        writeLong(writer, "createdAt", value.getCreatedAt());
+        writeLong(writer, "updatedAt", value.getUpdatedAt());
+        writer.writeEndDocument();
+    }
+
+    @Override
+    public Class<JobExecutionAttemptEntity> getEncoderClass() {
+        return JobExecutionAttemptEntity.class;
+    }
+}
@@ -0,0 +1,94 @@
+package com.fampay.scheduler.repository.codec;
+
+import com.fampay.scheduler.commons.mongo.codec.EntityCodec;
+import com.fampay.scheduler.models.entity.JobExecutionEntity;
+import com.fampay.scheduler.models.entity.JobExecutionResponse;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.springframework.stereotype.Component;
+
+import static com.fampay.scheduler.repository.codec.BsonFields.*;
+
+@Component
+public class JobExecutionEntityCodec implements EntityCodec<JobExecutionEntity> {
+
+    @Override
+    public JobExecutionEntity decode(BsonReader reader, DecoderContext decoderContext) {
+        JobExecutionEntity jobExecutionEntity = new JobExecutionEntity();
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            switch (reader.readName()) {
+                case "executionId" -> jobExecutionEntity.setExecutionId(readString(reader));
+                case "scheduledRunAt" -> jobExecutionEntity.setScheduledRunAt(readLong(reader, 0L));
+                case "jobId" -> jobExecutionEntity.setJobId(readString(reader));
+                case "shardKey" -> jobExecutionEntity.setShardKey(readInteger(reader));
+                case "status" -> jobExecutionEntity.setStatus(readString(reader));
+                case "startTime" -> jobExecutionEntity.setStartTime(readLong(reader));
+                case "endTime" -> jobExecutionEntity.setEndTime(readLong(reader));
+                case "attempt" -> jobExecutionEntity.setAttempt(readInteger(reader));
+                case "claimedUntil" -> jobExecutionEntity.setClaimedUntil(readLong(reader));
+                case "createdAt" -> jobExecutionEntity.setCreatedAt(readLong(reader, 0L));
+                case "updatedAt" -> jobExecutionEntity.setUpdatedAt(readLong(reader, 0L));
+                case "enqueuedAt" -> jobExecutionEntity.setEnqueuedAt(readLong(reader));
+                case "executionResponse" -> jobExecutionEntity.setExecutionResponse(readExecutionResponse(reader));
+                default -> reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+        return jobExecutionEntity;
+    }
+
+    @Override
+    public void encode(BsonWriter writer, JobExecutionEntity value, EncoderContext encoderContext) {
+        writer.writeStartDocument();
+        writeString(writer, "executionId", value.getExecutionId());
+        writer.writeInt64("scheduledRunAt", value.getScheduledRunAt());
+        writeString(writer, "jobId", value.getJobId());
+        writeInteger(writer, "shardKey", value.getShardKey());
+        writeString(writer, "status", value.getStatus());
+        writeLong(writer, "startTime", value.getStartTime());
+        writeLong(writer, "endTime", value.getEndTime());
+        writeInteger(writer, "attempt", value.getAttempt());
+        writeLong(writer, "claimedUntil", value.getClaimedUntil());
+        writer.writeInt64("createdAt", value.getCreatedAt());
+        writer.writeInt64("updatedAt", value.getUpdatedAt());
+        writeLong(writer, "enqueuedAt", value.getEnqueuedAt());
+        writer.writeName("executionResponse");
+        JobExecutionResponse executionResponse = value.getExecutionResponse();
+        if (executionResponse == null) {
+            writer.writeNull();
+        } else {
+            writer.writeStartDocument();
+            writeString(writer, "status", executionResponse.getStatus());
+            writeString(writer, "response", executionResponse.getResponse());
+            writer.writeEndDocument();
+        }
+        writer.writeEndDocument();
+    }
+
+    @Override
+    public Class<JobExecutionEntity> getEncoderClass() {
+        return JobExecutionEntity.class;
+    }
+
+    private static JobExecutionResponse readExecutionResponse(BsonReader reader) {
+        if (reader.getCurrentBsonType() == BsonType.NULL) {
+            reader.readNull();
+            return null;
+        }
+        JobExecutionResponse executionResponse = new JobExecutionResponse();
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            switch (reader.readName()) {
+                case "status" -> executionResponse.setStatus(readString(reader));
+                case "response" -> executionResponse.setResponse(readString(reader));
+                default -> reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+        return executionResponse;
+    }
+}
@@ -0,0 +1,44 @@
+package com.fampay.scheduler.repository.codec;
+
+import com.fampay.scheduler.commons.mongo.codec.EntityCodec;
+import com.fampay.scheduler.models.entity.ProducerConfig;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.springframework.stereotype.Component;
+
+import static com.fampay.scheduler.repository.codec.BsonFields.*;
+
+@Component
+public class ProducerConfigCodec implements EntityCodec<ProducerConfig> {
+
+    @Override
+    public ProducerConfig decode(BsonReader reader, DecoderContext decoderContext) {
+        ProducerConfig producerConfig = new ProducerConfig();
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            switch (reader.readName()) {
+                case "configId" -> producerConfig.setConfigId(readString(reader));
+                case "lastProducedTimestamp" -> producerConfig.setLastProducedTimestamp(readLong(reader));
+                default -> reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+        return producerConfig;
+    }
+
+    @Override
+    public void encode(BsonWriter writer, ProducerConfig value, EncoderContext encoderContext) {
+        writer.writeStartDocument();
+        writeString(writer, "configId", value.getConfigId());
+        writeLong(writer, "lastProducedTimestamp", value.getLastProducedTimestamp());
+        writer.writeEndDocument();
+    }
+
+    @Override
+    public Class<ProducerConfig> getEncoderClass() {
+        return ProducerConfig.class;
+    }
+}
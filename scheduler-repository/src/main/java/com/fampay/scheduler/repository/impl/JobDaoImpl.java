@@ -1,22 +1,33 @@
 package com.fampay.scheduler.repository.impl;
 
+import com.fampay.scheduler.commons.mongo.BulkOperation;
 import com.fampay.scheduler.commons.mongo.dto.PagedResult;
 import com.fampay.scheduler.commons.mongo.helper.IMongoDbHelper;
+import com.fampay.scheduler.commons.mongo.helper.impl.BulkOperationImpl;
+import com.fampay.scheduler.models.dto.ShardRange;
+import com.fampay.scheduler.models.entity.ApiConfigEntity;
 import com.fampay.scheduler.models.entity.JobEntity;
 import com.fampay.scheduler.models.entity.PagedJobs;
 import com.fampay.scheduler.repository.JobDao;
 import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
 import lombok.RequiredArgsConstructor;
 import org.apache.commons.lang3.StringUtils;
+import org.bson.Document;
 import org.bson.conversions.Bson;
 import org.bson.types.ObjectId;
 import org.joda.time.DateTimeUtils;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 
 import static com.mongodb.client.model.Filters.*;
 import static com.mongodb.client.model.Sorts.ascending;
@@ -31,6 +42,13 @@ public class JobDaoImpl implements JobDao {
     private static final String CORRELATION_ID_FIELD = "correlationId";
     private static final String NEXT_SCHEDULED_TIME_FIELD = "nextScheduledTime";
     private static final String ID_FIELD = "id";
+    private static final String SHARD_KEY_FIELD = "shardKey";
+    private static final String UPDATED_AT_FIELD = "updatedAt";
+    private static final String SCHEDULE_FIELD = "schedule";
+    private static final String TYPE_FIELD = "type";
+    private static final String API_CONFIG_FIELD = "apiConfig";
+    private static final String VERSION_FIELD = "version";
+    private static final Bson PRODUCER_PROJECTION = Projections.include("_id", SCHEDULE_FIELD, NEXT_SCHEDULED_TIME_FIELD, TYPE_FIELD, API_CONFIG_FIELD, VERSION_FIELD);
 
 
     private final IMongoDbHelper mongoDbHelper;
@@ -40,6 +58,12 @@ public class JobDaoImpl implements JobDao {
         if (Objects.isNull(jobEntity.getId())) {
             jobEntity.setId((new ObjectId()).toHexString());
         }
+        if (Objects.isNull(jobEntity.getShardKey())) {
+            jobEntity.setShardKey(ShardRange.bucketOf(jobEntity.getId()));
+        }
+        if (Objects.isNull(jobEntity.getVersion())) {
+            jobEntity.setVersion(1L);
+        }
         mongoDbHelper.save(COLLECTION_NAME, jobEntity.getId(), jobEntity);
     }
 
@@ -48,6 +72,11 @@ public class JobDaoImpl implements JobDao {
         return mongoDbHelper.findOptionalById(COLLECTION_NAME, jobId, JobEntity.class);
     }
 
+    @Override
+    public List<JobEntity> getJobsByIds(Collection<String> jobIds) {
+        return mongoDbHelper.findAll(COLLECTION_NAME, Filters.in("_id", jobIds), JobEntity.class);
+    }
+
     @Override
     public Optional<JobEntity> getJobByCorrelationId(String correlationId) {
         var searchParams = Map.<String, Object>of(CORRELATION_ID_FIELD, correlationId);
@@ -73,15 +102,45 @@ public class JobDaoImpl implements JobDao {
 
     @Override
     public void updateNextRunForJob(String id, Long nextTimestamp) {
-        mongoDbHelper.updateById(COLLECTION_NAME,id,Map.of(NEXT_SCHEDULED_TIME_FIELD,nextTimestamp,"updatedAt", DateTimeUtils.currentTimeMillis()));
+        mongoDbHelper.updateById(COLLECTION_NAME,id,Map.of(NEXT_SCHEDULED_TIME_FIELD,nextTimestamp,UPDATED_AT_FIELD, DateTimeUtils.currentTimeMillis(),
+                SHARD_KEY_FIELD, ShardRange.bucketOf(id)));
+    }
+
+    @Override
+    public Set<String> updateNextRunForJobs(Map<String, Long> nextTimestampByJobId) {
+        long updatedAt = DateTimeUtils.currentTimeMillis();
+        List<String> jobIds = new ArrayList<>(nextTimestampByJobId.size());
+        List<BulkOperation<Map<String,Object>>> bulkOperations = new ArrayList<>(nextTimestampByJobId.size());
+        nextTimestampByJobId.forEach((jobId, nextTimestamp) -> {
+            jobIds.add(jobId);
+            bulkOperations.add(new BulkOperationImpl(
+                    BulkOperation.Type.UPDATE,
+                    Map.of("_id", jobId),
+                    Map.of("$set", Map.of(NEXT_SCHEDULED_TIME_FIELD, nextTimestamp, UPDATED_AT_FIELD, updatedAt,
+                            SHARD_KEY_FIELD, ShardRange.bucketOf(jobId))),
+                    false));
+        });
+        Set<String> failedJobIds = new HashSet<>();
+        for (Integer failedIndex : mongoDbHelper.executeBulkWriteWithFailures(COLLECTION_NAME, bulkOperations)) {
+            failedJobIds.add(jobIds.get(failedIndex));
+        }
+        return failedJobIds;
     }
 
     @Override
     public PagedJobs getJobsPaginated(long startTimestamp, long endTimestamp, int pageSize, Long lastNextScheduledTime, String lastId) {
+        return getJobsPaginated(startTimestamp, endTimestamp, pageSize, lastNextScheduledTime, lastId, null);
+    }
+
+    @Override
+    public PagedJobs getJobsPaginated(long startTimestamp, long endTimestamp, int pageSize, Long lastNextScheduledTime, String lastId, ShardRange shardRange) {
         var baseFilter = and(
                 gte(NEXT_SCHEDULED_TIME_FIELD, startTimestamp),
                 lte(NEXT_SCHEDULED_TIME_FIELD, endTimestamp)
         );
+        if (shardRange != null) {
+            baseFilter = and(baseFilter, shardFilter(shardRange));
+        }
 
         var finalFilter = baseFilter;
         if (lastNextScheduledTime != null && StringUtils.isNotEmpty(lastId)) {
@@ -101,5 +160,52 @@ public class JobDaoImpl implements JobDao {
                 .nextScheduledTimestamp((Long) jobEntityPagedResult.getCursorMap().get(NEXT_SCHEDULED_TIME_FIELD)).build();
     }
 
+    @Override
+    public long streamJobsScheduledBetween(long startTimestamp, long endTimestamp, ShardRange shardRange, int batchSize, Consumer<JobEntity> consumer) {
+        Bson filter = and(gte(NEXT_SCHEDULED_TIME_FIELD, startTimestamp), lte(NEXT_SCHEDULED_TIME_FIELD, endTimestamp));
+        if (shardRange != null) {
+            filter = and(filter, shardFilter(shardRange));
+        }
+        return mongoDbHelper.stream(COLLECTION_NAME, filter, PRODUCER_PROJECTION, batchSize, document -> consumer.accept(toProducedJob(document)));
+    }
+
+    /**
+     * Maps the projected fields directly, without the JSON round trip of the generic helpers.
+     */
+    private static JobEntity toProducedJob(Document document) {
+        Document apiConfig = document.get(API_CONFIG_FIELD, Document.class);
+        Number nextScheduledTime = document.get(NEXT_SCHEDULED_TIME_FIELD, Number.class);
+        Number version = document.get(VERSION_FIELD, Number.class);
+        return JobEntity.builder()
+                .id(document.getString("_id"))
+                .schedule(document.getString(SCHEDULE_FIELD))
+                .type(document.getString(TYPE_FIELD))
+                .nextScheduledTime(nextScheduledTime != null ? nextScheduledTime.longValue() : null)
+                .version(version != null ? version.longValue() : null)
+                .apiConfig(apiConfig == null ? null : ApiConfigEntity.builder()
+                        .url(apiConfig.getString("url"))
+                        .httpMethod(apiConfig.getString("httpMethod"))
+                        .payload(apiConfig.get("payload"))
+                        .readTimeoutMs(apiConfig.get("readTimeoutMs") instanceof Number readTimeoutMs ? readTimeoutMs.longValue() : null)
+                        .maxRetries(apiConfig.get("maxRetries") instanceof Number maxRetries ? maxRetries.intValue() : null)
+                        .payloadHash(apiConfig.getString("payloadHash"))
+                        .batchDelivery(Boolean.TRUE.equals(apiConfig.getBoolean("batchDelivery")))
+                        .build())
+                .build();
+    }
+
+    /**
+     * Jobs created before sharding get their bucket with the first next run update, after which they move off the
+     * shard owning unassigned jobs.
+     */
+    private Bson shardFilter(ShardRange shardRange) {
+        Bson bucketFilter = and(gte(SHARD_KEY_FIELD, shardRange.getFromBucket()), lt(SHARD_KEY_FIELD, shardRange.getToBucket()));
+        if (shardRange.ownsUnassignedJobs()) {
+            // eq null matches both a missing and a null shardKey
+            return or(bucketFilter, eq(SHARD_KEY_FIELD, null));
+        }
+        return bucketFilter;
+    }
+
 
 }
@@ -1,6 +1,8 @@
 package com.fampay.scheduler.repository.impl;
 
+import com.fampay.scheduler.commons.mongo.BulkOperation;
 import com.fampay.scheduler.commons.mongo.helper.IMongoDbHelper;
+import com.fampay.scheduler.commons.mongo.helper.impl.BulkOperationImpl;
 import com.fampay.scheduler.models.entity.JobExecutionAttemptEntity;
 import com.fampay.scheduler.repository.JobExecutionAttemptDao;
 import com.fampay.scheduler.repository.dto.UpdateJobExecutionAttemptDto;
@@ -9,8 +11,10 @@ import org.joda.time.DateTimeUtils;
 import org.springframework.stereotype.Component;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 @Component
 @RequiredArgsConstructor
@@ -27,6 +31,26 @@ public class JobExecutionAttemptDaoImpl implements JobExecutionAttemptDao {
         mongoDbHelper.save(COLLECTION_NAME,jobExecutionAttemptEntity.getRunId(),jobExecutionAttemptEntity);
     }
 
+    @Override
+    public Set<String> createJobExecutionAttemptsInBulk(List<JobExecutionAttemptEntity> jobExecutionAttemptEntities) {
+        long createdAt = DateTimeUtils.currentTimeMillis();
+        List<BulkOperation<Map<String,Object>>> bulkOperations = new ArrayList<>(jobExecutionAttemptEntities.size());
+        for (JobExecutionAttemptEntity jobExecutionAttemptEntity : jobExecutionAttemptEntities) {
+            jobExecutionAttemptEntity.setCreatedAt(createdAt);
+            jobExecutionAttemptEntity.setUpdatedAt(createdAt);
+            bulkOperations.add(new BulkOperationImpl(
+                    BulkOperation.Type.UPSERT,
+                    Map.of("_id", jobExecutionAttemptEntity.getRunId()),
+                    Map.of("$setOnInsert", mongoDbHelper.toDocument(jobExecutionAttemptEntity)),
+                    true));
+        }
+        Set<String> failedRunIds = new HashSet<>();
+        for (Integer failedIndex : mongoDbHelper.executeBulkWriteWithFailures(COLLECTION_NAME, bulkOperations)) {
+            failedRunIds.add(jobExecutionAttemptEntities.get(failedIndex).getRunId());
+        }
+        return failedRunIds;
+    }
+
     @Override
     public void updateJobExecutionAttempt(String runId,UpdateJobExecutionAttemptDto updateJobExecutionAttemptDto) {
         updateJobExecutionAttemptDto.setUpdatedAt(DateTimeUtils.currentTimeMillis());
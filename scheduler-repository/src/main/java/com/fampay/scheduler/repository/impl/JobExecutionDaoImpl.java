@@ -2,32 +2,66 @@ package com.fampay.scheduler.repository.impl;
 
 import com.fampay.scheduler.commons.helper.utils.CommonSerializationUtil;
 import com.fampay.scheduler.commons.mongo.BulkOperation;
+import com.fampay.scheduler.commons.mongo.dto.PagedResult;
 import com.fampay.scheduler.commons.mongo.helper.IMongoDbHelper;
 import com.fampay.scheduler.commons.mongo.helper.impl.BulkOperationImpl;
+import com.fampay.scheduler.models.dto.JobExecutionStatus;
+import com.fampay.scheduler.models.dto.JobGuarantee;
+import com.fampay.scheduler.models.dto.ShardRange;
 import com.fampay.scheduler.models.entity.JobExecutionEntity;
+import com.fampay.scheduler.models.entity.PagedJobExecutions;
 import com.fampay.scheduler.repository.JobExecutionDao;
 import com.fampay.scheduler.repository.dto.UpdateJobExecutionDto;
 import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
 import com.mongodb.client.model.Sorts;
+import com.mongodb.client.model.Updates;
 import lombok.RequiredArgsConstructor;
+import org.apache.commons.lang3.StringUtils;
+import org.bson.BsonType;
 import org.bson.conversions.Bson;
 import org.joda.time.DateTimeUtils;
 import org.springframework.stereotype.Component;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @Component
 @RequiredArgsConstructor
 public class JobExecutionDaoImpl implements JobExecutionDao {
 
     private static final String COLLECTION_NAME = "job_executions";
+    private static final String ID_FIELD = "_id";
+    private static final String STATUS_FIELD = "status";
+    private static final String SCHEDULED_RUN_AT_FIELD = "scheduledRunAt";
+    private static final String SHARD_KEY_FIELD = "shardKey";
+    private static final String ENQUEUED_AT_FIELD = "enqueuedAt";
+    private static final String ATTEMPT_FIELD = "attempt";
+    private static final String CLAIMED_UNTIL_FIELD = "claimedUntil";
     private final IMongoDbHelper mongoDbHelper;
 
     @Override
     public void createMultipleJobExecutions(List<JobExecutionEntity> jobExecutionEntities) {
+        mongoDbHelper.executeBulkWrite(COLLECTION_NAME,toInsertIfAbsentOperations(jobExecutionEntities));
+    }
+
+    @Override
+    public Set<String> createJobExecutionsInBulk(List<JobExecutionEntity> jobExecutionEntities) {
+        Set<Integer> failedIndexes = mongoDbHelper.executeBulkWriteWithFailures(COLLECTION_NAME,toInsertIfAbsentOperations(jobExecutionEntities));
+        Set<String> failedExecutionIds = new HashSet<>();
+        for (Integer failedIndex : failedIndexes) {
+            failedExecutionIds.add(jobExecutionEntities.get(failedIndex).getExecutionId());
+        }
+        return failedExecutionIds;
+    }
+
+    private List<BulkOperation<Map<String,Object>>> toInsertIfAbsentOperations(List<JobExecutionEntity> jobExecutionEntities) {
         long createdAt = DateTimeUtils.currentTimeMillis();
         List<BulkOperation<Map<String,Object>>> bulkOperations = new ArrayList<>();
 
@@ -38,10 +72,10 @@ public class JobExecutionDaoImpl implements JobExecutionDao {
             bulkOperations.add(new BulkOperationImpl(
                     BulkOperation.Type.UPSERT,
                     Map.of("_id", jobExecutionEntity.getExecutionId()),
-                    Map.of("$setOnInsert", CommonSerializationUtil.convertObjectToMap(jobExecutionEntity)),
+                    Map.of("$setOnInsert", mongoDbHelper.toDocument(jobExecutionEntity)),
                     true));
         }
-        mongoDbHelper.executeBulkWrite(COLLECTION_NAME,bulkOperations);
+        return bulkOperations;
     }
 
 
@@ -51,6 +85,65 @@ public class JobExecutionDaoImpl implements JobExecutionDao {
         mongoDbHelper.updateById(COLLECTION_NAME,executionId,updateJobExecutionDto);
     }
 
+    @Override
+    public Set<String> updateJobExecutionStatusesInBulk(Map<String, UpdateJobExecutionDto> updatesByExecutionId) {
+        List<String> executionIds = new ArrayList<>(updatesByExecutionId.size());
+        List<BulkOperation<Map<String,Object>>> bulkOperations = new ArrayList<>(updatesByExecutionId.size());
+        updatesByExecutionId.forEach((executionId, updateJobExecutionDto) -> {
+            executionIds.add(executionId);
+            bulkOperations.add(new BulkOperationImpl(
+                    BulkOperation.Type.UPDATE,
+                    Map.of("_id", executionId),
+                    Map.of("$set", toSetFields(updateJobExecutionDto)),
+                    false));
+        });
+        Set<String> failedExecutionIds = new HashSet<>();
+        for (Integer failedIndex : mongoDbHelper.executeBulkWriteWithFailures(COLLECTION_NAME, bulkOperations)) {
+            failedExecutionIds.add(executionIds.get(failedIndex));
+        }
+        return failedExecutionIds;
+    }
+
+    /**
+     * Same fields updateById sets for the dto, without the round trip through a json map
+     */
+    private static Map<String, Object> toSetFields(UpdateJobExecutionDto updateJobExecutionDto) {
+        Map<String, Object> fields = new HashMap<>();
+        if (updateJobExecutionDto.getStatus() != null) {
+            fields.put("status", updateJobExecutionDto.getStatus());
+        }
+        if (updateJobExecutionDto.getExecutionResponse() != null) {
+            Map<String, Object> executionResponse = new HashMap<>();
+            executionResponse.put("status", updateJobExecutionDto.getExecutionResponse().getStatus());
+            executionResponse.put("response", updateJobExecutionDto.getExecutionResponse().getResponse());
+            fields.put("executionResponse", executionResponse);
+        }
+        if (updateJobExecutionDto.getStartTime() != null) {
+            fields.put("startTime", updateJobExecutionDto.getStartTime());
+        }
+        if (updateJobExecutionDto.getEndTime() != null) {
+            fields.put("endTime", updateJobExecutionDto.getEndTime());
+        }
+        if (updateJobExecutionDto.getUpdatedAt() != null) {
+            fields.put("updatedAt", updateJobExecutionDto.getUpdatedAt());
+        }
+        return fields;
+    }
+
+    @Override
+    public boolean claimExecution(String executionId, JobGuarantee jobGuarantee, int attempt, long startTime, long leaseMs) {
+        Bson claimable = Filters.eq(STATUS_FIELD, JobExecutionStatus.SCHEDULED.name());
+        if (jobGuarantee.isReclaimable()) {
+            claimable = Filters.or(claimable, Filters.and(Filters.eq(STATUS_FIELD, JobExecutionStatus.STARTED.name()),
+                    Filters.or(Filters.lt(ATTEMPT_FIELD, attempt), Filters.lt(CLAIMED_UNTIL_FIELD, startTime))));
+        }
+        Bson filter = Filters.and(Filters.eq(ID_FIELD, executionId), claimable);
+        Bson update = Updates.combine(Updates.set(STATUS_FIELD, JobExecutionStatus.STARTED.name()),
+                Updates.set("startTime", startTime), Updates.set(ATTEMPT_FIELD, attempt), Updates.set(CLAIMED_UNTIL_FIELD, startTime + leaseMs),
+                Updates.set("updatedAt", DateTimeUtils.currentTimeMillis()));
+        return mongoDbHelper.findOneAndUpdate(COLLECTION_NAME, filter, update, Projections.include(ID_FIELD)).isPresent();
+    }
+
     @Override
     public Optional<JobExecutionEntity> findByExecutionId(String executionId) {
          return mongoDbHelper.findOptionalById(COLLECTION_NAME,executionId,JobExecutionEntity.class);
@@ -69,4 +162,37 @@ public class JobExecutionDaoImpl implements JobExecutionDao {
                 result.add(CommonSerializationUtil.readObject(CommonSerializationUtil.writeString(document),JobExecutionEntity.class)));
         return result;
     }
+
+    /**
+     * Only an explicit null enqueuedAt matches. Executions written before enqueuedAt existed have none and were
+     * enqueued when they were produced.
+     */
+    @Override
+    public PagedJobExecutions getUnqueuedExecutionsPaginated(long dueBefore, int pageSize, Long lastScheduledRunAt, String lastExecutionId, ShardRange shardRange) {
+        Bson filter = Filters.and(Filters.eq(STATUS_FIELD, JobExecutionStatus.SCHEDULED.name()),
+                Filters.type(ENQUEUED_AT_FIELD, BsonType.NULL),
+                Filters.lte(SCHEDULED_RUN_AT_FIELD, dueBefore));
+        if (shardRange != null) {
+            filter = Filters.and(filter, Filters.gte(SHARD_KEY_FIELD, shardRange.getFromBucket()), Filters.lt(SHARD_KEY_FIELD, shardRange.getToBucket()));
+        }
+        if (lastScheduledRunAt != null && StringUtils.isNotEmpty(lastExecutionId)) {
+            filter = Filters.and(filter, Filters.or(
+                    Filters.gt(SCHEDULED_RUN_AT_FIELD, lastScheduledRunAt),
+                    Filters.and(Filters.eq(SCHEDULED_RUN_AT_FIELD, lastScheduledRunAt), Filters.gt(ID_FIELD, lastExecutionId))));
+        }
+        List<String> cursorFields = List.of(SCHEDULED_RUN_AT_FIELD, ID_FIELD);
+        PagedResult<JobExecutionEntity> pagedResult = mongoDbHelper.getDocumentsPaginated(COLLECTION_NAME, filter, Sorts.ascending(cursorFields), pageSize, cursorFields, JobExecutionEntity.class);
+        return PagedJobExecutions.builder().jobExecutionEntities(pagedResult.getResults()).last(pagedResult.isLastPage())
+                .nextScheduledRunAt((Long) pagedResult.getCursorMap().get(SCHEDULED_RUN_AT_FIELD))
+                .nextExecutionId((String) pagedResult.getCursorMap().get(ID_FIELD)).build();
+    }
+
+    @Override
+    public void setEnqueuedAt(Collection<String> executionIds, Long enqueuedAt) {
+        if (executionIds.isEmpty()) {
+            return;
+        }
+        mongoDbHelper.bulkUpdate(COLLECTION_NAME, Filters.in(ID_FIELD, executionIds),
+                Updates.combine(Updates.set(ENQUEUED_AT_FIELD, enqueuedAt), Updates.set("updatedAt", DateTimeUtils.currentTimeMillis())));
+    }
 }
@@ -13,6 +13,7 @@ import java.util.Map;
 public class ProducerConfigDaoImpl implements ProducerConfigDao {
 
     private static final String COLLECTION_NAME = "producer_config";
+    private static final String CONFIG_ID_FIELD = "configId";
     private static final String LAST_PRODUCED_TIMESTAMP_FIELD = "lastProducedTimestamp";
 
     private final IMongoDbHelper mongoDbHelper;
@@ -24,6 +25,7 @@ public class ProducerConfigDaoImpl implements ProducerConfigDao {
 
     @Override
     public void updateLastProducedTimestamp(String configId, long lastProducedTimestamp) {
-        mongoDbHelper.updateById(COLLECTION_NAME,configId, Map.of(LAST_PRODUCED_TIMESTAMP_FIELD,lastProducedTimestamp));
+        // upsert as shard checkpoints are created lazily on their first cycle
+        mongoDbHelper.upsertById(COLLECTION_NAME,configId, Map.of(CONFIG_ID_FIELD,configId,LAST_PRODUCED_TIMESTAMP_FIELD,lastProducedTimestamp));
     }
 }